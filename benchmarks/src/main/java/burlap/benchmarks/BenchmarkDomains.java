@@ -0,0 +1,107 @@
+package burlap.benchmarks;
+
+import burlap.domain.singleagent.blockdude.BlockDude;
+import burlap.domain.singleagent.blockdude.BlockDudeLevelConstructor;
+import burlap.domain.singleagent.blockdude.BlockDudeTF;
+import burlap.domain.singleagent.blocksworld.BlocksWorld;
+import burlap.domain.singleagent.gridworld.GridWorldDomain;
+import burlap.domain.singleagent.gridworld.GridWorldTerminalFunction;
+import burlap.domain.singleagent.gridworld.state.GridAgent;
+import burlap.domain.singleagent.gridworld.state.GridLocation;
+import burlap.domain.singleagent.gridworld.state.GridWorldState;
+import burlap.domain.singleagent.mountaincar.MountainCar;
+import burlap.mdp.auxiliary.stateconditiontest.StateConditionTest;
+import burlap.mdp.auxiliary.stateconditiontest.TFGoalCondition;
+import burlap.mdp.core.oo.propositional.PropositionalFunction;
+import burlap.mdp.core.oo.state.OOState;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.oo.OOSADomain;
+
+/**
+ * The planning and learning problems used by the benchmarks. Each problem is a domain, an initial state, and a goal
+ * condition, generated by name so that benchmarks can be parameterized over problems.
+ */
+public class BenchmarkDomains {
+
+	/**
+	 * A domain, initial state, and goal condition.
+	 */
+	public static class Problem{
+
+		public SADomain domain;
+		public State initialState;
+		public StateConditionTest goal;
+
+		public Problem(SADomain domain, State initialState, StateConditionTest goal) {
+			this.domain = domain;
+			this.initialState = initialState;
+			this.goal = goal;
+		}
+	}
+
+
+	/**
+	 * Generates a problem by name. The names are:
+	 * <ul>
+	 *     <li>gridworld: the 11x11 four rooms grid world with the goal in the opposite corner.</li>
+	 *     <li>gridworld&lt;n&gt;: an empty nxn grid world with the goal in the opposite corner, e.g., gridworld50.</li>
+	 *     <li>mountaincar: the classic mountain car problem starting in the valley.</li>
+	 *     <li>blockdude: block dude level 3.</li>
+	 *     <li>blocksworld&lt;n&gt;: n blocks that start on the table and must be stacked into a single ordered tower, e.g., blocksworld5.</li>
+	 * </ul>
+	 * @param name the name of the problem
+	 * @param deterministic whether the grid world movement is deterministic; if false, it succeeds with probability 0.8
+	 * @return the {@link Problem}
+	 */
+	public static Problem problem(String name, boolean deterministic){
+
+		if(name.startsWith("gridworld")){
+			int width = name.equals("gridworld") ? 11 : Integer.parseInt(name.substring("gridworld".length()));
+			GridWorldDomain gwd = new GridWorldDomain(width, width);
+			if(width == 11){
+				gwd.setMapToFourRooms();
+			}
+			if(deterministic){
+				gwd.setDeterministicTransitionDynamics();
+			}
+			else{
+				gwd.setProbSucceedTransitionDynamics(0.8);
+			}
+			GridWorldTerminalFunction tf = new GridWorldTerminalFunction(width-1, width-1);
+			gwd.setTf(tf);
+			State s = new GridWorldState(new GridAgent(0, 0), new GridLocation(width-1, width-1, "loc0"));
+			return new Problem(gwd.generateDomain(), s, new TFGoalCondition(tf));
+		}
+		else if(name.equals("mountaincar")){
+			MountainCar mcGen = new MountainCar();
+			SADomain domain = mcGen.generateDomain();
+			return new Problem(domain, mcGen.valleyState(), new TFGoalCondition(mcGen.getTf()));
+		}
+		else if(name.equals("blockdude")){
+			BlockDude bd = new BlockDude();
+			SADomain domain = bd.generateDomain();
+			return new Problem(domain, BlockDudeLevelConstructor.getLevel3(domain), new TFGoalCondition(new BlockDudeTF()));
+		}
+		else if(name.startsWith("blocksworld")){
+			final int n = Integer.parseInt(name.substring("blocksworld".length()));
+			OOSADomain domain = new BlocksWorld().generateDomain();
+			final PropositionalFunction on = domain.propFunction(BlocksWorld.PF_ON_BLOCK);
+			StateConditionTest tower = new StateConditionTest() {
+				@Override
+				public boolean satisfies(State s) {
+					for(int i = 0; i < n-1; i++){
+						if(!on.isTrue((OOState)s, "block" + i, "block" + (i+1))){
+							return false;
+						}
+					}
+					return true;
+				}
+			};
+			return new Problem(domain, BlocksWorld.getNewState(n), tower);
+		}
+
+		throw new RuntimeException("Unknown benchmark problem: " + name);
+	}
+
+}
@@ -0,0 +1,65 @@
+package burlap.benchmarks;
+
+import burlap.behavior.singleagent.planning.stochastic.DynamicProgramming;
+import burlap.behavior.singleagent.planning.stochastic.valueiteration.ValueIteration;
+import burlap.mdp.core.state.State;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Bellman backup throughput of {@link ValueIteration} on stochastic grid worlds of increasing size, with
+ * the hashed and compiled transition model representations and with sequential and parallel sweeps. Reachability analysis
+ * is performed once in the setup; each invocation runs a fixed number of sweeps over all reachable states.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicProgrammingBenchmark {
+
+	@Param({"gridworld", "gridworld50", "gridworld100"})
+	public String problem;
+
+	@Param({"false", "true"})
+	public boolean compiled;
+
+	@Param({"1", "4"})
+	public int parallelism;
+
+	@Param({"GAUSS_SEIDEL", "JACOBI"})
+	public DynamicProgramming.SweepMode sweepMode;
+
+	protected static final int sweeps = 5;
+
+	protected ValueIteration vi;
+	protected State initialState;
+	protected int numStates;
+
+
+	@Setup(Level.Trial)
+	public void setup(){
+		BenchmarkDomains.Problem p = BenchmarkDomains.problem(problem, false);
+		//a negative max delta guarantees that exactly the maximum number of sweeps is run
+		this.vi = new ValueIteration(p.domain, 0.99, new SimpleHashableStateFactory(), -1., sweeps);
+		this.vi.toggleDebugPrinting(false);
+		this.vi.toggleCompiledModel(compiled);
+		this.vi.setSweepParallelism(parallelism);
+		this.vi.setSweepMode(sweepMode);
+		this.initialState = p.initialState;
+		this.vi.performReachabilityFrom(p.initialState);
+		this.numStates = this.vi.getAllStates().size();
+	}
+
+
+	@Benchmark
+	public double valueIteration(PlanningCounters counters){
+		this.vi.runVI();
+		counters.backups += (long)sweeps * this.numStates;
+		return this.vi.value(this.initialState);
+	}
+
+}
@@ -0,0 +1,62 @@
+package burlap.benchmarks;
+
+import burlap.behavior.stochasticgames.GameEpisode;
+import burlap.behavior.stochasticgames.agents.RandomSGAgent;
+import burlap.debugtools.DPrint;
+import burlap.domain.stochasticgames.gridgame.GridGame;
+import burlap.mdp.core.state.State;
+import burlap.mdp.stochasticgames.agent.SGAgentType;
+import burlap.mdp.stochasticgames.oo.OOSGDomain;
+import burlap.mdp.stochasticgames.world.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of a stochastic games {@link World}, in joint steps per second, with uniformly random agents
+ * playing grid games of increasing size, which exercises the joint action model, the joint reward function, and the
+ * world observer bookkeeping.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridGameBenchmark {
+
+	@Param({"simple", "turkey"})
+	public String game;
+
+	protected static final int maxStages = 100;
+
+	protected World world;
+
+
+	@Setup(Level.Trial)
+	public void setup(){
+
+		GridGame gg = new GridGame();
+		OOSGDomain domain = gg.generateDomain();
+		State s = game.equals("turkey") ? GridGame.getTurkeyInitialState() : GridGame.getSimpleGameInitialState();
+
+		this.world = new World(domain, new GridGame.GGJointRewardFunction(domain), new GridGame.GGTerminalFunction(domain), s);
+		DPrint.toggleCode(this.world.getDebugId(), false);
+		SGAgentType type = GridGame.getStandardGridGameAgentType(domain);
+		for(int i = 0; i < 2; i++){
+			RandomSGAgent agent = new RandomSGAgent();
+			agent.init(domain, "agent" + i, type);
+			this.world.join(agent);
+		}
+
+	}
+
+
+	@Benchmark
+	public GameEpisode randomAgentGame(PlanningCounters counters){
+		GameEpisode ga = this.world.runGame(maxStages);
+		counters.steps += ga.numTimeSteps()-1;
+		return ga;
+	}
+
+}
@@ -0,0 +1,116 @@
+package burlap.benchmarks;
+
+import burlap.domain.singleagent.gridworld.state.GridAgent;
+import burlap.domain.singleagent.gridworld.state.GridLocation;
+import burlap.domain.singleagent.gridworld.state.GridWorldState;
+import burlap.mdp.core.state.State;
+import burlap.statehashing.HashableState;
+import burlap.statehashing.HashableStateFactory;
+import burlap.statehashing.StateRegistry;
+import burlap.statehashing.simple.CachedHashableStateFactory;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link SimpleHashableStateFactory}, the {@link CachedHashableStateFactory}, and a {@link StateRegistry}
+ * over a {@link SimpleHashableStateFactory} on grid world states with a varying number of location objects. The benchmarks measure hashing fresh states, repeated hash code calls
+ * on already hashed states (as happens on every hash table probe), and table lookups.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashingBenchmark {
+
+	@Param({"simple", "cached", "registry"})
+	public String factory;
+
+	@Param({"1", "10", "50"})
+	public int numLocations;
+
+	@Param({"true", "false"})
+	public boolean identifierIndependent;
+
+	protected static final int numStates = 4096;
+	protected static final int width = 100;
+
+	protected HashableStateFactory hashingFactory;
+	protected State [] states;
+	protected HashableState [] hashedStates;
+	protected Map<HashableState, Double> table;
+
+
+	@Setup(Level.Trial)
+	public void setup(){
+
+		if(factory.equals("simple")){
+			this.hashingFactory = new SimpleHashableStateFactory(identifierIndependent);
+		}
+		else if(factory.equals("cached")){
+			this.hashingFactory = new CachedHashableStateFactory(identifierIndependent);
+		}
+		else{
+			this.hashingFactory = new StateRegistry(new SimpleHashableStateFactory(identifierIndependent));
+		}
+
+		Random rand = new Random(0);
+		this.states = new State[numStates];
+		this.hashedStates = new HashableState[numStates];
+		this.table = new HashMap<HashableState, Double>();
+		for(int i = 0; i < numStates; i++){
+			GridWorldState s = new GridWorldState(new GridAgent(rand.nextInt(width), rand.nextInt(width)));
+			for(int j = 0; j < numLocations; j++){
+				s.locations.add(new GridLocation(rand.nextInt(width), rand.nextInt(width), "loc" + j));
+			}
+			this.states[i] = s;
+			this.hashedStates[i] = this.hashingFactory.hashState(s);
+			this.table.put(this.hashedStates[i], (double)i);
+		}
+
+	}
+
+
+	/**
+	 * Wraps each state and computes its hash code once.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(numStates)
+	public void hashFreshStates(Blackhole bh){
+		for(State s : this.states){
+			bh.consume(this.hashingFactory.hashState(s).hashCode());
+		}
+	}
+
+
+	/**
+	 * Calls hashCode on states that have already been wrapped.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(numStates)
+	public void repeatedHashCode(Blackhole bh){
+		for(HashableState sh : this.hashedStates){
+			bh.consume(sh.hashCode());
+		}
+	}
+
+
+	/**
+	 * Wraps each state and looks it up in a table keyed by separately wrapped, equal states.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(numStates)
+	public void tableLookup(Blackhole bh){
+		for(State s : this.states){
+			bh.consume(this.table.get(this.hashingFactory.hashState(s)));
+		}
+	}
+
+}
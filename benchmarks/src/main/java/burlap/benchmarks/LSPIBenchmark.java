@@ -0,0 +1,68 @@
+package burlap.benchmarks;
+
+import burlap.behavior.functionapproximation.dense.DenseCrossProductFeatures;
+import burlap.behavior.functionapproximation.dense.NormalizedVariableFeatures;
+import burlap.behavior.functionapproximation.dense.fourier.FourierBasis;
+import burlap.behavior.singleagent.learning.lspi.LSPI;
+import burlap.behavior.singleagent.learning.lspi.SARSCollector;
+import burlap.behavior.singleagent.learning.lspi.SARSData;
+import burlap.domain.singleagent.mountaincar.MCRandomStateGenerator;
+import burlap.domain.singleagent.mountaincar.MountainCar;
+import burlap.mdp.core.state.vardomain.VariableDomain;
+import burlap.mdp.singleagent.SADomain;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of a single {@link LSPI} LSTDQ solve, in transition samples per second, on a fixed dataset
+ * of uniformly random mountain car transitions with Fourier basis features of increasing order, accumulating the
+ * LSTDQ matrix on one or more threads.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LSPIBenchmark {
+
+	@Param({"1000", "5000"})
+	public int numSamples;
+
+	@Param({"2", "4"})
+	public int fourierOrder;
+
+	@Param({"1", "4"})
+	public int accumulationParallelism;
+
+	protected LSPI lspi;
+
+
+	@Setup(Level.Trial)
+	public void setup(){
+
+		MountainCar mcGen = new MountainCar();
+		SADomain domain = mcGen.generateDomain();
+		NormalizedVariableFeatures inputFeatures = new NormalizedVariableFeatures()
+				.variableDomain("x", new VariableDomain(mcGen.physParams.xmin, mcGen.physParams.xmax))
+				.variableDomain("v", new VariableDomain(mcGen.physParams.vmin, mcGen.physParams.vmax));
+		FourierBasis fb = new FourierBasis(inputFeatures, fourierOrder);
+
+		SARSCollector collector = new SARSCollector.UniformRandomSARSCollector(domain);
+		SARSData dataset = collector.collectNInstances(new MCRandomStateGenerator(mcGen.physParams), domain.getModel(), numSamples, 20, null);
+
+		this.lspi = new LSPI(domain, 0.99, new DenseCrossProductFeatures(fb, 3), dataset);
+		this.lspi.setAccumulationParallelism(accumulationParallelism);
+
+	}
+
+
+	@Benchmark
+	public Object lstdq(PlanningCounters counters){
+		Object w = this.lspi.LSTDQ();
+		counters.samples += this.lspi.getDataset().size();
+		return w;
+	}
+
+}
@@ -0,0 +1,73 @@
+package burlap.benchmarks;
+
+import burlap.behavior.singleagent.Episode;
+import burlap.behavior.singleagent.learning.tdmethods.QLearning;
+import burlap.behavior.singleagent.learning.tdmethods.SarsaLam;
+import burlap.mdp.singleagent.environment.SimulatedEnvironment;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the learning throughput of the tabular TD learners, {@link QLearning} and {@link SarsaLam}, in environment
+ * steps per second with the hash map and flat Q-table backends. The agents are recreated at the start of every
+ * measurement iteration, so each iteration starts learning from scratch.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LearningBenchmark {
+
+	@Param({"gridworld", "gridworld50"})
+	public String problem;
+
+	@Param({"false", "true"})
+	public boolean flatQTable;
+
+	protected static final int maxEpisodeSteps = 1000;
+
+	protected BenchmarkDomains.Problem p;
+	protected SimulatedEnvironment env;
+	protected QLearning qLearning;
+	protected SarsaLam sarsaLam;
+
+
+	@Setup(Level.Trial)
+	public void setup(){
+		this.p = BenchmarkDomains.problem(problem, false);
+		this.env = new SimulatedEnvironment(p.domain, p.initialState);
+	}
+
+
+	@Setup(Level.Iteration)
+	public void setupAgents(){
+		this.qLearning = new QLearning(p.domain, 0.99, new SimpleHashableStateFactory(), 0., 0.1);
+		this.qLearning.toggleFlatQTable(flatQTable);
+		this.sarsaLam = new SarsaLam(p.domain, 0.99, new SimpleHashableStateFactory(), 0., 0.1, 0.9);
+		this.sarsaLam.toggleFlatQTable(flatQTable);
+		this.env.resetEnvironment();
+	}
+
+
+	@Benchmark
+	public Episode qLearningEpisode(PlanningCounters counters){
+		Episode e = this.qLearning.runLearningEpisode(this.env, maxEpisodeSteps);
+		this.env.resetEnvironment();
+		counters.steps += e.numActions();
+		return e;
+	}
+
+
+	@Benchmark
+	public Episode sarsaLamEpisode(PlanningCounters counters){
+		Episode e = this.sarsaLam.runLearningEpisode(this.env, maxEpisodeSteps);
+		this.env.resetEnvironment();
+		counters.steps += e.numActions();
+		return e;
+	}
+
+}
@@ -0,0 +1,72 @@
+package burlap.benchmarks;
+
+import burlap.behavior.singleagent.planning.stochastic.montecarlo.uct.ArenaUCT;
+import burlap.behavior.singleagent.planning.stochastic.montecarlo.uct.UCT;
+import burlap.behavior.singleagent.planning.stochastic.sparsesampling.SparseSampling;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the sample-based planners {@link UCT} and {@link ArenaUCT}, in state node visits per second, and {@link SparseSampling}, in
+ * value estimates per second, on a discrete stochastic problem and a continuous problem. Each invocation plans from
+ * the initial state from scratch.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonteCarloPlanningBenchmark {
+
+	@Param({"gridworld", "mountaincar"})
+	public String problem;
+
+	protected BenchmarkDomains.Problem p;
+	protected UCT uct;
+	protected ArenaUCT arenaUCT;
+	protected SparseSampling ss;
+
+
+	@Setup(Level.Trial)
+	public void setup(){
+		this.p = BenchmarkDomains.problem(problem, false);
+
+		this.uct = new UCT(p.domain, 0.99, new SimpleHashableStateFactory(), 30, 500, 2);
+		this.uct.toggleDebugPrinting(false);
+
+		this.arenaUCT = new ArenaUCT(p.domain, 0.99, new SimpleHashableStateFactory(), 30, 500, 2);
+		this.arenaUCT.toggleDebugPrinting(false);
+
+		this.ss = new SparseSampling(p.domain, 0.99, new SimpleHashableStateFactory(), 3, 3);
+		this.ss.toggleDebugPrinting(false);
+	}
+
+
+	@Benchmark
+	public Object uct(PlanningCounters counters){
+		Object policy = this.uct.planFromState(this.p.initialState);
+		counters.steps += this.uct.getNumVisits();
+		return policy;
+	}
+
+
+	@Benchmark
+	public Object arenaUCT(PlanningCounters counters){
+		Object policy = this.arenaUCT.planFromState(this.p.initialState);
+		counters.steps += this.arenaUCT.getNumVisits();
+		return policy;
+	}
+
+
+	@Benchmark
+	public Object sparseSampling(PlanningCounters counters){
+		this.ss.resetSolver();
+		Object policy = this.ss.planFromState(this.p.initialState);
+		counters.backups += this.ss.getNumberOfValueEsitmates();
+		return policy;
+	}
+
+}
@@ -0,0 +1,45 @@
+package burlap.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * JMH auxiliary counters for the units of work that planners and learners perform. JMH reports each counter that
+ * a benchmark increments as a rate next to the benchmark's own score, e.g., backups/s or steps/s.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class PlanningCounters {
+
+	/**
+	 * Bellman backups of a single state
+	 */
+	public long backups;
+
+	/**
+	 * Search nodes expanded
+	 */
+	public long expansions;
+
+	/**
+	 * Environment or model steps taken
+	 */
+	public long steps;
+
+	/**
+	 * Transition samples processed
+	 */
+	public long samples;
+
+
+	@Setup(Level.Iteration)
+	public void reset(){
+		this.backups = 0;
+		this.expansions = 0;
+		this.steps = 0;
+		this.samples = 0;
+	}
+
+}
@@ -0,0 +1,46 @@
+package burlap.benchmarks;
+
+import burlap.behavior.singleagent.planning.deterministic.informed.NullHeuristic;
+import burlap.behavior.singleagent.planning.deterministic.informed.astar.AStar;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the node expansion throughput of {@link AStar} (with a null heuristic, so that the search effort does not
+ * depend on heuristic quality) on deterministic search problems. Each invocation solves the problem from scratch.
+ * Blocks world states are hashed identifier dependently, because its goal depends on block names.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+	@Param({"gridworld", "gridworld50", "blockdude", "blocksworld5"})
+	public String problem;
+
+	protected BenchmarkDomains.Problem p;
+	protected AStar astar;
+
+
+	@Setup(Level.Trial)
+	public void setup(){
+		this.p = BenchmarkDomains.problem(problem, true);
+		this.astar = new AStar(p.domain, p.goal, new SimpleHashableStateFactory(!problem.startsWith("blocksworld")), new NullHeuristic());
+		this.astar.toggleDebugPrinting(false);
+	}
+
+
+	@Benchmark
+	public Object aStar(PlanningCounters counters){
+		this.astar.resetSolver();
+		Object policy = this.astar.planFromState(this.p.initialState);
+		counters.expansions += this.astar.getNumExpandedNodes();
+		return policy;
+	}
+
+}
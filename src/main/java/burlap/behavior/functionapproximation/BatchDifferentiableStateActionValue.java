@@ -0,0 +1,22 @@
+package burlap.behavior.functionapproximation;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+
+import java.util.List;
+
+/**
+ * A {@link DifferentiableStateActionValue} that supports batch evaluation and batch gradients, so that learning
+ * algorithms can process a mini-batch of experiences in one pass rather than one state-action pair at a time.
+ */
+public interface BatchDifferentiableStateActionValue extends DifferentiableStateActionValue, ParametricFunction.BatchStateActionFunction {
+
+	/**
+	 * Returns the gradient of this function for each state-action pair of the given lists.
+	 * @param states the input {@link State}s
+	 * @param actions the input {@link Action}s, where the ith action is paired with the ith state
+	 * @return the {@link FunctionGradient} of this function at each state-action pair
+	 */
+	FunctionGradient[] gradient(List<State> states, List<Action> actions);
+
+}
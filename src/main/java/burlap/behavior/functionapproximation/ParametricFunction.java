@@ -3,6 +3,8 @@ package burlap.behavior.functionapproximation;
 import burlap.mdp.core.action.Action;
 import burlap.mdp.core.state.State;
 
+import java.util.List;
+
 /**
  * An interface for defining a parametric function. This interface is often used
  * for value function approximation implementations. This highest-level of the interface does not define the input
@@ -88,4 +90,24 @@ public interface ParametricFunction {
 
 	}
 
+
+	/**
+	 * A {@link ParametricStateActionFunction} that can evaluate a batch of states for a list of actions at once, which
+	 * allows implementations to share work, such as state feature extraction, across the actions of a state.
+	 * Unlike {@link #evaluate(State, Action)}, batch evaluation is not required to change the input of this function
+	 * that gradients may be cached for.
+	 */
+	public static interface BatchStateActionFunction extends ParametricStateActionFunction {
+
+
+		/**
+		 * Evaluates this function for every combination of the given states and actions.
+		 * @param states the input {@link State}s
+		 * @param actions the input {@link Action}s
+		 * @return a dense matrix in which element [i][j] is the value of this function for the ith state and jth action
+		 */
+		double[][] evaluate(List<State> states, List<Action> actions);
+
+	}
+
 }
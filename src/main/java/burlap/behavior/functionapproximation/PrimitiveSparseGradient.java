@@ -0,0 +1,370 @@
+package burlap.behavior.functionapproximation;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+
+/**
+ * A sparse {@link FunctionGradient} stored in parallel primitive arrays of parameter ids and partial derivatives,
+ * with an open-addressing index from parameter ids to their position, so that no boxed values or map entries are
+ * created as partial derivatives are stored. In addition to the {@link FunctionGradient} methods, it supports
+ * in-place accumulation ({@link #add(int, double)}, {@link #addScaled(FunctionGradient, double)}), scaling,
+ * and dot products, and its entries can be iterated by position without allocation:
+ * <pre>
+ * for(int i = 0; i &lt; g.size(); i++){
+ *     int parameterId = g.id(i);
+ *     double pd = g.value(i);
+ * }
+ * </pre>
+ * As with {@link FunctionGradient.SparseGradient}, storing a zero partial derivative with {@link #put(int, double)}
+ * removes the parameter. The in-place operations do not remove parameters whose partial derivative becomes zero, so
+ * stored entries may be zero, but {@link #getNonZeroPartialDerivatives()} and {@link #numNonZeroPDs()} skip them.
+ * Removing an entry moves the last entry into its position, so when removing entries while iterating, iterate from
+ * the last position to the first.
+ */
+public class PrimitiveSparseGradient implements FunctionGradient {
+
+	/**
+	 * The parameter id of each entry
+	 */
+	protected int [] ids;
+
+	/**
+	 * The partial derivative of each entry
+	 */
+	protected double [] values;
+
+	/**
+	 * The number of entries
+	 */
+	protected int size = 0;
+
+	/**
+	 * The linear probing index from parameter ids to entries; each slot holds an entry position plus one, or zero if empty
+	 */
+	protected int [] index;
+
+
+	/**
+	 * Initializes with a default capacity.
+	 */
+	public PrimitiveSparseGradient() {
+		this(8);
+	}
+
+
+	/**
+	 * Initializes with space reserved for the given number of parameters.
+	 * @param capacity the number of parameters for which space is reserved
+	 */
+	public PrimitiveSparseGradient(int capacity) {
+		capacity = Math.max(capacity, 4);
+		this.ids = new int[capacity];
+		this.values = new double[capacity];
+		this.index = new int[indexSize(capacity)];
+	}
+
+
+	/**
+	 * Initializes with the partial derivatives of the given gradient.
+	 * @param source the gradient to copy
+	 */
+	public PrimitiveSparseGradient(FunctionGradient source) {
+		this(source.numNonZeroPDs());
+		this.addScaled(source, 1.);
+	}
+
+
+	@Override
+	public void put(int parameterId, double partialDerivative) {
+		int i = this.indexOf(parameterId);
+		if(partialDerivative == 0.){
+			if(i != -1){
+				this.remove(i);
+			}
+		}
+		else if(i != -1){
+			this.values[i] = partialDerivative;
+		}
+		else{
+			this.append(parameterId, partialDerivative);
+		}
+	}
+
+	@Override
+	public double getPartialDerivative(int parameterId) {
+		int i = this.indexOf(parameterId);
+		return i != -1 ? this.values[i] : 0.;
+	}
+
+	@Override
+	public Set<PartialDerivative> getNonZeroPartialDerivatives() {
+		Set<PartialDerivative> nzPds = new HashSet<PartialDerivative>(this.size);
+		for(int i = 0; i < this.size; i++){
+			if(this.values[i] != 0.){
+				nzPds.add(new PartialDerivative(this.ids[i], this.values[i]));
+			}
+		}
+		return nzPds;
+	}
+
+	@Override
+	public int numNonZeroPDs() {
+		int n = 0;
+		for(int i = 0; i < this.size; i++){
+			if(this.values[i] != 0.){
+				n++;
+			}
+		}
+		return n;
+	}
+
+
+	/**
+	 * Returns the number of stored entries, including any whose partial derivative has become zero.
+	 * @return the number of stored entries
+	 */
+	public int size(){
+		return this.size;
+	}
+
+
+	/**
+	 * Returns the parameter id of the entry at the given position.
+	 * @param i the position of the entry, in [0, {@link #size()})
+	 * @return the parameter id of the entry
+	 */
+	public int id(int i){
+		return this.ids[i];
+	}
+
+
+	/**
+	 * Returns the partial derivative of the entry at the given position.
+	 * @param i the position of the entry, in [0, {@link #size()})
+	 * @return the partial derivative of the entry
+	 */
+	public double value(int i){
+		return this.values[i];
+	}
+
+
+	/**
+	 * Sets the partial derivative of the entry at the given position. The entry is kept even if the value is zero.
+	 * @param i the position of the entry, in [0, {@link #size()})
+	 * @param value the partial derivative
+	 */
+	public void setValue(int i, double value){
+		this.values[i] = value;
+	}
+
+
+	/**
+	 * Returns the position of the entry for the given parameter id.
+	 * @param parameterId the parameter id
+	 * @return the position of the entry, or -1 if the parameter is not stored
+	 */
+	public int indexOf(int parameterId){
+		int mask = this.index.length - 1;
+		for(int s = slot(parameterId, mask); this.index[s] != 0; s = (s + 1) & mask){
+			int i = this.index[s] - 1;
+			if(this.ids[i] == parameterId){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Adds the given value to the partial derivative of the given parameter, storing the parameter if needed.
+	 * @param parameterId the parameter id
+	 * @param value the value to add
+	 */
+	public void add(int parameterId, double value){
+		int i = this.indexOf(parameterId);
+		if(i != -1){
+			this.values[i] += value;
+		}
+		else if(value != 0.){
+			this.append(parameterId, value);
+		}
+	}
+
+
+	/**
+	 * Adds the given gradient multiplied by a scalar to this gradient, in place.
+	 * @param g the gradient to add
+	 * @param scalar the value by which g is multiplied
+	 */
+	public void addScaled(FunctionGradient g, double scalar){
+		if(g instanceof PrimitiveSparseGradient){
+			PrimitiveSparseGradient pg = (PrimitiveSparseGradient)g;
+			for(int i = 0; i < pg.size; i++){
+				this.add(pg.ids[i], pg.values[i] * scalar);
+			}
+		}
+		else{
+			for(PartialDerivative pd : g.getNonZeroPartialDerivatives()){
+				this.add(pd.parameterId, pd.value * scalar);
+			}
+		}
+	}
+
+
+	/**
+	 * Multiplies every partial derivative by the given scalar, in place.
+	 * @param scalar the scalar
+	 */
+	public void scale(double scalar){
+		for(int i = 0; i < this.size; i++){
+			this.values[i] *= scalar;
+		}
+	}
+
+
+	/**
+	 * Returns the dot product of this gradient and another.
+	 * @param g the other gradient
+	 * @return the dot product
+	 */
+	public double dot(FunctionGradient g){
+		double sum = 0.;
+		for(int i = 0; i < this.size; i++){
+			sum += this.values[i] * g.getPartialDerivative(this.ids[i]);
+		}
+		return sum;
+	}
+
+
+	/**
+	 * Returns the dot product of this gradient and a dense vector indexed by parameter id.
+	 * @param dense the dense vector, which must be longer than the largest stored parameter id
+	 * @return the dot product
+	 */
+	public double dot(double [] dense){
+		double sum = 0.;
+		for(int i = 0; i < this.size; i++){
+			sum += this.values[i] * dense[this.ids[i]];
+		}
+		return sum;
+	}
+
+
+	/**
+	 * Removes the entry at the given position, moving the last entry into its position.
+	 * @param i the position of the entry to remove
+	 */
+	public void remove(int i){
+
+		int mask = this.index.length - 1;
+
+		//delete the index slot of the entry by shifting back later slots of its probe sequence
+		int s = slot(this.ids[i], mask);
+		while(this.index[s] != i + 1){
+			s = (s + 1) & mask;
+		}
+		this.index[s] = 0;
+		for(int j = (s + 1) & mask; this.index[j] != 0; j = (j + 1) & mask){
+			int home = slot(this.ids[this.index[j] - 1], mask);
+			boolean reachable = s <= j ? (home > s && home <= j) : (home > s || home <= j);
+			if(!reachable){
+				this.index[s] = this.index[j];
+				this.index[j] = 0;
+				s = j;
+			}
+		}
+
+		//move the last entry into the removed position
+		int last = this.size - 1;
+		if(i != last){
+			int ls = slot(this.ids[last], mask);
+			while(this.index[ls] != last + 1){
+				ls = (ls + 1) & mask;
+			}
+			this.index[ls] = i + 1;
+			this.ids[i] = this.ids[last];
+			this.values[i] = this.values[last];
+			this.moveEntry(last, i);
+		}
+		this.size--;
+
+	}
+
+
+	/**
+	 * Removes all entries, keeping the allocated space.
+	 */
+	public void clear(){
+		Arrays.fill(this.index, 0);
+		this.size = 0;
+	}
+
+
+	/**
+	 * Appends an entry for a parameter that is not stored, even if the value is zero.
+	 * @param parameterId the parameter id
+	 * @param value the partial derivative
+	 * @return the position of the new entry
+	 */
+	protected int append(int parameterId, double value){
+		if(this.size == this.ids.length){
+			this.grow(this.size * 2);
+		}
+		int i = this.size;
+		this.ids[i] = parameterId;
+		this.values[i] = value;
+		this.size++;
+		this.indexEntry(i);
+		return i;
+	}
+
+
+	/**
+	 * Grows the capacity of the entry arrays and the index. Subclasses that store additional data per entry should
+	 * grow it too.
+	 * @param capacity the new capacity
+	 */
+	protected void grow(int capacity){
+		this.ids = Arrays.copyOf(this.ids, capacity);
+		this.values = Arrays.copyOf(this.values, capacity);
+		this.index = new int[indexSize(capacity)];
+		for(int i = 0; i < this.size; i++){
+			this.indexEntry(i);
+		}
+	}
+
+
+	/**
+	 * Called when {@link #remove(int)} moves an entry to a new position. Subclasses that store additional data per entry
+	 * should move it too.
+	 * @param from the old position of the entry
+	 * @param to the new position of the entry
+	 */
+	protected void moveEntry(int from, int to){
+		//no additional data
+	}
+
+
+	protected void indexEntry(int i){
+		int mask = this.index.length - 1;
+		int s = slot(this.ids[i], mask);
+		while(this.index[s] != 0){
+			s = (s + 1) & mask;
+		}
+		this.index[s] = i + 1;
+	}
+
+
+	protected static int indexSize(int capacity){
+		return Integer.highestOneBit(capacity * 2 - 1) << 1;
+	}
+
+
+	protected static int slot(int parameterId, int mask){
+		int h = parameterId * 0x9e3779b9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+}
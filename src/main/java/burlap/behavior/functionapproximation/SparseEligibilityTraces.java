@@ -0,0 +1,73 @@
+package burlap.behavior.functionapproximation;
+
+import java.util.Arrays;
+
+
+/**
+ * Eligibility traces over function parameters, stored as a {@link PrimitiveSparseGradient} whose values are the
+ * eligibility of each traced parameter, along with the value each parameter had when its trace started. A parameter
+ * can be traced with zero eligibility, so whether a parameter is traced is determined by {@link #indexOf(int)}
+ * rather than by its eligibility.
+ */
+public class SparseEligibilityTraces extends PrimitiveSparseGradient {
+
+	/**
+	 * The value of the parameter of each entry when its trace started
+	 */
+	protected double [] initialWeights;
+
+
+	/**
+	 * Initializes with no traces.
+	 */
+	public SparseEligibilityTraces() {
+		super();
+		this.initialWeights = new double[this.ids.length];
+	}
+
+
+	/**
+	 * Starts a trace with zero eligibility for the given parameter if it is not already traced.
+	 * @param parameterId the parameter id
+	 * @param initialWeight the current value of the parameter
+	 * @return the position of the parameter's trace
+	 */
+	public int startTrace(int parameterId, double initialWeight){
+		int i = this.indexOf(parameterId);
+		if(i == -1){
+			i = this.append(parameterId, 0.);
+			this.initialWeights[i] = initialWeight;
+		}
+		return i;
+	}
+
+
+	/**
+	 * Returns the value the parameter of the trace at the given position had when the trace started.
+	 * @param i the position of the trace, in [0, {@link #size()})
+	 * @return the initial value of the traced parameter
+	 */
+	public double initialWeight(int i){
+		return this.initialWeights[i];
+	}
+
+
+	@Override
+	protected int append(int parameterId, double value) {
+		int i = super.append(parameterId, value);
+		this.initialWeights[i] = 0.;
+		return i;
+	}
+
+	@Override
+	protected void grow(int capacity) {
+		super.grow(capacity);
+		this.initialWeights = Arrays.copyOf(this.initialWeights, capacity);
+	}
+
+	@Override
+	protected void moveEntry(int from, int to) {
+		this.initialWeights[to] = this.initialWeights[from];
+	}
+
+}
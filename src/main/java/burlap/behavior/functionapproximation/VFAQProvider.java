@@ -0,0 +1,88 @@
+package burlap.behavior.functionapproximation;
+
+import burlap.behavior.valuefunction.QProvider;
+import burlap.behavior.valuefunction.QValue;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.ActionType;
+import burlap.mdp.core.action.ActionUtils;
+import burlap.mdp.core.state.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link QProvider} that returns the Q-values of a {@link ParametricFunction.ParametricStateActionFunction} for the
+ * applicable actions of a set of action types, which is useful for serving a policy from a trained function. If the
+ * function is a {@link ParametricFunction.BatchStateActionFunction}, the Q-values of a state are computed in one
+ * batch evaluation. This class keeps no mutable state, so it is safe for concurrent use when the function is, such as
+ * a frozen {@link burlap.behavior.functionapproximation.dense.DenseLinearVFA} or
+ * {@link burlap.behavior.functionapproximation.sparse.LinearVFA} snapshot.
+ */
+public class VFAQProvider implements QProvider {
+
+	/**
+	 * The Q-function
+	 */
+	protected ParametricFunction.ParametricStateActionFunction vfa;
+
+	/**
+	 * The action types whose applicable actions are evaluated
+	 */
+	protected List<ActionType> actionTypes;
+
+
+	/**
+	 * Initializes.
+	 * @param vfa the Q-function
+	 * @param actionTypes the action types whose applicable actions are evaluated
+	 */
+	public VFAQProvider(ParametricFunction.ParametricStateActionFunction vfa, List<ActionType> actionTypes) {
+		this.vfa = vfa;
+		this.actionTypes = actionTypes;
+	}
+
+	@Override
+	public List<QValue> qValues(State s) {
+		List<Action> actions = ActionUtils.allApplicableActionsForTypes(this.actionTypes, s);
+		List<QValue> qs = new ArrayList<QValue>(actions.size());
+		if(this.vfa instanceof ParametricFunction.BatchStateActionFunction){
+			double [] row = ((ParametricFunction.BatchStateActionFunction)this.vfa).evaluate(Collections.singletonList(s), actions)[0];
+			for(int i = 0; i < row.length; i++){
+				qs.add(new QValue(s, actions.get(i), row[i]));
+			}
+		}
+		else{
+			for(Action a : actions){
+				qs.add(new QValue(s, a, this.vfa.evaluate(s, a)));
+			}
+		}
+		return qs;
+	}
+
+	@Override
+	public double qValue(State s, Action a) {
+		return this.vfa.evaluate(s, a);
+	}
+
+	@Override
+	public double value(State s) {
+		return QProvider.Helper.maxQ(this, s);
+	}
+
+	public ParametricFunction.ParametricStateActionFunction getVfa() {
+		return vfa;
+	}
+
+	public void setVfa(ParametricFunction.ParametricStateActionFunction vfa) {
+		this.vfa = vfa;
+	}
+
+	public List<ActionType> getActionTypes() {
+		return actionTypes;
+	}
+
+	public void setActionTypes(List<ActionType> actionTypes) {
+		this.actionTypes = actionTypes;
+	}
+}
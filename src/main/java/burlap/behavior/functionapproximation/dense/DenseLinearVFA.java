@@ -1,12 +1,15 @@
 package burlap.behavior.functionapproximation.dense;
 
-import burlap.behavior.functionapproximation.DifferentiableStateActionValue;
+import burlap.behavior.functionapproximation.BatchDifferentiableStateActionValue;
 import burlap.behavior.functionapproximation.DifferentiableStateValue;
 import burlap.behavior.functionapproximation.FunctionGradient;
+import burlap.behavior.functionapproximation.PrimitiveSparseGradient;
 import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.PrimitiveState;
 import burlap.mdp.core.state.State;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,9 +23,20 @@ import java.util.Map;
  * Which one is used is determined implicitly by whether the first function input is set with the
  * {@link #evaluate(State)} method or the {@link #evaluate(State, Action)}
  * method.
+ * <p>
+ * For Q-value function approximation, batches of states can be evaluated for a list of actions with
+ * {@link #evaluate(List, List)}, which extracts the features of each state once and computes the values of all actions
+ * as a single product of the state-action weight matrix and the state feature vector.
+ * <p>
+ * If the state features are a {@link NumericVariableFeatures} that uses all variables and a state is a {@link PrimitiveState},
+ * the state's variables are copied with {@link PrimitiveState#copyInto(double[], int)} into a reused buffer rather than a
+ * newly allocated feature vector.
+ * <p>
+ * Evaluation caches the last input for gradient computation, so this class is not safe for concurrent use.
+ * Use {@link #freeze()} to obtain a read-only snapshot that is.
  * @author James MacGlashan.
  */
-public class DenseLinearVFA implements DifferentiableStateValue, DifferentiableStateActionValue{
+public class DenseLinearVFA implements DifferentiableStateValue, BatchDifferentiableStateActionValue{
 
 
 	/**
@@ -59,6 +73,11 @@ public class DenseLinearVFA implements DifferentiableStateValue, DifferentiableS
 	protected FunctionGradient						currentGradient = null;
 	protected State									lastState;
 
+	/**
+	 * The buffer into which the variables of {@link PrimitiveState} inputs are copied for single state evaluations
+	 */
+	protected double[]								featureBuffer;
+
 
 	/**
 	 * Initializes. This object will be set to perform either state value function approximation or state-action
@@ -78,7 +97,7 @@ public class DenseLinearVFA implements DifferentiableStateValue, DifferentiableS
 
 	@Override
 	public double evaluate(State s, Action a) {
-		this.currentStateFeatures = this.stateFeatures.features(s);
+		this.currentStateFeatures = this.stateFeatures(s);
 		this.currentActionOffset = this.getActionOffset(a);
 		int indOff = this.currentActionOffset*this.currentStateFeatures.length;
 		double val = 0;
@@ -93,10 +112,44 @@ public class DenseLinearVFA implements DifferentiableStateValue, DifferentiableS
 
 
 
+	@Override
+	public double[][] evaluate(List<State> states, List<Action> actions) {
+
+		double [][] values = new double[states.size()][actions.size()];
+		int [] indOffs = null;
+		double [] buffer = null;
+		for(int i = 0; i < values.length; i++){
+			double [] features;
+			if(this.copiesVariables(states.get(i))){
+				features = buffer = copyVariables((PrimitiveState)states.get(i), buffer);
+			}
+			else{
+				features = this.stateFeatures.features(states.get(i));
+			}
+			if(indOffs == null){
+				indOffs = new int[actions.size()];
+				for(int j = 0; j < indOffs.length; j++){
+					indOffs[j] = this.getActionOffset(actions.get(j), features.length)*features.length;
+				}
+			}
+			double [] row = values[i];
+			for(int j = 0; j < indOffs.length; j++){
+				int indOff = indOffs[j];
+				double val = 0;
+				for(int k = 0; k < features.length; k++){
+					val += features[k] * this.stateActionWeights[k+indOff];
+				}
+				row[j] = val;
+			}
+		}
+
+		return values;
+	}
+
 
 	@Override
 	public double evaluate(State s) {
-		this.currentStateFeatures = this.stateFeatures.features(s);
+		this.currentStateFeatures = this.stateFeatures(s);
 		this.currentActionOffset = 0;
 		if(this.stateWeights == null){
 			this.stateWeights = new double[this.currentStateFeatures.length];
@@ -125,10 +178,10 @@ public class DenseLinearVFA implements DifferentiableStateValue, DifferentiableS
 			features = this.currentStateFeatures;
 		}
 		else{
-			features = this.stateFeatures.features(s);
+			features = this.stateFeatures(s);
 		}
 
-		FunctionGradient gradient = new FunctionGradient.SparseGradient(features.length);
+		FunctionGradient gradient = new PrimitiveSparseGradient(features.length);
 		for(int i = 0; i < features.length; i++){
 			gradient.put(i, features[i]);
 		}
@@ -152,10 +205,10 @@ public class DenseLinearVFA implements DifferentiableStateValue, DifferentiableS
 			features = this.currentStateFeatures;
 		}
 		else{
-			features = this.stateFeatures.features(s);
+			features = this.stateFeatures(s);
 		}
 
-		FunctionGradient gradient = new FunctionGradient.SparseGradient(features.length);
+		FunctionGradient gradient = new PrimitiveSparseGradient(features.length);
 		int actionOffset = this.getActionOffset(a);
 		int sIndOffset = actionOffset*features.length;
 		for(int i = 0; i < features.length; i++){
@@ -169,6 +222,30 @@ public class DenseLinearVFA implements DifferentiableStateValue, DifferentiableS
 		return gradient;
 	}
 
+	@Override
+	public FunctionGradient[] gradient(List<State> states, List<Action> actions) {
+
+		FunctionGradient [] gradients = new FunctionGradient[states.size()];
+		double [] buffer = null;
+		for(int i = 0; i < gradients.length; i++){
+			double [] features;
+			if(this.copiesVariables(states.get(i))){
+				features = buffer = copyVariables((PrimitiveState)states.get(i), buffer);
+			}
+			else{
+				features = this.stateFeatures.features(states.get(i));
+			}
+			int sIndOffset = this.getActionOffset(actions.get(i), features.length)*features.length;
+			FunctionGradient gradient = new PrimitiveSparseGradient(features.length);
+			for(int k = 0; k < features.length; k++){
+				gradient.put(k+sIndOffset, features[k]);
+			}
+			gradients[i] = gradient;
+		}
+
+		return gradients;
+	}
+
 
 	@Override
 	public int numParameters() {
@@ -224,12 +301,65 @@ public class DenseLinearVFA implements DifferentiableStateValue, DifferentiableS
 	}
 
 
+	/**
+	 * Returns the state features of a state for a single state evaluation, which are copied into {@link #featureBuffer}
+	 * if {@link #copiesVariables(State)} holds for the state.
+	 * @param s the state
+	 * @return the state features
+	 */
+	protected double [] stateFeatures(State s){
+		if(this.copiesVariables(s)){
+			this.featureBuffer = copyVariables((PrimitiveState)s, this.featureBuffer);
+			return this.featureBuffer;
+		}
+		return this.stateFeatures.features(s);
+	}
+
+
+	/**
+	 * Returns whether the state features of a state are its variables, which is the case if the state features are a
+	 * {@link NumericVariableFeatures} that uses all variables and the state is a {@link PrimitiveState}.
+	 * @param s the state
+	 * @return true if the state features are the state's variables; false otherwise
+	 */
+	protected boolean copiesVariables(State s){
+		return s instanceof PrimitiveState && this.stateFeatures instanceof NumericVariableFeatures
+				&& ((NumericVariableFeatures)this.stateFeatures).usesAllVariables();
+	}
+
+
+	/**
+	 * Copies the variables of a state into a buffer, which is reallocated if it is null or of the wrong length.
+	 * @param s the state
+	 * @param buffer the buffer, or null
+	 * @return the buffer into which the variables were copied
+	 */
+	protected static double [] copyVariables(PrimitiveState s, double [] buffer){
+		if(buffer == null || buffer.length != s.numVariables()){
+			buffer = new double[s.numVariables()];
+		}
+		s.copyInto(buffer, 0);
+		return buffer;
+	}
+
+
 	public int getActionOffset(Action a){
+		return this.getActionOffset(a, this.currentStateFeatures.length);
+	}
+
+	/**
+	 * Returns the feature index offset of the given action, creating it and expanding the state-action function weights
+	 * if the action has not been seen before.
+	 * @param a the action
+	 * @param numFeatures the number of state features
+	 * @return the feature index offset of the action, in multiples of the number of state features
+	 */
+	protected int getActionOffset(Action a, int numFeatures){
 		Integer offset = this.actionOffset.get(a);
 		if(offset == null){
 			offset = this.actionOffset.size();
 			this.actionOffset.put(a, offset);
-			this.expandStateActionWeights(this.currentStateFeatures.length);
+			this.expandStateActionWeights(numFeatures);
 		}
 		return offset;
 	}
@@ -326,6 +456,15 @@ public class DenseLinearVFA implements DifferentiableStateValue, DifferentiableS
 		this.actionOffset.put(a, offset);
 	}
 
+	/**
+	 * Returns a read-only snapshot of this function's current weights that can be evaluated by multiple threads at once.
+	 * Subsequent changes to this function do not affect the snapshot.
+	 * @return a {@link FrozenDenseLinearVFA} of this function
+	 */
+	public FrozenDenseLinearVFA freeze() {
+		return new FrozenDenseLinearVFA(this);
+	}
+
 	@Override
 	public DenseLinearVFA copy() {
 		DenseLinearVFA vfa = new DenseLinearVFA(this.stateFeatures, this.defaultWeight);
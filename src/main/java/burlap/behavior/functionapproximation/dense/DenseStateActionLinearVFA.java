@@ -2,6 +2,7 @@ package burlap.behavior.functionapproximation.dense;
 
 import burlap.behavior.functionapproximation.DifferentiableStateActionValue;
 import burlap.behavior.functionapproximation.FunctionGradient;
+import burlap.behavior.functionapproximation.PrimitiveSparseGradient;
 import burlap.mdp.core.action.Action;
 import burlap.mdp.core.state.State;
 
@@ -54,7 +55,7 @@ public class DenseStateActionLinearVFA implements DifferentiableStateActionValue
 			features = this.features.features(s, a);
 		}
 
-		FunctionGradient gradient = new FunctionGradient.SparseGradient(features.length);
+		FunctionGradient gradient = new PrimitiveSparseGradient(features.length);
 		for(int i = 0; i < features.length; i++){
 			gradient.put(i, features[i]);
 		}
@@ -112,6 +113,21 @@ public class DenseStateActionLinearVFA implements DifferentiableStateActionValue
 		this.stateActionWeights = null;
 	}
 
+	/**
+	 * Returns a function that shares this function's weight array, but has its own copy of the features and its own
+	 * evaluation caches, so that multiple threads can each evaluate and update the same weights through their own view,
+	 * as in Hogwild-style asynchronous learning. Parameter updates made through any view are seen by all of them without
+	 * synchronization. Since the weight array is allocated on the first evaluation, this function must be evaluated at
+	 * least once before a view is created, and {@link #resetParameters()} only detaches the function it is called on.
+	 * @return a {@link DenseStateActionLinearVFA} that shares this function's weights
+	 */
+	public DenseStateActionLinearVFA sharedView() {
+		if(this.stateActionWeights == null){
+			throw new RuntimeException("Cannot create a shared view of a DenseStateActionLinearVFA whose weights have not been allocated; evaluate it once first.");
+		}
+		return new DenseStateActionLinearVFA(this.features.copy(), this.stateActionWeights, this.defaultWeight);
+	}
+
 	@Override
 	public DenseStateActionLinearVFA copy() {
 		return new DenseStateActionLinearVFA(features, this.stateActionWeights.clone(), this.defaultWeight);
@@ -0,0 +1,227 @@
+package burlap.behavior.functionapproximation.dense;
+
+import burlap.behavior.functionapproximation.BatchDifferentiableStateActionValue;
+import burlap.behavior.functionapproximation.DifferentiableStateValue;
+import burlap.behavior.functionapproximation.FunctionGradient;
+import burlap.behavior.functionapproximation.PrimitiveSparseGradient;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only snapshot of a {@link DenseLinearVFA}, created with {@link DenseLinearVFA#freeze()}. Its weights and
+ * action offsets are copied when it is created and never change, and it keeps no per-call scratch state, so a single
+ * instance can be evaluated by multiple threads at once. Actions that the source function had not seen are evaluated
+ * with the default weight, as the source function would, but without being added to this snapshot.
+ * <p>
+ * The {@link DenseStateFeatures} of the source function are shared, so they must also be safe for concurrent
+ * use. The dense features provided with BURLAP only modify themselves the first time they compute features, which
+ * will have happened if the source function was evaluated before it was frozen.
+ * Setting or resetting parameters throws an {@link UnsupportedOperationException}.
+ */
+public class FrozenDenseLinearVFA implements DifferentiableStateValue, BatchDifferentiableStateActionValue {
+
+	/**
+	 * The state feature vector generator
+	 */
+	protected final DenseStateFeatures stateFeatures;
+
+	/**
+	 * The feature index offset of each action
+	 */
+	protected final Map<Action, Integer> actionOffset;
+
+	/**
+	 * The state value function weights; null if the source function was not a state value function
+	 */
+	protected final double[] stateWeights;
+
+	/**
+	 * The state-action value function weights; null if the source function was not a state-action value function
+	 */
+	protected final double[] stateActionWeights;
+
+	/**
+	 * The default weight value
+	 */
+	protected final double defaultWeight;
+
+
+	/**
+	 * Initializes with a copy of the weights and action offsets of the given function.
+	 * @param source the {@link DenseLinearVFA} to snapshot
+	 */
+	public FrozenDenseLinearVFA(DenseLinearVFA source) {
+		this.stateFeatures = source.stateFeatures;
+		this.actionOffset = Collections.unmodifiableMap(new HashMap<Action, Integer>(source.actionOffset));
+		this.stateWeights = source.stateWeights != null ? source.stateWeights.clone() : null;
+		this.stateActionWeights = source.stateActionWeights != null ? source.stateActionWeights.clone() : null;
+		this.defaultWeight = source.defaultWeight;
+	}
+
+
+	@Override
+	public double evaluate(State s) {
+		double [] features = this.stateFeatures.features(s);
+		if(this.stateWeights == null){
+			return this.defaultValue(features);
+		}
+		double val = 0;
+		for(int i = 0; i < features.length; i++){
+			val += features[i] * this.stateWeights[i];
+		}
+		return val;
+	}
+
+	@Override
+	public double evaluate(State s, Action a) {
+		double [] features = this.stateFeatures.features(s);
+		return this.value(features, this.indexOffset(a, features.length));
+	}
+
+	@Override
+	public double[][] evaluate(List<State> states, List<Action> actions) {
+
+		double [][] values = new double[states.size()][actions.size()];
+		int [] indOffs = null;
+		for(int i = 0; i < values.length; i++){
+			double [] features = this.stateFeatures.features(states.get(i));
+			if(indOffs == null){
+				indOffs = new int[actions.size()];
+				for(int j = 0; j < indOffs.length; j++){
+					indOffs[j] = this.indexOffset(actions.get(j), features.length);
+				}
+			}
+			for(int j = 0; j < indOffs.length; j++){
+				values[i][j] = this.value(features, indOffs[j]);
+			}
+		}
+
+		return values;
+	}
+
+	@Override
+	public FunctionGradient gradient(State s) {
+		double [] features = this.stateFeatures.features(s);
+		FunctionGradient gradient = new PrimitiveSparseGradient(features.length);
+		for(int i = 0; i < features.length; i++){
+			gradient.put(i, features[i]);
+		}
+		return gradient;
+	}
+
+	/**
+	 * Returns the gradient of this function. If the action was not seen by the source function, it has no parameters
+	 * in this snapshot and the returned gradient is empty.
+	 * @param s the input {@link State}
+	 * @param a the input {@link Action}
+	 * @return the {@link FunctionGradient} of this function at the input
+	 */
+	@Override
+	public FunctionGradient gradient(State s, Action a) {
+		return this.gradient(this.stateFeatures.features(s), a);
+	}
+
+	@Override
+	public FunctionGradient[] gradient(List<State> states, List<Action> actions) {
+		FunctionGradient [] gradients = new FunctionGradient[states.size()];
+		for(int i = 0; i < gradients.length; i++){
+			gradients[i] = this.gradient(this.stateFeatures.features(states.get(i)), actions.get(i));
+		}
+		return gradients;
+	}
+
+	@Override
+	public int numParameters() {
+		if(this.stateWeights != null){
+			return this.stateWeights.length;
+		}
+		else if(this.stateActionWeights != null){
+			return this.stateActionWeights.length;
+		}
+		return 0;
+	}
+
+	@Override
+	public double getParameter(int i) {
+		if(this.stateWeights != null){
+			if(i < this.stateWeights.length){
+				return this.stateWeights[i];
+			}
+		}
+		else if(this.stateActionWeights != null && i < this.stateActionWeights.length){
+			return this.stateActionWeights[i];
+		}
+		throw new RuntimeException("Parameter index out of bounds; parameter cannot be returned.");
+	}
+
+	@Override
+	public void setParameter(int i, double p) {
+		throw new UnsupportedOperationException("Frozen value function approximations cannot be modified.");
+	}
+
+	@Override
+	public void resetParameters() {
+		throw new UnsupportedOperationException("Frozen value function approximations cannot be modified.");
+	}
+
+	/**
+	 * Returns this object, since it cannot be modified.
+	 * @return this object
+	 */
+	@Override
+	public FrozenDenseLinearVFA copy() {
+		return this;
+	}
+
+
+	/**
+	 * Returns the index of the first weight of the given action, or -1 if the source function had not seen the action.
+	 * @param a the action
+	 * @param numFeatures the number of state features
+	 * @return the index of the first weight of the action, or -1 if it has none
+	 */
+	protected int indexOffset(Action a, int numFeatures){
+		Integer offset = this.actionOffset.get(a);
+		if(offset == null || this.stateActionWeights == null){
+			return -1;
+		}
+		return offset*numFeatures;
+	}
+
+	protected double value(double [] features, int indOff){
+		if(indOff == -1){
+			return this.defaultValue(features);
+		}
+		double val = 0;
+		for(int i = 0; i < features.length; i++){
+			val += features[i] * this.stateActionWeights[i+indOff];
+		}
+		return val;
+	}
+
+	protected double defaultValue(double [] features){
+		double val = 0;
+		for(int i = 0; i < features.length; i++){
+			val += features[i] * this.defaultWeight;
+		}
+		return val;
+	}
+
+	protected FunctionGradient gradient(double [] features, Action a){
+		int indOff = this.indexOffset(a, features.length);
+		if(indOff == -1){
+			return new PrimitiveSparseGradient();
+		}
+		FunctionGradient gradient = new PrimitiveSparseGradient(features.length);
+		for(int i = 0; i < features.length; i++){
+			gradient.put(i+indOff, features[i]);
+		}
+		return gradient;
+	}
+
+}
@@ -1,5 +1,6 @@
 package burlap.behavior.functionapproximation.dense;
 
+import burlap.mdp.core.state.PrimitiveState;
 import burlap.mdp.core.state.State;
 
 import java.util.ArrayList;
@@ -12,6 +13,7 @@ import java.util.List;
  * return a {@link Number} value. Alternatively, you may only have a subset of the state variables be used
  * by setting up a white list of the variables to use with the {@link #addToWhiteList(Object)} method.
  * If you do not add any variables to the white list, then it will be assumed that all variables should be used.
+ * When all variables are used and the state is a {@link PrimitiveState}, the values are copied directly without boxing.
  * @author James MacGlashan.
  */
 public class NumericVariableFeatures implements DenseStateFeatures {
@@ -40,10 +42,25 @@ public class NumericVariableFeatures implements DenseStateFeatures {
 
 
 
+	/**
+	 * Returns whether all state variables are used, which is the case if no white list has been set.
+	 * @return true if all state variables are used; false if only the white listed variables are used
+	 */
+	public boolean usesAllVariables(){
+		return this.whiteList == null;
+	}
+
 	@Override
 	public double[] features(State s) {
 
 		if(this.whiteList == null){
+			if(s instanceof PrimitiveState){
+				PrimitiveState ps = (PrimitiveState)s;
+				double [] vals = new double[ps.numVariables()];
+				ps.copyInto(vals, 0);
+				return vals;
+			}
+
 			//then use all
 			List<Object> keys = s.variableKeys();
 			double [] vals = new double[keys.size()];
@@ -0,0 +1,135 @@
+package burlap.behavior.functionapproximation.sparse;
+
+import burlap.behavior.functionapproximation.DifferentiableStateActionValue;
+import burlap.behavior.functionapproximation.DifferentiableStateValue;
+import burlap.behavior.functionapproximation.FunctionGradient;
+import burlap.behavior.functionapproximation.PrimitiveSparseGradient;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only snapshot of a {@link LinearVFA}, created with {@link LinearVFA#freeze()}. Its weights and feature
+ * mappings are copied when it is created and never change, and it keeps no per-call scratch state, so a single
+ * instance can be evaluated by multiple threads at once. Features that the source function had not seen, which
+ * frozen features give the id -1, are evaluated with the default weight, as the source function would, but have no
+ * parameters and are omitted from gradients.
+ * <p>
+ * Setting or resetting parameters throws an {@link UnsupportedOperationException}.
+ */
+public class FrozenLinearVFA implements DifferentiableStateValue, DifferentiableStateActionValue {
+
+	/**
+	 * The read-only state features
+	 */
+	protected final SparseStateFeatures sparseStateFeatures;
+
+	/**
+	 * The read-only state-action features
+	 */
+	protected final SparseCrossProductFeatures stateActionFeatures;
+
+	/**
+	 * A map from feature identifiers to function weights
+	 */
+	protected final Map<Integer, Double> weights;
+
+	/**
+	 * The weight of features without a stored weight
+	 */
+	protected final double defaultWeight;
+
+
+	/**
+	 * Initializes.
+	 * @param sparseStateFeatures read-only state features
+	 * @param stateActionFeatures read-only state-action features defined over sparseStateFeatures
+	 * @param weights the function weights, which are copied
+	 * @param defaultWeight the weight of features without a stored weight
+	 */
+	public FrozenLinearVFA(SparseStateFeatures sparseStateFeatures, SparseCrossProductFeatures stateActionFeatures, Map<Integer, Double> weights, double defaultWeight) {
+		this.sparseStateFeatures = sparseStateFeatures;
+		this.stateActionFeatures = stateActionFeatures;
+		this.weights = Collections.unmodifiableMap(new HashMap<Integer, Double>(weights));
+		this.defaultWeight = defaultWeight;
+	}
+
+
+	@Override
+	public double evaluate(State s) {
+		return this.value(this.sparseStateFeatures.features(s));
+	}
+
+	@Override
+	public double evaluate(State s, Action a) {
+		return this.value(this.stateActionFeatures.features(s, a));
+	}
+
+	@Override
+	public FunctionGradient gradient(State s) {
+		return this.gradient(this.sparseStateFeatures.features(s));
+	}
+
+	@Override
+	public FunctionGradient gradient(State s, Action a) {
+		return this.gradient(this.stateActionFeatures.features(s, a));
+	}
+
+	@Override
+	public int numParameters() {
+		return this.weights.size();
+	}
+
+	@Override
+	public double getParameter(int i) {
+		return this.getWeight(i);
+	}
+
+	@Override
+	public void setParameter(int i, double p) {
+		throw new UnsupportedOperationException("Frozen value function approximations cannot be modified.");
+	}
+
+	@Override
+	public void resetParameters() {
+		throw new UnsupportedOperationException("Frozen value function approximations cannot be modified.");
+	}
+
+	/**
+	 * Returns this object, since it cannot be modified.
+	 * @return this object
+	 */
+	@Override
+	public FrozenLinearVFA copy() {
+		return this;
+	}
+
+
+	protected double getWeight(int weightId){
+		Double stored = this.weights.get(weightId);
+		return stored != null ? stored : this.defaultWeight;
+	}
+
+	protected double value(List<StateFeature> features){
+		double val = 0.;
+		for(StateFeature sf : features){
+			val += sf.value * this.getWeight(sf.id);
+		}
+		return val;
+	}
+
+	protected FunctionGradient gradient(List<StateFeature> features){
+		FunctionGradient gd = new PrimitiveSparseGradient(features.size());
+		for(StateFeature sf : features){
+			if(sf.id != -1){
+				gd.put(sf.id, sf.value);
+			}
+		}
+		return gd;
+	}
+
+}
@@ -3,6 +3,8 @@ package burlap.behavior.functionapproximation.sparse;
 import burlap.behavior.functionapproximation.DifferentiableStateActionValue;
 import burlap.behavior.functionapproximation.DifferentiableStateValue;
 import burlap.behavior.functionapproximation.FunctionGradient;
+import burlap.behavior.functionapproximation.PrimitiveSparseGradient;
+import burlap.behavior.functionapproximation.sparse.tilecoding.TileCodingFeatures;
 import burlap.mdp.core.action.Action;
 import burlap.mdp.core.state.State;
 
@@ -19,6 +21,9 @@ import java.util.Map;
  * This class can also be used for state-action value function approximation, which it will perform by creating
  * state-action features as a cross product of the state features and action set. You should only ever using this class
  * for state-values or state-action values, not both.
+ * <p>
+ * Evaluation caches the last input and creates weights for new features, so this class is not safe for concurrent use.
+ * Use {@link #freeze()} to obtain a read-only snapshot that is.
  *  
  * @author James MacGlashan
  *
@@ -137,7 +142,7 @@ public class LinearVFA implements DifferentiableStateValue, DifferentiableStateA
 			features = this.sparseStateFeatures.features(s);
 		}
 
-		FunctionGradient gd = new FunctionGradient.SparseGradient(features.size());
+		FunctionGradient gd = new PrimitiveSparseGradient(features.size());
 		for(StateFeature sf : features){
 			gd.put(sf.id, sf.value);
 		}
@@ -164,7 +169,7 @@ public class LinearVFA implements DifferentiableStateValue, DifferentiableStateA
 			features = this.stateActionFeatures.features(s, a);
 		}
 
-		FunctionGradient gd = new FunctionGradient.SparseGradient(features.size());
+		FunctionGradient gd = new PrimitiveSparseGradient(features.size());
 		for(StateFeature sf : features){
 			gd.put(sf.id, sf.value);
 		}
@@ -207,6 +212,24 @@ public class LinearVFA implements DifferentiableStateValue, DifferentiableStateA
 		this.weights.clear();
 	}
 
+	/**
+	 * Returns a read-only snapshot of this function's current weights and features that can be evaluated by multiple
+	 * threads at once. If the state features are {@link TileCodingFeatures}, the snapshot uses a frozen copy of them;
+	 * otherwise it uses a copy, which must be safe for concurrent use. Subsequent changes to this function do not affect
+	 * the snapshot.
+	 * @return a {@link FrozenLinearVFA} of this function
+	 */
+	public FrozenLinearVFA freeze() {
+		SparseStateFeatures frozenFeatures;
+		if(this.sparseStateFeatures instanceof TileCodingFeatures){
+			frozenFeatures = ((TileCodingFeatures)this.sparseStateFeatures).freeze();
+		}
+		else{
+			frozenFeatures = this.sparseStateFeatures.copy();
+		}
+		return new FrozenLinearVFA(frozenFeatures, this.stateActionFeatures.freeze(frozenFeatures), this.weights, this.defaultWeight);
+	}
+
 	@Override
 	public LinearVFA copy() {
 
@@ -21,6 +21,11 @@ public class SparseCrossProductFeatures implements SparseStateActionFeatures{
 	protected Map<Action, FeaturesMap> actionFeatures = new HashMap<Action, FeaturesMap>();
 	protected int nextFeatureId = 0;
 
+	/**
+	 * Whether the feature mapping is read-only. When frozen, unmapped state-action features map to -1.
+	 */
+	protected boolean frozen = false;
+
 	public SparseCrossProductFeatures(SparseStateFeatures sFeatures) {
 		this.sFeatures = sFeatures;
 	}
@@ -48,7 +53,26 @@ public class SparseCrossProductFeatures implements SparseStateActionFeatures{
 		for(Map.Entry<Action, FeaturesMap> e : actionFeatures.entrySet()){
 			nfeatures.put(e.getKey(), e.getValue().copy());
 		}
-		return new SparseCrossProductFeatures(sFeatures.copy(), nfeatures, nextFeatureId);
+		SparseCrossProductFeatures c = new SparseCrossProductFeatures(sFeatures.copy(), nfeatures, nextFeatureId);
+		c.frozen = this.frozen;
+		return c;
+	}
+
+	/**
+	 * Returns a read-only copy of these features that can be used by multiple threads at once, provided that the given
+	 * state features can be. The copy does not create new state-action features; instead, state-action pairs with a feature
+	 * that has not been seen before, or a state feature id of -1, are given the feature id -1.
+	 * @param stateFeatures the state features the copy uses, which should be a frozen copy of this object's state features
+	 * @return a frozen copy of these features
+	 */
+	public SparseCrossProductFeatures freeze(SparseStateFeatures stateFeatures) {
+		Map<Action, FeaturesMap> nfeatures = new HashMap<Action, FeaturesMap>(actionFeatures.size());
+		for(Map.Entry<Action, FeaturesMap> e : actionFeatures.entrySet()){
+			nfeatures.put(e.getKey(), e.getValue().copy());
+		}
+		SparseCrossProductFeatures frozenFeatures = new SparseCrossProductFeatures(stateFeatures, nfeatures, nextFeatureId);
+		frozenFeatures.frozen = true;
+		return frozenFeatures;
 	}
 
 	@Override
@@ -58,6 +82,9 @@ public class SparseCrossProductFeatures implements SparseStateActionFeatures{
 
 	protected int actionFeature(Action a, int from){
 		FeaturesMap fmap = this.actionFeatures.get(a);
+		if(this.frozen){
+			return fmap != null ? fmap.get(from) : -1;
+		}
 		if(fmap == null){
 			fmap = new FeaturesMap();
 			this.actionFeatures.put(a, fmap);
@@ -82,6 +109,11 @@ public class SparseCrossProductFeatures implements SparseStateActionFeatures{
 			this.featuresMap.put(from, to);
 		}
 
+		public int get(int from){
+			Integer to = this.featuresMap.get(from);
+			return to != null ? to : -1;
+		}
+
 		public int getOrCreate(int from){
 			Integer to = this.featuresMap.get(from);
 			if(to == null){
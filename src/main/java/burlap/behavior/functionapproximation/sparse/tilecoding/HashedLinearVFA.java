@@ -0,0 +1,174 @@
+package burlap.behavior.functionapproximation.sparse.tilecoding;
+
+import burlap.behavior.functionapproximation.DifferentiableStateActionValue;
+import burlap.behavior.functionapproximation.DifferentiableStateValue;
+import burlap.behavior.functionapproximation.FunctionGradient;
+import burlap.behavior.functionapproximation.PrimitiveSparseGradient;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Linear value function approximation over {@link HashedTileCodingFeatures} with the weights stored in a primitive
+ * array of the features' table size. The value of a state (or state-action pair) is the sum of the weights of its
+ * tiles, whose ids are written into a reusable buffer, so evaluation does not allocate beyond the state feature vector.
+ * For state-action value function approximation, each action salts the tile hashes, so that the tiles of each action
+ * are hashed to independent weights in the same table.
+ * <p>
+ * As with {@link burlap.behavior.functionapproximation.sparse.LinearVFA}, this class should be used for either state
+ * values or state-action values, not both, and it caches the last input for gradient computation, so it is not safe
+ * for concurrent use.
+ */
+public class HashedLinearVFA implements DifferentiableStateValue, DifferentiableStateActionValue {
+
+	/**
+	 * The hashed tile coding features
+	 */
+	protected HashedTileCodingFeatures features;
+
+	/**
+	 * The function weights, indexed by feature id
+	 */
+	protected double [] weights;
+
+	/**
+	 * The default weight value
+	 */
+	protected double defaultWeight;
+
+	/**
+	 * The hash salt of each action
+	 */
+	protected Map<Action, Integer> actionSalts = new HashMap<Action, Integer>();
+
+
+	protected int [] currentIndices;
+	protected State lastState = null;
+	protected Action lastAction = null;
+
+
+	/**
+	 * Initializes with all weights set to the default weight value.
+	 * @param features the hashed tile coding features
+	 * @param defaultWeight the default weight value
+	 */
+	public HashedLinearVFA(HashedTileCodingFeatures features, double defaultWeight) {
+		this.features = features;
+		this.defaultWeight = defaultWeight;
+		this.weights = new double[features.getTableSize()];
+		Arrays.fill(this.weights, defaultWeight);
+	}
+
+
+	@Override
+	public double evaluate(State s) {
+		this.setInput(s, null);
+		return this.currentValue();
+	}
+
+	@Override
+	public double evaluate(State s, Action a) {
+		this.setInput(s, a);
+		return this.currentValue();
+	}
+
+	@Override
+	public FunctionGradient gradient(State s) {
+		if(this.lastState != s || this.lastAction != null){
+			this.setInput(s, null);
+		}
+		return this.currentGradient();
+	}
+
+	@Override
+	public FunctionGradient gradient(State s, Action a) {
+		if(this.lastState != s || this.lastAction != a){
+			this.setInput(s, a);
+		}
+		return this.currentGradient();
+	}
+
+
+	@Override
+	public int numParameters() {
+		return this.weights.length;
+	}
+
+	@Override
+	public double getParameter(int i) {
+		return this.weights[i];
+	}
+
+	@Override
+	public void setParameter(int i, double p) {
+		this.weights[i] = p;
+	}
+
+	@Override
+	public void resetParameters() {
+		Arrays.fill(this.weights, this.defaultWeight);
+	}
+
+	@Override
+	public HashedLinearVFA copy() {
+		HashedLinearVFA vfa = new HashedLinearVFA(this.features, this.defaultWeight);
+		vfa.weights = this.weights.clone();
+		vfa.actionSalts = new HashMap<Action, Integer>(this.actionSalts);
+		return vfa;
+	}
+
+
+	public HashedTileCodingFeatures getFeatures() {
+		return features;
+	}
+
+	public double getDefaultWeight() {
+		return defaultWeight;
+	}
+
+
+	/**
+	 * Returns the hash salt of the given action, creating one if the action has not been seen before.
+	 * @param a the action
+	 * @return the hash salt of the action
+	 */
+	protected int actionSalt(Action a){
+		Integer salt = this.actionSalts.get(a);
+		if(salt == null){
+			salt = this.actionSalts.size() + 1;
+			this.actionSalts.put(a, salt);
+		}
+		return salt;
+	}
+
+	protected void setInput(State s, Action a){
+		if(this.currentIndices == null || this.currentIndices.length != this.features.numTilings()){
+			this.currentIndices = new int[this.features.numTilings()];
+		}
+		int salt = a == null ? 0 : this.actionSalt(a);
+		this.features.tileIndices(this.features.getFeatureVectorGenerator().features(s), salt, this.currentIndices);
+		this.lastState = s;
+		this.lastAction = a;
+	}
+
+	protected double currentValue(){
+		double val = 0.;
+		for(int index : this.currentIndices){
+			val += this.weights[index];
+		}
+		return val;
+	}
+
+	protected FunctionGradient currentGradient(){
+		PrimitiveSparseGradient gd = new PrimitiveSparseGradient(this.currentIndices.length);
+		for(int index : this.currentIndices){
+			gd.add(index, 1.);
+		}
+		return gd;
+	}
+
+}
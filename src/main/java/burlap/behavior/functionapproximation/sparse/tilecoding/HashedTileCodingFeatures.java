@@ -0,0 +1,177 @@
+package burlap.behavior.functionapproximation.sparse.tilecoding;
+
+import burlap.behavior.functionapproximation.dense.DenseStateFeatures;
+import burlap.behavior.functionapproximation.sparse.StateFeature;
+import burlap.mdp.core.state.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Tile coding that uses the hashing trick: rather than assigning each tile a feature id the first time it is seen,
+ * the tile coordinates of each tiling are hashed directly into a fixed number of feature ids, so memory does not grow
+ * with the number of tiles visited and no per-tile objects are created. Tiles that hash to the same id share a weight;
+ * with a table that is large relative to the number of tiles actually visited, such collisions are rare and
+ * tolerated by learning.
+ * <p>
+ * Tilings are specified in the same way as for {@link TileCodingFeatures}. {@link #tileIndices(double[], int, int[])}
+ * writes the feature ids of a feature vector into a reusable buffer without allocation, and it is used by
+ * {@link HashedLinearVFA}, which stores its weights in a primitive array of the table size. Use {@link #generateHashedVFA(double)}
+ * to create one. These features can also be used with {@link burlap.behavior.functionapproximation.sparse.LinearVFA}
+ * through {@link #features(State)}, although that forgoes the fixed-size weights.
+ * <p>
+ * Hashing does not modify these features, so they are safe for concurrent use once their tilings have been added.
+ */
+public class HashedTileCodingFeatures extends TileCodingFeatures {
+
+	/**
+	 * The number of feature ids into which tiles are hashed
+	 */
+	protected int tableSize;
+
+
+	/**
+	 * Initializes.
+	 * @param featureVectorGenerator the state to feature vector generator to use
+	 * @param tableSize the number of feature ids into which tiles are hashed
+	 */
+	public HashedTileCodingFeatures(DenseStateFeatures featureVectorGenerator, int tableSize) {
+		super(featureVectorGenerator);
+		if(tableSize <= 0){
+			throw new RuntimeException("The hashed tile coding table size must be positive; got " + tableSize);
+		}
+		this.tableSize = tableSize;
+	}
+
+
+	/**
+	 * Writes the feature id of the tile of the input vector in each tiling into the given buffer.
+	 * Different salts hash the same tiles to independent ids, which is used to create separate features for each action.
+	 * @param input the feature vector to tile
+	 * @param salt the salt mixed into the hash
+	 * @param indices the buffer, which must have a length of at least {@link #numTilings()}
+	 */
+	public void tileIndices(double [] input, int salt, int [] indices){
+		for(int i = 0; i < this.tilings.size(); i++){
+			int h = tileHash(this.tilings.get(i), input, mix(31 * salt + i));
+			indices[i] = (h & Integer.MAX_VALUE) % this.tableSize;
+		}
+	}
+
+
+	/**
+	 * Returns the hash of the tile of the input vector in a tiling. Each tile coordinate is offset by a salt of its dimension and
+	 * mixed before it is combined into the hash, so that neighboring tiles, which a polynomial hash such as that of
+	 * {@link Tiling.FVTile} maps to related values, are hashed to unrelated ids.
+	 * @param tiling the tiling
+	 * @param input the feature vector to tile
+	 * @param seed the initial hash value
+	 * @return the hash of the tile
+	 */
+	protected static int tileHash(Tiling tiling, double [] input, int seed){
+
+		if(input.length != tiling.widths.length){
+			throw new RuntimeException("Error: the input feature vector to be tiled is a different dimensionality " +
+					"than the dimensionality on which this tiling was defined; " +
+					"e.g., the specified widths vector for this tiling is a different dimension than the input vector.");
+		}
+
+		int h = seed;
+		for(int i = 0; i < input.length; i++){
+			if(tiling.dimensionMask[i]){
+				int coord = (int)Math.floor((input[i] - tiling.offset[i]) / tiling.widths[i]);
+				h = mix(h ^ mix(coord + 0x9e3779b9 * (i + 1)));
+			}
+		}
+
+		return h;
+	}
+
+
+	@Override
+	public List<StateFeature> features(State s) {
+		int [] indices = new int[this.tilings.size()];
+		this.tileIndices(this.featureVectorGenerator.features(s), 0, indices);
+		List<StateFeature> features = new ArrayList<StateFeature>(indices.length);
+		for(int index : indices){
+			features.add(new StateFeature(index, 1.));
+		}
+		return features;
+	}
+
+
+	/**
+	 * Returns the number of tilings, which is the number of feature ids of each feature vector.
+	 * @return the number of tilings
+	 */
+	public int numTilings(){
+		return this.tilings.size();
+	}
+
+
+	/**
+	 * Returns the number of feature ids into which tiles are hashed.
+	 * @return the table size
+	 */
+	@Override
+	public int numFeatures() {
+		return this.tableSize;
+	}
+
+
+	public int getTableSize() {
+		return tableSize;
+	}
+
+
+	/**
+	 * Returns the state feature vector generator whose output is tiled.
+	 * @return the state feature vector generator
+	 */
+	public DenseStateFeatures getFeatureVectorGenerator() {
+		return featureVectorGenerator;
+	}
+
+
+	@Override
+	public HashedTileCodingFeatures copy() {
+		HashedTileCodingFeatures tilecoding = new HashedTileCodingFeatures(this.featureVectorGenerator, this.tableSize);
+		tilecoding.rand = this.rand;
+		tilecoding.tilings = new ArrayList<Tiling>(this.tilings);
+		tilecoding.frozen = this.frozen;
+		return tilecoding;
+	}
+
+
+	@Override
+	public HashedTileCodingFeatures freeze() {
+		return (HashedTileCodingFeatures)super.freeze();
+	}
+
+
+	/**
+	 * Creates a {@link HashedLinearVFA} over these features.
+	 * @param defaultWeightValue the initial value of all weights
+	 * @return a {@link HashedLinearVFA} that uses these features
+	 */
+	public HashedLinearVFA generateHashedVFA(double defaultWeightValue){
+		return new HashedLinearVFA(this, defaultWeightValue);
+	}
+
+
+	/**
+	 * The MurmurHash3 32-bit finalizer, which spreads the bits of a hash code.
+	 * @param h the hash code
+	 * @return the mixed hash code
+	 */
+	protected static int mix(int h){
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+}
@@ -62,6 +62,12 @@ public class TileCodingFeatures implements SparseStateFeatures {
 	protected int														nextStateFeatureId = 0;
 
 
+	/**
+	 * Whether the tile to feature mapping is read-only. When frozen, tiles without a feature id map to -1.
+	 */
+	protected boolean													frozen = false;
+
+
 	@Override
 	public TileCodingFeatures copy() {
 		TileCodingFeatures tilecoding = new TileCodingFeatures(this.featureVectorGenerator);
@@ -75,10 +81,33 @@ public class TileCodingFeatures implements SparseStateFeatures {
 		}
 
 		tilecoding.nextStateFeatureId = this.nextStateFeatureId;
+		tilecoding.frozen = this.frozen;
 
 		return tilecoding;
 	}
 
+
+	/**
+	 * Returns a read-only copy of these features that can be used by multiple threads at once. The copy does not create
+	 * feature ids for tiles that have not been seen before; instead, such tiles are given the feature id -1, which
+	 * {@link LinearVFA} snapshots evaluate with the default weight. Tilings cannot be added to the copy.
+	 * @return a frozen copy of these features
+	 */
+	public TileCodingFeatures freeze() {
+		TileCodingFeatures tilecoding = this.copy();
+		tilecoding.frozen = true;
+		return tilecoding;
+	}
+
+
+	/**
+	 * Returns whether these features are read-only.
+	 * @return true if these features are frozen; false otherwise.
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
 	/**
 	 * Initializes specifying the kind of state feature vector generator to use for turning OO-MDP states into feature vectors.
 	 * The resulting feature vectors are what is tiled by this class.
@@ -105,6 +134,10 @@ public class TileCodingFeatures implements SparseStateFeatures {
 	 * @param tileArrangement whether the created tiles are uniformally spaced or randomly spaced.
 	 */
 	public void addTilingsForDimensionsAndWidths(boolean [] dimensionMask, double [] widths, int nTilings, TilingArrangement tileArrangement){
+
+		if(this.frozen){
+			throw new UnsupportedOperationException("Tilings cannot be added to frozen tile coding features.");
+		}
 		
 		for(int i = 0; i < nTilings; i++){
 			this.stateFeatures.add(new HashMap<Tiling.FVTile, Integer>());
@@ -167,7 +200,7 @@ public class TileCodingFeatures implements SparseStateFeatures {
 
 	/**
 	 * Returns the stored feature id or creates, stores and returns one. If a feature id is created, then the {@link #nextStateFeatureId} data member of this
-	 * object is incremented.
+	 * object is incremented. If these features are frozen, no feature id is created and -1 is returned instead.
 	 * @param tileFeatureMap the map from tiles to feature ids
 	 * @param tile the tile for which a feature id is returned.
 	 * @return the feature id for the tile.
@@ -175,6 +208,9 @@ public class TileCodingFeatures implements SparseStateFeatures {
 	protected int getOrGenerateFeature(Map<Tiling.FVTile, Integer> tileFeatureMap, Tiling.FVTile tile){
 		Integer stored = tileFeatureMap.get(tile);
 		if(stored == null){
+			if(this.frozen){
+				return -1;
+			}
 			stored = this.nextStateFeatureId;
 			tileFeatureMap.put(tile, stored);
 			this.nextStateFeatureId++;
@@ -2,6 +2,7 @@ package burlap.behavior.policy;
 
 import burlap.behavior.policy.support.ActionProb;
 import burlap.behavior.singleagent.MDPSolverInterface;
+import burlap.behavior.valuefunction.IndexedQProvider;
 import burlap.behavior.valuefunction.QProvider;
 import burlap.behavior.valuefunction.QValue;
 import burlap.debugtools.RandomFactory;
@@ -80,6 +81,17 @@ public class EpsilonGreedy implements SolverDerivedPolicy, EnumerablePolicy {
 	@Override
 	public Action action(State s) {
 		
+		if(this.qplanner instanceof IndexedQProvider){
+			IndexedQProvider iq = (IndexedQProvider)this.qplanner;
+			int sid = iq.stateIndex(s);
+			if(sid != -1){
+				double roll = rand.nextDouble();
+				if(roll <= epsilon){
+					return iq.action(sid, rand.nextInt(iq.numActions(sid)));
+				}
+				return iq.action(sid, GreedyQPolicy.greedyActionIndex(iq, sid, rand));
+			}
+		}
 		
 		List<QValue> qValues = this.qplanner.qValues(s);
 		
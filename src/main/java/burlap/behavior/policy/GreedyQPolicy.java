@@ -2,6 +2,7 @@ package burlap.behavior.policy;
 
 import burlap.behavior.policy.support.ActionProb;
 import burlap.behavior.singleagent.MDPSolverInterface;
+import burlap.behavior.valuefunction.IndexedQProvider;
 import burlap.behavior.valuefunction.QProvider;
 import burlap.behavior.valuefunction.QValue;
 import burlap.debugtools.RandomFactory;
@@ -53,6 +54,13 @@ public class GreedyQPolicy implements SolverDerivedPolicy, EnumerablePolicy {
 	
 	@Override
 	public Action action(State s) {
+		if(this.qplanner instanceof IndexedQProvider){
+			IndexedQProvider iq = (IndexedQProvider)this.qplanner;
+			int sid = iq.stateIndex(s);
+			if(sid != -1){
+				return iq.action(sid, greedyActionIndex(iq, sid, this.rand));
+			}
+		}
 		List<QValue> qValues = this.qplanner.qValues(s);
 		List <QValue> maxActions = new ArrayList<QValue>();
 		maxActions.add(qValues.get(0));
@@ -112,6 +120,41 @@ public class GreedyQPolicy implements SolverDerivedPolicy, EnumerablePolicy {
 
 
 
+	/**
+	 * Returns the index of a max Q-value action of an {@link IndexedQProvider} state, breaking ties uniformly randomly.
+	 * Ties are broken by the same single random draw over the tied actions, in index order, as the {@link QValue}
+	 * list based selection, so both produce the same action for the same random state.
+	 * @param qSource the {@link IndexedQProvider}
+	 * @param sid the state index
+	 * @param rand the random number generator used to break ties
+	 * @return the index of the selected action
+	 */
+	public static int greedyActionIndex(IndexedQProvider qSource, int sid, Random rand){
+		int n = qSource.numActions(sid);
+		int numMax = 1;
+		double maxQ = qSource.qValue(sid, 0);
+		for(int i = 1; i < n; i++){
+			double q = qSource.qValue(sid, i);
+			if(q == maxQ){
+				numMax++;
+			}
+			else if(q > maxQ){
+				numMax = 1;
+				maxQ = q;
+			}
+		}
+		int selected = rand.nextInt(numMax);
+		for(int i = 0; i < n; i++){
+			if(qSource.qValue(sid, i) == maxQ){
+				if(selected == 0){
+					return i;
+				}
+				selected--;
+			}
+		}
+		throw new RuntimeException("Could not select a max Q-value action");
+	}
+
 	@Override
 	public boolean definedFor(State s) {
 		return true; //can always find q-values with default value
@@ -0,0 +1,276 @@
+package burlap.behavior.singleagent;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.PrimitiveState;
+import burlap.mdp.core.state.State;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the episodes of a file written by a {@link BinaryEpisodeWriter}. The file is memory-mapped when the reader
+ * is constructed, and {@link #iterator()} decodes episodes lazily, one at a time, in the order they were written, so
+ * large corpora can be processed without materializing all of their episodes. Each iterator is independent, so the
+ * file can be iterated multiple times, and {@link #readAll()} returns all episodes in a list.
+ * <p>
+ * Columnar states are reconstructed by copying the prototype state of their schema and setting its variables, with
+ * int variables set as {@link Integer} values and double variables as {@link Double} values; see {@link BinaryEpisodeWriter}
+ * for the requirements this places on states.
+ * <p>
+ * Files must be smaller than 2GB to be mapped. A runtime exception is thrown if the file cannot be read or is not a
+ * binary episode file.
+ */
+public class BinaryEpisodeReader implements Iterable<Episode> {
+
+	/**
+	 * The path of the file
+	 */
+	protected String path;
+
+	/**
+	 * The memory-mapped contents of the file
+	 */
+	protected ByteBuffer buffer;
+
+
+	/**
+	 * Maps the file and validates its header.
+	 * @param path the path of a file written by a {@link BinaryEpisodeWriter}
+	 */
+	public BinaryEpisodeReader(String path) {
+
+		this.path = path;
+
+		try {
+			RandomAccessFile file = new RandomAccessFile(path, "r");
+			try {
+				FileChannel channel = file.getChannel();
+				if(channel.size() > Integer.MAX_VALUE){
+					throw new RuntimeException("Binary episode file is too large to be mapped (" + channel.size() + " bytes); split it into multiple files: " + path);
+				}
+				this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			} finally {
+				file.close();
+			}
+		} catch(IOException e) {
+			throw new RuntimeException("Could not read binary episode file: " + path, e);
+		}
+
+		if(this.buffer.limit() < 8 || this.buffer.getInt(0) != BinaryEpisodeWriter.MAGIC){
+			throw new RuntimeException("Not a binary episode file: " + path);
+		}
+		int version = this.buffer.getInt(4);
+		if(version != BinaryEpisodeWriter.VERSION){
+			throw new RuntimeException("Unsupported binary episode file version " + version + ": " + path);
+		}
+
+	}
+
+
+	/**
+	 * Returns an iterator that decodes the episodes of the file lazily.
+	 * @return an {@link Iterator} over the episodes of the file
+	 */
+	@Override
+	public Iterator<Episode> iterator() {
+		return new EpisodeIterator();
+	}
+
+
+	/**
+	 * Reads all episodes of the file into a list.
+	 * @return a {@link List} of all episodes in the file
+	 */
+	public List<Episode> readAll(){
+		List<Episode> episodes = new ArrayList<Episode>();
+		for(Episode e : this){
+			episodes.add(e);
+		}
+		return episodes;
+	}
+
+
+	/**
+	 * Reads a string written by {@link BinaryEpisodeWriter#writeString(java.io.DataOutputStream, String)}.
+	 * @param buf the buffer positioned at the string
+	 * @return the string
+	 */
+	protected static String readString(ByteBuffer buf){
+		byte [] bytes = new byte[buf.getInt()];
+		buf.get(bytes);
+		try {
+			return new String(bytes, "UTF-8");
+		} catch(UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+
+	/**
+	 * An iterator that decodes episodes lazily. Schemas and actions are accumulated as their records are encountered.
+	 */
+	protected class EpisodeIterator implements Iterator<Episode> {
+
+		protected ByteBuffer buf;
+		protected Yaml yaml = new Yaml();
+		protected List<MutableState> prototypes = new ArrayList<MutableState>();
+		protected List<byte[]> schemaTypes = new ArrayList<byte[]>();
+		protected List<Action> actions = new ArrayList<Action>();
+		protected Episode next = null;
+
+		public EpisodeIterator() {
+			this.buf = BinaryEpisodeReader.this.buffer.duplicate();
+			this.buf.position(8);
+		}
+
+		@Override
+		public boolean hasNext() {
+			if(this.next == null){
+				this.next = this.readNext();
+			}
+			return this.next != null;
+		}
+
+		@Override
+		public Episode next() {
+			if(!this.hasNext()){
+				throw new NoSuchElementException();
+			}
+			Episode e = this.next;
+			this.next = null;
+			return e;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("Binary episode files are read-only");
+		}
+
+		/**
+		 * Reads records until the next episode record is decoded or the end of the file is reached.
+		 * @return the next {@link Episode}, or null if there are no more episodes
+		 */
+		protected Episode readNext(){
+			while(this.buf.hasRemaining()){
+				byte tag = this.buf.get();
+				if(tag == BinaryEpisodeWriter.SCHEMA_RECORD){
+					this.readSchema();
+				}
+				else if(tag == BinaryEpisodeWriter.ACTION_RECORD){
+					this.readAction();
+				}
+				else if(tag == BinaryEpisodeWriter.EPISODE_RECORD){
+					return this.readEpisode();
+				}
+				else{
+					throw new RuntimeException("Corrupt binary episode file; unknown record type " + tag + " at byte " + (this.buf.position()-1) + ": " + path);
+				}
+			}
+			return null;
+		}
+
+		protected void readSchema(){
+			int id = this.buf.getInt();
+			String className = readString(this.buf);
+			byte [] types = new byte[this.buf.getInt()];
+			this.buf.get(types);
+			Object prototype = this.yaml.load(readString(this.buf));
+			if(id != this.prototypes.size()){
+				throw new RuntimeException("Corrupt binary episode file; expected schema " + this.prototypes.size() + " but found " + id + ": " + path);
+			}
+			if(prototype == null || !prototype.getClass().getName().equals(className)){
+				throw new RuntimeException("Corrupt binary episode file; schema " + id + " is for class " + className + " but its prototype is "
+						+ (prototype == null ? "null" : prototype.getClass().getName()) + ": " + path);
+			}
+			if(!(prototype instanceof MutableState) || !(prototype instanceof PrimitiveState) || ((PrimitiveState)prototype).numVariables() != types.length){
+				throw new RuntimeException("Corrupt binary episode file; the prototype of schema " + id + " does not have the schema's " + types.length + " variables: " + path);
+			}
+			this.prototypes.add((MutableState)prototype);
+			this.schemaTypes.add(types);
+		}
+
+		protected void readAction(){
+			int id = this.buf.getInt();
+			Action a = (Action)this.yaml.load(readString(this.buf));
+			if(id != this.actions.size()){
+				throw new RuntimeException("Corrupt binary episode file; expected action " + this.actions.size() + " but found " + id + ": " + path);
+			}
+			this.actions.add(a);
+		}
+
+		protected Episode readEpisode(){
+
+			int ns = this.buf.getInt();
+			int [] stateSchemas = new int[ns];
+			for(int t = 0; t < ns; t++){
+				stateSchemas[t] = this.buf.getInt();
+			}
+
+			//create states of each schema in the order of their first appearance, which is the order of their columns
+			State [] states = new State[ns];
+			for(int t = 0; t < ns; t++){
+				int sid = stateSchemas[t];
+				if(sid == BinaryEpisodeWriter.YAML_SCHEMA || states[t] != null){
+					continue;
+				}
+				List<Object> keys = this.prototypes.get(sid).variableKeys();
+				byte [] types = this.schemaTypes.get(sid);
+				for(int t2 = t; t2 < ns; t2++){
+					if(stateSchemas[t2] == sid){
+						states[t2] = this.prototypes.get(sid).copy();
+					}
+				}
+				for(int i = 0; i < types.length; i++){
+					Object key = keys.get(i);
+					for(int t2 = t; t2 < ns; t2++){
+						if(stateSchemas[t2] != sid){
+							continue;
+						}
+						Object v;
+						if(types[i] == BinaryEpisodeWriter.INT_VARIABLE){
+							v = this.buf.getInt();
+						}
+						else{
+							v = this.buf.getDouble();
+						}
+						((MutableState)states[t2]).set(key, v);
+					}
+				}
+			}
+
+			for(int t = 0; t < ns; t++){
+				if(stateSchemas[t] == BinaryEpisodeWriter.YAML_SCHEMA){
+					states[t] = (State)this.yaml.load(readString(this.buf));
+				}
+			}
+
+			Episode e = new Episode();
+			for(State s : states){
+				e.stateSequence.add(s);
+			}
+
+			int na = this.buf.getInt();
+			for(int t = 0; t < na; t++){
+				e.actionSequence.add(this.actions.get(this.buf.getInt()));
+			}
+
+			int nr = this.buf.getInt();
+			for(int t = 0; t < nr; t++){
+				e.rewardSequence.add(this.buf.getDouble());
+			}
+
+			return e;
+		}
+
+	}
+
+}
@@ -0,0 +1,429 @@
+package burlap.behavior.singleagent;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.PrimitiveState;
+import burlap.mdp.core.state.State;
+import burlap.mdp.core.state.StateUtilities;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams {@link Episode} objects to a compact binary file that can be read back lazily with a {@link BinaryEpisodeReader}.
+ * Episodes are appended one at a time with {@link #write(Episode)}, so a corpus never has to be held in memory to be written,
+ * and the file must be closed with {@link #close()} once all episodes have been written.
+ * <p>
+ * The file is a header followed by a sequence of records. Schema records describe a class of states and action
+ * records intern an action; each is written the first time a state of that class or that action is encountered, and
+ * episode records then refer to them by int id. In an episode record, states are stored in columnar form:
+ * the values of each variable for all time steps that share a schema are stored contiguously, as 4-byte ints or
+ * 8-byte doubles, followed by the action ids and the rewards as doubles.
+ * <p>
+ * States may be stored in columnar form if they implement both {@link PrimitiveState} and {@link MutableState}. A schema
+ * stores a prototype state, serialized with YAML, from which states are reconstructed: the reader copies the prototype and sets its
+ * variables with {@link MutableState#set(Object, Object)}, so any content of a state that is not a variable is restored from
+ * the prototype. Therefore a state is only stored with a schema if
+ * {@link StateUtilities#reconstructsFromPrototype(MutableState, PrimitiveState)} verifies that this reconstruction reproduces it;
+ * otherwise a new schema with the state as its prototype is written, up to {@link #getMaxSchemasPerClass()} schemas per state class.
+ * States that cannot be stored with a schema, or all states if columnar storage is disabled with {@link #toggleColumnarStates(boolean)},
+ * are stored as YAML in the episode record, as {@link Episode#write(String)} does. Actions are always serialized with YAML,
+ * but only once per distinct action.
+ * <p>
+ * A runtime exception is thrown if writing fails.
+ */
+public class BinaryEpisodeWriter {
+
+	/**
+	 * The first int of every binary episode file
+	 */
+	public static final int MAGIC = 0x42455053;
+
+	/**
+	 * The version of the binary format
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * The tag of a schema record
+	 */
+	public static final byte SCHEMA_RECORD = 1;
+
+	/**
+	 * The tag of an action record
+	 */
+	public static final byte ACTION_RECORD = 2;
+
+	/**
+	 * The tag of an episode record
+	 */
+	public static final byte EPISODE_RECORD = 3;
+
+	/**
+	 * The schema id of states that are stored as YAML
+	 */
+	public static final int YAML_SCHEMA = -1;
+
+	/**
+	 * The variable type code of int variables
+	 */
+	public static final byte INT_VARIABLE = 0;
+
+	/**
+	 * The variable type code of double variables
+	 */
+	public static final byte DOUBLE_VARIABLE = 1;
+
+
+	/**
+	 * The output stream
+	 */
+	protected DataOutputStream out;
+
+	/**
+	 * The YAML serializer for prototypes, actions, and non-columnar states
+	 */
+	protected Yaml yaml = new Yaml();
+
+	/**
+	 * The schemas of each state class
+	 */
+	protected Map<Class<?>, List<Schema>> schemas = new HashMap<Class<?>, List<Schema>>();
+
+	/**
+	 * The schema, or null for YAML, chosen for each variable key list of each state class whose schema match depends only on its
+	 * variable keys (see {@link StateUtilities#reconstructionDependsOnlyOnKeys(Class)})
+	 */
+	protected Map<Class<?>, Map<List<Object>, Schema>> keySchemas = new HashMap<Class<?>, Map<List<Object>, Schema>>();
+
+	/**
+	 * The maximum number of schemas of each state class, beyond which states of the class that no schema reproduces are stored as YAML
+	 */
+	protected int maxSchemasPerClass = 16;
+
+	/**
+	 * The number of schemas written
+	 */
+	protected int numSchemas = 0;
+
+	/**
+	 * The interned action ids
+	 */
+	protected Map<Action, Integer> actionIds = new HashMap<Action, Integer>();
+
+	/**
+	 * Whether states are stored in columnar form when possible
+	 */
+	protected boolean columnarStates = true;
+
+	/**
+	 * The number of episodes written
+	 */
+	protected int numEpisodes = 0;
+
+
+	/**
+	 * Creates the file, and any missing parent directories, and writes the header.
+	 * @param path the path of the file to write
+	 */
+	public BinaryEpisodeWriter(String path) {
+
+		File f = (new File(path)).getParentFile();
+		if(f != null){
+			f.mkdirs();
+		}
+
+		try {
+			this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+			this.out.writeInt(MAGIC);
+			this.out.writeInt(VERSION);
+		} catch(IOException e) {
+			throw new RuntimeException("Could not open binary episode file: " + path, e);
+		}
+
+	}
+
+
+	/**
+	 * Toggles whether states are stored in columnar form when they support it. When disabled, all states are stored
+	 * as YAML, which preserves any state content that is not a variable. Only affects episodes written after it is called.
+	 * @param columnarStates true if states should be stored in columnar form when possible; false if always as YAML.
+	 */
+	public void toggleColumnarStates(boolean columnarStates){
+		this.columnarStates = columnarStates;
+	}
+
+
+	/**
+	 * Returns the maximum number of schemas of each state class.
+	 * @return the maximum number of schemas of each state class
+	 */
+	public int getMaxSchemasPerClass() {
+		return maxSchemasPerClass;
+	}
+
+
+	/**
+	 * Sets the maximum number of schemas of each state class. States of a class that no existing schema reproduces are stored as
+	 * YAML once the class has this many schemas, so that states whose non-variable content differs from state to state do not each write a schema.
+	 * @param maxSchemasPerClass the maximum number of schemas of each state class
+	 */
+	public void setMaxSchemasPerClass(int maxSchemasPerClass) {
+		this.maxSchemasPerClass = maxSchemasPerClass;
+	}
+
+
+	/**
+	 * Returns the number of episodes written so far.
+	 * @return the number of episodes written
+	 */
+	public int numEpisodes(){
+		return this.numEpisodes;
+	}
+
+
+	/**
+	 * Appends an episode to the file.
+	 * @param e the {@link Episode} to write
+	 */
+	public void write(Episode e){
+
+		try {
+
+			int ns = e.stateSequence.size();
+			int [] stateSchemas = new int[ns];
+			List<Schema> episodeSchemas = new ArrayList<Schema>();
+			for(int t = 0; t < ns; t++){
+				Schema schema = this.schema(e.stateSequence.get(t));
+				if(schema == null){
+					stateSchemas[t] = YAML_SCHEMA;
+				}
+				else{
+					stateSchemas[t] = schema.id;
+					if(!episodeSchemas.contains(schema)){
+						episodeSchemas.add(schema);
+					}
+				}
+			}
+
+			int na = e.actionSequence.size();
+			int [] actions = new int[na];
+			for(int t = 0; t < na; t++){
+				actions[t] = this.actionId(e.actionSequence.get(t));
+			}
+
+			this.out.writeByte(EPISODE_RECORD);
+			this.out.writeInt(ns);
+			for(int t = 0; t < ns; t++){
+				this.out.writeInt(stateSchemas[t]);
+			}
+
+			//columns of each schema
+			for(Schema schema : episodeSchemas){
+				for(int i = 0; i < schema.types.length; i++){
+					for(int t = 0; t < ns; t++){
+						if(stateSchemas[t] != schema.id){
+							continue;
+						}
+						PrimitiveState ps = (PrimitiveState)e.stateSequence.get(t);
+						if(schema.types[i] == INT_VARIABLE){
+							this.out.writeInt(ps.getInt(i));
+						}
+						else{
+							this.out.writeDouble(ps.getDouble(i));
+						}
+					}
+				}
+			}
+
+			//non-columnar states
+			for(int t = 0; t < ns; t++){
+				if(stateSchemas[t] == YAML_SCHEMA){
+					writeString(this.out, this.yaml.dump(e.stateSequence.get(t)));
+				}
+			}
+
+			this.out.writeInt(na);
+			for(int t = 0; t < na; t++){
+				this.out.writeInt(actions[t]);
+			}
+
+			int nr = e.rewardSequence.size();
+			this.out.writeInt(nr);
+			for(int t = 0; t < nr; t++){
+				this.out.writeDouble(e.rewardSequence.get(t));
+			}
+
+		} catch(IOException ex) {
+			throw new RuntimeException("Could not write episode to binary episode file", ex);
+		}
+
+		this.numEpisodes++;
+
+	}
+
+
+	/**
+	 * Flushes buffered output to disk.
+	 */
+	public void flush(){
+		try {
+			this.out.flush();
+		} catch(IOException e) {
+			throw new RuntimeException("Could not flush binary episode file", e);
+		}
+	}
+
+
+	/**
+	 * Flushes and closes the file.
+	 */
+	public void close(){
+		try {
+			this.out.close();
+		} catch(IOException e) {
+			throw new RuntimeException("Could not close binary episode file", e);
+		}
+	}
+
+
+	/**
+	 * Returns the schema for the given state, writing a new schema record if needed, or null if the state is stored as YAML.
+	 * The state is stored with the first schema of its class whose prototype reproduces it; if there is none, a schema with the state
+	 * as its prototype is written, unless its class already has the maximum number of schemas or the state cannot be reconstructed from a copy of itself.
+	 * If the match depends only on the state's variable keys, the result is memoized by class and variable keys.
+	 * @param s the state
+	 * @return the {@link Schema} of the state, or null if it is stored as YAML
+	 * @throws IOException if the schema record cannot be written
+	 */
+	protected Schema schema(State s) throws IOException{
+
+		if(!this.columnarStates || !(s instanceof PrimitiveState) || !(s instanceof MutableState)){
+			return null;
+		}
+
+		if(!StateUtilities.reconstructionDependsOnlyOnKeys(s.getClass())){
+			return this.matchSchema(s);
+		}
+		Map<List<Object>, Schema> classKeySchemas = this.keySchemas.get(s.getClass());
+		if(classKeySchemas == null){
+			classKeySchemas = new HashMap<List<Object>, Schema>();
+			this.keySchemas.put(s.getClass(), classKeySchemas);
+		}
+		List<Object> keys = s.variableKeys();
+		if(classKeySchemas.containsKey(keys)){
+			return classKeySchemas.get(keys);
+		}
+		Schema schema = this.matchSchema(s);
+		classKeySchemas.put(keys, schema);
+		return schema;
+	}
+
+
+	/**
+	 * Returns the first schema of the state's class whose prototype reproduces the state, writing a new schema record with the state
+	 * as its prototype if there is none, or returns null if the state is stored as YAML.
+	 * @param s the state, which implements both {@link PrimitiveState} and {@link MutableState}
+	 * @return the {@link Schema} of the state, or null if it is stored as YAML
+	 * @throws IOException if the schema record cannot be written
+	 */
+	protected Schema matchSchema(State s) throws IOException{
+
+		PrimitiveState ps = (PrimitiveState)s;
+		List<Schema> classSchemas = this.schemas.get(s.getClass());
+		if(classSchemas == null){
+			classSchemas = new ArrayList<Schema>();
+			this.schemas.put(s.getClass(), classSchemas);
+		}
+		for(Schema schema : classSchemas){
+			if(StateUtilities.reconstructsFromPrototype(schema.prototype, ps)){
+				return schema;
+			}
+		}
+
+		if(classSchemas.size() >= this.maxSchemasPerClass){
+			return null;
+		}
+		MutableState prototype = (MutableState)s.copy();
+		if(!StateUtilities.reconstructsFromPrototype(prototype, ps)){
+			return null;
+		}
+
+		int nv = ps.numVariables();
+		Schema schema = new Schema(this.numSchemas, new byte[nv], prototype);
+		for(int i = 0; i < nv; i++){
+			schema.types[i] = ps.isIntVariable(i) ? INT_VARIABLE : DOUBLE_VARIABLE;
+		}
+
+		this.out.writeByte(SCHEMA_RECORD);
+		this.out.writeInt(schema.id);
+		writeString(this.out, s.getClass().getName());
+		this.out.writeInt(nv);
+		this.out.write(schema.types);
+		writeString(this.out, this.yaml.dump(s));
+
+		classSchemas.add(schema);
+		this.numSchemas++;
+
+		return schema;
+	}
+
+
+	/**
+	 * Returns the id of the given action, writing a new action record if needed.
+	 * @param a the action
+	 * @return the id of the action
+	 * @throws IOException if the action record cannot be written
+	 */
+	protected int actionId(Action a) throws IOException{
+		Integer id = this.actionIds.get(a);
+		if(id != null){
+			return id;
+		}
+		id = this.actionIds.size();
+		this.out.writeByte(ACTION_RECORD);
+		this.out.writeInt(id);
+		writeString(this.out, this.yaml.dump(a));
+		this.actionIds.put(a, id);
+		return id;
+	}
+
+
+	/**
+	 * Writes a string as its length in bytes followed by its UTF-8 bytes.
+	 * @param out the output stream
+	 * @param str the string to write
+	 * @throws IOException if the string cannot be written
+	 */
+	protected static void writeString(DataOutputStream out, String str) throws IOException{
+		byte [] bytes = str.getBytes("UTF-8");
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+
+	/**
+	 * The id, variable types, and prototype of a class of states stored in columnar form
+	 */
+	protected static class Schema{
+
+		public int id;
+		public byte [] types;
+		public MutableState prototype;
+
+		public Schema(int id, byte[] types, MutableState prototype) {
+			this.id = id;
+			this.types = types;
+			this.prototype = prototype;
+		}
+	}
+
+}
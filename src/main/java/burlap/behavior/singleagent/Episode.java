@@ -371,6 +371,32 @@ public class Episode {
 	}
 
 
+	/**
+	 * Writes a {@link java.util.List} of {@link Episode} objects to a single compact binary file with a {@link BinaryEpisodeWriter}.
+	 * The episodes can be read back with {@link #readEpisodesBinary(String)}, or lazily with a {@link BinaryEpisodeReader}.
+	 * @param episodes the list of episodes to write to disk
+	 * @param path the path of the binary file
+	 */
+	public static void writeEpisodesBinary(List<Episode> episodes, String path){
+		BinaryEpisodeWriter writer = new BinaryEpisodeWriter(path);
+		for(Episode e : episodes){
+			writer.write(e);
+		}
+		writer.close();
+	}
+
+
+	/**
+	 * Reads all episodes of a binary file written by a {@link BinaryEpisodeWriter} into a {@link java.util.List}.
+	 * To process episodes one at a time without holding all of them in memory, iterate a {@link BinaryEpisodeReader} instead.
+	 * @param path the path of the binary file
+	 * @return a {@link java.util.List} of {@link Episode} objects.
+	 */
+	public static List<Episode> readEpisodesBinary(String path){
+		return new BinaryEpisodeReader(path).readAll();
+	}
+
+
 	/**
 	 * Reads an episode that was written to a file and turns into an EpisodeAnalysis object.
 	 * @param path the path to the episode file.
@@ -5,6 +5,7 @@ import burlap.mdp.core.state.State;
 import burlap.mdp.singleagent.SADomain;
 import burlap.statehashing.HashableState;
 import burlap.statehashing.HashableStateFactory;
+import burlap.statehashing.StateRegistry;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -16,6 +17,9 @@ import java.util.Set;
  * a unique number. This class is used to take hashable states and assign them a unique number. States can be enumerated iteratively on an as needed basis
  * or all reachable states from a source state can be queried to seed the list of states. This class can also go in the reverse direction
  * by returning the state associated with an enumeration id, as long as that id has already been assigned to a state.
+ * <p>
+ * If the enumerator is given a {@link StateRegistry}, its ids are the registry's ids, so they are shared with any other algorithm
+ * that uses the registry; otherwise, ids are assigned by the enumerator itself.
  * @author James MacGlashan
  *
  */
@@ -47,16 +51,37 @@ public class StateEnumerator {
 	 */
 	protected int									nextEnumeratedID = 0;
 	
+	/**
+	 * The registry that assigns the enumeration ids, if the enumerator was given one; null if the enumerator assigns its own ids
+	 */
+	protected StateRegistry							registry;
 	
 	
 	/**
 	 * Constructs
 	 * @param domain the domain of the states to be enumerated
-	 * @param hashingFactory the hashing factory to use
+	 * @param hashingFactory the hashing factory to use. If it is a {@link StateRegistry}, its ids are used as the enumeration ids.
 	 */
 	public StateEnumerator(Domain domain, HashableStateFactory hashingFactory){
 		this.domain = domain;
 		this.hashingFactory = hashingFactory;
+		if(hashingFactory instanceof StateRegistry){
+			this.registry = (StateRegistry)hashingFactory;
+		}
+	}
+	
+	
+	/**
+	 * Constructs an enumerator whose ids are those of a {@link StateRegistry} that may be shared with other algorithms.
+	 * Note that the registry may contain states registered by other algorithms, in which case {@link #numStatesEnumerated()}
+	 * includes them.
+	 * @param domain the domain of the states to be enumerated
+	 * @param registry the {@link StateRegistry} that assigns ids to states
+	 */
+	public StateEnumerator(Domain domain, StateRegistry registry){
+		this.domain = domain;
+		this.registry = registry;
+		this.hashingFactory = registry;
 	}
 	
 	
@@ -91,6 +116,9 @@ public class StateEnumerator {
 	 * @return the state associated with the given enumeration id.
 	 */
 	public State getStateForEnumerationId(int id){
+		if(this.registry != null){
+			return this.registry.state(id).s();
+		}
 		State s = this.reverseEnumerate.get(id);
 		if(s == null){
 			throw new RuntimeException("There is no state stored with the enumeration id: " + id);
@@ -104,6 +132,9 @@ public class StateEnumerator {
 	 * @return the number of states that have been enumerated
 	 */
 	public int numStatesEnumerated(){
+		if(this.registry != null){
+			return this.registry.size();
+		}
 		return this.enumeration.size();
 	}
 	
@@ -115,6 +146,9 @@ public class StateEnumerator {
 	 * @return the enumeration id
 	 */
 	protected int getEnumeratedID(HashableState sh){
+		if(this.registry != null){
+			return this.registry.id(sh);
+		}
 		Integer storedID = this.enumeration.get(sh);
 		if(storedID == null){
 			this.enumeration.put(sh, this.nextEnumeratedID);
@@ -126,4 +160,13 @@ public class StateEnumerator {
 	}
 	
 	
+	/**
+	 * Returns the {@link StateRegistry} that assigns the enumeration ids, if the enumerator was given one
+	 * @return the {@link StateRegistry} that assigns the enumeration ids, or null if the enumerator assigns its own ids
+	 */
+	public StateRegistry getRegistry(){
+		return this.registry;
+	}
+	
+	
 }
@@ -0,0 +1,244 @@
+package burlap.behavior.singleagent.auxiliary.performance;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Incrementally writes step-wise and episode-wise performance data to CSV files as it is observed, keeping only
+ * constant running aggregates per agent in memory. The files use the same columns and number formatting as the
+ * CSV files written by {@link PerformancePlotter}: &lt;pathAndBaseName&gt;Steps.csv has the columns
+ * agent,trial,step,cumulativeReward and &lt;pathAndBaseName&gt;Episodes.csv has the columns
+ * agent,trial,episode,cumulativeReward,averageReward,cumulativeSteps,numSteps.
+ * <p>
+ * Output is buffered, so it is only guaranteed to be on disk after {@link #flush()} or {@link #close()} is called.
+ * A runtime exception is thrown if writing fails.
+ */
+public class CSVMetricsWriter {
+
+	/**
+	 * The size in chars of the output buffers
+	 */
+	protected static final int bufferSize = 1 << 16;
+
+	/**
+	 * The step-wise output; null if step-wise data is not written
+	 */
+	protected Writer stepOut;
+
+	/**
+	 * The episode-wise output; null if episode-wise data is not written
+	 */
+	protected Writer episodeOut;
+
+	/**
+	 * The running aggregates of the current trial of each agent
+	 */
+	protected Map<String, TrialAggregates> agentAggregates = new HashMap<String, TrialAggregates>();
+
+
+	/**
+	 * Initializes and writes both step-wise and episode-wise data. If the path ends with .csv, the extension is removed
+	 * before the file suffixes are added.
+	 * @param pathAndBaseName the base path and file name for the episode-wise and step-wise csv files.
+	 */
+	public CSVMetricsWriter(String pathAndBaseName){
+		this(pathAndBaseName, true, true);
+	}
+
+
+	/**
+	 * Initializes. If the path ends with .csv, the extension is removed before the file suffixes are added.
+	 * @param pathAndBaseName the base path and file name for the episode-wise and step-wise csv files.
+	 * @param writeSteps whether the step-wise file is written
+	 * @param writeEpisodes whether the episode-wise file is written
+	 */
+	public CSVMetricsWriter(String pathAndBaseName, boolean writeSteps, boolean writeEpisodes){
+
+		if(pathAndBaseName.endsWith(".csv")){
+			pathAndBaseName = pathAndBaseName.substring(0, pathAndBaseName.length()-4);
+		}
+
+		try {
+			if(writeSteps){
+				this.stepOut = open(pathAndBaseName + "Steps.csv");
+				this.stepOut.write("agent,trial,step,cumulativeReward\n");
+			}
+			if(writeEpisodes){
+				this.episodeOut = open(pathAndBaseName + "Episodes.csv");
+				this.episodeOut.write("agent,trial,episode,cumulativeReward,averageReward,cumulativeSteps,numSteps\n");
+			}
+		} catch(IOException e) {
+			throw new RuntimeException("Could not open csv files with base name: " + pathAndBaseName, e);
+		}
+
+	}
+
+
+	/**
+	 * Starts a new trial for the given agent, resetting its running aggregates.
+	 * @param agentName the name of the agent
+	 * @param trial the index of the trial
+	 */
+	public void startTrial(String agentName, int trial){
+		this.agentAggregates.put(agentName, new TrialAggregates(trial));
+	}
+
+
+	/**
+	 * Records a step with the given reward for the given agent. If no trial has been started for the agent,
+	 * trial 0 is started.
+	 * @param agentName the name of the agent
+	 * @param r the reward received
+	 */
+	public void step(String agentName, double r){
+
+		TrialAggregates t = this.aggregates(agentName);
+		t.cumulativeStepReward += r;
+		t.curEpisodeReward += r;
+		t.curEpisodeSteps++;
+
+		if(this.stepOut != null){
+			try {
+				this.stepOut.write(agentName);
+				this.stepOut.write(',');
+				this.stepOut.write(Integer.toString(t.trial));
+				this.stepOut.write(',');
+				this.stepOut.write(Integer.toString(t.totalSteps));
+				this.stepOut.write(',');
+				this.stepOut.write(Double.toString(t.cumulativeStepReward));
+				this.stepOut.write('\n');
+			} catch(IOException e) {
+				throw new RuntimeException("Could not write step csv data", e);
+			}
+		}
+
+		t.totalSteps++;
+
+	}
+
+
+	/**
+	 * Completes the current episode of the given agent and writes its episode-wise data.
+	 * @param agentName the name of the agent
+	 */
+	public void endEpisode(String agentName){
+
+		TrialAggregates t = this.aggregates(agentName);
+		t.cumulativeEpisodeReward += t.curEpisodeReward;
+		t.cumulativeSteps += t.curEpisodeSteps;
+
+		if(this.episodeOut != null){
+			try {
+				this.episodeOut.write(agentName);
+				this.episodeOut.write(',');
+				this.episodeOut.write(Integer.toString(t.trial));
+				this.episodeOut.write(',');
+				this.episodeOut.write(Integer.toString(t.totalEpisodes));
+				this.episodeOut.write(',');
+				this.episodeOut.write(Double.toString(t.cumulativeEpisodeReward));
+				this.episodeOut.write(',');
+				this.episodeOut.write(Double.toString(t.curEpisodeReward / (double)t.curEpisodeSteps));
+				this.episodeOut.write(',');
+				this.episodeOut.write(Double.toString(t.cumulativeSteps));
+				this.episodeOut.write(',');
+				this.episodeOut.write(Double.toString(t.curEpisodeSteps));
+				this.episodeOut.write('\n');
+			} catch(IOException e) {
+				throw new RuntimeException("Could not write episode csv data", e);
+			}
+		}
+
+		t.totalEpisodes++;
+		t.curEpisodeReward = 0.;
+		t.curEpisodeSteps = 0;
+
+	}
+
+
+	/**
+	 * Returns whether steps have been recorded for the given agent since its last episode was completed.
+	 * @param agentName the name of the agent
+	 * @return true if the agent's current episode has steps; false otherwise
+	 */
+	public boolean hasUnfinishedEpisode(String agentName){
+		TrialAggregates t = this.agentAggregates.get(agentName);
+		return t != null && t.curEpisodeSteps > 0;
+	}
+
+
+	/**
+	 * Flushes buffered output to disk.
+	 */
+	public void flush(){
+		try {
+			if(this.stepOut != null){
+				this.stepOut.flush();
+			}
+			if(this.episodeOut != null){
+				this.episodeOut.flush();
+			}
+		} catch(IOException e) {
+			throw new RuntimeException("Could not flush csv data", e);
+		}
+	}
+
+
+	/**
+	 * Flushes and closes the files. No data may be written after this method is called.
+	 */
+	public void close(){
+		try {
+			if(this.stepOut != null){
+				this.stepOut.close();
+				this.stepOut = null;
+			}
+			if(this.episodeOut != null){
+				this.episodeOut.close();
+				this.episodeOut = null;
+			}
+		} catch(IOException e) {
+			throw new RuntimeException("Could not close csv files", e);
+		}
+	}
+
+
+	protected TrialAggregates aggregates(String agentName){
+		TrialAggregates t = this.agentAggregates.get(agentName);
+		if(t == null){
+			t = new TrialAggregates(0);
+			this.agentAggregates.put(agentName, t);
+		}
+		return t;
+	}
+
+
+	protected static Writer open(String path) throws IOException{
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), "UTF-8"), bufferSize);
+	}
+
+
+	/**
+	 * The running aggregates of an agent's current trial
+	 */
+	protected static class TrialAggregates{
+
+		public int trial;
+		public int totalSteps = 0;
+		public int totalEpisodes = 0;
+		public double cumulativeStepReward = 0.;
+		public double cumulativeEpisodeReward = 0.;
+		public double cumulativeSteps = 0.;
+		public double curEpisodeReward = 0.;
+		public int curEpisodeSteps = 0;
+
+		public TrialAggregates(int trial) {
+			this.trial = trial;
+		}
+	}
+
+}
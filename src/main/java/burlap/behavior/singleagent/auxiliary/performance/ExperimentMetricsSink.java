@@ -0,0 +1,47 @@
+package burlap.behavior.singleagent.auxiliary.performance;
+
+import burlap.mdp.singleagent.environment.extensions.EnvironmentObserver;
+
+/**
+ * An {@link EnvironmentObserver} that receives the performance data of a {@link LearningAlgorithmExperimenter}.
+ * Rewards are received through {@link #observeEnvironmentInteraction(burlap.mdp.singleagent.environment.EnvironmentOutcome)}
+ * and the structure of the experiment through the remaining methods, which the experimenter calls in the order:
+ * {@link #startNewAgent(String)} once for each agent (including the first), then for each of its trials
+ * {@link #startNewTrial()}, {@link #endEpisode()} after each episode, and {@link #endTrial()}; and finally
+ * {@link #endAllAgents()}.
+ */
+public interface ExperimentMetricsSink extends EnvironmentObserver {
+
+	/**
+	 * Toggle whether observed interactions are recorded or not
+	 * @param collectData true if observed interactions should be recorded; false if not.
+	 */
+	void toggleDataCollection(boolean collectData);
+
+	/**
+	 * Informs the sink that data collection for a new agent is beginning.
+	 * @param agentName the name of the agent
+	 */
+	void startNewAgent(String agentName);
+
+	/**
+	 * Informs the sink that a new trial of the current agent is beginning.
+	 */
+	void startNewTrial();
+
+	/**
+	 * Informs the sink that all data for the last episode has been collected.
+	 */
+	void endEpisode();
+
+	/**
+	 * Informs the sink that all data for the current trial has been collected.
+	 */
+	void endTrial();
+
+	/**
+	 * Informs the sink that all data for all agents has been collected.
+	 */
+	void endAllAgents();
+
+}
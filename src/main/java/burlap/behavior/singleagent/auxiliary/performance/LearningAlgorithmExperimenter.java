@@ -4,9 +4,21 @@ import burlap.behavior.singleagent.Episode;
 import burlap.behavior.singleagent.learning.LearningAgent;
 import burlap.behavior.singleagent.learning.LearningAgentFactory;
 import burlap.debugtools.DPrint;
+import burlap.debugtools.ParallelTasks;
+import burlap.debugtools.RandomFactory;
+import burlap.mdp.core.state.State;
 import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentFactory;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.extensions.EnvironmentObserver;
 import burlap.mdp.singleagent.environment.extensions.EnvironmentServer;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 
 /**
  * This class is used to simplify the comparison of different learning algorithms. It takes as input a test {@link burlap.mdp.singleagent.environment.Environment}
@@ -19,7 +31,9 @@ import burlap.mdp.singleagent.environment.extensions.EnvironmentServer;
  * {@link #toggleTrialLengthInterpretation(boolean)} method.
  * <p>
  * Performance results are displayed in plots using the {@link PerformancePlotter} class, but visualization may also be disabled with the {@link #toggleVisualPlots(boolean)}
- * method. Results may be saved to csv files after the experiment is complete.
+ * method. Results may be saved to csv files after the experiment is complete. Alternatively, an {@link ExperimentMetricsSink}
+ * set with {@link #setMetricsSink(ExperimentMetricsSink)}, such as a {@link StreamingCSVMetricsSink}, receives the results
+ * as they are observed; if plots are also disabled, no plotter is created and results are not held in memory.
  * <p>
  * The purpose of the experimenter is to test an agent for a specified number of trials. At the beginning of each trial, a new agent is generated using the designated
  * LearningAgentFactory and is used for the specified trial length. After all trials are complete for an agent, the next agent is tested. Note that immediately before
@@ -29,6 +43,15 @@ import burlap.mdp.singleagent.environment.extensions.EnvironmentServer;
  * By default the cumulative reward per step will be plotted and if more than one trial is specified, the both the most recent trail and the trial average plot will be shown.
  * If only one trial is specified, then only the most recent trial plot will be shown. To control the kinds of plots displayed use the 
  * {@link #setUpPlottingConfiguration(int, int, int, int, TrialMode, PerformanceMetric...)} method. 
+ * <p>
+ * Trials can be made reproducible with {@link #setTrialSeed(long)}, which runs each trial with its own seeded
+ * {@link RandomFactory}, and can be run in parallel with {@link #setParallelTrials(int, EnvironmentFactory)}, which runs
+ * each trial on a worker thread with its own {@link Environment} from an {@link EnvironmentFactory}. In parallel mode,
+ * the rewards of each trial are recorded and replayed into the {@link PerformancePlotter} in trial order once the trial
+ * completes, so the plots and CSV files are identical to those of a sequential run with the same seed and environment factory.
+ * Note that randomness is only reproducible if the agents and environments draw their random numbers from
+ * {@link RandomFactory} on the thread running the trial; for example, an environment factory should generate its domain
+ * for each environment if the domain's model stores a {@link java.util.Random} reference when it is constructed.
  * 
  * @author James MacGlashan
  *
@@ -103,6 +126,42 @@ public class LearningAlgorithmExperimenter {
 	protected boolean					completedExperiment = false;
 	
 	
+	/**
+	 * The factory used to generate a separate environment for each trial; if null, all trials use the test environment.
+	 */
+	protected EnvironmentFactory		environmentFactory = null;
+	
+	
+	/**
+	 * The number of trials run in parallel
+	 */
+	protected int						trialParallelism = 1;
+	
+	
+	/**
+	 * The executor on which parallel trials run; if null, a pool of {@link #trialParallelism} threads is created for each experiment.
+	 */
+	protected ExecutorService			trialExecutor = null;
+	
+	
+	/**
+	 * If not null, the seed from which the {@link RandomFactory} seed of each trial is derived
+	 */
+	protected Long						trialSeed = null;
+	
+	
+	/**
+	 * An optional sink that receives the performance data in addition to, or instead of, the plotter
+	 */
+	protected ExperimentMetricsSink		metricsSink = null;
+	
+	
+	/**
+	 * The sink through which the running experiment reports its data; the plotter, the metrics sink, or both
+	 */
+	protected ExperimentMetricsSink		metrics = null;
+	
+	
 	/**
 	 * The debug code used for debug printing. This experimenter will print with the debugger the number of trials completed for each agent.
 	 */
@@ -200,6 +259,60 @@ public class LearningAlgorithmExperimenter {
 	}
 	
 	
+	/**
+	 * Sets a seed from which a separate seed for each trial is derived. Each trial then runs with its own
+	 * {@link RandomFactory} installed on the thread running it (see {@link RandomFactory#setThreadFactory(RandomFactory)}),
+	 * so that results are reproducible and independent of the order or thread in which trials are run.
+	 * @param seed the experiment seed
+	 */
+	public void setTrialSeed(long seed){
+		this.trialSeed = seed;
+	}
+	
+	
+	/**
+	 * Sets the number of trials that are run in parallel and the factory that generates the separate environment each trial uses.
+	 * If the parallelism is 1, trials are run sequentially, but each still uses its own environment from the factory.
+	 * When the environment factory is set, the test environment provided in the constructor is not used for trials.
+	 * If no trial seed has been set with {@link #setTrialSeed(long)} when parallelism is greater than 1, a random one is chosen.
+	 * @param parallelism the number of trials to run in parallel
+	 * @param environmentFactory the {@link EnvironmentFactory} used to generate the environment of each trial
+	 */
+	public void setParallelTrials(int parallelism, EnvironmentFactory environmentFactory){
+		if(parallelism < 1){
+			throw new RuntimeException("Trial parallelism must be at least 1; got " + parallelism);
+		}
+		if(environmentFactory == null){
+			throw new RuntimeException("An EnvironmentFactory is required to give each trial its own environment.");
+		}
+		this.trialParallelism = parallelism;
+		this.environmentFactory = environmentFactory;
+	}
+	
+	
+	/**
+	 * Sets the executor on which parallel trials run. By default, a pool of as many threads as the trial parallelism is created
+	 * for each experiment and shut down when it ends. A given executor is not shut down, and all trials are submitted to it at once,
+	 * so it determines how many trials run at the same time.
+	 * @param trialExecutor the executor on which parallel trials run, or null to create a pool for each experiment
+	 */
+	public void setTrialExecutor(ExecutorService trialExecutor){
+		this.trialExecutor = trialExecutor;
+	}
+	
+	
+	/**
+	 * Sets an {@link ExperimentMetricsSink} that receives the performance data of the experiment, such as a
+	 * {@link StreamingCSVMetricsSink} that streams it to disk as it is observed. If plots are disabled with
+	 * {@link #toggleVisualPlots(boolean)} and no plotting configuration has been set, no {@link PerformancePlotter}
+	 * is created, so the experiment does not hold its data in memory, and the data can only be retrieved from the sink.
+	 * @param metricsSink the {@link ExperimentMetricsSink} to receive the performance data
+	 */
+	public void setMetricsSink(ExperimentMetricsSink metricsSink){
+		this.metricsSink = metricsSink;
+	}
+	
+	
 	/**
 	 * Starts the experiment and runs all trails for all agents.
 	 */
@@ -210,7 +323,7 @@ public class LearningAlgorithmExperimenter {
 			return;
 		}
 		
-		if(this.plotter == null){
+		if(this.plotter == null && (this.displayPlots || this.metricsSink == null)){
 			
 			TrialMode trialMode = TrialMode.MOST_RECENT_AND_AVERAGE;
 			if(this.nTrials == 1){
@@ -222,18 +335,35 @@ public class LearningAlgorithmExperimenter {
 		}
 		
 		
+		if(this.plotter == null){
+			this.metrics = this.metricsSink;
+		}
+		else if(this.metricsSink == null){
+			this.metrics = this.plotter;
+		}
+		else{
+			this.metrics = new MetricsSinkGroup(this.plotter, this.metricsSink);
+		}
+		
 		//this.domain.addActionObserverForAllAction(plotter);
-		this.environmentSever = new EnvironmentServer(this.testEnvironment, plotter);
+		if(this.testEnvironment != null){
+			this.environmentSever = new EnvironmentServer(this.testEnvironment, this.metrics);
+		}
 		
-		if(this.displayPlots){
+		if(this.displayPlots && this.plotter != null){
 			this.plotter.startGUI();
 		}
 		
+		if(this.trialParallelism > 1){
+			this.runParallelTrials();
+			this.metrics.endAllAgents();
+			this.completedExperiment = true;
+			return;
+		}
+		
 		for(int i = 0; i < this.agentFactories.length; i++){
 			
-			if(i > 0){
-				this.plotter.startNewAgent(this.agentFactories[i].getAgentName());
-			}
+			this.metrics.startNewAgent(this.agentFactories[i].getAgentName());
 
 			if(this.testEnvironment instanceof ExperimentalEnvironment){
 				((ExperimentalEnvironment)this.testEnvironment).startNewExperiment();
@@ -242,17 +372,30 @@ public class LearningAlgorithmExperimenter {
 				
 				DPrint.cl(this.debugCode, "Beginning " + this.agentFactories[i].getAgentName() + " trial " + (j+1) + "/" + this.nTrials);
 				
-				if(this.trialLengthIsInEpisodes){
-					this.runEpisodeBoundTrial(this.agentFactories[i]);
+				if(this.trialSeed != null){
+					RandomFactory.setThreadFactory(new RandomFactory(this.trialRandomSeed(i, j)));
 				}
-				else{
-					this.runStepBoundTrial(this.agentFactories[i]);
+				try{
+					Environment env = this.environmentSever;
+					if(this.environmentFactory != null){
+						env = new EnvironmentServer(this.environmentFactory.generateEnvironment(), this.metrics);
+					}
+					if(this.trialLengthIsInEpisodes){
+						this.runEpisodeBoundTrial(this.agentFactories[i], env);
+					}
+					else{
+						this.runStepBoundTrial(this.agentFactories[i], env);
+					}
+				} finally {
+					if(this.trialSeed != null){
+						RandomFactory.setThreadFactory(null);
+					}
 				}
 			}
 			
 		}
 		
-		this.plotter.endAllAgents();
+		this.metrics.endAllAgents();
 		
 		this.completedExperiment = true;
 		
@@ -271,6 +414,10 @@ public class LearningAlgorithmExperimenter {
 			System.out.println("Cannot write data until the experiment has been started with the startExperiment() method.");
 			return;
 		}
+		if(this.plotter == null){
+			System.out.println("Cannot write data because no plotter was used; the data was only sent to the metrics sink.");
+			return;
+		}
 		this.plotter.writeStepAndEpisodeDataToCSV(pathAndBaseNameToUse);
 	}
 	
@@ -286,6 +433,10 @@ public class LearningAlgorithmExperimenter {
 			System.out.println("Cannot write data until the experiment has been started with the startExperiment() method.");
 			return;
 		}
+		if(this.plotter == null){
+			System.out.println("Cannot write data because no plotter was used; the data was only sent to the metrics sink.");
+			return;
+		}
 		this.plotter.writeStepDataToCSV(filePath);
 	}
 	
@@ -301,6 +452,10 @@ public class LearningAlgorithmExperimenter {
 			System.out.println("Cannot write data until the experiment has been started with the startExperiment() method.");
 			return;
 		}
+		if(this.plotter == null){
+			System.out.println("Cannot write data because no plotter was used; the data was only sent to the metrics sink.");
+			return;
+		}
 		this.plotter.writeEpisodeDataToCSV(filePath);
 	}
 	
@@ -311,24 +466,34 @@ public class LearningAlgorithmExperimenter {
 	 * @param agentFactory the agent factory used to generate the agent to test.
 	 */
 	protected void runEpisodeBoundTrial(LearningAgentFactory agentFactory){
+		this.runEpisodeBoundTrial(agentFactory, this.environmentSever);
+	}
+	
+	
+	/**
+	 * Runs a trial for an agent generated by the given factory in the given environment when interpreting trial length as a number of episodes.
+	 * @param agentFactory the agent factory used to generate the agent to test.
+	 * @param env the environment, which must be observed by the metrics sink
+	 */
+	protected void runEpisodeBoundTrial(LearningAgentFactory agentFactory, Environment env){
 		
 		//temporarily disable plotter data collection to avoid possible contamination for any actions taken by the agent generation
 		//(e.g., if there is pre-test training)
-		this.plotter.toggleDataCollection(false);
+		this.metrics.toggleDataCollection(false);
 
 		LearningAgent agent = agentFactory.generateAgent();
 		
-		this.plotter.toggleDataCollection(true); //turn it back on to begin
+		this.metrics.toggleDataCollection(true); //turn it back on to begin
 		
-		this.plotter.startNewTrial();
+		this.metrics.startNewTrial();
 		
 		for(int i = 0; i < this.trialLength; i++){
-			agent.runLearningEpisode(this.environmentSever);
-			this.plotter.endEpisode();
-			this.environmentSever.resetEnvironment();
+			agent.runLearningEpisode(env);
+			this.metrics.endEpisode();
+			env.resetEnvironment();
 		}
 		
-		this.plotter.endTrial();
+		this.metrics.endTrial();
 		
 	}
 	
@@ -338,29 +503,295 @@ public class LearningAlgorithmExperimenter {
 	 * @param agentFactory the agent factory used to generate the agent to test.
 	 */
 	protected void runStepBoundTrial(LearningAgentFactory agentFactory){
+		this.runStepBoundTrial(agentFactory, this.environmentSever);
+	}
+	
+	
+	/**
+	 * Runs a trial for an agent generated by the given factor in the given environment when interpreting trial length as a number of total steps.
+	 * @param agentFactory the agent factory used to generate the agent to test.
+	 * @param env the environment, which must be observed by the metrics sink
+	 */
+	protected void runStepBoundTrial(LearningAgentFactory agentFactory, Environment env){
 		
 		//temporarily disable plotter data collection to avoid possible contamination for any actions taken by the agent generation
 		//(e.g., if there is pre-test training)
-		this.plotter.toggleDataCollection(false);
+		this.metrics.toggleDataCollection(false);
 		
 		LearningAgent agent = agentFactory.generateAgent();
 		
-		this.plotter.toggleDataCollection(true); //turn it back on to begin
+		this.metrics.toggleDataCollection(true); //turn it back on to begin
 		
-		this.plotter.startNewTrial();
+		this.metrics.startNewTrial();
 		
 		int stepsRemaining = this.trialLength;
 		while(stepsRemaining > 0){
-			Episode ea = agent.runLearningEpisode(this.environmentSever, stepsRemaining);
+			Episode ea = agent.runLearningEpisode(env, stepsRemaining);
 			stepsRemaining -= ea.numTimeSteps()-1; //-1  because we want to subtract the number of actions, not the number of states seen
-			this.plotter.endEpisode();
-			this.environmentSever.resetEnvironment();
+			this.metrics.endEpisode();
+			env.resetEnvironment();
 		}
 		
-		this.plotter.endTrial();
+		this.metrics.endTrial();
 		
 	}
 	
 	
+	/**
+	 * Runs all trials of all agents on a worker pool and replays each trial's recorded rewards into the metrics sink,
+	 * in agent and trial order, as soon as the trial and all trials before it have completed.
+	 */
+	protected void runParallelTrials(){
+		
+		if(this.trialSeed == null){
+			this.trialSeed = RandomFactory.getMapped(0).nextLong();
+		}
+		
+		ExecutorService pool = this.trialExecutor != null ? this.trialExecutor : ParallelTasks.newDaemonPool(this.trialParallelism, "experiment-trial");
+		List<Future<TrialRecorder>> submitted = new ArrayList<Future<TrialRecorder>>(this.agentFactories.length * this.nTrials);
+		
+		try{
+			List<List<Future<TrialRecorder>>> results = new ArrayList<List<Future<TrialRecorder>>>(this.agentFactories.length);
+			for(int i = 0; i < this.agentFactories.length; i++){
+				List<Future<TrialRecorder>> agentResults = new ArrayList<Future<TrialRecorder>>(this.nTrials);
+				for(int j = 0; j < this.nTrials; j++){
+					final int agentIndex = i;
+					final int trialIndex = j;
+					Future<TrialRecorder> result = pool.submit(new Callable<TrialRecorder>() {
+						@Override
+						public TrialRecorder call() throws Exception {
+							return runRecordedTrial(agentIndex, trialIndex);
+						}
+					});
+					agentResults.add(result);
+					submitted.add(result);
+				}
+				results.add(agentResults);
+			}
+			
+			for(int i = 0; i < this.agentFactories.length; i++){
+				
+				this.metrics.startNewAgent(this.agentFactories[i].getAgentName());
+				
+				for(int j = 0; j < this.nTrials; j++){
+					TrialRecorder recorder = ParallelTasks.await(results.get(i).get(j));
+					DPrint.cl(this.debugCode, "Completed " + this.agentFactories[i].getAgentName() + " trial " + (j+1) + "/" + this.nTrials);
+					recorder.replay(this.metrics);
+				}
+				
+			}
+			
+		} finally {
+			//stops the remaining trials if a trial failed
+			ParallelTasks.cancelAll(submitted);
+			if(this.trialExecutor == null){
+				pool.shutdown();
+			}
+		}
+		
+	}
+	
+	
+	/**
+	 * Runs a single trial in its own environment with its own seeded {@link RandomFactory} installed on the calling thread, and records its rewards.
+	 * @param agentIndex the index of the agent factory
+	 * @param trialIndex the index of the trial for the agent
+	 * @return the {@link TrialRecorder} with the rewards of the trial
+	 */
+	protected TrialRecorder runRecordedTrial(int agentIndex, int trialIndex){
+		
+		RandomFactory.setThreadFactory(new RandomFactory(this.trialRandomSeed(agentIndex, trialIndex)));
+		try{
+			
+			TrialRecorder recorder = new TrialRecorder();
+			EnvironmentServer env = new EnvironmentServer(this.environmentFactory.generateEnvironment(), recorder);
+			
+			LearningAgent agent = this.agentFactories[agentIndex].generateAgent();
+			
+			recorder.collectData = true;
+			
+			if(this.trialLengthIsInEpisodes){
+				for(int i = 0; i < this.trialLength; i++){
+					agent.runLearningEpisode(env);
+					recorder.endEpisode();
+					env.resetEnvironment();
+				}
+			}
+			else{
+				int stepsRemaining = this.trialLength;
+				while(stepsRemaining > 0){
+					Episode ea = agent.runLearningEpisode(env, stepsRemaining);
+					stepsRemaining -= ea.numTimeSteps()-1; //-1  because we want to subtract the number of actions, not the number of states seen
+					recorder.endEpisode();
+					env.resetEnvironment();
+				}
+			}
+			
+			return recorder;
+			
+		} finally {
+			RandomFactory.setThreadFactory(null);
+		}
+		
+	}
+	
+	
+	/**
+	 * Returns the {@link RandomFactory} base seed of a trial, which is derived from the experiment seed set with {@link #setTrialSeed(long)}.
+	 * @param agentIndex the index of the agent factory
+	 * @param trialIndex the index of the trial for the agent
+	 * @return the {@link RandomFactory} base seed of the trial
+	 */
+	protected long trialRandomSeed(int agentIndex, int trialIndex){
+		return RandomFactory.mixSeed(this.trialSeed, (long)agentIndex * this.nTrials + trialIndex);
+	}
+	
+	
+	/**
+	 * An {@link EnvironmentObserver} that records the rewards of each episode of a trial so that they can later be
+	 * replayed into a {@link PerformancePlotter}.
+	 */
+	protected static class TrialRecorder implements EnvironmentObserver {
+		
+		/**
+		 * Whether observed rewards are recorded
+		 */
+		public boolean collectData = false;
+		
+		/**
+		 * The rewards of each completed episode
+		 */
+		public List<double[]> episodeRewards = new ArrayList<double[]>();
+		
+		/**
+		 * The rewards of the current episode
+		 */
+		protected List<Double> curEpisodeRewards = new ArrayList<Double>();
+		
+		
+		@Override
+		public void observeEnvironmentActionInitiation(State o, burlap.mdp.core.action.Action action) {
+			//do nothing
+		}
+		
+		@Override
+		public void observeEnvironmentInteraction(EnvironmentOutcome eo) {
+			if(this.collectData){
+				this.curEpisodeRewards.add(eo.r);
+			}
+		}
+		
+		@Override
+		public void observeEnvironmentReset(Environment resetEnvironment) {
+			//do nothing
+		}
+		
+		/**
+		 * Completes the current episode.
+		 */
+		public void endEpisode(){
+			double [] rewards = new double[this.curEpisodeRewards.size()];
+			for(int i = 0; i < rewards.length; i++){
+				rewards[i] = this.curEpisodeRewards.get(i);
+			}
+			this.episodeRewards.add(rewards);
+			this.curEpisodeRewards.clear();
+		}
+		
+		/**
+		 * Replays the recorded trial into the given sink as a new trial of its current agent.
+		 * @param sink the {@link ExperimentMetricsSink} to receive the trial
+		 */
+		public void replay(ExperimentMetricsSink sink){
+			sink.toggleDataCollection(true);
+			sink.startNewTrial();
+			for(double [] rewards : this.episodeRewards){
+				for(double r : rewards){
+					sink.observeEnvironmentInteraction(new EnvironmentOutcome(null, null, null, r, false));
+				}
+				sink.endEpisode();
+			}
+			sink.endTrial();
+		}
+		
+	}
+	
+	
+	/**
+	 * An {@link ExperimentMetricsSink} that forwards all calls to a list of sinks, in order.
+	 */
+	protected static class MetricsSinkGroup implements ExperimentMetricsSink {
+		
+		protected ExperimentMetricsSink [] sinks;
+		
+		public MetricsSinkGroup(ExperimentMetricsSink...sinks) {
+			this.sinks = sinks;
+		}
+		
+		@Override
+		public void toggleDataCollection(boolean collectData) {
+			for(ExperimentMetricsSink sink : this.sinks){
+				sink.toggleDataCollection(collectData);
+			}
+		}
+		
+		@Override
+		public void startNewAgent(String agentName) {
+			for(ExperimentMetricsSink sink : this.sinks){
+				sink.startNewAgent(agentName);
+			}
+		}
+		
+		@Override
+		public void startNewTrial() {
+			for(ExperimentMetricsSink sink : this.sinks){
+				sink.startNewTrial();
+			}
+		}
+		
+		@Override
+		public void observeEnvironmentActionInitiation(State o, burlap.mdp.core.action.Action action) {
+			for(ExperimentMetricsSink sink : this.sinks){
+				sink.observeEnvironmentActionInitiation(o, action);
+			}
+		}
+		
+		@Override
+		public void observeEnvironmentInteraction(EnvironmentOutcome eo) {
+			for(ExperimentMetricsSink sink : this.sinks){
+				sink.observeEnvironmentInteraction(eo);
+			}
+		}
+		
+		@Override
+		public void observeEnvironmentReset(Environment resetEnvironment) {
+			for(ExperimentMetricsSink sink : this.sinks){
+				sink.observeEnvironmentReset(resetEnvironment);
+			}
+		}
+		
+		@Override
+		public void endEpisode() {
+			for(ExperimentMetricsSink sink : this.sinks){
+				sink.endEpisode();
+			}
+		}
+		
+		@Override
+		public void endTrial() {
+			for(ExperimentMetricsSink sink : this.sinks){
+				sink.endTrial();
+			}
+		}
+		
+		@Override
+		public void endAllAgents() {
+			for(ExperimentMetricsSink sink : this.sinks){
+				sink.endAllAgents();
+			}
+		}
+	}
+	
+	
 	
 }
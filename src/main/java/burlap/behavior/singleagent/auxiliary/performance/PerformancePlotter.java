@@ -2,7 +2,6 @@ package burlap.behavior.singleagent.auxiliary.performance;
 
 import burlap.mdp.core.state.State;
 import burlap.mdp.singleagent.environment.Environment;
-import burlap.mdp.singleagent.environment.extensions.EnvironmentObserver;
 import burlap.mdp.singleagent.environment.EnvironmentOutcome;
 import org.apache.commons.math3.distribution.TDistribution;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
@@ -47,7 +46,8 @@ import java.util.List;
  * <p>
  * When testing is done, you may optionally request all data to be printed to CSV files. One CSV file will produce the step-wise performance
  * metric (cumulaitve reward by step) for all agents and trials. Another will produce all the episode-wise performance metric data. This data
- * can be produced regardless of which metrics you requested to be plotted.
+ * can be produced regardless of which metrics you requested to be plotted. The window is only created by {@link #startGUI()}, so if it is never
+ * called, the data can be collected and written without a display.
  * <p>
  * Note that the plots that are created have a number of interactive options. Try right-clicking on them to see the list of things you can modfiy in the GUI.
  * 
@@ -55,11 +55,8 @@ import java.util.List;
  * @author James MacGlashan
  *
  */
-public class PerformancePlotter extends JFrame implements EnvironmentObserver {
+public class PerformancePlotter implements ExperimentMetricsSink {
 
-	private static final long serialVersionUID = 1L;
-	
-	
 	private static final Map<Integer, Double> cachedCriticalValues = new HashMap<Integer, Double>();
 	
 
@@ -208,6 +205,17 @@ public class PerformancePlotter extends JFrame implements EnvironmentObserver {
 	 */
 	protected MutableBoolean trialUpdateComplete = new MutableBoolean(true);
 	
+	/**
+	 * The component holding the plots
+	 */
+	protected Component plotComponent;
+	
+	/**
+	 * The window showing the plots; created by {@link #startGUI()}, so that data can be collected and written to CSV files
+	 * without a display.
+	 */
+	protected JFrame frame;
+	
 	
 	
 	/**
@@ -291,10 +299,10 @@ public class PerformancePlotter extends JFrame implements EnvironmentObserver {
         if(totalChartHeight > maxWindowHeight){
 			JScrollPane scrollPane = new JScrollPane(plotContainer);
 			scrollPane.setPreferredSize(new Dimension(chartWidth*columns+50, maxWindowHeight));
-			this.add(scrollPane);
+			this.plotComponent = scrollPane;
         }
         else{
-        	this.add(plotContainer);
+        	this.plotComponent = plotContainer;
         }
         
 	   
@@ -335,10 +343,23 @@ public class PerformancePlotter extends JFrame implements EnvironmentObserver {
 	 * Launches the GUI and automatic refresh thread.
 	 */
 	public void startGUI(){
-		this.pack();
-		this.setVisible(true);
+		if(this.frame == null){
+			this.frame = new JFrame();
+			this.frame.add(this.plotComponent);
+		}
+		this.frame.pack();
+		this.frame.setVisible(true);
 		this.launchThread();
 	}
+	
+	
+	/**
+	 * Returns the window showing the plots, or null if {@link #startGUI()} has not been called.
+	 * @return the window showing the plots
+	 */
+	public JFrame getFrame(){
+		return this.frame;
+	}
 
 	@Override
 	public void observeEnvironmentActionInitiation(State o, burlap.mdp.core.action.Action action) {
@@ -417,12 +438,16 @@ public class PerformancePlotter extends JFrame implements EnvironmentObserver {
 	
 	/**
 	 * Informs the plotter that data collecton for a new agent should begin.
-	 * If the current agent is already set to the agent name provided, then a warning message is printed and nothing changes.
+	 * If the current agent is already set to the agent name provided, then nothing changes, and if data has already been
+	 * recorded for it, a warning message is printed.
 	 * @param agentName the name of the agent
 	 */
 	synchronized public void startNewAgent(final String agentName){
 		
 		if(this.curAgentName.equals(agentName)){
+			if(this.agentTrials.get(agentName).isEmpty() && this.curTimeStep == 0){
+				return;
+			}
 			System.out.println("Already recording data for: " + agentName + "; noting to change from startNewAgent method call.");
 			return;
 		}
@@ -0,0 +1,107 @@
+package burlap.behavior.singleagent.auxiliary.performance;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+
+/**
+ * An {@link ExperimentMetricsSink} that streams the step-wise and episode-wise data of an experiment to CSV files
+ * as it is observed, using a {@link CSVMetricsWriter}, rather than holding the data in memory like {@link PerformancePlotter}.
+ * The files are written to &lt;pathAndBaseName&gt;Steps.csv and &lt;pathAndBaseName&gt;Episodes.csv in the same format
+ * as {@link PerformancePlotter#writeStepAndEpisodeDataToCSV(String)}. The buffers are flushed at the end of each
+ * trial and the files are closed by {@link #endAllAgents()}.
+ */
+public class StreamingCSVMetricsSink implements ExperimentMetricsSink {
+
+	/**
+	 * The writer to which data is streamed
+	 */
+	protected CSVMetricsWriter writer;
+
+	/**
+	 * The name of the current agent
+	 */
+	protected String curAgentName = null;
+
+	/**
+	 * The index of the current trial of the current agent
+	 */
+	protected int curTrial = -1;
+
+	/**
+	 * Whether observed interactions are currently recorded
+	 */
+	protected boolean collectData = false;
+
+
+	/**
+	 * Initializes and opens the step-wise and episode-wise csv files.
+	 * @param pathAndBaseName the base path and file name for the episode-wise and step-wise csv files.
+	 */
+	public StreamingCSVMetricsSink(String pathAndBaseName) {
+		this(new CSVMetricsWriter(pathAndBaseName));
+	}
+
+	/**
+	 * Initializes with a writer.
+	 * @param writer the {@link CSVMetricsWriter} to which data is streamed
+	 */
+	public StreamingCSVMetricsSink(CSVMetricsWriter writer) {
+		this.writer = writer;
+	}
+
+	public CSVMetricsWriter getWriter() {
+		return writer;
+	}
+
+	@Override
+	public void toggleDataCollection(boolean collectData) {
+		this.collectData = collectData;
+	}
+
+	@Override
+	synchronized public void startNewAgent(String agentName) {
+		this.curAgentName = agentName;
+		this.curTrial = -1;
+	}
+
+	@Override
+	synchronized public void startNewTrial() {
+		this.curTrial++;
+		this.writer.startTrial(this.curAgentName, this.curTrial);
+	}
+
+	@Override
+	public void observeEnvironmentActionInitiation(State o, Action action) {
+		//do nothing
+	}
+
+	@Override
+	synchronized public void observeEnvironmentInteraction(EnvironmentOutcome eo) {
+		if(!this.collectData){
+			return;
+		}
+		this.writer.step(this.curAgentName, eo.r);
+	}
+
+	@Override
+	public void observeEnvironmentReset(Environment resetEnvironment) {
+		//do nothing
+	}
+
+	@Override
+	synchronized public void endEpisode() {
+		this.writer.endEpisode(this.curAgentName);
+	}
+
+	@Override
+	synchronized public void endTrial() {
+		this.writer.flush();
+	}
+
+	@Override
+	synchronized public void endAllAgents() {
+		this.writer.close();
+	}
+}
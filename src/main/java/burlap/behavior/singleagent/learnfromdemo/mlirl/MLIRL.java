@@ -1,6 +1,7 @@
 package burlap.behavior.singleagent.learnfromdemo.mlirl;
 
 import burlap.behavior.functionapproximation.FunctionGradient;
+import burlap.behavior.functionapproximation.PrimitiveSparseGradient;
 import burlap.behavior.policy.BoltzmannQPolicy;
 import burlap.behavior.policy.Policy;
 import burlap.behavior.singleagent.Episode;
@@ -9,13 +10,11 @@ import burlap.behavior.singleagent.learnfromdemo.mlirl.support.BoltzmannPolicyGr
 import burlap.behavior.singleagent.learnfromdemo.mlirl.support.DifferentiableQFunction;
 import burlap.behavior.singleagent.learnfromdemo.mlirl.support.DifferentiableRF;
 import burlap.behavior.valuefunction.QProvider;
-import burlap.datastructures.HashedAggregator;
 import burlap.debugtools.DPrint;
 import burlap.mdp.core.action.Action;
 import burlap.mdp.core.state.State;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * An implementation of Maximum-likelihood Inverse Reinforcement Learning [1]. This class takes as input (from an
@@ -233,7 +232,7 @@ public class MLIRL {
 	 * @return the gradient of the log-likelihood of all trajectories
 	 */
 	public FunctionGradient logLikelihoodGradient(){
-		HashedAggregator<Integer> gradientSum = new HashedAggregator<Integer>();
+		PrimitiveSparseGradient gradient = new PrimitiveSparseGradient();
 
 		double [] weights = this.request.getEpisodeWeights();
 		List<Episode> exampleTrajectories = this.request.getExpertEpisodes();
@@ -245,19 +244,11 @@ public class MLIRL {
 				this.request.getPlanner().planFromState(ea.state(t));
 				FunctionGradient policyGrad = this.logPolicyGrad(ea.state(t), ea.action(t));
 				//weigh it by trajectory strength
-				for(FunctionGradient.PartialDerivative pd : policyGrad.getNonZeroPartialDerivatives()){
-					double newVal = pd.value * weight;
-					gradientSum.add(pd.parameterId, newVal);
-				}
+				gradient.addScaled(policyGrad, weight);
 
 			}
 		}
 
-		FunctionGradient gradient = new FunctionGradient.SparseGradient(gradientSum.size());
-		for(Map.Entry<Integer, Double> e : gradientSum.entrySet()){
-			gradient.put(e.getKey(), e.getValue());
-		}
-
 		return gradient;
 	}
 
@@ -278,9 +269,14 @@ public class MLIRL {
 		double invActProb = 1./p.actionProb(s, ga);
 		FunctionGradient gradient = BoltzmannPolicyGradient.computeBoltzmannPolicyGradient(s, ga, (DifferentiableQFunction)this.request.getPlanner(), this.request.getBoltzmannBeta());
 
-		for(FunctionGradient.PartialDerivative pd : gradient.getNonZeroPartialDerivatives()){
-			double newVal = pd.value * invActProb;
-			gradient.put(pd.parameterId, newVal);
+		if(gradient instanceof PrimitiveSparseGradient){
+			((PrimitiveSparseGradient)gradient).scale(invActProb);
+		}
+		else {
+			for(FunctionGradient.PartialDerivative pd : gradient.getNonZeroPartialDerivatives()){
+				double newVal = pd.value * invActProb;
+				gradient.put(pd.parameterId, newVal);
+			}
 		}
 
 		return gradient;
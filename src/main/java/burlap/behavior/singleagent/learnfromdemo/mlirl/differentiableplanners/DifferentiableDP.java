@@ -1,6 +1,7 @@
 package burlap.behavior.singleagent.learnfromdemo.mlirl.differentiableplanners;
 
 import burlap.behavior.functionapproximation.FunctionGradient;
+import burlap.behavior.functionapproximation.PrimitiveSparseGradient;
 import burlap.behavior.singleagent.learnfromdemo.mlirl.differentiableplanners.dpoperator.DifferentiableDPOperator;
 import burlap.behavior.singleagent.learnfromdemo.mlirl.differentiableplanners.dpoperator.DifferentiableSoftmaxOperator;
 import burlap.behavior.singleagent.learnfromdemo.mlirl.support.DifferentiableQFunction;
@@ -18,6 +19,8 @@ import burlap.statehashing.HashableState;
 import burlap.statehashing.HashableStateFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A class for performing dynamic programming with a differentiable value backup operator.
@@ -75,6 +78,21 @@ public abstract class DifferentiableDP extends DynamicProgramming implements Dif
 	 */
 	protected FunctionGradient performDPValueGradientUpdateOn(HashableState sh){
 
+		FunctionGradient vGradient = this.computeDPValueGradient(sh);
+		this.valueGradient.put(sh, vGradient);
+
+		return vGradient;
+	}
+
+
+	/**
+	 * Computes the Boltzmann value function gradient backup for the given {@link burlap.statehashing.HashableState}
+	 * without storing it.
+	 * @param sh the hashed state on which to perform the Boltzmann gradient backup.
+	 * @return the gradient.
+	 */
+	protected FunctionGradient computeDPValueGradient(HashableState sh){
+
 
 		//get q objects
 		List<QValue> Qs = this.qValues(sh.s());
@@ -88,10 +106,57 @@ public abstract class DifferentiableDP extends DynamicProgramming implements Dif
 			qGradients[i] = this.qGradient(sh.s(), Qs.get(i).a);
 		}
 
-		FunctionGradient vGradient = ((DifferentiableDPOperator)operator).gradient(qs, qGradients);
-		this.valueGradient.put(sh, vGradient);
+		return ((DifferentiableDPOperator)operator).gradient(qs, qGradients);
+	}
 
-		return vGradient;
+
+	/**
+	 * Performs one sweep of value function gradient backups over the given states, using the configured
+	 * {@link burlap.behavior.singleagent.planning.stochastic.DynamicProgramming.SweepMode} and sweep parallelism.
+	 * @param states the states whose value function gradient will be updated
+	 */
+	protected void gradientSweep(final HashableState [] states){
+
+		if(this.sweepParallelism > 1){
+			this.ensureConcurrentValueFunction();
+		}
+
+		if(this.sweepMode == SweepMode.JACOBI){
+			final FunctionGradient [] ngs = new FunctionGradient[states.length];
+			this.runPartitioned(states.length, new RangeTask() {
+				@Override
+				public double run(int start, int end) {
+					for(int i = start; i < end; i++){
+						ngs[i] = computeDPValueGradient(states[i]);
+					}
+					return 0.;
+				}
+			});
+			for(int i = 0; i < states.length; i++){
+				this.valueGradient.put(states[i], ngs[i]);
+			}
+		}
+		else{
+			this.runPartitioned(states.length, new RangeTask() {
+				@Override
+				public double run(int start, int end) {
+					for(int i = start; i < end; i++){
+						performDPValueGradientUpdateOn(states[i]);
+					}
+					return 0.;
+				}
+			});
+		}
+
+	}
+
+
+	@Override
+	protected void ensureConcurrentValueFunction() {
+		super.ensureConcurrentValueFunction();
+		if(!(this.valueGradient instanceof ConcurrentMap)){
+			this.valueGradient = new ConcurrentHashMap<HashableState, FunctionGradient>(this.valueGradient);
+		}
 	}
 
 
@@ -123,20 +188,13 @@ public abstract class DifferentiableDP extends DynamicProgramming implements Dif
 	 */
 	protected FunctionGradient computeQGradient(State s, Action ga){
 
-		FunctionGradient qgradient = new FunctionGradient.SparseGradient();
+		PrimitiveSparseGradient qgradient = new PrimitiveSparseGradient();
 		List<TransitionProb> tps = ((FullModel)model).transitions(s, ga);
 		for(TransitionProb tp : tps){
 			FunctionGradient valueGradient = this.valueGradient(tp.eo.op);
 			FunctionGradient rewardGradient = this.rf.gradient(s, ga, tp.eo.op);
-			Set<Integer> params = combinedNonZeroPDParameters(valueGradient, rewardGradient);
-
-			for(int i : params){
-				double curval = qgradient.getPartialDerivative(i);
-				double nval = curval + tp.p * (rewardGradient.getPartialDerivative(i) + this.gamma * valueGradient.getPartialDerivative(i));
-				qgradient.put(i, nval);
-			}
-
-
+			qgradient.addScaled(rewardGradient, tp.p);
+			qgradient.addScaled(valueGradient, tp.p * this.gamma);
 		}
 
 		return qgradient;
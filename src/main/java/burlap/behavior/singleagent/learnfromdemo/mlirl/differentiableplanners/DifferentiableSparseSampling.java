@@ -14,6 +14,7 @@ import burlap.behavior.singleagent.learnfromdemo.mlirl.support.DifferentiableVal
 import burlap.behavior.singleagent.learnfromdemo.mlirl.support.QGradientTuple;
 import burlap.behavior.singleagent.planning.Planner;
 import burlap.behavior.singleagent.planning.stochastic.sparsesampling.SparseSampling;
+import burlap.behavior.singleagent.planning.stochastic.sparsesampling.TranspositionTable;
 import burlap.behavior.valuefunction.*;
 import burlap.debugtools.DPrint;
 import burlap.mdp.core.action.Action;
@@ -37,6 +38,8 @@ import java.util.*;
  * object and learned with {@link burlap.behavior.singleagent.learnfromdemo.mlirl.MLIRL},
  * enabling a nice separation of shaping features/rewards and the learned (or known) reward function.
  * <p>
+ * As with {@link SparseSampling}, the number of remembered tree nodes can be bounded with {@link #setMaxStateNodes(int)}.
+ * <p>
  * 1. MacGlashan, J. Littman, M., "Between Imitation and Intention Learning," Proceedings of IJCAI 15, 2015.
  * 2. Babes, M., Marivate, V., Subramanian, K., and Littman, "Apprenticeship learning about multiple intentions." Proceedings of the 28th International Conference on Machine Learning (ICML-11). 2011.
  * @author James MacGlashan.
@@ -74,7 +77,7 @@ public class DifferentiableSparseSampling extends MDPSolver implements Different
 	/**
 	 * The tree nodes indexed by state and height.
 	 */
-	protected Map<SparseSampling.HashedHeightState, DiffStateNode> nodesByHeight;
+	protected TranspositionTable<DiffStateNode> nodesByHeight;
 
 	/**
 	 * The root state node Q-values that have been estimated by previous planning calls.
@@ -119,7 +122,7 @@ public class DifferentiableSparseSampling extends MDPSolver implements Different
 		this.c = c;
 		this.rf = rf;
 		this.boltzBeta = boltzBeta;
-		this.nodesByHeight = new HashMap<SparseSampling.HashedHeightState, DiffStateNode>();
+		this.nodesByHeight = new TranspositionTable<DiffStateNode>();
 		this.rootLevelQValues = new HashMap<HashableState, DifferentiableSparseSampling.QAndQGradient>();
 		this.rfDim = rf.numParameters();
 
@@ -204,6 +207,23 @@ public class DifferentiableSparseSampling extends MDPSolver implements Different
 		}
 	}
 
+	/**
+	 * Returns the maximum number of tree nodes that are remembered.
+	 * @return the maximum number of tree nodes that are remembered, or -1 if there is no maximum
+	 */
+	public int getMaxStateNodes(){
+		return this.nodesByHeight.getMaxSize();
+	}
+
+	/**
+	 * Sets the maximum number of tree nodes that are remembered, within and between planning calls. When the maximum is exceeded,
+	 * the least recently used nodes of the lowest height are evicted (see {@link TranspositionTable}).
+	 * @param maxStateNodes the maximum number of tree nodes, or -1 for no maximum (the default)
+	 */
+	public void setMaxStateNodes(int maxStateNodes){
+		this.nodesByHeight.setMaxSize(maxStateNodes);
+	}
+
 	/**
 	 * Sets the {@link burlap.behavior.valuefunction.ValueFunction} object to use for settting the value of leaf nodes.
 	 * @param vinit the {@link burlap.behavior.valuefunction.ValueFunction} object to use for settting the value of leaf nodes.
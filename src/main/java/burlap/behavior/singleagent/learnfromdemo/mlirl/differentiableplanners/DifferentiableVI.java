@@ -137,19 +137,29 @@ public class DifferentiableVI extends DifferentiableDP implements Planner {
 			throw new RuntimeException("Cannot run VI until the reachable states have been found. Use the planFromState, performReachabilityFrom, addStateToStateSpace or addStatesToStateSpace methods at least once before calling runVI.");
 		}
 
-		Set<HashableState> states = valueFunction.keySet();
+		HashableState [] states = this.sweepStates();
+
+		//a single threaded Gauss-Seidel sweep interleaves the value and gradient backups of each state;
+		//otherwise, all value backups of a sweep are performed before the gradient backups
+		boolean interleave = this.sweepParallelism == 1 && this.sweepMode == SweepMode.GAUSS_SEIDEL;
 
 		int i;
 		for(i = 0; i < this.maxIterations; i++){
 
 			double delta = 0.;
-			for(HashableState sh : states){
+			if(interleave){
+				for(HashableState sh : states){
 
-				double v = this.value(sh);
-				double newV = this.performBellmanUpdateOn(sh);
-				this.performDPValueGradientUpdateOn(sh);
-				delta = Math.max(Math.abs(newV - v), delta);
+					double v = this.value(sh);
+					double newV = this.performBellmanUpdateOn(sh);
+					this.performDPValueGradientUpdateOn(sh);
+					delta = Math.max(Math.abs(newV - v), delta);
 
+				}
+			}
+			else{
+				delta = this.bellmanSweep(states);
+				this.gradientSweep(states);
 			}
 
 			if(delta < this.maxDelta){
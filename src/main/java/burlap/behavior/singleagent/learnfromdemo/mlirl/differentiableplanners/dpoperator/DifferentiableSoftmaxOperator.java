@@ -1,6 +1,7 @@
 package burlap.behavior.singleagent.learnfromdemo.mlirl.differentiableplanners.dpoperator;
 
 import burlap.behavior.functionapproximation.FunctionGradient;
+import burlap.behavior.functionapproximation.PrimitiveSparseGradient;
 import burlap.behavior.singleagent.learnfromdemo.mlirl.support.BoltzmannPolicyGradient;
 import burlap.behavior.singleagent.planning.stochastic.dpoperator.SoftmaxOperator;
 
@@ -20,7 +21,7 @@ public class DifferentiableSoftmaxOperator extends SoftmaxOperator implements Di
 
 	@Override
 	public FunctionGradient gradient(double [] qs, FunctionGradient[] qGradients) {
-		FunctionGradient vGradient = new FunctionGradient.SparseGradient();
+		PrimitiveSparseGradient vGradient = new PrimitiveSparseGradient();
 
 		double maxBetaScaled = BoltzmannPolicyGradient.maxBetaScaled(qs, this.beta);
 		double logSum = BoltzmannPolicyGradient.logSum(qs, maxBetaScaled, this.beta);
@@ -31,9 +32,7 @@ public class DifferentiableSoftmaxOperator extends SoftmaxOperator implements Di
 			FunctionGradient policyGradient = BoltzmannPolicyGradient.computePolicyGradient(qs, qGradients, i, this.beta);
 
 			for(FunctionGradient.PartialDerivative pd : policyGradient.getNonZeroPartialDerivatives()){
-				double curVal = vGradient.getPartialDerivative(pd.parameterId);
-				double nextVal = curVal + (probA * qGradients[i].getPartialDerivative(pd.parameterId)) + qs[i] * pd.value;
-				vGradient.put(pd.parameterId, nextVal);
+				vGradient.add(pd.parameterId, (probA * qGradients[i].getPartialDerivative(pd.parameterId)) + qs[i] * pd.value);
 			}
 
 
@@ -49,6 +49,11 @@ public class TDLambda extends MDPSolver implements Critic, ValueFunction {
 	 * The eligibility traces for the current episode.
 	 */
 	protected LinkedList<StateEligibilityTrace>		traces;
+
+	/**
+	 * The eligibility trace of each state in {@link #traces}, for finding the trace of a state without scanning them.
+	 */
+	protected Map<HashableState, StateEligibilityTrace>	traceIndex = new HashMap<HashableState, StateEligibilityTrace>();
 	
 	
 	/**
@@ -105,11 +110,13 @@ public class TDLambda extends MDPSolver implements Critic, ValueFunction {
 	@Override
 	public void startEpisode(State s) {
 		this.traces = new LinkedList<TDLambda.StateEligibilityTrace>();
+		this.traceIndex.clear();
 	}
 
 	@Override
 	public void endEpisode() {
 		this.traces.clear();
+		this.traceIndex.clear();
 	}
 	
 	/**
@@ -141,14 +148,13 @@ public class TDLambda extends MDPSolver implements Critic, ValueFunction {
 		double delta = r + discount*nextV - vs.v;
 		
 		//update all traces
-		boolean foundTrace = false;
+		StateEligibilityTrace current = this.traceIndex.get(sh);
+		boolean foundTrace = current != null;
+		if(foundTrace){
+			current.eligibility = 1.;
+		}
 		for(StateEligibilityTrace t : traces){
 			
-			if(t.sh.equals(sh)){
-				foundTrace = true;
-				t.eligibility = 1.;
-			}
-			
 			double learningRate = this.learningRate.pollLearningRate(this.totalNumberOfSteps, t.sh.s(), null);
 			t.v.v = t.v.v + learningRate * delta * t.eligibility;
 			t.eligibility = t.eligibility * lambda * discount;
@@ -161,6 +167,7 @@ public class TDLambda extends MDPSolver implements Critic, ValueFunction {
 			StateEligibilityTrace t = new StateEligibilityTrace(sh, discount*this.lambda, vs);
 			
 			traces.add(t);
+			this.traceIndex.put(sh, t);
 		}
 		
 
@@ -185,6 +192,7 @@ public class TDLambda extends MDPSolver implements Critic, ValueFunction {
 	public void reset(){
 		this.vIndex.clear();
 		this.traces.clear();
+		this.traceIndex.clear();
 		this.learningRate.resetDecay();
 	}
 
@@ -0,0 +1,280 @@
+package burlap.behavior.singleagent.learning.experiencereplay;
+
+import burlap.behavior.singleagent.options.EnvironmentOptionOutcome;
+import burlap.debugtools.RandomFactory;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A fixed size memory with the same forgetting and sampling behavior as {@link FixedSizeMemory}, but that stores
+ * experiences in columns of primitive arrays rather than as {@link EnvironmentOutcome} objects. States are encoded
+ * into two flat double arrays (one for the pre-states and one for the post-states) with a {@link StateCodec}, actions are
+ * interned and stored as int indices, and rewards and terminal flags are stored in their own arrays. Therefore a full memory
+ * holds no state or outcome objects, and its size is dominated by 16 bytes per encoded state variable per experience.
+ * {@link EnvironmentOutcome} objects are reconstructed, with states decoded by the {@link StateCodec}, only for the
+ * experiences returned by {@link #sampleExperiences(int)}.
+ * <p>
+ * For states that implement both {@link burlap.mdp.core.state.PrimitiveState} and {@link burlap.mdp.core.state.MutableState},
+ * use a {@link PrimitiveStateCodec}. States that the codec cannot encode (see {@link StateCodec#encodes(State)}), such as states
+ * whose object names differ from the codec's prototype, are stored as objects instead, in arrays that are only created once
+ * such a state is stored. Option outcomes ({@link EnvironmentOptionOutcome}) are not supported, since their
+ * executed episodes cannot be stored in columns.
+ */
+public class ColumnarExperienceMemory implements ExperienceMemory {
+
+	protected int next = 0;
+	protected int capacity;
+	protected int size = 0;
+
+	protected boolean alwaysIncludeMostRecent;
+
+	/**
+	 * The codec used to encode and decode states
+	 */
+	protected StateCodec codec;
+
+	/**
+	 * The length of each encoded state
+	 */
+	protected int stateLength;
+
+	/**
+	 * The encoded pre-state of each experience; experience i occupies [i*stateLength, (i+1)*stateLength)
+	 */
+	protected double [] states;
+
+	/**
+	 * The encoded post-state of each experience, with the same layout as {@link #states}
+	 */
+	protected double [] nextStates;
+
+	/**
+	 * The pre-state of each experience whose pre-state the codec cannot encode, and null for the others; null until such a state is stored
+	 */
+	protected State [] unencodedStates;
+
+	/**
+	 * The post-state of each experience whose post-state the codec cannot encode, and null for the others; null until such a state is stored
+	 */
+	protected State [] unencodedNextStates;
+
+	/**
+	 * The interned action index of each experience
+	 */
+	protected int [] actions;
+
+	/**
+	 * The reward of each experience
+	 */
+	protected double [] rewards;
+
+	/**
+	 * Whether each experience transitioned to a terminal state
+	 */
+	protected boolean [] terminated;
+
+	/**
+	 * The interned actions, in the order they were first stored
+	 */
+	protected List<Action> actionList = new ArrayList<Action>();
+
+	/**
+	 * The index of each interned action
+	 */
+	protected Map<Action, Integer> actionIndices = new HashMap<Action, Integer>();
+
+
+	/**
+	 * Initializes with the size of the memory and the codec for states. The sampling method is *not* guaranteed to always include the most
+	 * recent memory, and is a uniform random sampling from the stored memories.
+	 * @param size the number of experiences to store
+	 * @param codec the {@link StateCodec} used to encode and decode states
+	 */
+	public ColumnarExperienceMemory(int size, StateCodec codec) {
+		this(size, codec, false);
+	}
+
+	/**
+	 * Initializes with the size of the memory, the codec for states, and whether the most recent memory should always be included
+	 * in the returned results from the sampling memory.
+	 * @param size the number of experiences to store
+	 * @param codec the {@link StateCodec} used to encode and decode states
+	 * @param alwaysIncludeMostRecent if true, then the result of the {@link #sampleExperiences(int)}} will always include the most recent experience and is a uniform random sampling for the n-1 samples.
+	 *                                   If false, then it is a pure random sample with replacement.
+	 */
+	public ColumnarExperienceMemory(int size, StateCodec codec, boolean alwaysIncludeMostRecent) {
+		if(size < 1){
+			throw new RuntimeException("ColumnarExperienceMemory requires memory size > 0; was request size of " + size);
+		}
+		this.codec = codec;
+		this.stateLength = codec.encodedLength();
+		if((long)size * this.stateLength > Integer.MAX_VALUE){
+			throw new RuntimeException("ColumnarExperienceMemory of size " + size + " with states of length " + this.stateLength + " exceeds the maximum array size");
+		}
+		this.capacity = size;
+		this.alwaysIncludeMostRecent = alwaysIncludeMostRecent;
+		this.states = new double[size * this.stateLength];
+		this.nextStates = new double[size * this.stateLength];
+		this.actions = new int[size];
+		this.rewards = new double[size];
+		this.terminated = new boolean[size];
+	}
+
+	/**
+	 * If true, then the result of the {@link #sampleExperiences(int)}} will always include the most recent experience
+	 * and is a uniform random sampling for the n-1 samples. If false, then it is a pure random sample with replacement.
+	 * @return true or false
+	 */
+	public boolean alwaysIncludeMostRecent() {
+		return alwaysIncludeMostRecent;
+	}
+
+	/**
+	 * Sets whether to always include the most recent experience in the {@link #sampleExperiences(int)} method.
+	 * @param alwaysIncludeMostRecent If true, then the result of the {@link #sampleExperiences(int)}} will always include the most recent experience
+	 *                                   and is a uniform random sampling for the n-1 samples. If false, then it is a pure random sample with replacement.
+	 */
+	public void setAlwaysIncludeMostRecent(boolean alwaysIncludeMostRecent) {
+		this.alwaysIncludeMostRecent = alwaysIncludeMostRecent;
+	}
+
+	public StateCodec getCodec() {
+		return codec;
+	}
+
+	/**
+	 * Returns the number of stored experiences.
+	 * @return the number of stored experiences
+	 */
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void addExperience(EnvironmentOutcome eo) {
+		if(eo instanceof EnvironmentOptionOutcome){
+			throw new RuntimeException("ColumnarExperienceMemory does not support option outcomes; use FixedSizeMemory instead.");
+		}
+		this.unencodedStates = this.store(eo.o, this.states, this.unencodedStates);
+		this.unencodedNextStates = this.store(eo.op, this.nextStates, this.unencodedNextStates);
+		this.actions[next] = this.actionIndex(eo.a);
+		this.rewards[next] = eo.r;
+		this.terminated[next] = eo.terminated;
+		next = (next+1) % capacity;
+		size = Math.min(size+1, capacity);
+	}
+
+	@Override
+	public List<EnvironmentOutcome> sampleExperiences(int n) {
+
+		List<EnvironmentOutcome> samples;
+
+		if(this.size == 0){
+			return new ArrayList<EnvironmentOutcome>();
+		}
+
+		if(this.alwaysIncludeMostRecent){
+			n--;
+		}
+
+		if(this.size < n){
+			samples = new ArrayList<EnvironmentOutcome>(this.size);
+			for(int i = 0; i < this.size; i++){
+				samples.add(this.decode(i));
+			}
+			return samples;
+		}
+		else{
+			samples = new ArrayList<EnvironmentOutcome>(Math.max(n, 1));
+			Random r = RandomFactory.getMapped(0);
+			for(int i = 0; i < n; i++) {
+				int sind = r.nextInt(this.size);
+				samples.add(this.decode(sind));
+			}
+		}
+		if(this.alwaysIncludeMostRecent){
+			samples.add(this.decode((next + capacity - 1) % capacity));
+		}
+
+		return samples;
+	}
+
+	@Override
+	public void resetMemory() {
+		this.size = 0;
+		this.next = 0;
+		this.unencodedStates = null;
+		this.unencodedNextStates = null;
+	}
+
+	/**
+	 * Reconstructs the experience stored at the given index.
+	 * @param i the index of the experience
+	 * @return the experience as an {@link EnvironmentOutcome}
+	 */
+	protected EnvironmentOutcome decode(int i){
+		State o = this.load(i, this.states, this.unencodedStates);
+		State op = this.load(i, this.nextStates, this.unencodedNextStates);
+		return new EnvironmentOutcome(o, this.actionList.get(this.actions[i]), op, this.rewards[i], this.terminated[i]);
+	}
+
+	/**
+	 * Stores a state at index {@link #next}, encoding it into the column if the codec can encode it, and otherwise keeping the
+	 * state object in the unencoded array, which is created if needed.
+	 * @param s the state to store
+	 * @param column the column of encoded states
+	 * @param unencoded the array of unencoded states, or null if it has not been created
+	 * @return the array of unencoded states, which is null if it has not been created
+	 */
+	protected State [] store(State s, double [] column, State [] unencoded){
+		if(this.codec.encodes(s)){
+			this.codec.encode(s, column, next * this.stateLength);
+			if(unencoded != null){
+				unencoded[next] = null;
+			}
+			return unencoded;
+		}
+		if(unencoded == null){
+			unencoded = new State[this.capacity];
+		}
+		unencoded[next] = s;
+		return unencoded;
+	}
+
+	/**
+	 * Returns the state stored at the given index, decoding it from the column unless it is stored as an object.
+	 * @param i the index of the experience
+	 * @param column the column of encoded states
+	 * @param unencoded the array of unencoded states, or null if it has not been created
+	 * @return the state
+	 */
+	protected State load(int i, double [] column, State [] unencoded){
+		if(unencoded != null && unencoded[i] != null){
+			return unencoded[i];
+		}
+		return this.codec.decode(column, i * this.stateLength);
+	}
+
+	/**
+	 * Returns the interned index of the given action, interning it if it has not been stored before.
+	 * @param a the action
+	 * @return the index of the action
+	 */
+	protected int actionIndex(Action a){
+		Integer ind = this.actionIndices.get(a);
+		if(ind == null){
+			ind = this.actionList.size();
+			this.actionList.add(a);
+			this.actionIndices.put(a, ind);
+		}
+		return ind;
+	}
+
+}
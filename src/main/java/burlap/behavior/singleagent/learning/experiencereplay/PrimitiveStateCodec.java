@@ -0,0 +1,107 @@
+package burlap.behavior.singleagent.learning.experiencereplay;
+
+import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.PrimitiveState;
+import burlap.mdp.core.state.State;
+import burlap.mdp.core.state.StateUtilities;
+
+import java.util.List;
+
+/**
+ * A {@link StateCodec} for states that implement both {@link PrimitiveState} and {@link MutableState} and share the
+ * variable layout of a prototype state. States are encoded with {@link PrimitiveState#copyInto(double[], int)}, and decoded by
+ * copying the prototype and setting its variables with {@link MutableState#set(Object, Object)}, with int variables set
+ * as {@link Integer} values and double variables as {@link Double} values. Therefore any content of a state that is not
+ * a variable (such as object names) is restored from the prototype, and {@link #encodes(State)} only accepts states that
+ * {@link StateUtilities#reconstructsFromPrototype(MutableState, PrimitiveState)} verifies are reproduced this way. Since this check
+ * copies the prototype, it is made once for states whose class and variable keys match the prototype's when
+ * {@link StateUtilities#reconstructionDependsOnlyOnKeys(Class)} holds for their class, and its result is reused for later states.
+ */
+public class PrimitiveStateCodec implements StateCodec {
+
+	/**
+	 * The state that is copied to decode states
+	 */
+	protected MutableState prototype;
+
+	/**
+	 * The variable keys of the prototype
+	 */
+	protected List<Object> keys;
+
+	/**
+	 * Whether each variable is an int variable
+	 */
+	protected boolean [] intVariables;
+
+	/**
+	 * The result of the reconstruction check for states with the class and variable keys of the prototype, if it depends only on
+	 * them; null until such a state is checked
+	 */
+	protected Boolean keysVerdict;
+
+
+	/**
+	 * Initializes.
+	 * @param prototype a state with the variable layout of all states that will be encoded; must implement both {@link PrimitiveState} and {@link MutableState}
+	 */
+	public PrimitiveStateCodec(State prototype) {
+		if(!(prototype instanceof PrimitiveState) || !(prototype instanceof MutableState)){
+			throw new RuntimeException("PrimitiveStateCodec requires a prototype that implements PrimitiveState and MutableState; " + prototype.getClass().getName() + " does not.");
+		}
+		PrimitiveState ps = (PrimitiveState)prototype;
+		this.prototype = (MutableState)prototype.copy();
+		this.keys = prototype.variableKeys();
+		this.intVariables = new boolean[ps.numVariables()];
+		for(int i = 0; i < this.intVariables.length; i++){
+			this.intVariables[i] = ps.isIntVariable(i);
+		}
+	}
+
+	@Override
+	public int encodedLength() {
+		return this.intVariables.length;
+	}
+
+	@Override
+	public boolean encodes(State s) {
+		if(s.getClass() != this.prototype.getClass() || !(s instanceof PrimitiveState)){
+			return false;
+		}
+		if(!StateUtilities.reconstructionDependsOnlyOnKeys(s.getClass())){
+			return StateUtilities.reconstructsFromPrototype(this.prototype, (PrimitiveState)s);
+		}
+		if(!this.keys.equals(s.variableKeys())){
+			return false;
+		}
+		if(this.keysVerdict == null){
+			this.keysVerdict = StateUtilities.reconstructsFromPrototype(this.prototype, (PrimitiveState)s);
+		}
+		return this.keysVerdict;
+	}
+
+	@Override
+	public void encode(State s, double[] dest, int offset) {
+		PrimitiveState ps = (PrimitiveState)s;
+		if(ps.numVariables() != this.intVariables.length){
+			throw new RuntimeException("PrimitiveStateCodec cannot encode a state with " + ps.numVariables() + " variables; the prototype has " + this.intVariables.length);
+		}
+		ps.copyInto(dest, offset);
+	}
+
+	@Override
+	public State decode(double[] src, int offset) {
+		MutableState s = (MutableState)this.prototype.copy();
+		for(int i = 0; i < this.intVariables.length; i++){
+			double v = src[offset + i];
+			if(this.intVariables[i]){
+				s.set(this.keys.get(i), (int)v);
+			}
+			else{
+				s.set(this.keys.get(i), v);
+			}
+		}
+		return s;
+	}
+
+}
@@ -0,0 +1,39 @@
+package burlap.behavior.singleagent.learning.experiencereplay;
+
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+
+import java.util.List;
+
+/**
+ * An {@link ExperienceMemory} that samples experiences non-uniformly according to priorities that are fed back
+ * by the learner after it uses a sample, such as the magnitude of the temporal difference error of each experience [1].
+ * Because non-uniform sampling biases updates, the memory also provides an importance sampling weight for each
+ * experience of the most recent sample, which learners should multiply into the update of that experience.
+ * <p>
+ * The methods that refer to the most recent sample apply to the list returned by the last call of
+ * {@link #sampleExperiences(int)}, with values indexed by position in that list.
+ * <p>
+ * [1] Schaul, Tom, et al. "Prioritized experience replay." arXiv preprint arXiv:1511.05952 (2015).
+ */
+public interface PrioritizedExperienceMemory extends ExperienceMemory {
+
+	/**
+	 * Returns the list of experiences returned by the most recent call of {@link #sampleExperiences(int)}.
+	 * @return the most recent sample, or null if there has been no sample since the memory was reset
+	 */
+	List<EnvironmentOutcome> lastSample();
+
+	/**
+	 * Returns the importance sampling weight of each experience of the most recent sample.
+	 * @return the importance sampling weights, indexed by position in the most recent sample
+	 */
+	double [] lastSampleWeights();
+
+	/**
+	 * Updates the priority of each experience of the most recent sample from the temporal difference errors the
+	 * learner computed for them.
+	 * @param tdErrors the temporal difference errors, indexed by position in the most recent sample
+	 */
+	void updateLastSamplePriorities(double [] tdErrors);
+
+}
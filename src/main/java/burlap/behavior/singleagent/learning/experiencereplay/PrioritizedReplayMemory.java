@@ -0,0 +1,228 @@
+package burlap.behavior.singleagent.learning.experiencereplay;
+
+import burlap.datastructures.SumTree;
+import burlap.debugtools.RandomFactory;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A fixed size {@link PrioritizedExperienceMemory} implementing proportional prioritized experience replay [1].
+ * Like {@link FixedSizeMemory}, experiences are stored in a ring buffer and the oldest experience is forgotten to make
+ * room for a new one when the memory is full. Each experience has a priority, stored in a {@link SumTree}, and experience i
+ * is sampled with probability p_i / sum_j p_j, so adding an experience, updating a priority, and sampling an
+ * experience all take O(lg(n)) time. Samples are drawn with replacement and stratified: the cumulative priority
+ * distribution is divided into n equal segments and one experience is sampled from each.
+ * <p>
+ * When the learner feeds back the temporal difference error d of an experience with {@link #updateLastSamplePriorities(double[])},
+ * its priority is set to (|d| + epsilon)^alpha, where alpha controls how much prioritization is used (0 is uniform sampling)
+ * and epsilon keeps experiences with zero error from never being sampled again. New experiences are given the largest
+ * priority set so far, so that every experience is likely to be sampled at least once.
+ * <p>
+ * The importance sampling weight of a sampled experience i is (N * P(i))^-beta, normalized by the largest weight of
+ * any stored experience so that weights are at most 1, where N is the number of stored experiences and beta controls
+ * how much of the sampling bias is corrected (1 fully corrects it). Schaul et al. anneal beta toward 1 over learning, which
+ * can be done by calling {@link #setBeta(double)}.
+ * <p>
+ * [1] Schaul, Tom, et al. "Prioritized experience replay." arXiv preprint arXiv:1511.05952 (2015).
+ */
+public class PrioritizedReplayMemory implements PrioritizedExperienceMemory {
+
+	protected int next = 0;
+	protected EnvironmentOutcome[] memory;
+	protected int size = 0;
+
+	/**
+	 * The priority of each slot of the ring buffer
+	 */
+	protected SumTree priorities;
+
+	/**
+	 * The largest priority set so far, given to new experiences
+	 */
+	protected double maxPriority = 1.;
+
+	/**
+	 * The prioritization exponent
+	 */
+	protected double alpha;
+
+	/**
+	 * The importance sampling correction exponent
+	 */
+	protected double beta;
+
+	/**
+	 * The constant added to the magnitude of temporal difference errors
+	 */
+	protected double epsilon = 1e-6;
+
+	/**
+	 * The most recent sample
+	 */
+	protected List<EnvironmentOutcome> lastSample;
+
+	/**
+	 * The ring buffer slot of each experience of the most recent sample
+	 */
+	protected int [] lastSampleSlots = new int[0];
+
+	/**
+	 * The importance sampling weight of each experience of the most recent sample
+	 */
+	protected double [] lastSampleWeights = new double[0];
+
+
+	/**
+	 * Initializes with the size of the memory and with alpha = 0.6 and beta = 0.4, the values Schaul et al. used
+	 * for proportional prioritization.
+	 * @param size the number of experiences to store
+	 */
+	public PrioritizedReplayMemory(int size) {
+		this(size, 0.6, 0.4);
+	}
+
+	/**
+	 * Initializes.
+	 * @param size the number of experiences to store
+	 * @param alpha the prioritization exponent; 0 is uniform sampling
+	 * @param beta the importance sampling correction exponent; 0 is no correction and 1 is full correction
+	 */
+	public PrioritizedReplayMemory(int size, double alpha, double beta) {
+		if(size < 1){
+			throw new RuntimeException("PrioritizedReplayMemory requires memory size > 0; was request size of " + size);
+		}
+		this.memory = new EnvironmentOutcome[size];
+		this.priorities = new SumTree(size);
+		this.alpha = alpha;
+		this.beta = beta;
+	}
+
+	public double getAlpha() {
+		return alpha;
+	}
+
+	/**
+	 * Sets the prioritization exponent. Only affects priorities updated after it is called.
+	 * @param alpha the prioritization exponent; 0 is uniform sampling
+	 */
+	public void setAlpha(double alpha) {
+		this.alpha = alpha;
+	}
+
+	public double getBeta() {
+		return beta;
+	}
+
+	/**
+	 * Sets the importance sampling correction exponent.
+	 * @param beta the importance sampling correction exponent; 0 is no correction and 1 is full correction
+	 */
+	public void setBeta(double beta) {
+		this.beta = beta;
+	}
+
+	public double getEpsilon() {
+		return epsilon;
+	}
+
+	/**
+	 * Sets the constant added to the magnitude of temporal difference errors before they are converted to priorities.
+	 * @param epsilon the constant added to the magnitude of temporal difference errors
+	 */
+	public void setEpsilon(double epsilon) {
+		this.epsilon = epsilon;
+	}
+
+	/**
+	 * Returns the largest priority set so far, which is the priority given to new experiences.
+	 * @return the largest priority set so far
+	 */
+	public double getMaxPriority() {
+		return maxPriority;
+	}
+
+	/**
+	 * Returns the number of stored experiences.
+	 * @return the number of stored experiences
+	 */
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void addExperience(EnvironmentOutcome eo) {
+		memory[next] = eo;
+		priorities.set(next, maxPriority);
+		next = (next+1) % memory.length;
+		size = Math.min(size+1, memory.length);
+	}
+
+	@Override
+	public List<EnvironmentOutcome> sampleExperiences(int n) {
+
+		if(this.size == 0 || n < 1){
+			this.lastSample = new ArrayList<EnvironmentOutcome>();
+			this.lastSampleSlots = new int[0];
+			this.lastSampleWeights = new double[0];
+			return this.lastSample;
+		}
+
+		List<EnvironmentOutcome> samples = new ArrayList<EnvironmentOutcome>(n);
+		if(this.lastSampleSlots.length != n){
+			this.lastSampleSlots = new int[n];
+			this.lastSampleWeights = new double[n];
+		}
+
+		Random r = RandomFactory.getMapped(0);
+		double segment = this.priorities.total() / n;
+		double minPriority = this.priorities.minPositive();
+		for(int i = 0; i < n; i++){
+			int slot = this.priorities.find((i + r.nextDouble()) * segment);
+			samples.add(this.memory[slot]);
+			this.lastSampleSlots[i] = slot;
+
+			//(N P(i))^-beta / max_j (N P(j))^-beta simplifies to (p_min / p_i)^beta
+			this.lastSampleWeights[i] = Math.pow(minPriority / this.priorities.get(slot), this.beta);
+		}
+
+		this.lastSample = samples;
+		return samples;
+	}
+
+	@Override
+	public List<EnvironmentOutcome> lastSample() {
+		return this.lastSample;
+	}
+
+	@Override
+	public double[] lastSampleWeights() {
+		return this.lastSampleWeights;
+	}
+
+	@Override
+	public void updateLastSamplePriorities(double[] tdErrors) {
+		if(tdErrors.length != this.lastSampleSlots.length){
+			throw new RuntimeException("Number of temporal difference errors (" + tdErrors.length + ") does not match the size of the last sample (" + this.lastSampleSlots.length + ")");
+		}
+		for(int i = 0; i < tdErrors.length; i++){
+			double p = Math.pow(Math.abs(tdErrors[i]) + this.epsilon, this.alpha);
+			this.maxPriority = Math.max(this.maxPriority, p);
+			this.priorities.set(this.lastSampleSlots[i], p);
+		}
+	}
+
+	@Override
+	public void resetMemory() {
+		this.size = 0;
+		this.next = 0;
+		this.priorities.clear();
+		this.maxPriority = 1.;
+		this.lastSample = null;
+		this.lastSampleSlots = new int[0];
+		this.lastSampleWeights = new double[0];
+	}
+
+}
@@ -0,0 +1,43 @@
+package burlap.behavior.singleagent.learning.experiencereplay;
+
+import burlap.mdp.core.state.State;
+
+/**
+ * Encodes states as fixed-length vectors of doubles and decodes them back into states, so that states can be stored
+ * in primitive arrays rather than as object graphs, as {@link ColumnarExperienceMemory} does. Decoding need only
+ * reconstruct a state that is equivalent to the encoded state for the code that will use it; for example, a state
+ * whose variables are set from the vector.
+ */
+public interface StateCodec {
+
+	/**
+	 * Returns the number of doubles in the encoding of each state.
+	 * @return the number of doubles in the encoding of each state
+	 */
+	int encodedLength();
+
+	/**
+	 * Returns whether the given state can be encoded, that is, whether decoding its encoding reproduces it. Memories that
+	 * use a codec store the states it cannot encode as objects instead.
+	 * @param s the state
+	 * @return true if the state can be encoded; false otherwise
+	 */
+	boolean encodes(State s);
+
+	/**
+	 * Encodes a state into the given array. The state must be one for which {@link #encodes(State)} returns true.
+	 * @param s the state to encode
+	 * @param dest the array into which the state is encoded; must have at least offset + {@link #encodedLength()} elements
+	 * @param offset the index of dest at which the encoding starts
+	 */
+	void encode(State s, double [] dest, int offset);
+
+	/**
+	 * Decodes a state from the given array.
+	 * @param src the array holding the encoding
+	 * @param offset the index of src at which the encoding starts
+	 * @return the decoded state
+	 */
+	State decode(double [] src, int offset);
+
+}
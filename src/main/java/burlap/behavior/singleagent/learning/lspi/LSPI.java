@@ -15,17 +15,22 @@ import burlap.behavior.singleagent.planning.Planner;
 import burlap.behavior.valuefunction.QProvider;
 import burlap.behavior.valuefunction.QValue;
 import burlap.debugtools.DPrint;
+import burlap.debugtools.ParallelTasks;
 import burlap.mdp.auxiliary.common.ConstantStateGenerator;
 import burlap.mdp.core.action.Action;
 import burlap.mdp.core.state.State;
 import burlap.mdp.singleagent.SADomain;
 import burlap.mdp.singleagent.environment.Environment;
 import burlap.mdp.singleagent.model.RewardFunction;
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.factory.LinearSolverFactory;
+import org.ejml.interfaces.linsol.LinearSolver;
 import org.ejml.simple.SimpleMatrix;
 
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 
 /**
@@ -148,6 +153,16 @@ public class LSPI extends MDPSolver implements QProvider, LearningAgent, Planner
 	 * The number of the most recent learning episodes to store.
 	 */
 	protected int													numEpisodesToStore;
+
+	/**
+	 * The number of threads used to accumulate the LSTDQ matrix. Default is 1.
+	 */
+	protected int													accumulationParallelism = 1;
+
+	/**
+	 * The executor on which parallel accumulation runs; if null, the {@link ParallelTasks#sharedExecutor()} is used.
+	 */
+	protected ExecutorService										accumulationExecutor;
 	
 	
 	
@@ -378,9 +393,53 @@ public class LSPI extends MDPSolver implements QProvider, LearningAgent, Planner
 		this.maxChange = maxChange;
 	}
 
+	/**
+	 * Returns the number of threads used to accumulate the LSTDQ matrix over the dataset.
+	 * @return the number of threads used to accumulate the LSTDQ matrix.
+	 */
+	public int getAccumulationParallelism() {
+		return accumulationParallelism;
+	}
+
+	/**
+	 * Sets the number of threads used to accumulate the LSTDQ matrix over the dataset. A value of 1 (the default)
+	 * accumulates on the calling thread. Features are always computed on the calling thread, so the state-action features
+	 * and the VFA do not need to be thread-safe. Each thread accumulates its own copy of the matrix, which requires
+	 * memory quadratic in the number of features per thread.
+	 * @param accumulationParallelism the number of threads to use for accumulation
+	 */
+	public void setAccumulationParallelism(int accumulationParallelism) {
+		if(accumulationParallelism < 1){
+			throw new RuntimeException("Accumulation parallelism must be at least 1; provided " + accumulationParallelism);
+		}
+		this.accumulationParallelism = accumulationParallelism;
+	}
+
+	/**
+	 * Returns the executor on which parallel accumulation runs.
+	 * @return the executor on which parallel accumulation runs
+	 */
+	public ExecutorService getAccumulationExecutor() {
+		return accumulationExecutor != null ? accumulationExecutor : ParallelTasks.sharedExecutor();
+	}
+
+	/**
+	 * Sets the executor on which parallel accumulation runs. By default, the {@link ParallelTasks#sharedExecutor()} is used.
+	 * @param accumulationExecutor the executor on which parallel accumulation runs, or null to use the shared executor
+	 */
+	public void setAccumulationExecutor(ExecutorService accumulationExecutor) {
+		this.accumulationExecutor = accumulationExecutor;
+	}
+
+
 	
 	/**
-	 * Runs LSTDQ on this object's current {@link SARSData} dataset.
+	 * Runs LSTDQ on this object's current {@link SARSData} dataset. Rather than updating the inverse of the LSTDQ matrix
+	 * with a Sherman-Morrison update for each sample, the matrix A = I/identityScalar + sum phi (phi - gamma phi')^T
+	 * and the vector b = sum phi r are accumulated from the non-zero entries of the feature vectors and the weights are solved for
+	 * once with an LU decomposition, which is equivalent to the Sherman-Morrison updates from an initial inverse of identityScalar * I.
+	 * If the accumulation parallelism is greater than 1 (see {@link #setAccumulationParallelism(int)}), A and b
+	 * are accumulated over chunks of the samples in parallel.
 	 * @return the new weight matrix as a {@link SimpleMatrix} object.
 	 */
 	public SimpleMatrix LSTDQ(){
@@ -389,49 +448,121 @@ public class LSPI extends MDPSolver implements QProvider, LearningAgent, Planner
 		Policy p = new GreedyQPolicy(this);
 		
 		//first we want to get all the features for all of our states in our data set; this is important if our feature database generates new features on the fly
-		List<SSFeatures> features = new ArrayList<LSPI.SSFeatures>(this.dataset.size());
+		final List<SparseTransitionFeatures> features = new ArrayList<SparseTransitionFeatures>(this.dataset.size());
 		int nf = 0;
 		for(SARS sars : this.dataset.dataset){
-			SSFeatures transitionFeatures = new SSFeatures(this.saFeatures.features(sars.s, sars.a), this.saFeatures.features(sars.sp, p.action(sars.sp)));
-			features.add(transitionFeatures);
-			nf = Math.max(nf, transitionFeatures.sActionFeatures.length);
+			double [] phi = this.saFeatures.features(sars.s, sars.a);
+			double [] phiPrime = this.saFeatures.features(sars.sp, p.action(sars.sp));
+			features.add(new SparseTransitionFeatures(phi, phiPrime, this.gamma, sars.r));
+			nf = Math.max(nf, Math.max(phi.length, phiPrime.length));
 		}
 
-		SimpleMatrix B = SimpleMatrix.identity(nf).scale(this.identityScalar);
-		SimpleMatrix b = new SimpleMatrix(nf, 1);
-		
-		
-		
-		for(int i = 0; i < features.size(); i++){
+		int nChunks = Math.max(1, Math.min(features.size(), this.accumulationParallelism));
+		final double [][] As = new double[nChunks][];
+		final double [][] bs = new double[nChunks][];
+		final int fnf = nf;
+		this.runChunks(features.size(), nChunks, new ChunkTask() {
+			@Override
+			public void run(int chunk, int start, int end) {
+				double [] A = new double[fnf*fnf];
+				double [] b = new double[fnf];
+				accumulate(features, start, end, A, b, fnf);
+				As[chunk] = A;
+				bs[chunk] = b;
+			}
+		});
 
-			SimpleMatrix phi = this.phiConstructor(features.get(i).sActionFeatures, nf);
-			SimpleMatrix phiPrime = this.phiConstructor(features.get(i).sPrimeActionFeatures, nf);
-			double r = this.dataset.get(i).r;
-			
+		double [] A = As[0];
+		double [] b = bs[0];
+		for(int c = 1; c < nChunks; c++){
+			for(int i = 0; i < A.length; i++){
+				A[i] += As[c][i];
+			}
+			for(int i = 0; i < nf; i++){
+				b[i] += bs[c][i];
+			}
+		}
+		for(int i = 0; i < nf; i++){
+			A[i*nf + i] += 1. / this.identityScalar;
+		}
 
-			SimpleMatrix numerator = B.mult(phi).mult(phi.minus(phiPrime.scale(gamma)).transpose()).mult(B);
-			SimpleMatrix denomenatorM = phi.minus(phiPrime.scale(this.gamma)).transpose().mult(B).mult(phi);
-			double denomenator = denomenatorM.get(0) + 1;
-			
-			B = B.minus(numerator.scale(1./denomenator));
-			b = b.plus(phi.scale(r));
-			
-			//DPrint.cl(0, "updated matrix for row " + i + "/" + features.size());
-			
+		LinearSolver<DenseMatrix64F> solver = LinearSolverFactory.linear(nf);
+		if(!solver.setA(DenseMatrix64F.wrap(nf, nf, A))){
+			throw new RuntimeException("LSTDQ matrix is singular; consider decreasing the identity scalar (currently " + this.identityScalar + ").");
 		}
-		
-		
-		SimpleMatrix w = B.mult(b);
+		DenseMatrix64F w = new DenseMatrix64F(nf, 1);
+		solver.solve(DenseMatrix64F.wrap(nf, 1, b), w);
 		
 		this.vfa = this.vfa.copy();
 		for(int i = 0; i < nf; i++){
 			this.vfa.setParameter(i, w.get(i, 0));
 		}
 		
-		return w;
+		return SimpleMatrix.wrap(w);
 		
 		
 	}
+
+
+	/**
+	 * Adds phi (phi - gamma phi')^T of the samples in the range [start, end) to the row-major nf x nf matrix A
+	 * and phi r to the vector b. Only the non-zero entries of the feature vectors are visited, so the cost of each
+	 * sample is the product of the numbers of non-zero entries in phi and phi - gamma phi'.
+	 * @param features the sparse features of each sample
+	 * @param start the first sample (inclusive)
+	 * @param end the last sample (exclusive)
+	 * @param A the row-major matrix to which the outer products are added
+	 * @param b the vector to which the rewards weighted by phi are added
+	 * @param nf the total number of state-action features
+	 */
+	protected static void accumulate(List<SparseTransitionFeatures> features, int start, int end, double [] A, double [] b, int nf){
+		for(int t = start; t < end; t++){
+			SparseTransitionFeatures f = features.get(t);
+			for(int i = 0; i < f.phiIds.length; i++){
+				int row = f.phiIds[i] * nf;
+				double v = f.phiValues[i];
+				for(int j = 0; j < f.diffIds.length; j++){
+					A[row + f.diffIds[j]] += v * f.diffValues[j];
+				}
+				b[f.phiIds[i]] += v * f.r;
+			}
+		}
+	}
+
+
+	/**
+	 * Runs a {@link ChunkTask} over the index range [0, n) partitioned into nChunks contiguous chunks. If the accumulation
+	 * parallelism is 1 or there is only one chunk, the chunks are run on the calling thread; otherwise they are run on
+	 * the accumulation executor and this method blocks until all are complete.
+	 * @param n the size of the index range
+	 * @param nChunks the number of chunks
+	 * @param task the task to run
+	 */
+	protected void runChunks(int n, int nChunks, final ChunkTask task){
+
+		if(this.accumulationParallelism <= 1 || nChunks <= 1){
+			for(int c = 0; c < nChunks; c++){
+				task.run(c, (int)((long)n * c / nChunks), (int)((long)n * (c+1) / nChunks));
+			}
+			return;
+		}
+
+		List<Runnable> chunks = new ArrayList<Runnable>(nChunks);
+		for(int c = 0; c < nChunks; c++){
+			final int chunk = c;
+			final int start = (int)((long)n * c / nChunks);
+			final int end = (int)((long)n * (c+1) / nChunks);
+			chunks.add(new Runnable() {
+				@Override
+				public void run() {
+					task.run(chunk, start, end);
+				}
+			});
+		}
+
+		ParallelTasks.runAll(this.getAccumulationExecutor(), this.accumulationParallelism, chunks);
+
+	}
 	
 	/**
 	 * Runs LSPI for either numIterations or until the change in the weight matrix is no greater than maxChange.
@@ -461,19 +592,6 @@ public class LSPI extends MDPSolver implements QProvider, LearningAgent, Planner
 	}
 	
 	
-	/**
-	 * Constructs the state-action feature vector as a {@link SimpleMatrix}.
-	 * @param features the state-action features
-	 * @param nf the total number of state-action features.
-	 * @return the state-action feature vector as a {@link SimpleMatrix}.
-	 */
-	protected SimpleMatrix phiConstructor(double [] features, int nf){
-		SimpleMatrix phi = new SimpleMatrix(nf, 1, true, features);
-
-		return phi;
-	}
-	
-	
 	@Override
 	public List<QValue> qValues(State s) {
 		
@@ -533,33 +651,82 @@ public class LSPI extends MDPSolver implements QProvider, LearningAgent, Planner
 	
 	
 	/**
-	 * Pair of the the state-action features and the next state-action features.
-	 * @author James MacGlashan
-	 *
+	 * The non-zero entries of the state-action features of a sample and of phi - gamma phi', along with the sample's reward.
 	 */
-	protected class SSFeatures{
-		
-		/**
-		 * State-action features
-		 */
-		public double[] sActionFeatures;
-		
-		/**
-		 * Next state-action features.
-		 */
-		public double[] sPrimeActionFeatures;
-		
-		
+	protected static class SparseTransitionFeatures{
+
+		public int [] phiIds;
+		public double [] phiValues;
+		public int [] diffIds;
+		public double [] diffValues;
+		public double r;
+
 		/**
 		 * Initializes.
-		 * @param sActionFeatures state-action features
-		 * @param sPrimeActionFeatures next state-action features
+		 * @param phi the state-action features
+		 * @param phiPrime the next state-action features
+		 * @param gamma the discount factor
+		 * @param r the reward
 		 */
-		public SSFeatures(double[] sActionFeatures, double[] sPrimeActionFeatures){
-			this.sActionFeatures = sActionFeatures;
-			this.sPrimeActionFeatures = sPrimeActionFeatures;
+		public SparseTransitionFeatures(double [] phi, double [] phiPrime, double gamma, double r){
+
+			int n = 0;
+			for(double v : phi){
+				if(v != 0.){
+					n++;
+				}
+			}
+			this.phiIds = new int[n];
+			this.phiValues = new double[n];
+			n = 0;
+			for(int i = 0; i < phi.length; i++){
+				if(phi[i] != 0.){
+					this.phiIds[n] = i;
+					this.phiValues[n] = phi[i];
+					n++;
+				}
+			}
+
+			int len = Math.max(phi.length, phiPrime.length);
+			double [] diff = new double[len];
+			n = 0;
+			for(int i = 0; i < len; i++){
+				double v = (i < phi.length ? phi[i] : 0.) - gamma * (i < phiPrime.length ? phiPrime[i] : 0.);
+				diff[i] = v;
+				if(v != 0.){
+					n++;
+				}
+			}
+			this.diffIds = new int[n];
+			this.diffValues = new double[n];
+			n = 0;
+			for(int i = 0; i < len; i++){
+				if(diff[i] != 0.){
+					this.diffIds[n] = i;
+					this.diffValues[n] = diff[i];
+					n++;
+				}
+			}
+
+			this.r = r;
+
 		}
-		
+
+	}
+
+
+	/**
+	 * A task that is run over a contiguous chunk of samples.
+	 */
+	protected interface ChunkTask{
+
+		/**
+		 * Runs the task over the samples in [start, end)
+		 * @param chunk the index of the chunk
+		 * @param start the first sample (inclusive)
+		 * @param end the last sample (exclusive)
+		 */
+		void run(int chunk, int start, int end);
 	}
 
 
@@ -1,5 +1,6 @@
 package burlap.behavior.singleagent.learning.lspi;
 
+import burlap.debugtools.ParallelTasks;
 import burlap.debugtools.RandomFactory;
 import burlap.mdp.auxiliary.StateGenerator;
 import burlap.mdp.core.action.Action;
@@ -8,10 +9,15 @@ import burlap.mdp.core.action.ActionType;
 import burlap.mdp.core.action.ActionUtils;
 import burlap.mdp.singleagent.SADomain;
 import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentFactory;
 import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.VectorEnvironment;
 import burlap.mdp.singleagent.model.SampleModel;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 
 /**
@@ -26,6 +32,11 @@ public abstract class SARSCollector {
 	 */
 	protected List<ActionType> actionTypes;
 	
+	/**
+	 * The executor on which samples are collected in parallel; if null, the {@link ParallelTasks#sharedExecutor()} is used.
+	 */
+	protected ExecutorService executor;
+	
 	
 	/**
 	 * Initializes the collector's action set using the actions that are part of the domain.
@@ -126,6 +137,175 @@ public abstract class SARSCollector {
 	
 	
 	
+	/**
+	 * Collects nSamples of SARS tuples on numThreads threads, each of which collects its share of the samples with
+	 * {@link #collectNInstances(StateGenerator, SampleModel, int, int, SARSData)}. The samples of each thread are added to
+	 * the dataset in thread order. This collector, the {@link StateGenerator}, and the {@link SampleModel} are used concurrently, so they must be
+	 * thread safe; the {@link UniformRandomSARSCollector} and the models provided with BURLAP are, although samples
+	 * drawn from a shared random number generator will not be reproducible.
+	 * @param sg a state generator for finding initial state from which data can be collected.
+	 * @param model the model of the world to use
+	 * @param nSamples the number of SARS samples to collect.
+	 * @param maxEpisodeSteps the maximum number of steps that can be taken when rolling out from a state generated by {@link StateGenerator} sg, before a new rollout is started.
+	 * @param numThreads the number of threads on which samples are collected
+	 * @param intoDataset the dataset into which the results will be collected. If null, a new dataset is created.
+	 * @return the intoDataset object, which is created if it is input as null.
+	 */
+	public SARSData collectNInstances(final StateGenerator sg, final SampleModel model, int nSamples, final int maxEpisodeSteps, int numThreads, SARSData intoDataset){
+		return this.collectInParallel(nSamples, numThreads, intoDataset, new ShareCollector() {
+			@Override
+			public SARSData collect(int n) {
+				return collectNInstances(sg, model, n, maxEpisodeSteps, null);
+			}
+		});
+	}
+
+
+	/**
+	 * Collects nSamples of SARS tuples on numThreads threads, each of which interacts with its own {@link Environment} generated
+	 * by the {@link EnvironmentFactory} and collects its share of the samples with
+	 * {@link #collectNInstances(Environment, int, int, SARSData)}. The samples of each thread are added to the dataset in thread order.
+	 * This collector is used concurrently, so it must be thread safe, as the {@link UniformRandomSARSCollector} is.
+	 * Note that, as with {@link #collectNInstances(Environment, int, int, SARSData)}, a thread stops collecting if its
+	 * environment is still in a terminal state after being reset, in which case fewer than nSamples are collected.
+	 * @param envFactory the factory that generates an independent environment for each thread
+	 * @param nSamples The number of samples to generate.
+	 * @param maxEpisodeSteps the maximum number of steps to take from any initial state of an {@link burlap.mdp.singleagent.environment.Environment}.
+	 * @param numThreads the number of threads on which samples are collected
+	 * @param intoDataset the dataset into which the results will be collected. If null, a new dataset is created.
+	 * @return the intoDataset object, which is created if it is input as null.
+	 */
+	public SARSData collectNInstances(final EnvironmentFactory envFactory, int nSamples, final int maxEpisodeSteps, int numThreads, SARSData intoDataset){
+		return this.collectInParallel(nSamples, numThreads, intoDataset, new ShareCollector() {
+			@Override
+			public SARSData collect(int n) {
+				return collectNInstances(envFactory.generateEnvironment(), n, maxEpisodeSteps, null);
+			}
+		});
+	}
+
+
+	/**
+	 * Returns the executor on which samples are collected in parallel.
+	 * @return the executor on which samples are collected in parallel
+	 */
+	public ExecutorService getExecutor() {
+		return executor != null ? executor : ParallelTasks.sharedExecutor();
+	}
+
+
+	/**
+	 * Sets the executor on which samples are collected in parallel. By default, the {@link ParallelTasks#sharedExecutor()} is used.
+	 * At most numThreads shares of a collection run at once, whatever the size of the executor.
+	 * @param executor the executor on which samples are collected in parallel, or null to use the shared executor
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Splits nSamples into numThreads shares that are each collected with a {@link ShareCollector} on the executor, blocks until
+	 * they are collected, and adds their samples to the dataset in share order.
+	 * @param nSamples the number of SARS samples to collect.
+	 * @param numThreads the number of threads on which samples are collected
+	 * @param intoDataset the dataset into which the results will be collected. If null, a new dataset is created.
+	 * @param collector the collector of each share
+	 * @return the intoDataset object, which is created if it is input as null.
+	 */
+	protected SARSData collectInParallel(int nSamples, int numThreads, SARSData intoDataset, final ShareCollector collector){
+
+		if(numThreads < 1){
+			throw new RuntimeException("Parallel SARS collection requires at least one thread; provided " + numThreads);
+		}
+		if(intoDataset == null){
+			intoDataset = new SARSData(nSamples);
+		}
+
+		List<Callable<SARSData>> shares = new ArrayList<Callable<SARSData>>(numThreads);
+		for(int k = 0; k < numThreads; k++){
+			final int n = (int)((long)nSamples * (k+1) / numThreads) - (int)((long)nSamples * k / numThreads);
+			shares.add(new Callable<SARSData>() {
+				@Override
+				public SARSData call() throws Exception {
+					return collector.collect(n);
+				}
+			});
+		}
+
+		for(SARSData share : ParallelTasks.invokeAll(this.getExecutor(), numThreads, shares)){
+			for(SARSData.SARS sars : share.dataset){
+				intoDataset.add(sars);
+			}
+		}
+
+		return intoDataset;
+
+	}
+
+
+	/**
+	 * Collects one share of the samples of a parallel collection.
+	 */
+	protected interface ShareCollector{
+
+		/**
+		 * Collects n samples into a new dataset.
+		 * @param n the number of samples to collect
+		 * @return the dataset of collected samples
+		 */
+		SARSData collect(int n);
+	}
+
+
+	/**
+	 * Collects nSamples of SARS tuples from a {@link VectorEnvironment} by stepping all of its slots together, with the action of each
+	 * slot chosen by {@link #selectAction(State)}. The {@link VectorEnvironment} resets slots whose episodes end, so the maximum
+	 * length of each sequence of samples is set with {@link VectorEnvironment#setMaxEpisodeSteps(int)}. If nSamples is not a multiple
+	 * of the number of slots, the samples of the last step are taken from the first slots.
+	 * @param env The {@link VectorEnvironment} from which samples should be collected.
+	 * @param nSamples The number of samples to generate.
+	 * @param intoDataset the dataset into which the results will be collected. If null, a new dataset is created.
+	 * @return the intoDataset object, which is created if it is input as null.
+	 */
+	public SARSData collectNInstances(VectorEnvironment env, int nSamples, SARSData intoDataset){
+
+		if(intoDataset == null){
+			intoDataset = new SARSData(nSamples);
+		}
+
+		Action [] actions = new Action[env.size()];
+		while(nSamples > 0){
+			State [] observations = env.currentObservations();
+			for(int i = 0; i < actions.length; i++){
+				actions[i] = this.selectAction(observations[i]);
+			}
+			EnvironmentOutcome [] outcomes = env.executeActions(actions);
+			for(int i = 0; i < outcomes.length && nSamples > 0; i++){
+				intoDataset.add(outcomes[i].o, outcomes[i].a, outcomes[i].r, outcomes[i].op);
+				nSamples--;
+			}
+		}
+
+		return intoDataset;
+
+	}
+
+
+	/**
+	 * Selects the action to take from a state when collecting data from a {@link VectorEnvironment}. The default implementation
+	 * selects uniformly at random among the actions of this collector's action types that are applicable in the state; collectors
+	 * that follow a different data collection policy should override it.
+	 * @param s the state from which an action will be taken
+	 * @return the action to take
+	 */
+	protected Action selectAction(State s){
+		List<Action> gas = ActionUtils.allApplicableActionsForTypes(this.actionTypes, s);
+		return gas.get(RandomFactory.getMapped(0).nextInt(gas.size()));
+	}
+	
+	
+	
 	/**
 	 * Collects SARS data from source states generated by a {@link StateGenerator} by choosing actions uniformly at random.
 	 * @author James MacGlashan
@@ -161,8 +341,7 @@ public abstract class SARSCollector {
 			boolean terminated = model.terminal(s);
 			while(!terminated && nsteps < maxSteps){
 				
-				List<Action> gas = ActionUtils.allApplicableActionsForTypes(this.actionTypes, curState);
-				Action ga = gas.get(RandomFactory.getMapped(0).nextInt(gas.size()));
+				Action ga = this.selectAction(curState);
 				EnvironmentOutcome eo = model.sample(curState, ga);
 				intoDataset.add(curState, ga, eo.r, eo.op);
 				curState = eo.op;
@@ -185,8 +364,7 @@ public abstract class SARSCollector {
 
 			int nsteps = 0;
 			while(!env.isInTerminalState() && nsteps < maxSteps){
-				List<Action> gas = ActionUtils.allApplicableActionsForTypes(this.actionTypes, env.currentObservation());
-				Action ga = gas.get(RandomFactory.getMapped(0).nextInt(gas.size()));
+				Action ga = this.selectAction(env.currentObservation());
 				EnvironmentOutcome eo = env.executeAction(ga);
 				intoDataset.add(eo.o, eo.a, eo.r, eo.op);
 
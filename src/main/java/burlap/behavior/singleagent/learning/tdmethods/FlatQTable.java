@@ -0,0 +1,265 @@
+package burlap.behavior.singleagent.learning.tdmethods;
+
+import burlap.behavior.valuefunction.QFunction;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.statehashing.HashableStateFactory;
+import burlap.statehashing.StateRegistry;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A tabular Q-function that stores all Q-values in a single growable double array indexed by (state id, action index),
+ * rather than as a {@link QLearningStateNode} with a list of {@link burlap.behavior.valuefunction.QValue} objects per state.
+ * State ids are assigned by a {@link StateRegistry}. When a state is first initialized with {@link #initialize(int, State, List, QFunction)},
+ * its applicable actions are cached and its Q-values are stored contiguously, so the Q-values of state id i occupy the
+ * flat indices {@link #offset(int)} to {@link #offset(int)}+{@link #numActions(int)}-1.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class FlatQTable {
+
+	/**
+	 * The registry that assigns state ids
+	 */
+	protected StateRegistry registry;
+
+	/**
+	 * The flat index of the first Q-value of each state id; -1 for state ids that have not been initialized
+	 */
+	protected int [] offsets;
+
+	/**
+	 * The number of actions of each state id
+	 */
+	protected int [] numActions;
+
+	/**
+	 * The Q-values indexed by flat index
+	 */
+	protected double [] qs;
+
+	/**
+	 * The actions indexed by flat index
+	 */
+	protected Action [] actions;
+
+	/**
+	 * The number of used flat indices
+	 */
+	protected int size = 0;
+
+	/**
+	 * The number of initialized states
+	 */
+	protected int numStates = 0;
+
+
+	/**
+	 * Initializes. If the hashing factory is a {@link StateRegistry}, it is used to assign state ids; otherwise a new
+	 * {@link StateRegistry} is created over it.
+	 * @param hashingFactory the hashing factory that defines state equality
+	 */
+	public FlatQTable(HashableStateFactory hashingFactory) {
+		if(hashingFactory instanceof StateRegistry){
+			this.registry = (StateRegistry)hashingFactory;
+		}
+		else{
+			this.registry = new StateRegistry(hashingFactory);
+		}
+		this.offsets = new int[64];
+		Arrays.fill(this.offsets, -1);
+		this.numActions = new int[64];
+		this.qs = new double[256];
+		this.actions = new Action[256];
+	}
+
+
+	/**
+	 * Returns the id of the input state, registering it if needed. The state is not initialized.
+	 * @param s the input state
+	 * @return the id of the state
+	 */
+	public int stateId(State s){
+		return this.registry.id(s);
+	}
+
+
+	/**
+	 * Returns whether the state with the given id has been initialized.
+	 * @param sid the state id
+	 * @return true if the state has been initialized; false otherwise
+	 */
+	public boolean isInitialized(int sid){
+		return sid < this.offsets.length && this.offsets[sid] != -1;
+	}
+
+
+	/**
+	 * Initializes the Q-values of the state with the given id, if it is not already initialized.
+	 * @param sid the state id
+	 * @param s the state, used to compute the initial Q-values
+	 * @param applicableActions the actions applicable in the state, which define its action indices
+	 * @param qInit the {@link QFunction} used to initialize the Q-values
+	 */
+	public void initialize(int sid, State s, List<Action> applicableActions, QFunction qInit){
+
+		if(this.isInitialized(sid)){
+			return;
+		}
+
+		if(sid >= this.offsets.length){
+			int oldLength = this.offsets.length;
+			int n = Math.max(sid+1, oldLength*2);
+			this.offsets = Arrays.copyOf(this.offsets, n);
+			Arrays.fill(this.offsets, oldLength, n, -1);
+			this.numActions = Arrays.copyOf(this.numActions, n);
+		}
+
+		int na = applicableActions.size();
+		if(this.size + na > this.qs.length){
+			int n = Math.max(this.size + na, this.qs.length*2);
+			this.qs = Arrays.copyOf(this.qs, n);
+			this.actions = Arrays.copyOf(this.actions, n);
+		}
+
+		this.offsets[sid] = this.size;
+		this.numActions[sid] = na;
+		for(int i = 0; i < na; i++){
+			Action a = applicableActions.get(i);
+			this.actions[this.size + i] = a;
+			this.qs[this.size + i] = qInit.qValue(s, a);
+		}
+		this.size += na;
+		this.numStates++;
+
+	}
+
+
+	/**
+	 * Returns the flat index of the first Q-value of the state with the given id, which must have been initialized.
+	 * @param sid the state id
+	 * @return the flat index of the first Q-value of the state
+	 */
+	public int offset(int sid){
+		return this.offsets[sid];
+	}
+
+
+	/**
+	 * Returns the number of actions of the state with the given id, which must have been initialized.
+	 * @param sid the state id
+	 * @return the number of actions of the state
+	 */
+	public int numActions(int sid){
+		return this.numActions[sid];
+	}
+
+
+	/**
+	 * Returns the flat index of the Q-value for the given action in the state with the given id, or -1 if the action
+	 * is not one of the state's actions.
+	 * @param sid the state id
+	 * @param a the action
+	 * @return the flat index of the Q-value, or -1 if the action is not found
+	 */
+	public int index(int sid, Action a){
+		int start = this.offsets[sid];
+		int end = start + this.numActions[sid];
+		for(int i = start; i < end; i++){
+			if(this.actions[i].equals(a)){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Returns the Q-value at the given flat index
+	 * @param index the flat index
+	 * @return the Q-value
+	 */
+	public double q(int index){
+		return this.qs[index];
+	}
+
+
+	/**
+	 * Sets the Q-value at the given flat index
+	 * @param index the flat index
+	 * @param q the Q-value
+	 */
+	public void setQ(int index, double q){
+		this.qs[index] = q;
+	}
+
+
+	/**
+	 * Returns the action at the given flat index
+	 * @param index the flat index
+	 * @return the {@link Action}
+	 */
+	public Action action(int index){
+		return this.actions[index];
+	}
+
+
+	/**
+	 * Returns the maximum Q-value of the state with the given id, which must have been initialized.
+	 * @param sid the state id
+	 * @return the maximum Q-value of the state
+	 */
+	public double maxQ(int sid){
+		int start = this.offsets[sid];
+		int end = start + this.numActions[sid];
+		double max = Double.NEGATIVE_INFINITY;
+		for(int i = start; i < end; i++){
+			if(this.qs[i] > max){
+				max = this.qs[i];
+			}
+		}
+		return max;
+	}
+
+
+	/**
+	 * Returns the canonical state registered with the given id
+	 * @param sid the state id
+	 * @return the {@link State} with the given id
+	 */
+	public State state(int sid){
+		return this.registry.state(sid).s();
+	}
+
+
+	/**
+	 * Returns the number of initialized states
+	 * @return the number of initialized states
+	 */
+	public int numStates(){
+		return this.numStates;
+	}
+
+
+	/**
+	 * Returns the {@link StateRegistry} that assigns state ids
+	 * @return the {@link StateRegistry} that assigns state ids
+	 */
+	public StateRegistry getRegistry() {
+		return registry;
+	}
+
+
+	/**
+	 * Removes all Q-values. State ids already assigned by the registry are kept.
+	 */
+	public void clear(){
+		Arrays.fill(this.offsets, -1);
+		Arrays.fill(this.actions, 0, this.size, null);
+		this.size = 0;
+		this.numStates = 0;
+	}
+
+}
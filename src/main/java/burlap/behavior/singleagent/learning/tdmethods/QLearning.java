@@ -12,8 +12,8 @@ import burlap.behavior.singleagent.options.EnvironmentOptionOutcome;
 import burlap.behavior.singleagent.options.Option;
 import burlap.behavior.singleagent.planning.Planner;
 import burlap.behavior.valuefunction.ConstantValueFunction;
+import burlap.behavior.valuefunction.IndexedQProvider;
 import burlap.behavior.valuefunction.QFunction;
-import burlap.behavior.valuefunction.QProvider;
 import burlap.behavior.valuefunction.QValue;
 import burlap.mdp.core.action.Action;
 import burlap.mdp.core.state.State;
@@ -28,6 +28,7 @@ import org.yaml.snakeyaml.Yaml;
 
 import javax.management.RuntimeErrorException;
 import java.io.*;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,19 +49,29 @@ import java.util.Map;
  * want to use a custom learning rate decay schedule rather than a constant learning rate, use the
  * {@link #setLearningRateFunction(burlap.behavior.learningrate.LearningRate)}.
  * <p>
+ * By default, Q-values are stored in a map of {@link QLearningStateNode} objects. For long-running learning, the
+ * {@link #toggleFlatQTable(boolean)} method switches to a {@link FlatQTable} backend that stores Q-values in a primitive
+ * array and, together with {@link GreedyQPolicy} or {@link EpsilonGreedy} learning policies, performs learning steps
+ * without creating {@link QValue} objects.
+ * <p>
  * 1. Watkins, Christopher JCH, and Peter Dayan. "Q-learning." Machine learning 8.3-4 (1992): 279-292. <p>
  * 2. Sutton, Richard S., Doina Precup, and Satinder Singh. "Between MDPs and semi-MDPs: A framework for temporal abstraction in reinforcement learning." Artificial intelligence 112.1 (1999): 181-211.
  * 
  * @author James MacGlashan
  *
  */
-public class QLearning extends MDPSolver implements QProvider, LearningAgent, Planner{
+public class QLearning extends MDPSolver implements IndexedQProvider, LearningAgent, Planner{
 
 
 	/**
 	 * The tabular mapping from states to Q-values
 	 */
 	protected Map<HashableState, QLearningStateNode> 				qFunction;
+
+	/**
+	 * The flat Q-value table used instead of {@link #qFunction} when it is not null.
+	 */
+	protected FlatQTable											flatQTable = null;
 	
 	/**
 	 * The object that defines how Q-values are initialized.
@@ -306,15 +317,113 @@ public class QLearning extends MDPSolver implements QProvider, LearningAgent, Pl
 	}
 
 
+	/**
+	 * Toggles whether Q-values are stored in a {@link FlatQTable} rather than in a map of {@link QLearningStateNode}
+	 * objects. The two backends do not share Q-values, so this method should be called before learning begins.
+	 * If the hashing factory is a {@link burlap.statehashing.StateRegistry}, the flat table uses its state ids.
+	 * @param toggle true to use a {@link FlatQTable}; false to use the map backend.
+	 */
+	public void toggleFlatQTable(boolean toggle){
+		if(toggle && this.flatQTable == null){
+			this.flatQTable = new FlatQTable(this.hashingFactory);
+		}
+		else if(!toggle){
+			this.flatQTable = null;
+		}
+	}
+
+
+	/**
+	 * Returns the {@link FlatQTable} backend, or null if the map backend is used.
+	 * @return the {@link FlatQTable} backend, or null if the map backend is used.
+	 */
+	public FlatQTable getFlatQTable() {
+		return flatQTable;
+	}
+
+
 	@Override
 	public List<QValue> qValues(State s) {
+		if(this.flatQTable != null){
+			int sid = this.flatStateId(s);
+			int start = this.flatQTable.offset(sid);
+			int n = this.flatQTable.numActions(sid);
+			List<QValue> qs = new ArrayList<QValue>(n);
+			for(int i = start; i < start + n; i++){
+				qs.add(new QValue(s, this.flatQTable.action(i), this.flatQTable.q(i)));
+			}
+			return qs;
+		}
 		return this.getQs(this.stateHash(s));
 	}
 
 	@Override
 	public double qValue(State s, Action a) {
+		if(this.flatQTable != null){
+			int sid = this.flatStateId(s);
+			return this.flatQTable.q(this.flatIndex(sid, a));
+		}
 		return this.getQ(this.stateHash(s), a).q;
 	}
+
+
+	@Override
+	public int stateIndex(State s) {
+		if(this.flatQTable == null){
+			return -1;
+		}
+		return this.flatStateId(s);
+	}
+
+	@Override
+	public int numActions(int stateIndex) {
+		return this.flatQTable.numActions(stateIndex);
+	}
+
+	@Override
+	public Action action(int stateIndex, int actionIndex) {
+		return this.flatQTable.action(this.flatQTable.offset(stateIndex) + actionIndex);
+	}
+
+	@Override
+	public double qValue(int stateIndex, int actionIndex) {
+		return this.flatQTable.q(this.flatQTable.offset(stateIndex) + actionIndex);
+	}
+
+
+	/**
+	 * Returns the {@link FlatQTable} state id for the input state, initializing its Q-values with this object's
+	 * {@link burlap.behavior.valuefunction.QFunction} data member if needed.
+	 * @param s the input state
+	 * @return the state id
+	 */
+	protected int flatStateId(State s){
+		int sid = this.flatQTable.stateId(s);
+		if(!this.flatQTable.isInitialized(sid)){
+			List<Action> gas = this.applicableActions(s);
+			if(gas.isEmpty()){
+				throw new RuntimeErrorException(new Error("No possible actions in this state, cannot continue Q-learning"));
+			}
+			this.flatQTable.initialize(sid, s, gas, this.qInitFunction);
+		}
+		return sid;
+	}
+
+
+	/**
+	 * Returns the {@link FlatQTable} flat index of the Q-value for the given state id and action.
+	 * A runtime exception is thrown if the action is not applicable in the state.
+	 * @param sid the state id
+	 * @param a the action
+	 * @return the flat index of the Q-value
+	 */
+	protected int flatIndex(int sid, Action a){
+		int index = this.flatQTable.index(sid, a);
+		if(index == -1){
+			throw new RuntimeException("Action " + a.toString() + " is not an applicable action in the queried state.");
+		}
+		return index;
+	}
 	
 	
 	/**
@@ -430,6 +539,10 @@ public class QLearning extends MDPSolver implements QProvider, LearningAgent, Pl
 	@Override
 	public Episode runLearningEpisode(Environment env, int maxSteps) {
 
+		if(this.flatQTable != null){
+			return this.runFlatLearningEpisode(env, maxSteps);
+		}
+
 		State initialState = env.currentObservation();
 
 		Episode ea = new Episode(initialState);
@@ -499,11 +612,81 @@ public class QLearning extends MDPSolver implements QProvider, LearningAgent, Pl
 	}
 
 
+	/**
+	 * Runs a learning episode using the {@link FlatQTable} backend. The updates are identical to
+	 * {@link #runLearningEpisode(Environment, int)}, but Q-values are read and written by flat index.
+	 * @param env the {@link Environment} in which learning is performed
+	 * @param maxSteps the maximum number of steps to take, or -1 for no limit
+	 * @return the {@link Episode} of the learning episode
+	 */
+	protected Episode runFlatLearningEpisode(Environment env, int maxSteps) {
+
+		State curState = env.currentObservation();
+
+		Episode ea = new Episode(curState);
+		eStepCounter = 0;
+
+		maxQChangeInLastEpisode = 0.;
+		while(!env.isInTerminalState() && (eStepCounter < maxSteps || maxSteps == -1)){
+
+			Action action = learningPolicy.action(curState);
+			int curQ = this.flatIndex(this.flatStateId(curState), action);
+
+			EnvironmentOutcome eo;
+			if(!(action instanceof Option)){
+				eo = env.executeAction(action);
+			}
+			else{
+				eo = ((Option)action).control(env, this.gamma);
+			}
+
+			double maxQ = 0.;
+			if(!eo.terminated){
+				maxQ = this.flatQTable.maxQ(this.flatStateId(eo.op));
+			}
+
+			//manage option specifics
+			double r = eo.r;
+			double discount = eo instanceof EnvironmentOptionOutcome ? ((EnvironmentOptionOutcome)eo).discount : this.gamma;
+			int stepInc = eo instanceof EnvironmentOptionOutcome ? ((EnvironmentOptionOutcome)eo).numSteps() : 1;
+			eStepCounter += stepInc;
+
+			if(!(action instanceof Option) || !this.shouldDecomposeOptions){
+				ea.transition(action, eo.op, r);
+			}
+			else{
+				ea.appendAndMergeEpisodeAnalysis(((EnvironmentOptionOutcome)eo).episode);
+			}
+
+			//update Q-value
+			double oldQ = this.flatQTable.q(curQ);
+			double newQ = oldQ + this.learningRate.pollLearningRate(this.totalNumberOfSteps, curState, action) * (r + (discount * maxQ) - oldQ);
+			this.flatQTable.setQ(curQ, newQ);
+
+			double deltaQ = Math.abs(oldQ - newQ);
+			if(deltaQ > maxQChangeInLastEpisode){
+				maxQChangeInLastEpisode = deltaQ;
+			}
+
+			//move on polling environment for its current state in case it changed during processing
+			curState = env.currentObservation();
+			this.totalNumberOfSteps++;
+
+		}
+
+		return ea;
+
+	}
+
+
 	
 	
 	@Override
 	public void resetSolver(){
 		this.qFunction.clear();
+		if(this.flatQTable != null){
+			this.flatQTable.clear();
+		}
 		this.eStepCounter = 0;
 		this.maxQChangeInLastEpisode = Double.POSITIVE_INFINITY;
 	}
@@ -513,13 +696,14 @@ public class QLearning extends MDPSolver implements QProvider, LearningAgent, Pl
 	 * Writes the q-function table stored in this object to the specified file path.
 	 * Uses a standard YAML approach, which means the HashableState and underlying Domain states
 	 * must have JavaBean like properties; i.e., have a default constructor and getters and setters (or public data
-	 * members) for all relevant fields.
+	 * members) for all relevant fields. If the {@link FlatQTable} backend is used, its Q-values are written in the same
+	 * map format.
 	 * @param path the path to write the value function
 	 */
 	public void writeQTable(String path){
 		Yaml yaml = new Yaml();
 		try {
-			yaml.dump(this.qFunction, new BufferedWriter(new FileWriter(path)));
+			yaml.dump(this.flatQTable != null ? this.flatQTableAsMap() : this.qFunction, new BufferedWriter(new FileWriter(path)));
 		} catch(IOException e) {
 			e.printStackTrace();
 		}
@@ -528,7 +712,8 @@ public class QLearning extends MDPSolver implements QProvider, LearningAgent, Pl
 
 	/**
 	 * Loads the q-function table located on disk at the specified path. Expects the file to be a Yaml
-	 * representation of a Java {@link Map} from {@link HashableState} to {@link QLearningStateNode}.
+	 * representation of a Java {@link Map} from {@link HashableState} to {@link QLearningStateNode}. If the
+	 * {@link FlatQTable} backend is used, the loaded Q-values are copied into it.
 	 * @param path the path to the save value function table
 	 */
 	public void loadQTable(String path){
@@ -538,6 +723,45 @@ public class QLearning extends MDPSolver implements QProvider, LearningAgent, Pl
 		} catch(FileNotFoundException e) {
 			e.printStackTrace();
 		}
+		if(this.flatQTable != null){
+			this.flatQTable.clear();
+			for(QLearningStateNode node : this.qFunction.values()){
+				List<Action> actions = new ArrayList<Action>(node.qEntry.size());
+				for(QValue q : node.qEntry){
+					actions.add(q.a);
+				}
+				int sid = this.flatQTable.stateId(node.s.s());
+				this.flatQTable.initialize(sid, node.s.s(), actions, this.qInitFunction);
+				int start = this.flatQTable.offset(sid);
+				for(int i = 0; i < node.qEntry.size(); i++){
+					this.flatQTable.setQ(start + i, node.qEntry.get(i).q);
+				}
+			}
+			this.qFunction.clear();
+		}
+	}
+
+
+	/**
+	 * Returns the Q-values of the {@link FlatQTable} backend as a map from hashed states to {@link QLearningStateNode} objects.
+	 * @return a map representation of the {@link FlatQTable} Q-values
+	 */
+	protected Map<HashableState, QLearningStateNode> flatQTableAsMap(){
+		Map<HashableState, QLearningStateNode> map = new HashMap<HashableState, QLearningStateNode>(this.flatQTable.numStates());
+		int n = this.flatQTable.getRegistry().size();
+		for(int sid = 0; sid < n; sid++){
+			if(!this.flatQTable.isInitialized(sid)){
+				continue;
+			}
+			HashableState sh = this.flatQTable.getRegistry().getHashingFactory().hashState(this.flatQTable.state(sid));
+			QLearningStateNode node = new QLearningStateNode(sh);
+			int start = this.flatQTable.offset(sid);
+			for(int i = start; i < start + this.flatQTable.numActions(sid); i++){
+				node.addQValue(this.flatQTable.action(i), this.flatQTable.q(i));
+			}
+			map.put(sh, node);
+		}
+		return map;
 	}
 
 }
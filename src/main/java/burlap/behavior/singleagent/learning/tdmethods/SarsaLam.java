@@ -14,6 +14,7 @@ import burlap.mdp.singleagent.environment.EnvironmentOutcome;
 import burlap.statehashing.HashableState;
 import burlap.statehashing.HashableStateFactory;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 
 
@@ -146,6 +147,10 @@ public class SarsaLam extends QLearning {
 	@Override
 	public Episode runLearningEpisode(Environment env, int maxSteps){
 
+		if(this.flatQTable != null){
+			return this.runFlatLearningEpisode(env, maxSteps);
+		}
+
 		State initialState = env.currentObservation();
 
 		Episode ea = new Episode(initialState);
@@ -259,6 +264,137 @@ public class SarsaLam extends QLearning {
 	
 	
 	
+	@Override
+	protected Episode runFlatLearningEpisode(Environment env, int maxSteps) {
+
+		State curState = env.currentObservation();
+
+		Episode ea = new Episode(curState);
+		maxQChangeInLastEpisode = 0.;
+
+		int curSid = this.flatStateId(curState);
+		eStepCounter = 0;
+
+		//eligibility traces stored as parallel arrays: state id, flat Q index, eligibility, and initial Q-value
+		int numTraces = 0;
+		int [] traceStates = new int[16];
+		int [] traceIndices = new int[16];
+		double [] eligibilities = new double[16];
+		double [] initialQs = new double[16];
+
+		Action action = learningPolicy.action(curState);
+		int curQ = this.flatIndex(curSid, action);
+
+
+		while(!env.isInTerminalState() && (eStepCounter < maxSteps || maxSteps == -1)){
+
+			EnvironmentOutcome eo;
+			if(!(action instanceof Option)){
+				eo = env.executeAction(action);
+			}
+			else{
+				eo = ((Option)action).control(env, this.gamma);
+			}
+
+			State nextState = eo.op;
+			int nextSid = this.flatStateId(nextState);
+			Action nextAction = learningPolicy.action(nextState);
+			int nextQ = this.flatIndex(nextSid, nextAction);
+			double nextQV = this.flatQTable.q(nextQ);
+
+			if(env.isInTerminalState()){
+				nextQV = 0.;
+			}
+
+
+			//manage option specifics
+			double r = eo.r;
+			double discount = eo instanceof EnvironmentOptionOutcome ? ((EnvironmentOptionOutcome)eo).discount : this.gamma;
+			int stepInc = eo instanceof EnvironmentOptionOutcome ? ((EnvironmentOptionOutcome)eo).numSteps() : 1;
+			eStepCounter += stepInc;
+
+			if(!(action instanceof Option) || !this.shouldDecomposeOptions){
+				ea.transition(action, nextState, r);
+			}
+			else{
+				ea.appendAndMergeEpisodeAnalysis(((EnvironmentOptionOutcome)eo).episode);
+			}
+
+
+			//delta
+			double delta = r + (discount * nextQV) - this.flatQTable.q(curQ);
+
+			//update all
+			boolean foundCurrentQTrace = false;
+			for(int i = 0; i < numTraces; i++){
+
+				if(traceStates[i] == curSid){
+					if(traceIndices[i] == curQ){
+						foundCurrentQTrace = true;
+						eligibilities[i] = 1.; //replacing traces
+					}
+					else{
+						eligibilities[i] = 0.; //replacing traces
+					}
+				}
+
+				int index = traceIndices[i];
+				double learningRate = this.learningRate.pollLearningRate(this.totalNumberOfSteps, this.flatQTable.state(traceStates[i]), this.flatQTable.action(index));
+
+				double q = this.flatQTable.q(index) + (learningRate * eligibilities[i] * delta);
+				this.flatQTable.setQ(index, q);
+				eligibilities[i] = eligibilities[i] * lambda * discount;
+
+				double deltaQ = Math.abs(initialQs[i] - q);
+				if(deltaQ > maxQChangeInLastEpisode){
+					maxQChangeInLastEpisode = deltaQ;
+				}
+
+			}
+
+			if(!foundCurrentQTrace){
+				//then update and add it
+				double initialQ = this.flatQTable.q(curQ);
+				double learningRate = this.learningRate.pollLearningRate(this.totalNumberOfSteps, curState, action);
+				double q = initialQ + (learningRate * delta);
+				this.flatQTable.setQ(curQ, q);
+
+				if(numTraces == traceStates.length){
+					int n = numTraces*2;
+					traceStates = Arrays.copyOf(traceStates, n);
+					traceIndices = Arrays.copyOf(traceIndices, n);
+					eligibilities = Arrays.copyOf(eligibilities, n);
+					initialQs = Arrays.copyOf(initialQs, n);
+				}
+				traceStates[numTraces] = curSid;
+				traceIndices[numTraces] = curQ;
+				eligibilities[numTraces] = lambda*discount;
+				initialQs[numTraces] = initialQ;
+				numTraces++;
+
+				double deltaQ = Math.abs(initialQ - q);
+				if(deltaQ > maxQChangeInLastEpisode){
+					maxQChangeInLastEpisode = deltaQ;
+				}
+
+			}
+
+
+			//move on
+			curState = nextState;
+			curSid = nextSid;
+			action = nextAction;
+			curQ = nextQ;
+
+			this.totalNumberOfSteps++;
+
+		}
+
+
+		return ea;
+	}
+
+
 	/**
 	 * A data structure for maintaining eligibility trace values
 	 * @author James MacGlashan
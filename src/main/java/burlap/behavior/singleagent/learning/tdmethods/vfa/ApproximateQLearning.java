@@ -18,9 +18,12 @@ import burlap.mdp.core.state.State;
 import burlap.mdp.singleagent.SADomain;
 import burlap.mdp.singleagent.environment.Environment;
 import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.VectorEnvironment;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * An abstract implementation of Q-learning with value function approximation and support for using experience replay
@@ -39,6 +42,9 @@ import java.util.List;
  * from the {@link EnvironmentOutcome} observation into some other representation. By default, not state mapping is performed
  * (uses a {@link ShallowIdentityStateMapping}), but you can change that with the {@link StateMapping} method.
  * <br><br>
+ * In addition to learning from episodes of a single {@link Environment}, experience can be gathered from many episodes at once
+ * with a {@link VectorEnvironment} using the {@link #runLearningSteps(VectorEnvironment, int)} method.
+ * <br><br>
  * [1] Mnih, Volodymyr, et al. "Human-level control through deep reinforcement learning." Nature 518.7540 (2015): 529-533.
  * @author James MacGlashan.
  */
@@ -100,6 +106,16 @@ public abstract class ApproximateQLearning extends MDPSolver implements Learning
 	 */
 	protected int totalEpisodes = 0;
 
+	/**
+	 * The {@link VectorEnvironment} most recently used by {@link #runLearningSteps(VectorEnvironment, int)}
+	 */
+	protected VectorEnvironment vectorEnv;
+
+	/**
+	 * The in-progress episode of each slot of {@link #vectorEnv}
+	 */
+	protected Episode [] vectorEpisodes;
+
 
 	/**
 	 * Initializes
@@ -219,12 +235,81 @@ public abstract class ApproximateQLearning extends MDPSolver implements Learning
 		return e;
 	}
 
+	/**
+	 * Learns from numSteps steps of a {@link VectorEnvironment}, in which an action is selected with the learning policy for every slot,
+	 * all slots are stepped together, and each of their outcomes is added to the experience memory. After each step of the
+	 * {@link VectorEnvironment}, the Q-function is updated once with a sample from the memory, so that each update follows
+	 * as many new experiences as there are slots. Therefore, the memory should be set with {@link #setExperienceReplay(ExperienceMemory, int)}
+	 * to hold at least as many experiences as there are slots, and the number of replayed samples should usually be at least the number of slots.
+	 * <p>
+	 * Episodes in progress when this method returns are continued by the next call with the same {@link VectorEnvironment}.
+	 * @param env the {@link VectorEnvironment} from which experience is gathered
+	 * @param numSteps the number of steps of the {@link VectorEnvironment} to take
+	 * @return the episodes that were completed during this call, because their slot reached a terminal state or the maximum episode length of the {@link VectorEnvironment}
+	 */
+	public List<Episode> runLearningSteps(VectorEnvironment env, int numSteps){
+
+		int n = env.size();
+		if(this.vectorEnv != env){
+			this.vectorEnv = env;
+			this.vectorEpisodes = new Episode[n];
+		}
+
+		List<Episode> completed = new ArrayList<Episode>();
+		Action [] actions = new Action[n];
+		for(int t = 0; t < numSteps; t++){
+
+			//select actions
+			State [] observations = env.currentObservations();
+			for(int i = 0; i < n; i++){
+				if(this.vectorEpisodes[i] == null){
+					this.vectorEpisodes[i] = new Episode(observations[i]);
+				}
+				actions[i] = this.learningPolicy.action(this.stateMapping.mapState(observations[i]));
+			}
+
+			//take actions
+			EnvironmentOutcome [] outcomes = env.executeActions(actions);
+
+			for(int i = 0; i < n; i++){
+				EnvironmentOutcome eo = outcomes[i];
+
+				//save outcome in memory
+				this.memory.addExperience(eo);
+
+				//record transition and manage option case
+				this.totalSteps += eo instanceof EnvironmentOptionOutcome ? ((EnvironmentOptionOutcome)eo).numSteps() : 1;
+				this.vectorEpisodes[i].transition(actions[i], eo.op, eo.r);
+				if(env.wasReset(i)){
+					completed.add(this.vectorEpisodes[i]);
+					this.vectorEpisodes[i] = null;
+					this.totalEpisodes++;
+				}
+			}
+
+			//perform learners
+			List<EnvironmentOutcome> samples = this.memory.sampleExperiences(this.numReplay);
+			this.updateQFunction(samples);
+
+			//update stale function
+			this.stepsSinceStale++;
+			if(this.stepsSinceStale >= this.staleDuration){
+				this.updateStaleFunction();
+			}
+
+		}
+
+		return completed;
+	}
+
 	@Override
 	public void resetSolver() {
 		this.vfa.resetParameters();
 		this.memory.resetMemory();
 		this.totalSteps = 0;
 		this.totalEpisodes = 0;
+		this.vectorEnv = null;
+		this.vectorEpisodes = null;
 	}
 
 	@Override
@@ -303,6 +388,53 @@ public abstract class ApproximateQLearning extends MDPSolver implements Learning
 	}
 
 
+	/**
+	 * Returns the stale state value function estimate (max state Q-value) of each of the given states. If the stale
+	 * Q-function is a {@link ParametricFunction.BatchStateActionFunction}, all states are evaluated in one batch.
+	 * @param states the states for which the values should be returned
+	 * @return the stale state value function estimate of each state
+	 */
+	public double[] staleValues(List<State> states) {
+
+		double [] values = new double[states.size()];
+		if(!(this.staleVfa instanceof ParametricFunction.BatchStateActionFunction)){
+			for(int i = 0; i < values.length; i++){
+				values[i] = this.staleValue(states.get(i));
+			}
+			return values;
+		}
+
+		//evaluate all states for the union of their applicable actions
+		List<State> mapped = new ArrayList<State>(states.size());
+		List<List<Action>> stateActions = new ArrayList<List<Action>>(states.size());
+		Map<Action, Integer> columns = new HashMap<Action, Integer>();
+		List<Action> actions = new ArrayList<Action>();
+		for(State s : states){
+			s = this.stateMapping.mapState(s);
+			List<Action> sActions = this.applicableActions(s);
+			for(Action a : sActions){
+				if(!columns.containsKey(a)){
+					columns.put(a, actions.size());
+					actions.add(a);
+				}
+			}
+			mapped.add(s);
+			stateActions.add(sActions);
+		}
+
+		double [][] qs = ((ParametricFunction.BatchStateActionFunction)this.staleVfa).evaluate(mapped, actions);
+		for(int i = 0; i < values.length; i++){
+			double max = Double.NEGATIVE_INFINITY;
+			for(Action a : stateActions.get(i)){
+				max = Math.max(max, qs[i][columns.get(a)]);
+			}
+			values[i] = max;
+		}
+
+		return values;
+	}
+
+
 	/**
 	 * Updates the state Q-function to the current value function, by setting the state function to a copy of the current value
 	 * function estimate. A copy is made by invoking the {@link ParametricFunction#copy()} method. However, if the state duration
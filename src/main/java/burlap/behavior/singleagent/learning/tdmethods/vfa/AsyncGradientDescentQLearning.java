@@ -0,0 +1,378 @@
+package burlap.behavior.singleagent.learning.tdmethods.vfa;
+
+import burlap.behavior.functionapproximation.FunctionGradient;
+import burlap.behavior.functionapproximation.PrimitiveSparseGradient;
+import burlap.behavior.functionapproximation.VFAQProvider;
+import burlap.behavior.functionapproximation.dense.DenseStateActionLinearVFA;
+import burlap.behavior.learningrate.ConstantLR;
+import burlap.behavior.learningrate.LearningRate;
+import burlap.behavior.policy.EpsilonGreedy;
+import burlap.behavior.policy.Policy;
+import burlap.behavior.singleagent.MDPSolver;
+import burlap.behavior.valuefunction.QProvider;
+import burlap.behavior.valuefunction.QValue;
+import burlap.debugtools.ParallelTasks;
+import burlap.debugtools.RandomFactory;
+import burlap.mdp.auxiliary.StateGenerator;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.ActionUtils;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentFactory;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.SimulatedEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An asynchronous implementation of one-step gradient descent Q-learning [1] in which multiple worker threads learn
+ * at the same time, each interacting with its own {@link Environment} and following its own epsilon-greedy exploration policy,
+ * while updating the weights of one shared {@link DenseStateActionLinearVFA}. Weight updates are made without locks,
+ * in the Hogwild style [2]: each worker evaluates and updates the shared weight array through its own
+ * {@link DenseStateActionLinearVFA#sharedView()}, so workers may occasionally read partially updated weights or
+ * overwrite each other's concurrent updates of the same weight, which does not harm convergence when updates are sparse
+ * or small. The workers share one step counter, which is the time passed to the {@link LearningRate}. Polling a
+ * {@link LearningRate} other than {@link ConstantLR} is synchronized on the learning rate, since the provided decaying
+ * learning rates are not thread safe.
+ * <p>
+ * Learning is run with {@link #runLearningSteps(int)}, which blocks until the workers have taken the given number of steps in total.
+ * Each worker environment is reset when it reaches a terminal state or, if set with {@link #setMaxEpisodeSteps(int)}, the maximum
+ * number of steps of an episode. Unlike {@link GradientDescentQLearning}, experience replay and stale target functions
+ * are not used. Since this object is a {@link QProvider} of the shared function, a
+ * {@link burlap.behavior.policy.GreedyQPolicy} can be derived from it after learning.
+ * <p>
+ * 1. Mnih, Volodymyr, et al. "Asynchronous methods for deep reinforcement learning." ICML (2016).<br>
+ * 2. Recht, Benjamin, et al. "Hogwild: A lock-free approach to parallelizing stochastic gradient descent." NIPS (2011).
+ */
+public class AsyncGradientDescentQLearning extends MDPSolver implements QProvider {
+
+	/**
+	 * The shared Q-function
+	 */
+	protected DenseStateActionLinearVFA vfa;
+
+	/**
+	 * The learning rate
+	 */
+	protected LearningRate learningRate;
+
+	/**
+	 * The factory that generates the environment of each worker
+	 */
+	protected EnvironmentFactory envFactory;
+
+	/**
+	 * The number of worker threads
+	 */
+	protected int numWorkers;
+
+	/**
+	 * The exploration epsilons; worker k uses epsilons[k % epsilons.length]
+	 */
+	protected double [] epsilons = new double[]{0.1};
+
+	/**
+	 * The maximum number of steps of an episode before a worker's environment is reset; -1 for no maximum
+	 */
+	protected int maxEpisodeSteps = -1;
+
+	/**
+	 * The total number of steps taken by all workers
+	 */
+	protected AtomicInteger totalSteps = new AtomicInteger();
+
+	/**
+	 * The total number of episodes completed by all workers
+	 */
+	protected AtomicInteger totalEpisodes = new AtomicInteger();
+
+	/**
+	 * A view of the shared Q-function for the {@link QProvider} methods
+	 */
+	protected VFAQProvider qProvider;
+
+	/**
+	 * The executor on which the workers run; if null, the {@link ParallelTasks#sharedExecutor()} is used.
+	 */
+	protected ExecutorService executor;
+
+
+	/**
+	 * Initializes with workers that each interact with their own {@link SimulatedEnvironment} of the domain, whose initial
+	 * states are drawn from the given {@link StateGenerator}.
+	 * @param domain the learning domain
+	 * @param gamma the discount factor
+	 * @param vfa the shared Q-function
+	 * @param learningRate the learning rate
+	 * @param stateGenerator the generator of the initial state of each episode
+	 * @param numWorkers the number of worker threads
+	 */
+	public AsyncGradientDescentQLearning(final SADomain domain, double gamma, DenseStateActionLinearVFA vfa, double learningRate, final StateGenerator stateGenerator, int numWorkers) {
+		this(domain, gamma, vfa, new ConstantLR(learningRate), new EnvironmentFactory() {
+			@Override
+			public Environment generateEnvironment() {
+				return new SimulatedEnvironment(domain, stateGenerator);
+			}
+		}, numWorkers);
+	}
+
+
+	/**
+	 * Initializes.
+	 * @param domain the learning domain
+	 * @param gamma the discount factor
+	 * @param vfa the shared Q-function
+	 * @param learningRate the {@link LearningRate} object for the learning rate schedule
+	 * @param envFactory the factory that generates an independent environment for each worker
+	 * @param numWorkers the number of worker threads
+	 */
+	public AsyncGradientDescentQLearning(SADomain domain, double gamma, DenseStateActionLinearVFA vfa, LearningRate learningRate, EnvironmentFactory envFactory, int numWorkers) {
+		if(numWorkers < 1){
+			throw new RuntimeException("AsyncGradientDescentQLearning requires at least one worker; provided " + numWorkers);
+		}
+		this.solverInit(domain, gamma, null);
+		this.vfa = vfa;
+		this.learningRate = learningRate;
+		this.envFactory = envFactory;
+		this.numWorkers = numWorkers;
+		this.qProvider = new VFAQProvider(vfa, this.actionTypes);
+	}
+
+
+	public DenseStateActionLinearVFA getVfa() {
+		return vfa;
+	}
+
+	public LearningRate getLearningRate() {
+		return learningRate;
+	}
+
+	public void setLearningRate(LearningRate learningRate) {
+		this.learningRate = learningRate;
+	}
+
+	public int getNumWorkers() {
+		return numWorkers;
+	}
+
+	/**
+	 * Sets the exploration epsilon of each worker's epsilon-greedy policy. Worker k uses epsilons[k % epsilons.length],
+	 * so different workers can explore differently; the default is 0.1 for all workers.
+	 * @param epsilons the exploration epsilons
+	 */
+	public void setEpsilons(double... epsilons) {
+		if(epsilons.length == 0){
+			throw new RuntimeException("At least one epsilon is required.");
+		}
+		this.epsilons = epsilons.clone();
+	}
+
+	/**
+	 * Sets the maximum number of steps of an episode, after which a worker's environment is reset even if it has not reached a terminal state.
+	 * @param maxEpisodeSteps the maximum number of steps of an episode, or -1 for no maximum
+	 */
+	public void setMaxEpisodeSteps(int maxEpisodeSteps) {
+		this.maxEpisodeSteps = maxEpisodeSteps;
+	}
+
+	public int getMaxEpisodeSteps() {
+		return maxEpisodeSteps;
+	}
+
+	/**
+	 * Returns the total number of steps taken by all workers.
+	 * @return the total number of steps taken by all workers
+	 */
+	public int getTotalSteps() {
+		return totalSteps.get();
+	}
+
+	/**
+	 * Returns the total number of episodes completed by all workers.
+	 * @return the total number of episodes completed by all workers
+	 */
+	public int getTotalEpisodes() {
+		return totalEpisodes.get();
+	}
+
+	/**
+	 * Returns the executor on which the workers run.
+	 * @return the executor on which the workers run
+	 */
+	public ExecutorService getExecutor() {
+		return executor != null ? executor : ParallelTasks.sharedExecutor();
+	}
+
+	/**
+	 * Sets the executor on which the workers run. By default, the {@link ParallelTasks#sharedExecutor()} is used. All workers
+	 * run at once, so the executor must be able to run {@link #getNumWorkers()} tasks at the same time.
+	 * @param executor the executor on which the workers run, or null to use the shared executor
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Runs the workers until they have taken numSteps steps in total, blocking until they finish. Each call generates new
+	 * worker environments, so episodes do not continue across calls. Each worker installs its own thread {@link RandomFactory},
+	 * seeded from the {@link RandomFactory#getMapped(int)} 0 generator of the calling thread, so the workers explore independently.
+	 * @param numSteps the total number of steps the workers take
+	 */
+	public void runLearningSteps(int numSteps){
+
+		final int endStep = this.totalSteps.get() + numSteps;
+
+		Environment [] envs = new Environment[this.numWorkers];
+		for(int k = 0; k < this.numWorkers; k++){
+			envs[k] = this.envFactory.generateEnvironment();
+		}
+
+		//allocate the shared weights before the workers create their views
+		if(this.vfa.numParameters() == 0){
+			State s = envs[0].currentObservation();
+			this.vfa.evaluate(s, ActionUtils.allApplicableActionsForTypes(this.actionTypes, s).get(0));
+		}
+
+		long seed = RandomFactory.getMapped(0).nextLong();
+		List<Worker> workers = new ArrayList<Worker>(this.numWorkers);
+		for(int k = 0; k < this.numWorkers; k++){
+			workers.add(new Worker(envs[k], this.epsilons[k % this.epsilons.length], endStep, RandomFactory.mixSeed(seed, k)));
+		}
+
+		ParallelTasks.runAll(this.getExecutor(), this.numWorkers, workers);
+
+	}
+
+
+	@Override
+	public List<QValue> qValues(State s) {
+		return this.qProvider.qValues(s);
+	}
+
+	@Override
+	public double qValue(State s, Action a) {
+		return this.qProvider.qValue(s, a);
+	}
+
+	@Override
+	public double value(State s) {
+		return this.qProvider.value(s);
+	}
+
+	@Override
+	public void resetSolver() {
+		this.vfa.resetParameters();
+		this.learningRate.resetDecay();
+		this.totalSteps.set(0);
+		this.totalEpisodes.set(0);
+	}
+
+
+	/**
+	 * Returns the learning rates of the parameters of a gradient for the given time, synchronizing on the learning rate
+	 * unless it is a {@link ConstantLR}.
+	 * @param time the shared step counter
+	 * @param gradient the gradient whose parameters' learning rates are polled
+	 * @param lrs the array into which the learning rate of each entry of the gradient is stored
+	 */
+	protected void pollLearningRates(int time, PrimitiveSparseGradient gradient, double [] lrs){
+		if(this.learningRate instanceof ConstantLR){
+			for(int i = 0; i < gradient.size(); i++){
+				lrs[i] = this.learningRate.pollLearningRate(time, gradient.id(i));
+			}
+		}
+		else{
+			synchronized(this.learningRate){
+				for(int i = 0; i < gradient.size(); i++){
+					lrs[i] = this.learningRate.pollLearningRate(time, gradient.id(i));
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * A worker that learns from its own environment, updating the shared weights through its own view of the Q-function.
+	 * Its exploration policy is created on its thread, after its thread {@link RandomFactory} is installed.
+	 */
+	protected class Worker implements Runnable {
+
+		protected Environment env;
+		protected DenseStateActionLinearVFA view;
+		protected VFAQProvider provider;
+		protected double epsilon;
+		protected Policy policy;
+		protected int endStep;
+		protected long seed;
+		protected int episodeSteps = 0;
+		protected double [] lrs = new double[0];
+
+		public Worker(Environment env, double epsilon, int endStep, long seed) {
+			this.env = env;
+			this.view = vfa.sharedView();
+			this.provider = new VFAQProvider(this.view, actionTypes);
+			this.epsilon = epsilon;
+			this.endStep = endStep;
+			this.seed = seed;
+		}
+
+		@Override
+		public void run() {
+			RandomFactory.setThreadFactory(new RandomFactory(this.seed));
+			try {
+				this.policy = new EpsilonGreedy(this.provider, this.epsilon);
+				while(!Thread.currentThread().isInterrupted()){
+					int t = totalSteps.getAndIncrement();
+					if(t >= this.endStep){
+						totalSteps.decrementAndGet();
+						return;
+					}
+					this.step(t);
+				}
+			} finally {
+				RandomFactory.setThreadFactory(null);
+			}
+		}
+
+		/**
+		 * Takes one step in the environment and updates the shared weights.
+		 * @param t the shared step counter
+		 */
+		protected void step(int t){
+
+			State s = this.env.currentObservation();
+			Action a = this.policy.action(s);
+			EnvironmentOutcome eo = this.env.executeAction(a);
+
+			double nextQV = eo.terminated ? 0. : this.provider.value(eo.op);
+			double curQ = this.view.evaluate(eo.o, eo.a);
+			double delta = eo.r + gamma * nextQV - curQ;
+
+			FunctionGradient g = this.view.gradient(eo.o, eo.a);
+			PrimitiveSparseGradient gradient = g instanceof PrimitiveSparseGradient ? (PrimitiveSparseGradient)g : new PrimitiveSparseGradient(g);
+			if(this.lrs.length < gradient.size()){
+				this.lrs = new double[gradient.size()];
+			}
+			pollLearningRates(t, gradient, this.lrs);
+			for(int i = 0; i < gradient.size(); i++){
+				int pind = gradient.id(i);
+				this.view.setParameter(pind, this.view.getParameter(pind) + this.lrs[i] * delta * gradient.value(i));
+			}
+
+			this.episodeSteps++;
+			if(this.env.isInTerminalState() || (maxEpisodeSteps != -1 && this.episodeSteps >= maxEpisodeSteps)){
+				this.env.resetEnvironment();
+				this.episodeSteps = 0;
+				totalEpisodes.incrementAndGet();
+			}
+
+		}
+
+	}
+
+}
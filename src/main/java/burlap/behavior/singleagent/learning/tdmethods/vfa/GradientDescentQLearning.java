@@ -1,20 +1,29 @@
 package burlap.behavior.singleagent.learning.tdmethods.vfa;
 
+import burlap.behavior.functionapproximation.BatchDifferentiableStateActionValue;
 import burlap.behavior.functionapproximation.DifferentiableStateActionValue;
 import burlap.behavior.functionapproximation.FunctionGradient;
 import burlap.behavior.learningrate.ConstantLR;
 import burlap.behavior.learningrate.LearningRate;
+import burlap.behavior.singleagent.learning.experiencereplay.PrioritizedExperienceMemory;
 import burlap.behavior.singleagent.options.EnvironmentOptionOutcome;
 import burlap.datastructures.HashedAggregator;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
 import burlap.mdp.singleagent.SADomain;
 import burlap.mdp.singleagent.environment.EnvironmentOutcome;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * An implementation of Gradient Descent Q-learning. By default, updates the Q-function for the most recent example,
  * but because it extends {@link ApproximateQLearning}, it can set to use experience replay and state Q-functions.
+ * If the Q-function is a {@link BatchDifferentiableStateActionValue}, the sampled experiences are evaluated in one batch.
+ * If the experience memory is a {@link PrioritizedExperienceMemory}, the update of each sampled experience is weighted by its
+ * importance sampling weight and the temporal difference errors of the samples are fed back to the memory as their new priorities.
  * @author James MacGlashan.
  */
 public class GradientDescentQLearning extends ApproximateQLearning {
@@ -60,8 +69,15 @@ public class GradientDescentQLearning extends ApproximateQLearning {
 	@Override
 	public void updateQFunction(List<EnvironmentOutcome> samples) {
 
-		HashedAggregator<Integer> sumGradient = new HashedAggregator<Integer>();
-		for(EnvironmentOutcome eo : samples){
+		if(this.vfa instanceof BatchDifferentiableStateActionValue){
+			this.updateQFunctionBatch(samples);
+			return;
+		}
+
+		SampleUpdates updates = new SampleUpdates(samples);
+		for(int i = 0; i < samples.size(); i++){
+
+			EnvironmentOutcome eo = samples.get(i);
 
 			//get statistics
 			double curQ = this.vfa.evaluate(eo.o, eo.a);
@@ -69,23 +85,84 @@ public class GradientDescentQLearning extends ApproximateQLearning {
 			if(!eo.terminated) {
 				nextQV = this.staleValue(eo.op);
 			}
-			double discount = eo instanceof EnvironmentOptionOutcome ? ((EnvironmentOptionOutcome)eo).discount : this.gamma;
-
-			//compute function delta
-			double delta = eo.r + (discount*nextQV) - curQ;
 
 			//get gradient and add it
 			FunctionGradient gradient = ((DifferentiableStateActionValue)this.vfa).gradient(eo.o, eo.a);
-			for(FunctionGradient.PartialDerivative pd : gradient.getNonZeroPartialDerivatives()){
-				double errorPd = pd.value*delta;
-				sumGradient.add(pd.parameterId, errorPd);
+			updates.add(i, curQ, nextQV, gradient);
+
+		}
+
+		updates.apply();
+
+	}
+
+
+	/**
+	 * Performs the same update as {@link #updateQFunction(List)}, but evaluates the Q-values and gradients of the
+	 * samples and the stale values of their next states in batches.
+	 * @param samples the experience samples to use for updating the Q-function.
+	 */
+	protected void updateQFunctionBatch(List<EnvironmentOutcome> samples){
+
+		BatchDifferentiableStateActionValue bvfa = (BatchDifferentiableStateActionValue)this.vfa;
+
+		List<State> states = new ArrayList<State>(samples.size());
+		List<Action> actions = new ArrayList<Action>(samples.size());
+		List<State> nextStates = new ArrayList<State>(samples.size());
+		Map<Action, Integer> columns = new HashMap<Action, Integer>();
+		List<Action> distinctActions = new ArrayList<Action>();
+		for(EnvironmentOutcome eo : samples){
+			states.add(eo.o);
+			actions.add(eo.a);
+			if(!columns.containsKey(eo.a)){
+				columns.put(eo.a, distinctActions.size());
+				distinctActions.add(eo.a);
+			}
+			if(!eo.terminated){
+				nextStates.add(eo.op);
 			}
+		}
+
+		double [][] curQs = bvfa.evaluate(states, distinctActions);
+		double [] nextVs = this.staleValues(nextStates);
+		FunctionGradient [] gradients = bvfa.gradient(states, actions);
+
+		SampleUpdates updates = new SampleUpdates(samples);
+		int nextInd = 0;
+		for(int i = 0; i < samples.size(); i++){
+			EnvironmentOutcome eo = samples.get(i);
+			double nextQV = eo.terminated ? 0. : nextVs[nextInd++];
+			updates.add(i, curQs[i][columns.get(eo.a)], nextQV, gradients[i]);
+		}
+
+		updates.apply();
+
+	}
 
 
+	/**
+	 * Returns the memory as a {@link PrioritizedExperienceMemory} if it is one and the given samples are its most recent sample,
+	 * in which case updates are weighted by its importance sampling weights and its priorities are updated with the temporal
+	 * difference errors of the samples.
+	 * @param samples the experience samples used for updating the Q-function.
+	 * @return the {@link PrioritizedExperienceMemory} that produced the samples, or null if the samples are not from a prioritized memory.
+	 */
+	protected PrioritizedExperienceMemory prioritizedMemoryFor(List<EnvironmentOutcome> samples){
+		if(this.memory instanceof PrioritizedExperienceMemory && ((PrioritizedExperienceMemory)this.memory).lastSample() == samples){
+			return (PrioritizedExperienceMemory)this.memory;
 		}
+		return null;
+	}
+
+
+	/**
+	 * Moves the parameters along the average of the summed error-weighted gradients of a batch of samples.
+	 * @param sumGradient the summed error-weighted partial derivatives of each parameter
+	 * @param numSamples the number of samples in the batch
+	 */
+	protected void updateParameters(HashedAggregator<Integer> sumGradient, int numSamples){
 
-		//now update parameters
-		double scalar = 1. / samples.size();
+		double scalar = 1. / numSamples;
 		for(Map.Entry<Integer, Double> pd : sumGradient.entrySet()){
 			int pind = pd.getKey();
 			double oldP = this.vfa.getParameter(pind);
@@ -98,4 +175,63 @@ public class GradientDescentQLearning extends ApproximateQLearning {
 	}
 
 
+	/**
+	 * The update of a batch of samples, which is shared by {@link #updateQFunction(List)} and {@link #updateQFunctionBatch(List)}.
+	 * The error-weighted gradient of each sample is added to a summed gradient, with the temporal difference error weighted by the
+	 * sample's importance sampling weight if the samples are from a {@link PrioritizedExperienceMemory}. Applying the update moves the
+	 * parameters along the average of the summed gradient and feeds the temporal difference errors back to the prioritized memory.
+	 */
+	protected class SampleUpdates {
+
+		protected List<EnvironmentOutcome> samples;
+		protected PrioritizedExperienceMemory prioritized;
+		protected double [] tdErrors;
+		protected HashedAggregator<Integer> sumGradient = new HashedAggregator<Integer>();
+
+		/**
+		 * Initializes.
+		 * @param samples the experience samples used for updating the Q-function.
+		 */
+		public SampleUpdates(List<EnvironmentOutcome> samples) {
+			this.samples = samples;
+			this.prioritized = prioritizedMemoryFor(samples);
+			this.tdErrors = this.prioritized != null ? new double[samples.size()] : null;
+		}
+
+		/**
+		 * Adds the error-weighted gradient of a sample.
+		 * @param i the index of the sample
+		 * @param curQ the Q-value of the sample's state-action pair
+		 * @param nextQV the stale value of the sample's next state, or 0 if the sample is terminal
+		 * @param gradient the gradient of the Q-value of the sample's state-action pair
+		 */
+		public void add(int i, double curQ, double nextQV, FunctionGradient gradient){
+
+			EnvironmentOutcome eo = this.samples.get(i);
+			double discount = eo instanceof EnvironmentOptionOutcome ? ((EnvironmentOptionOutcome)eo).discount : gamma;
+
+			//compute function delta
+			double delta = eo.r + (discount*nextQV) - curQ;
+			if(this.prioritized != null){
+				this.tdErrors[i] = delta;
+				delta *= this.prioritized.lastSampleWeights()[i];
+			}
+
+			for(FunctionGradient.PartialDerivative pd : gradient.getNonZeroPartialDerivatives()){
+				this.sumGradient.add(pd.parameterId, pd.value*delta);
+			}
+		}
+
+		/**
+		 * Updates the parameters with the added samples and, if the samples are from a prioritized memory, their priorities.
+		 */
+		public void apply(){
+			updateParameters(this.sumGradient, this.samples.size());
+			if(this.prioritized != null){
+				this.prioritized.updateLastSamplePriorities(this.tdErrors);
+			}
+		}
+	}
+
+
 }
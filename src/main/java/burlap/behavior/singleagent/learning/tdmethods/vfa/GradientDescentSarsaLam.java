@@ -2,6 +2,8 @@ package burlap.behavior.singleagent.learning.tdmethods.vfa;
 
 import burlap.behavior.functionapproximation.DifferentiableStateActionValue;
 import burlap.behavior.functionapproximation.FunctionGradient;
+import burlap.behavior.functionapproximation.PrimitiveSparseGradient;
+import burlap.behavior.functionapproximation.SparseEligibilityTraces;
 import burlap.behavior.learningrate.ConstantLR;
 import burlap.behavior.learningrate.LearningRate;
 import burlap.behavior.policy.EpsilonGreedy;
@@ -330,7 +332,7 @@ public class GradientDescentSarsaLam extends MDPSolver implements QProvider, Lea
 
 		State curState = initialState;
 		eStepCounter = 0;
-		Map <Integer, EligibilityTraceVector> traces = new HashMap<Integer, EligibilityTraceVector>();
+		SparseEligibilityTraces traces = new SparseEligibilityTraces();
 
 		Action action = this.learningPolicy.action(curState);
 		while(!env.isInTerminalState() && (eStepCounter < maxSteps || maxSteps == -1)){
@@ -371,6 +373,9 @@ public class GradientDescentSarsaLam extends MDPSolver implements QProvider, Lea
 			//compute function delta
 			double delta = r + (discount*nextQV) - curQ;
 
+			//the gradient is read once per trace, so index it
+			PrimitiveSparseGradient pgradient = gradient instanceof PrimitiveSparseGradient ? (PrimitiveSparseGradient)gradient : new PrimitiveSparseGradient(gradient);
+
 
 			//manage replacing traces by zeroing out features for actions
 			//also zero out selected action, since it will be put back in later code
@@ -382,14 +387,13 @@ public class GradientDescentSarsaLam extends MDPSolver implements QProvider, Lea
 					this.vfa.evaluate(curState, oa);
 					FunctionGradient ofg = this.vfa.gradient(curState, oa);
 					for(FunctionGradient.PartialDerivative pds : ofg.getNonZeroPartialDerivatives()){
-						EligibilityTraceVector et = traces.get(pds.parameterId);
-						if(et != null){
-							et.eligibilityValue = 0.;
+						int i = traces.indexOf(pds.parameterId);
+						if(i != -1){
+							traces.setValue(i, 0.);
 						}
 						else{
 							//no trace for this yet, so add it
-							et = new EligibilityTraceVector(pds.parameterId, this.vfa.getParameter(pds.parameterId), 0.);
-							traces.put(pds.parameterId, et);
+							traces.startTrace(pds.parameterId, this.vfa.getParameter(pds.parameterId));
 						}
 					}
 
@@ -398,9 +402,9 @@ public class GradientDescentSarsaLam extends MDPSolver implements QProvider, Lea
 			else{
 				//if not using replacing traces, then add any new parameters whose traces need to be set, but set initially
 				//at zero since it will be updated in the next loop
-				for(FunctionGradient.PartialDerivative pds : gradient.getNonZeroPartialDerivatives()){
-					if(!traces.containsKey(pds.parameterId)){
-						traces.put(pds.parameterId, new EligibilityTraceVector(pds.parameterId, this.vfa.getParameter(pds.parameterId), 0.));
+				for(int i = 0; i < pgradient.size(); i++){
+					if(pgradient.value(i) != 0.){
+						traces.startTrace(pgradient.id(i), this.vfa.getParameter(pgradient.id(i)));
 					}
 				}
 
@@ -413,33 +417,31 @@ public class GradientDescentSarsaLam extends MDPSolver implements QProvider, Lea
 				learningRate = this.learningRate.pollLearningRate(this.totalNumberOfSteps, curState, action);
 			}
 
-			Set <Integer> deletedSet = new HashSet<Integer>();
-			for(EligibilityTraceVector et : traces.values()){
+			//iterate backwards so that removing a trace does not skip one
+			for(int i = traces.size()-1; i >= 0; i--){
+				int weight = traces.id(i);
 				if(this.useFeatureWiseLearningRate){
-					learningRate = this.learningRate.pollLearningRate(this.totalNumberOfSteps, et.weight);
+					learningRate = this.learningRate.pollLearningRate(this.totalNumberOfSteps, weight);
 				}
 
-				et.eligibilityValue += gradient.getPartialDerivative(et.weight);
-				double newParam = vfa.getParameter(et.weight) + learningRate * delta * et.eligibilityValue;
-				this.vfa.setParameter(et.weight, newParam);
+				double eligibilityValue = traces.value(i) + pgradient.getPartialDerivative(weight);
+				double newParam = vfa.getParameter(weight) + learningRate * delta * eligibilityValue;
+				this.vfa.setParameter(weight, newParam);
 
-				double deltaW = Math.abs(et.initialWeightValue - newParam);
+				double deltaW = Math.abs(traces.initialWeight(i) - newParam);
 				if(deltaW > maxWeightChangeInLastEpisode){
 					maxWeightChangeInLastEpisode = deltaW;
 				}
 
 				//now decay and delete from tracking if too small
-				et.eligibilityValue *= this.lambda*discount;
-				if(et.eligibilityValue < this.minEligibityForUpdate){
-					deletedSet.add(et.weight);
+				eligibilityValue *= this.lambda*discount;
+				if(eligibilityValue < this.minEligibityForUpdate){
+					traces.remove(i);
+				}
+				else{
+					traces.setValue(i, eligibilityValue);
 				}
 
-
-			}
-
-			//delete traces marked for deletion
-			for(Integer t : deletedSet){
-				traces.remove(t);
 			}
 
 			//move on
@@ -0,0 +1,32 @@
+package burlap.behavior.singleagent.planning;
+
+import burlap.behavior.policy.Policy;
+import burlap.mdp.core.state.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Planner} that can plan under a wall-clock budget: it keeps improving its estimates until the budget expires
+ * (or until its own convergence criteria are met) and then returns a policy that follows its best current estimates.
+ * Limits on the amount of computation, such as a maximum number of rollouts, are ignored when planning under a budget,
+ * but at least one unit of planning (e.g., one rollout) is always completed, so planning may exceed a very small budget.
+ * The work done by each planning call is reported by {@link #getLastPlanningStatistics()}, which can be used to size budgets.
+ */
+public interface AnytimePlanner extends Planner {
+
+	/**
+	 * Plans from the input state until the given budget expires and then returns a {@link Policy} that captures the planning results.
+	 * @param initialState the initial state of the planning problem
+	 * @param budget the amount of time planning may take
+	 * @param unit the unit of the budget
+	 * @return a {@link Policy} that captures the planning results from input {@link State}.
+	 */
+	Policy planFromState(State initialState, long budget, TimeUnit unit);
+
+	/**
+	 * Returns the statistics of the most recent call of {@link #planFromState(State)} or {@link #planFromState(State, long, TimeUnit)}.
+	 * @return the {@link PlanningStatistics} of the most recent planning call, or null if planning has not been performed
+	 */
+	PlanningStatistics getLastPlanningStatistics();
+
+}
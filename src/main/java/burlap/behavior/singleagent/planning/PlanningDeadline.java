@@ -0,0 +1,109 @@
+package burlap.behavior.singleagent.planning;
+
+import burlap.behavior.policy.Policy;
+import burlap.mdp.core.state.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The wall-clock deadline of a budgeted planning call of an {@link AnytimePlanner}. The deadline is a {@link System#nanoTime()}
+ * value, and it is compared by the sign of the difference with the current time, so that it remains correct if the
+ * nano time overflows. It also implements the rule of {@link AnytimePlanner} that at least one unit of planning (e.g., one rollout)
+ * is always completed, with {@link #allowsMoreWork(long)}.
+ * <p>
+ * Planners that implement {@link DeadlinePlanner} hold the deadline of the current planning call, which is null when planning is
+ * not budgeted, and implement {@link AnytimePlanner#planFromState(State, long, TimeUnit)} with
+ * {@link #planFromState(DeadlinePlanner, State, long, TimeUnit)}, which sets the deadline for the duration of a planning call.
+ * Deadlines are immutable, so they can be read by multiple planning threads.
+ */
+public class PlanningDeadline {
+
+	/**
+	 * The {@link System#nanoTime()} at which planning must stop
+	 */
+	protected final long deadlineNanos;
+
+
+	/**
+	 * Initializes with a deadline that is the given budget from now.
+	 * @param budget the amount of time planning may take
+	 * @param unit the unit of the budget
+	 */
+	public PlanningDeadline(long budget, TimeUnit unit) {
+		this.deadlineNanos = System.nanoTime() + unit.toNanos(budget);
+	}
+
+
+	/**
+	 * Returns whether the deadline has passed.
+	 * @return true if the deadline has passed; false otherwise.
+	 */
+	public boolean passed(){
+		return System.nanoTime() - this.deadlineNanos >= 0;
+	}
+
+
+	/**
+	 * Returns whether another unit of planning should be started, which is the case if no unit has been completed yet or the
+	 * deadline has not passed.
+	 * @param completedUnits the number of units of planning completed in the current planning call
+	 * @return true if another unit of planning should be started; false otherwise.
+	 */
+	public boolean allowsMoreWork(long completedUnits){
+		return completedUnits == 0 || !this.passed();
+	}
+
+
+	/**
+	 * Returns whether the given deadline is set and has passed.
+	 * @param deadline the deadline, or null if planning is not budgeted
+	 * @return true if the deadline is not null and has passed; false otherwise.
+	 */
+	public static boolean passed(PlanningDeadline deadline){
+		return deadline != null && deadline.passed();
+	}
+
+
+	/**
+	 * Plans from the input state with a deadline that is the given budget from now, which is set on the planner for the duration of
+	 * its {@link DeadlinePlanner#planFromState(State)} call and cleared afterwards.
+	 * @param planner the planner
+	 * @param initialState the initial state of the planning problem
+	 * @param budget the amount of time planning may take
+	 * @param unit the unit of the budget
+	 * @param <P> the type of policy the planner returns
+	 * @return the policy returned by the planner
+	 */
+	public static <P extends Policy> P planFromState(DeadlinePlanner<P> planner, State initialState, long budget, TimeUnit unit){
+		planner.setPlanningDeadline(new PlanningDeadline(budget, unit));
+		try {
+			return planner.planFromState(initialState);
+		} finally {
+			planner.setPlanningDeadline(null);
+		}
+	}
+
+
+	/**
+	 * A {@link Planner} whose planning is bounded by a {@link PlanningDeadline} while one is set.
+	 * @param <P> the type of policy the planner returns
+	 */
+	public interface DeadlinePlanner<P extends Policy> extends Planner {
+
+		@Override
+		P planFromState(State initialState);
+
+		/**
+		 * Returns the deadline of the current planning call.
+		 * @return the deadline of the current planning call, or null if planning is not budgeted
+		 */
+		PlanningDeadline getPlanningDeadline();
+
+		/**
+		 * Sets the deadline of planning calls.
+		 * @param deadline the deadline, or null if planning is not budgeted
+		 */
+		void setPlanningDeadline(PlanningDeadline deadline);
+	}
+
+}
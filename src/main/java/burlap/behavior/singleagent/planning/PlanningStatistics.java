@@ -0,0 +1,82 @@
+package burlap.behavior.singleagent.planning;
+
+/**
+ * The work done by one planning call of an {@link AnytimePlanner}. The meaning of an iteration and a backup depends on the planner:
+ * for rollout based planners, such as UCT and RTDP, an iteration is a rollout; for planners that deepen a tree, such as
+ * sparse sampling, it is the height of the deepest tree that was completed. A backup is an update of a node or state value estimate.
+ */
+public class PlanningStatistics {
+
+	/**
+	 * The number of planning iterations completed
+	 */
+	protected long iterations;
+
+	/**
+	 * The number of value backups performed
+	 */
+	protected long backups;
+
+	/**
+	 * The wall-clock time planning took, in nanoseconds
+	 */
+	protected long elapsedNanos;
+
+	/**
+	 * Whether planning stopped because its time budget expired
+	 */
+	protected boolean budgetExpired;
+
+
+	/**
+	 * Initializes.
+	 * @param iterations the number of planning iterations completed
+	 * @param backups the number of value backups performed
+	 * @param elapsedNanos the wall-clock time planning took, in nanoseconds
+	 * @param budgetExpired whether planning stopped because its time budget expired
+	 */
+	public PlanningStatistics(long iterations, long backups, long elapsedNanos, boolean budgetExpired) {
+		this.iterations = iterations;
+		this.backups = backups;
+		this.elapsedNanos = elapsedNanos;
+		this.budgetExpired = budgetExpired;
+	}
+
+	/**
+	 * Returns the number of planning iterations completed.
+	 * @return the number of planning iterations completed
+	 */
+	public long getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Returns the number of value backups performed.
+	 * @return the number of value backups performed
+	 */
+	public long getBackups() {
+		return backups;
+	}
+
+	/**
+	 * Returns the wall-clock time planning took, in nanoseconds.
+	 * @return the wall-clock time planning took, in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Returns whether planning stopped because its time budget expired, rather than because of the planner's other stopping criteria.
+	 * @return true if planning stopped because its time budget expired; false otherwise
+	 */
+	public boolean budgetExpired() {
+		return budgetExpired;
+	}
+
+	@Override
+	public String toString() {
+		return "iterations: " + iterations + "; backups: " + backups + "; elapsed ms: " + (elapsedNanos / 1e6) + (budgetExpired ? " (budget expired)" : "");
+	}
+
+}
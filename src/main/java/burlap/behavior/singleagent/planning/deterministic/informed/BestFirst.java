@@ -33,6 +33,12 @@ import java.util.Map;
  */
 public abstract class BestFirst extends DeterministicPlanner {
 
+	/**
+	 * The number of nodes expanded by the most recent search
+	 */
+	protected int numExpandedNodes = 0;
+
+
 	
 	/**
 	 * This method returns the f-score for a state given the parent search node, the generating action, the state that was produced.
@@ -88,6 +94,16 @@ public abstract class BestFirst extends DeterministicPlanner {
 	}
 
 
+	/**
+	 * Returns the number of search nodes expanded by the most recent search. If the plan for a state was already cached,
+	 * no search is performed and this value is unchanged.
+	 * @return the number of search nodes expanded by the most recent search
+	 */
+	public int getNumExpandedNodes(){
+		return numExpandedNodes;
+	}
+
+
 	/**
 	 * Plans and returns a {@link burlap.behavior.singleagent.planning.deterministic.SDPlannerPolicy}. If
 	 * a {@link State} is not in the solution path of this planner, then
@@ -183,6 +199,7 @@ public abstract class BestFirst extends DeterministicPlanner {
 		this.encodePlanIntoPolicy(lastVistedNode);
 		
 		DPrint.cl(debugCode, "Num Expanded: " + nexpanded);
+		this.numExpandedNodes = nexpanded;
 		
 		this.postPlanPrep();
 
@@ -0,0 +1,469 @@
+package burlap.behavior.singleagent.planning.stochastic;
+
+import burlap.behavior.singleagent.options.Option;
+import burlap.behavior.singleagent.planning.stochastic.dpoperator.DPOperator;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.ActionType;
+import burlap.mdp.core.action.ActionUtils;
+import burlap.mdp.singleagent.model.FullModel;
+import burlap.mdp.singleagent.model.TransitionProb;
+import burlap.statehashing.HashableState;
+import burlap.statehashing.HashableStateFactory;
+
+import java.util.*;
+
+/**
+ * A frozen, array-based representation of the transition dynamics of a finite set of states. Each state is assigned
+ * a dense int id in the range [0, {@link #numStates()}) and each of its applicable actions is assigned a
+ * state-action id. The transition dynamics are stored in compressed sparse row (CSR) form: the state-action ids for state i
+ * are in the range [actionOffsets[i], actionOffsets[i+1]) and the transitions of state-action sa are stored in
+ * the range [transitionOffsets[sa], transitionOffsets[sa+1]) of the successor, probability, and reward arrays.
+ * <p>
+ * Once compiled, a Bellman backup requires no hashing, no calls to the {@link FullModel}, and no boxing, which makes
+ * it possible to sweep over a primitive double array value function with {@link #bellmanUpdate(int, double[], double, DPOperator, double[][])}.
+ * Any successor state that was not in the input set of states (e.g., a terminal state that was not expanded) is added
+ * to the compiled state set as well so that every successor has an id.
+ * <p>
+ * This class is compatible with {@link Option}s. For option state-action pairs, the transition probabilities are already
+ * discounted and the expected reward is defined at the state-action level, so {@link #isPreDiscounted(int)} will
+ * return true and the discount factor will not be applied.
+ */
+public class CompiledTransitionModel {
+
+	/**
+	 * The states indexed by their id
+	 */
+	protected HashableState [] states;
+
+	/**
+	 * The number of states provided for compilation; states with an id greater than or equal to this value are unexpanded successors
+	 */
+	protected int numSourceStates;
+
+	/**
+	 * The map from a hashed state to its id
+	 */
+	protected Map<HashableState, Integer> stateIds;
+
+	/**
+	 * Whether each state is terminal
+	 */
+	protected boolean [] terminal;
+
+	/**
+	 * The state-action id offsets of each state; length is the number of states + 1
+	 */
+	protected int [] actionOffsets;
+
+	/**
+	 * The action of each state-action id
+	 */
+	protected Action [] actions;
+
+	/**
+	 * Whether the transition probabilities of each state-action id are already discounted (as is the case for options)
+	 */
+	protected boolean [] preDiscounted;
+
+	/**
+	 * The expected immediate reward of each state-action id
+	 */
+	protected double [] expectedRewards;
+
+	/**
+	 * The transition offsets of each state-action id; length is the number of state-action ids + 1
+	 */
+	protected int [] transitionOffsets;
+
+	/**
+	 * The successor state id of each transition
+	 */
+	protected int [] successors;
+
+	/**
+	 * The probability of each transition
+	 */
+	protected double [] probabilities;
+
+	/**
+	 * The reward of each transition
+	 */
+	protected double [] rewards;
+
+
+	/**
+	 * Compiles the transition dynamics for the given states.
+	 * @param sourceStates the states for which transition dynamics should be compiled. Their ids follow the iteration order of this collection.
+	 * @param model the {@link FullModel} that defines the transition dynamics
+	 * @param actionTypes the {@link ActionType}s used to generate the applicable actions of each state
+	 * @param hashingFactory the {@link HashableStateFactory} used to hash successor states
+	 */
+	public CompiledTransitionModel(Collection<HashableState> sourceStates, FullModel model, List<ActionType> actionTypes, HashableStateFactory hashingFactory){
+
+		int n = sourceStates.size();
+		this.numSourceStates = n;
+		this.stateIds = new HashMap<HashableState, Integer>(Math.max(16, (int)(n / 0.75) + 1));
+		List<HashableState> stateList = new ArrayList<HashableState>(n);
+		for(HashableState sh : sourceStates){
+			this.stateIds.put(sh, stateList.size());
+			stateList.add(sh);
+		}
+
+		IntBuffer actionOffsets = new IntBuffer(n+1);
+		List<Action> actions = new ArrayList<Action>(n*4);
+		BooleanBuffer preDiscounted = new BooleanBuffer(n*4);
+		DoubleBuffer expectedRewards = new DoubleBuffer(n*4);
+		IntBuffer transitionOffsets = new IntBuffer(n*4+1);
+		IntBuffer successors = new IntBuffer(n*8);
+		DoubleBuffer probabilities = new DoubleBuffer(n*8);
+		DoubleBuffer rewards = new DoubleBuffer(n*8);
+		BooleanBuffer terminal = new BooleanBuffer(n);
+
+		transitionOffsets.add(0);
+
+		//the state list may grow as we discover unexpanded successors, which are given no actions
+		for(int i = 0; i < stateList.size(); i++){
+
+			HashableState sh = stateList.get(i);
+			actionOffsets.add(actions.size());
+
+			boolean isTerminal = model.terminal(sh.s());
+			terminal.add(isTerminal);
+			if(isTerminal || i >= n){
+				continue;
+			}
+
+			List<Action> gas = ActionUtils.allApplicableActionsForTypes(actionTypes, sh.s());
+			for(Action ga : gas){
+
+				List<TransitionProb> tps = model.transitions(sh.s(), ga);
+				boolean isOption = ga instanceof Option;
+				double r = 0.;
+				if(isOption && tps.size() > 0){
+					//for options, expected reward is on state-action level and always the same
+					r = tps.get(0).eo.r;
+				}
+
+				for(TransitionProb tp : tps){
+					HashableState tsh = hashingFactory.hashState(tp.eo.op);
+					Integer tid = this.stateIds.get(tsh);
+					if(tid == null){
+						tid = stateList.size();
+						this.stateIds.put(tsh, tid);
+						stateList.add(tsh);
+					}
+					successors.add(tid);
+					probabilities.add(tp.p);
+					rewards.add(tp.eo.r);
+					if(!isOption){
+						r += tp.p * tp.eo.r;
+					}
+				}
+
+				actions.add(ga);
+				preDiscounted.add(isOption);
+				expectedRewards.add(r);
+				transitionOffsets.add(successors.size);
+
+			}
+
+		}
+		actionOffsets.add(actions.size());
+
+		this.states = stateList.toArray(new HashableState[stateList.size()]);
+		this.terminal = terminal.toArray();
+		this.actionOffsets = actionOffsets.toArray();
+		this.actions = actions.toArray(new Action[actions.size()]);
+		this.preDiscounted = preDiscounted.toArray();
+		this.expectedRewards = expectedRewards.toArray();
+		this.transitionOffsets = transitionOffsets.toArray();
+		this.successors = successors.toArray();
+		this.probabilities = probabilities.toArray();
+		this.rewards = rewards.toArray();
+
+	}
+
+
+	/**
+	 * Returns the number of compiled states, which includes any unexpanded successor states.
+	 * @return the number of compiled states
+	 */
+	public int numStates(){
+		return this.states.length;
+	}
+
+	/**
+	 * Returns the number of states that were provided for compilation. These states have the ids [0, numSourceStates()) and
+	 * any states with a larger id are unexpanded successor states.
+	 * @return the number of states that were provided for compilation
+	 */
+	public int numSourceStates(){
+		return this.numSourceStates;
+	}
+
+	/**
+	 * Returns the total number of compiled state-action pairs.
+	 * @return the total number of compiled state-action pairs
+	 */
+	public int numStateActions(){
+		return this.actions.length;
+	}
+
+	/**
+	 * Returns the total number of compiled transitions.
+	 * @return the total number of compiled transitions
+	 */
+	public int numTransitions(){
+		return this.successors.length;
+	}
+
+	/**
+	 * Returns the largest number of actions any compiled state has.
+	 * @return the largest number of actions any compiled state has.
+	 */
+	public int maxActions(){
+		int mx = 0;
+		for(int i = 0; i < this.states.length; i++){
+			mx = Math.max(mx, this.actionOffsets[i+1] - this.actionOffsets[i]);
+		}
+		return mx;
+	}
+
+	/**
+	 * Returns the id of the given hashed state, or -1 if it is not compiled
+	 * @param sh the hashed state
+	 * @return the id of the state or -1 if it is not compiled
+	 */
+	public int stateId(HashableState sh){
+		Integer id = this.stateIds.get(sh);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Returns the hashed state with the given id
+	 * @param id the state id
+	 * @return the hashed state with the given id
+	 */
+	public HashableState state(int id){
+		return this.states[id];
+	}
+
+	/**
+	 * Returns whether the state with the given id is terminal
+	 * @param id the state id
+	 * @return true if the state is terminal; false otherwise
+	 */
+	public boolean isTerminal(int id){
+		return this.terminal[id];
+	}
+
+	/**
+	 * Returns the first state-action id of the given state
+	 * @param id the state id
+	 * @return the first state-action id of the given state
+	 */
+	public int actionStart(int id){
+		return this.actionOffsets[id];
+	}
+
+	/**
+	 * Returns the state-action id after the last state-action id of the given state
+	 * @param id the state id
+	 * @return the state-action id after the last state-action id of the given state
+	 */
+	public int actionEnd(int id){
+		return this.actionOffsets[id+1];
+	}
+
+	/**
+	 * Returns the {@link Action} of the given state-action id
+	 * @param sa the state-action id
+	 * @return the {@link Action}
+	 */
+	public Action action(int sa){
+		return this.actions[sa];
+	}
+
+	/**
+	 * Returns whether the transition probabilities of the state-action id are already discounted.
+	 * @param sa the state-action id
+	 * @return true if the transition probabilities are already discounted (as for options); false otherwise
+	 */
+	public boolean isPreDiscounted(int sa){
+		return this.preDiscounted[sa];
+	}
+
+	/**
+	 * Returns the first transition index of the given state-action id
+	 * @param sa the state-action id
+	 * @return the first transition index
+	 */
+	public int transitionStart(int sa){
+		return this.transitionOffsets[sa];
+	}
+
+	/**
+	 * Returns the transition index after the last transition of the given state-action id
+	 * @param sa the state-action id
+	 * @return the transition index after the last transition
+	 */
+	public int transitionEnd(int sa){
+		return this.transitionOffsets[sa+1];
+	}
+
+	/**
+	 * Returns the successor state id of the given transition index
+	 * @param t the transition index
+	 * @return the successor state id
+	 */
+	public int successor(int t){
+		return this.successors[t];
+	}
+
+	/**
+	 * Returns the probability of the given transition index
+	 * @param t the transition index
+	 * @return the transition probability
+	 */
+	public double probability(int t){
+		return this.probabilities[t];
+	}
+
+	/**
+	 * Returns the reward of the given transition index
+	 * @param t the transition index
+	 * @return the transition reward
+	 */
+	public double reward(int t){
+		return this.rewards[t];
+	}
+
+
+	/**
+	 * Creates the Q-value buffers used by {@link #bellmanUpdate(int, double[], double, DPOperator, double[][])}.
+	 * Element k of the returned array has length k, since a {@link DPOperator} operates on the whole array it is given.
+	 * Buffers should not be shared between threads.
+	 * @return the Q-value buffers indexed by number of actions
+	 */
+	public double [][] newQBuffers(){
+		int mx = this.maxActions();
+		double [][] buffers = new double[mx+1][];
+		for(int i = 0; i <= mx; i++){
+			buffers[i] = new double[i];
+		}
+		return buffers;
+	}
+
+
+	/**
+	 * Computes the Q-value of a state-action id under the given value function.
+	 * @param sa the state-action id
+	 * @param v the value function, indexed by state id
+	 * @param gamma the discount factor
+	 * @return the Q-value
+	 */
+	public double qValue(int sa, double [] v, double gamma){
+		double sum = 0.;
+		int end = this.transitionOffsets[sa+1];
+		for(int t = this.transitionOffsets[sa]; t < end; t++){
+			sum += this.probabilities[t] * v[this.successors[t]];
+		}
+		double discount = this.preDiscounted[sa] ? 1. : gamma;
+		return this.expectedRewards[sa] + discount * sum;
+	}
+
+
+	/**
+	 * Computes the Bellman backup of a state under the given value function. The value function is not modified.
+	 * Terminal states and states without actions always have a value of 0.
+	 * @param id the state id
+	 * @param v the value function, indexed by state id
+	 * @param gamma the discount factor
+	 * @param operator the {@link DPOperator} used to reduce the Q-values
+	 * @param qBuffers Q-value buffers indexed by number of actions, as created by {@link #newQBuffers()}
+	 * @return the backed up value of the state
+	 */
+	public double bellmanUpdate(int id, double [] v, double gamma, DPOperator operator, double [][] qBuffers){
+		int start = this.actionOffsets[id];
+		int nActions = this.actionOffsets[id+1] - start;
+		if(this.terminal[id] || nActions == 0){
+			return 0.;
+		}
+		double [] qs = qBuffers[nActions];
+		for(int i = 0; i < nActions; i++){
+			qs[i] = this.qValue(start+i, v, gamma);
+		}
+		return operator.apply(qs);
+	}
+
+
+	/**
+	 * A growable int array
+	 */
+	protected static class IntBuffer{
+		int [] data;
+		int size = 0;
+
+		public IntBuffer(int capacity){
+			this.data = new int[Math.max(capacity, 1)];
+		}
+
+		public void add(int v){
+			if(size == data.length){
+				data = Arrays.copyOf(data, data.length*2);
+			}
+			data[size++] = v;
+		}
+
+		public int [] toArray(){
+			return Arrays.copyOf(data, size);
+		}
+	}
+
+	/**
+	 * A growable double array
+	 */
+	protected static class DoubleBuffer{
+		double [] data;
+		int size = 0;
+
+		public DoubleBuffer(int capacity){
+			this.data = new double[Math.max(capacity, 1)];
+		}
+
+		public void add(double v){
+			if(size == data.length){
+				data = Arrays.copyOf(data, data.length*2);
+			}
+			data[size++] = v;
+		}
+
+		public double [] toArray(){
+			return Arrays.copyOf(data, size);
+		}
+	}
+
+	/**
+	 * A growable boolean array
+	 */
+	protected static class BooleanBuffer{
+		boolean [] data;
+		int size = 0;
+
+		public BooleanBuffer(int capacity){
+			this.data = new boolean[Math.max(capacity, 1)];
+		}
+
+		public void add(boolean v){
+			if(size == data.length){
+				data = Arrays.copyOf(data, data.length*2);
+			}
+			data[size++] = v;
+		}
+
+		public boolean [] toArray(){
+			return Arrays.copyOf(data, size);
+		}
+	}
+
+}
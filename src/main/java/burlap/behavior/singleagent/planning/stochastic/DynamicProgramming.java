@@ -11,6 +11,7 @@ import burlap.behavior.valuefunction.ConstantValueFunction;
 import burlap.behavior.valuefunction.QProvider;
 import burlap.behavior.valuefunction.QValue;
 import burlap.behavior.valuefunction.ValueFunction;
+import burlap.debugtools.ParallelTasks;
 import burlap.mdp.core.action.Action;
 import burlap.mdp.core.state.State;
 import burlap.mdp.singleagent.SADomain;
@@ -23,15 +24,38 @@ import org.yaml.snakeyaml.Yaml;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * A class for performing dynamic programming operations: updating the value function using a Bellman backup.
+ * <p>
+ * Sweeps over the state space (see {@link #bellmanSweep(HashableState[])} and {@link #fixedPolicyBellmanSweep(HashableState[], EnumerablePolicy)})
+ * can be performed with multiple threads by setting {@link #setSweepParallelism(int)}. The states of a sweep are partitioned into chunks
+ * that are backed up concurrently. How values are shared during a sweep is determined by the {@link SweepMode}: in
+ * {@link SweepMode#GAUSS_SEIDEL} mode (the default) updates are written immediately and may be seen by other backups in the same sweep;
+ * in {@link SweepMode#JACOBI} mode all backups of a sweep read the values of the previous sweep and the new values are committed
+ * once the sweep is complete. When using more than one thread, the model, {@link HashableStateFactory},
+ * {@link DPOperator} and any evaluated policy must be safe to query concurrently.
  * @author James MacGlashan
  *
  */
 public class DynamicProgramming extends MDPSolver implements ValueFunction, QProvider {
 
 
+	/**
+	 * Specifies how the values computed during a sweep over the state space are shared with the other backups of that sweep.
+	 * <p>
+	 * GAUSS_SEIDEL writes each new value immediately, so that later backups in the same sweep (including backups performed
+	 * concurrently by other threads) may use it. This is the standard asynchronous in place value iteration and is the default.
+	 * <p>
+	 * JACOBI computes every backup of a sweep from the values of the previous sweep and commits the new values only after
+	 * the sweep is complete (double buffering). Results are independent of the number of threads and state ordering.
+	 */
+	public static enum SweepMode{
+		GAUSS_SEIDEL, JACOBI
+	}
+
+
 	
 	/**
 	 * A map for storing the current value function estimate for each state.
@@ -46,6 +70,24 @@ public class DynamicProgramming extends MDPSolver implements ValueFunction, QPro
 
 
 	protected DPOperator operator = new BellmanOperator();
+
+
+	/**
+	 * The number of threads used to perform sweeps over the state space. Default is 1.
+	 */
+	protected int sweepParallelism = 1;
+
+
+	/**
+	 * How new values are shared within a sweep. Default is {@link SweepMode#GAUSS_SEIDEL}.
+	 */
+	protected SweepMode sweepMode = SweepMode.GAUSS_SEIDEL;
+
+
+	/**
+	 * The executor on which parallel sweeps run; if null, the {@link ParallelTasks#sharedExecutor()} is used.
+	 */
+	protected ExecutorService sweepExecutor;
 	
 
 	
@@ -111,6 +153,63 @@ public class DynamicProgramming extends MDPSolver implements ValueFunction, QPro
 		this.operator = operator;
 	}
 
+	/**
+	 * Sets the number of threads used to perform sweeps over the state space. A value of 1 (the default) performs
+	 * sweeps on the calling thread. When set to more than 1, the value function table is converted to a concurrent map.
+	 * @param parallelism the number of threads to use for sweeps
+	 */
+	public void setSweepParallelism(int parallelism){
+		if(parallelism < 1){
+			throw new RuntimeException("Sweep parallelism must be at least 1; provided " + parallelism);
+		}
+		this.sweepParallelism = parallelism;
+		if(parallelism > 1){
+			this.ensureConcurrentValueFunction();
+		}
+	}
+
+	/**
+	 * Returns the number of threads used to perform sweeps over the state space.
+	 * @return the number of threads used to perform sweeps over the state space.
+	 */
+	public int getSweepParallelism(){
+		return this.sweepParallelism;
+	}
+
+	/**
+	 * Sets how new values are shared within a sweep over the state space.
+	 * @param sweepMode the {@link SweepMode} to use.
+	 */
+	public void setSweepMode(SweepMode sweepMode){
+		this.sweepMode = sweepMode;
+	}
+
+	/**
+	 * Returns how new values are shared within a sweep over the state space.
+	 * @return the {@link SweepMode} used.
+	 */
+	public SweepMode getSweepMode(){
+		return this.sweepMode;
+	}
+
+	/**
+	 * Returns the executor on which parallel sweeps run.
+	 * @return the executor on which parallel sweeps run
+	 */
+	public ExecutorService getSweepExecutor(){
+		return this.sweepExecutor != null ? this.sweepExecutor : ParallelTasks.sharedExecutor();
+	}
+
+	/**
+	 * Sets the executor on which parallel sweeps run. By default, the {@link ParallelTasks#sharedExecutor()} is used. At most
+	 * {@link #getSweepParallelism()} chunks of a sweep run at once, whatever the size of the executor.
+	 * @param sweepExecutor the executor on which parallel sweeps run, or null to use the shared executor
+	 */
+	public void setSweepExecutor(ExecutorService sweepExecutor){
+		this.sweepExecutor = sweepExecutor;
+	}
+	
+	
 	/**
 	 * Returns whether a value for the given state has been computed previously.
 	 * @param s the state to check
@@ -269,6 +368,160 @@ public class DynamicProgramming extends MDPSolver implements ValueFunction, QPro
 	}
 
 
+	/**
+	 * Returns the states currently stored in the value function table as an array, suitable for use with
+	 * {@link #bellmanSweep(HashableState[])} and {@link #fixedPolicyBellmanSweep(HashableState[], EnumerablePolicy)}.
+	 * @return the states stored in the value function table.
+	 */
+	protected HashableState [] sweepStates(){
+		return this.valueFunction.keySet().toArray(new HashableState[this.valueFunction.size()]);
+	}
+
+
+	/**
+	 * Performs one sweep of Bellman updates over the given states, using the configured {@link SweepMode} and sweep parallelism.
+	 * @param states the states to update
+	 * @return the maximum change in the value of any state
+	 */
+	protected double bellmanSweep(HashableState [] states){
+		return this.sweep(states, null);
+	}
+
+
+	/**
+	 * Performs one sweep of fixed-policy Bellman updates (i.e., policy evaluation) over the given states, using the configured {@link SweepMode}
+	 * and sweep parallelism.
+	 * @param states the states to update
+	 * @param p the policy that is being evaluated
+	 * @return the maximum change in the value of any state
+	 */
+	protected double fixedPolicyBellmanSweep(HashableState [] states, EnumerablePolicy p){
+		return this.sweep(states, p);
+	}
+
+
+	/**
+	 * Performs one sweep of updates over the given states.
+	 * @param states the states to update
+	 * @param p the policy to evaluate, or null if the {@link DPOperator} backup should be used.
+	 * @return the maximum change in the value of any state
+	 */
+	protected double sweep(final HashableState [] states, final EnumerablePolicy p){
+
+		if(this.sweepParallelism > 1){
+			this.ensureConcurrentValueFunction();
+		}
+
+		if(this.sweepMode == SweepMode.JACOBI){
+
+			final double [] nv = new double[states.length];
+			double delta = this.runPartitioned(states.length, new RangeTask() {
+				@Override
+				public double run(int start, int end) {
+					double delta = 0.;
+					for(int i = start; i < end; i++){
+						HashableState sh = states[i];
+						double v = value(sh);
+						nv[i] = p == null ? computeBellmanBackup(sh) : computeFixedPolicyBellmanBackup(sh, p);
+						delta = Math.max(Math.abs(nv[i] - v), delta);
+					}
+					return delta;
+				}
+			});
+
+			this.runPartitioned(states.length, new RangeTask() {
+				@Override
+				public double run(int start, int end) {
+					for(int i = start; i < end; i++){
+						valueFunction.put(states[i], nv[i]);
+					}
+					return 0.;
+				}
+			});
+
+			return delta;
+
+		}
+
+		return this.runPartitioned(states.length, new RangeTask() {
+			@Override
+			public double run(int start, int end) {
+				double delta = 0.;
+				for(int i = start; i < end; i++){
+					HashableState sh = states[i];
+					double v = value(sh);
+					double nv = p == null ? performBellmanUpdateOn(sh) : performFixedPolicyBellmanUpdateOn(sh, p);
+					delta = Math.max(Math.abs(nv - v), delta);
+				}
+				return delta;
+			}
+		});
+
+	}
+
+
+	/**
+	 * Runs a {@link RangeTask} over the index range [0, n). If the sweep parallelism is 1, the task is run on the calling thread
+	 * over the whole range. Otherwise, the range is partitioned into contiguous chunks (several per thread to balance load)
+	 * that are run on the sweep executor, and this method blocks until all chunks are complete.
+	 * @param n the size of the index range
+	 * @param task the task to run
+	 * @return the maximum of the values returned by each chunk of the task
+	 */
+	protected double runPartitioned(int n, final RangeTask task){
+
+		int nChunks = Math.min(n, this.sweepParallelism * 4);
+		if(this.sweepParallelism <= 1 || nChunks <= 1){
+			return task.run(0, n);
+		}
+
+		List<Callable<Double>> chunks = new ArrayList<Callable<Double>>(nChunks);
+		for(int c = 0; c < nChunks; c++){
+			final int start = (int)((long)n * c / nChunks);
+			final int end = (int)((long)n * (c+1) / nChunks);
+			chunks.add(new Callable<Double>() {
+				@Override
+				public Double call() throws Exception {
+					return task.run(start, end);
+				}
+			});
+		}
+
+		double mx = 0.;
+		for(double delta : ParallelTasks.invokeAll(this.getSweepExecutor(), this.sweepParallelism, chunks)){
+			mx = Math.max(mx, delta);
+		}
+
+		return mx;
+	}
+
+
+	/**
+	 * Converts the value function table to a {@link ConcurrentHashMap} if it is not already a {@link ConcurrentMap},
+	 * so that it can be safely updated by multiple sweep threads.
+	 */
+	protected void ensureConcurrentValueFunction(){
+		if(!(this.valueFunction instanceof ConcurrentMap)){
+			this.valueFunction = new ConcurrentHashMap<HashableState, Double>(this.valueFunction);
+		}
+	}
+
+
+	/**
+	 * A task that is run over a contiguous range of indices of a sweep.
+	 */
+	protected interface RangeTask{
+
+		/**
+		 * Runs the task over the index range [start, end)
+		 * @param start the first index (inclusive)
+		 * @param end the last index (exclusive)
+		 * @return the maximum change of any value updated in the range
+		 */
+		double run(int start, int end);
+	}
+
+
 	/**
 	 * Performs a Bellman value function update on the provided (hashed) state. Results are stored in the value function map as well as returned.
 	 * If this object is set to used cached transition dynamics and the transition dynamics for this state are not cached, then they will be created and cached.
@@ -276,10 +529,23 @@ public class DynamicProgramming extends MDPSolver implements ValueFunction, QPro
 	 * @return the new value of the state.
 	 */
 	protected double performBellmanUpdateOn(HashableState sh){
+
+		double nv = this.computeBellmanBackup(sh);
+		valueFunction.put(sh, nv);
 		
+		return nv;
+	}
+
+
+	/**
+	 * Computes the Bellman backup of the provided (hashed) state without storing it in the value function map.
+	 * @param sh the hashed state on which to perform the Bellman backup.
+	 * @return the backed up value of the state.
+	 */
+	protected double computeBellmanBackup(HashableState sh){
+
 		if(model.terminal(sh.s())){
 			//terminal states always have a state value of 0
-			valueFunction.put(sh, 0.);
 			return 0.;
 		}
 
@@ -293,10 +559,7 @@ public class DynamicProgramming extends MDPSolver implements ValueFunction, QPro
 			i++;
 		}
 
-		double nv = operator.apply(qs);
-		valueFunction.put(sh, nv);
-		
-		return nv;
+		return operator.apply(qs);
 	}
 	
 	
@@ -309,11 +572,26 @@ public class DynamicProgramming extends MDPSolver implements ValueFunction, QPro
 	 * @return the new value of the state
 	 */
 	protected double performFixedPolicyBellmanUpdateOn(HashableState sh, EnumerablePolicy p){
+
+		double weightedQ = this.computeFixedPolicyBellmanBackup(sh, p);
+		valueFunction.put(sh, weightedQ);
+
+		return weightedQ;
+
+	}
+
+
+	/**
+	 * Computes the fixed-policy Bellman backup (i.e., policy evaluation) of the provided (hashed) state without storing it in the value function map.
+	 * @param sh the hashed state on which to perform the Bellman backup.
+	 * @param p the policy that is being evaluated
+	 * @return the backed up value of the state
+	 */
+	protected double computeFixedPolicyBellmanBackup(HashableState sh, EnumerablePolicy p){
 		
 		
 		if(this.model.terminal(sh.s())){
 			//terminal states always have a state value of 0
-			valueFunction.put(sh, 0.);
 			return 0.;
 		}
 		
@@ -333,13 +611,7 @@ public class DynamicProgramming extends MDPSolver implements ValueFunction, QPro
 			double q = this.computeQ(sh.s(), ga);
 			weightedQ += policyProb*q;
 		}
-			
 
-		
-		
-		
-		valueFunction.put(sh, weightedQ);
-		
 		return weightedQ;
 		
 	}
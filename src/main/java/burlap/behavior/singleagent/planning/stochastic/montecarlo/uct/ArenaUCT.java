@@ -0,0 +1,418 @@
+package burlap.behavior.singleagent.planning.stochastic.montecarlo.uct;
+
+import burlap.behavior.policy.GreedyQPolicy;
+import burlap.behavior.singleagent.MDPSolver;
+import burlap.behavior.singleagent.options.EnvironmentOptionOutcome;
+import burlap.behavior.singleagent.options.Option;
+import burlap.behavior.singleagent.planning.AnytimePlanner;
+import burlap.behavior.singleagent.planning.PlanningDeadline;
+import burlap.behavior.singleagent.planning.PlanningStatistics;
+import burlap.behavior.valuefunction.QProvider;
+import burlap.behavior.valuefunction.QValue;
+import burlap.debugtools.DPrint;
+import burlap.debugtools.RandomFactory;
+import burlap.mdp.auxiliary.stateconditiontest.StateConditionTest;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.ActionUtils;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.statehashing.HashableState;
+import burlap.statehashing.HashableStateFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An implementation of UCT [1] that performs the same search as {@link UCT}, but stores its tree in a {@link UCTNodeArena}
+ * of primitive arrays instead of {@link UCTStateNode} and {@link UCTActionNode} objects, which greatly reduces the
+ * number of objects, and therefore the garbage collection cost, of large trees. The memory of the tree can be bounded with
+ * {@link #setMaxNodes(int)}: before a rollout that could exceed the bound, the least recently visited state nodes are
+ * discarded (see {@link UCTNodeArena#prune(int, int)}) until at most half of the bound remains. Statistics of the action
+ * slots of the remaining nodes are kept, so only cold subtrees, which have not been visited by recent rollouts, are lost.
+ * <p>
+ * Like {@link UCT}, this class implements {@link QProvider} by replanning whenever it is queried for a state that is not
+ * the root of its tree, and it implements {@link AnytimePlanner}. Because the tree has no node objects, it cannot be used
+ * with {@link UCTTreeWalkPolicy}.
+ * <p>
+ * 1. Kocsis, Levente, and Csaba Szepesvari. "Bandit based monte-carlo planning." ECML (2006). 282-293.
+ */
+public class ArenaUCT extends MDPSolver implements AnytimePlanner, PlanningDeadline.DeadlinePlanner<GreedyQPolicy>, QProvider {
+
+	protected UCTNodeArena					arena;
+	protected int							root = -1;
+	protected int							maxHorizon;
+	protected int							maxRollOutsFromRoot;
+	protected int							numRollOutsFromRoot;
+	protected double						explorationBias;
+
+	/**
+	 * The maximum number of state nodes in the tree; -1 for no maximum
+	 */
+	protected int							maxNodes = -1;
+
+	/**
+	 * The number of rollouts performed since the tree was created, used to stamp the nodes each rollout visits
+	 */
+	protected long							rollOutStamp;
+
+	protected StateConditionTest			goalCondition;
+	protected boolean						foundGoal;
+
+	protected int							numVisits;
+
+	protected Random						rand;
+
+	/**
+	 * The deadline of the current budgeted planning call; null if planning is not budgeted.
+	 */
+	protected PlanningDeadline			planningDeadline = null;
+
+	/**
+	 * The statistics of the most recent planning call
+	 */
+	protected PlanningStatistics			lastPlanningStatistics;
+
+
+	/**
+	 * Initializes.
+	 * @param domain the domain in which to plan
+	 * @param gamma the discount factor
+	 * @param hashingFactory the state hashing factory
+	 * @param horizon the planning horizon
+	 * @param nRollouts the number of rollouts to perform
+	 * @param explorationBias the exploration bias constant (suggested &gt;2)
+	 */
+	public ArenaUCT(SADomain domain, double gamma, HashableStateFactory hashingFactory, int horizon, int nRollouts, int explorationBias){
+		this.solverInit(domain, gamma, hashingFactory);
+		this.maxHorizon = horizon;
+		this.maxRollOutsFromRoot = nRollouts;
+		this.explorationBias = explorationBias;
+		this.arena = new UCTNodeArena(1024);
+		this.rand = RandomFactory.getMapped(589449);
+	}
+
+
+	/**
+	 * Returns the maximum number of state nodes in the tree.
+	 * @return the maximum number of state nodes, or -1 if there is no maximum
+	 */
+	public int getMaxNodes() {
+		return maxNodes;
+	}
+
+
+	/**
+	 * Sets the maximum number of state nodes in the tree. It must be at least twice the number of nodes a single rollout can
+	 * add, which is the horizon plus one.
+	 * @param maxNodes the maximum number of state nodes, or -1 for no maximum
+	 */
+	public void setMaxNodes(int maxNodes) {
+		if(maxNodes != -1 && maxNodes < 2*(this.maxHorizon+1)){
+			throw new RuntimeException("ArenaUCT maximum number of nodes must be at least " + 2*(this.maxHorizon+1) + " for horizon " + this.maxHorizon + "; provided " + maxNodes);
+		}
+		this.maxNodes = maxNodes;
+	}
+
+
+	/**
+	 * Returns the arena that stores the tree.
+	 * @return the {@link UCTNodeArena} that stores the tree
+	 */
+	public UCTNodeArena getArena() {
+		return arena;
+	}
+
+
+	/**
+	 * Returns the id of the root node in the arena.
+	 * @return the id of the root node, or -1 if there is no tree
+	 */
+	public int getRoot() {
+		return root;
+	}
+
+
+	/**
+	 * Returns the number of state nodes visited by rollouts since planning was last started.
+	 * @return the number of state nodes visited by rollouts
+	 */
+	public int getNumVisits(){
+		return numVisits;
+	}
+
+
+	/**
+	 * Tells the planner to stop planning if a goal state is ever found.
+	 * @param gc a {@link burlap.mdp.auxiliary.stateconditiontest.StateConditionTest} object used to specify goal states (whereever it evaluates as true).
+	 */
+	public void useGoalConditionStopCriteria(StateConditionTest gc){
+		this.goalCondition = gc;
+	}
+
+
+	/**
+	 * Plans from the input state and then returns a {@link burlap.behavior.policy.GreedyQPolicy} that greedily
+	 * selects the action with the highest Q-value and breaks ties uniformly randomly.
+	 * @param initialState the initial state of the planning problem
+	 * @return a {@link burlap.behavior.policy.GreedyQPolicy}.
+	 */
+	@Override
+	public GreedyQPolicy planFromState(State initialState) {
+
+		long start = System.nanoTime();
+		foundGoal = false;
+		numVisits = 0;
+
+		this.arena.clear();
+		this.rollOutStamp = 0;
+		HashableState shi = this.stateHash(initialState);
+		this.root = this.arena.addNode(shi, 0, ActionUtils.allApplicableActionsForTypes(this.actionTypes, shi.s()));
+
+		numRollOutsFromRoot = 0;
+		while(!this.stopPlanning()){
+
+			if(this.maxNodes != -1 && this.arena.numNodes() + this.maxHorizon + 1 > this.maxNodes){
+				this.root = this.arena.prune(this.maxNodes / 2, this.root);
+				DPrint.cl(debugCode, "Pruned tree to " + this.arena.numNodes() + " nodes");
+			}
+
+			this.rollOutStamp++;
+			this.treeRollOut(this.root, 0);
+			numRollOutsFromRoot++;
+
+		}
+
+		this.lastPlanningStatistics = new PlanningStatistics(numRollOutsFromRoot, numVisits, System.nanoTime() - start, !foundGoal && PlanningDeadline.passed(this.planningDeadline));
+		DPrint.cl(debugCode, "Rollouts: " + numRollOutsFromRoot + "; tree size: " + this.arena.numNodes() + "; total visits: " + numVisits);
+
+		return new GreedyQPolicy(this);
+
+	}
+
+
+	/**
+	 * Performs rollouts from the input state until the budget expires, ignoring the maximum number of rollouts, and then
+	 * returns a {@link burlap.behavior.policy.GreedyQPolicy} that greedily selects the action with the highest Q-value and
+	 * breaks ties uniformly randomly. At least one rollout is performed.
+	 * @param initialState the initial state of the planning problem
+	 * @param budget the amount of time planning may take
+	 * @param unit the unit of the budget
+	 * @return a {@link burlap.behavior.policy.GreedyQPolicy}.
+	 */
+	@Override
+	public GreedyQPolicy planFromState(State initialState, long budget, TimeUnit unit) {
+		return PlanningDeadline.planFromState(this, initialState, budget, unit);
+	}
+
+
+	@Override
+	public PlanningStatistics getLastPlanningStatistics() {
+		return lastPlanningStatistics;
+	}
+
+
+
+	@Override
+	public PlanningDeadline getPlanningDeadline() {
+		return planningDeadline;
+	}
+
+
+	@Override
+	public void setPlanningDeadline(PlanningDeadline planningDeadline) {
+		this.planningDeadline = planningDeadline;
+	}
+
+
+	@Override
+	public List<QValue> qValues(State s) {
+
+		this.ensureRoot(s);
+
+		int first = this.arena.firstSlot(this.root);
+		int n = this.arena.numSlots(this.root);
+		List<QValue> qs = new ArrayList<QValue>(n);
+		for(int slot = first; slot < first + n; slot++){
+			qs.add(new QValue(s, this.arena.action(slot), this.arena.averageReturn(slot)));
+		}
+
+		return qs;
+	}
+
+
+	@Override
+	public double qValue(State s, Action a) {
+
+		this.ensureRoot(s);
+
+		int first = this.arena.firstSlot(this.root);
+		int n = this.arena.numSlots(this.root);
+		for(int slot = first; slot < first + n; slot++){
+			if(this.arena.action(slot).equals(a)){
+				return this.arena.averageReturn(slot);
+			}
+		}
+
+		throw new RuntimeException("ArenaUCT does not know about action: " + a.toString() + "; cannot return Q-value for it");
+	}
+
+
+	@Override
+	public double value(State s) {
+		if(model.terminal(s)){
+			return 0.;
+		}
+		return Helper.maxQ(this, s);
+	}
+
+
+	@Override
+	public void resetSolver() {
+		this.arena.clear();
+		this.root = -1;
+		this.numRollOutsFromRoot = 0;
+	}
+
+
+	/**
+	 * Plans from the given state if it is not the root of the tree.
+	 * @param s the state
+	 */
+	protected void ensureRoot(State s){
+		if(this.root == -1 || !this.hashingFactory.hashState(s).equals(this.arena.state(this.root))){
+			this.planFromState(s);
+		}
+	}
+
+
+	/**
+	 * Performs a rollout in the tree from the given node. Every new state node reached is added to the tree; since a
+	 * rollout takes at most as many steps as the horizon, this is the same as the node limit of {@link UCT#treeRollOut(UCTStateNode, int, int)}.
+	 * @param node the node from which to rollout
+	 * @param depth the depth of the node
+	 * @return the sample return from rolling out from this node
+	 */
+	protected double treeRollOut(int node, int depth){
+
+		numVisits++;
+		this.arena.touch(node, this.rollOutStamp);
+
+		if(depth == maxHorizon){
+			return 0.;
+		}
+
+		State s = this.arena.state(node).s();
+		if(model.terminal(s)){
+			if(goalCondition != null && goalCondition.satisfies(s)){
+				foundGoal = true;
+			}
+			return 0.;
+		}
+
+		int slot = this.selectSlot(node);
+		if(slot == -1){
+			//no actions can be performed in this state
+			return 0.;
+		}
+
+		//sample the action
+		Action a = this.arena.action(slot);
+		EnvironmentOutcome eo = model.sample(s, a);
+		HashableState shprime = this.stateHash(eo.op);
+		int depthChange = 1;
+		if(a instanceof Option){
+			depthChange = ((EnvironmentOptionOutcome)eo).numSteps();
+		}
+
+		int child = this.arena.findNode(shprime, depth+depthChange);
+		if(child == -1){
+			child = this.arena.addNode(shprime, depth+depthChange, ActionUtils.allApplicableActionsForTypes(this.actionTypes, shprime.s()));
+		}
+		this.arena.addSuccessor(slot, child);
+
+		double sampledReturn = eo.r + Math.pow(gamma, depthChange) * this.treeRollOut(child, depth + depthChange);
+
+		this.arena.update(node, slot, sampledReturn);
+
+		return sampledReturn;
+	}
+
+
+	/**
+	 * Returns true if rollouts and planning should cease, which happens if a goal was found when goal states stop planning,
+	 * if the maximum number of rollouts have been performed, or, when planning with a budget, if at least one rollout has been
+	 * performed and the budget has expired.
+	 * @return true if rollouts and planning should cease; false otherwise.
+	 */
+	public boolean stopPlanning(){
+		if(foundGoal){
+			return true;
+		}
+		if(planningDeadline != null){
+			return !planningDeadline.allowsMoreWork(numRollOutsFromRoot);
+		}
+		return maxRollOutsFromRoot != -1 && numRollOutsFromRoot >= maxRollOutsFromRoot;
+	}
+
+
+	/**
+	 * Selects the action slot of a node to take. Untaken actions are selected first. If all actions have been taken, then
+	 * the action with the highest upper confidence Q-value is selected. Ties are broken randomly.
+	 * @param node the state node
+	 * @return the selected action slot, or -1 if the node has no actions
+	 */
+	protected int selectSlot(int node){
+
+		int first = this.arena.firstSlot(node);
+		int n = this.arena.numSlots(node);
+		if(n == 0){
+			return -1;
+		}
+
+		//count candidates in a first pass and choose among them in a second, so no list is allocated
+		int nUntaken = 0;
+		double maxUCTQ = Double.NEGATIVE_INFINITY;
+		int nMax = 0;
+		double logVisits = Math.log(this.arena.visits(node));
+		for(int slot = first; slot < first + n; slot++){
+			int na = this.arena.slotVisits(slot);
+			if(na == 0){
+				nUntaken++;
+			}
+			else if(nUntaken == 0){
+				double q = this.arena.averageReturn(slot) + this.explorationBias * Math.sqrt(logVisits / na);
+				if(q > maxUCTQ){
+					maxUCTQ = q;
+					nMax = 1;
+				}
+				else if(q == maxUCTQ){
+					nMax++;
+				}
+			}
+		}
+
+		int choice = this.rand.nextInt(nUntaken > 0 ? nUntaken : nMax);
+		for(int slot = first; slot < first + n; slot++){
+			int na = this.arena.slotVisits(slot);
+			boolean candidate;
+			if(nUntaken > 0){
+				candidate = na == 0;
+			}
+			else{
+				candidate = this.arena.averageReturn(slot) + this.explorationBias * Math.sqrt(logVisits / na) == maxUCTQ;
+			}
+			if(candidate && choice-- == 0){
+				return slot;
+			}
+		}
+
+		throw new RuntimeException("ArenaUCT failed to select an action.");
+
+	}
+
+
+
+}
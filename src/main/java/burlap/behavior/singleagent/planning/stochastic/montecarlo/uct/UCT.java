@@ -4,12 +4,15 @@ import burlap.behavior.policy.GreedyQPolicy;
 import burlap.behavior.singleagent.MDPSolver;
 import burlap.behavior.singleagent.options.EnvironmentOptionOutcome;
 import burlap.behavior.singleagent.options.Option;
-import burlap.behavior.singleagent.planning.Planner;
+import burlap.behavior.singleagent.planning.AnytimePlanner;
+import burlap.behavior.singleagent.planning.PlanningDeadline;
+import burlap.behavior.singleagent.planning.PlanningStatistics;
 import burlap.behavior.singleagent.planning.stochastic.montecarlo.uct.UCTActionNode.UCTActionConstructor;
 import burlap.behavior.singleagent.planning.stochastic.montecarlo.uct.UCTStateNode.UCTStateConstructor;
 import burlap.behavior.valuefunction.QProvider;
 import burlap.behavior.valuefunction.QValue;
 import burlap.debugtools.DPrint;
+import burlap.debugtools.ParallelTasks;
 import burlap.debugtools.RandomFactory;
 import burlap.mdp.auxiliary.stateconditiontest.StateConditionTest;
 import burlap.mdp.core.action.Action;
@@ -20,6 +23,9 @@ import burlap.statehashing.HashableState;
 import burlap.statehashing.HashableStateFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An implementation of UCT [1]. This class can be augmented with a goal state specification (using a {@link burlap.mdp.auxiliary.stateconditiontest.StateConditionTest})
@@ -36,12 +42,29 @@ import java.util.*;
  * will be more computationally efficient than replanning at each step, but may have degrading performance after each step since
  * each step has a shorter horizon from which to plan and may not have as many samples from which it estimated its Q-value.
  * <p>
+ * Rollouts can be performed on multiple threads with {@link #setParallelism(int)} in one of two {@link ParallelMode}s.
+ * With {@link ParallelMode#ROOT}, each thread builds an independent tree with its share of the rollouts and the
+ * statistics of the root action nodes of all trees are summed into the root of the first tree, which becomes the tree of this planner.
+ * With {@link ParallelMode#TREE}, all threads perform rollouts in one shared tree. Visit counts are updated atomically,
+ * and each action node taken by a rollout in progress carries a virtual loss (see {@link #setVirtualLoss(double)})
+ * until the rollout returns, so that threads tend to explore different paths. Each thread draws its action selection
+ * ties from its own random number generator, provided by a {@link RandomFactory} installed on the thread whose seed
+ * is derived from this planner's generator. In either mode, the model must be safe to sample from multiple threads.
+ * <p>
+ * With {@link #planFromState(State, long, TimeUnit)}, rollouts are performed until a wall-clock budget expires rather
+ * than until the number of rollouts is reached, and {@link #getLastPlanningStatistics()} reports the number of rollouts
+ * and state node visits of each planning call.
+ * <p>
+ * When stepping through the world with this planner, the tree can be reused across decisions with {@link #setReuseTree(boolean)}.
+ * Planning from a state that is the root, or a successor of the root, of the current tree then continues from the
+ * corresponding node and keeps its statistics, and the rest of the tree is discarded. Trees are not reused in {@link ParallelMode#ROOT}.
+ * <p>
  * 1. Kocsis, Levente, and Csaba Szepesvari. "Bandit based monte-carlo planning." ECML (2006). 282-293.
  * 
  * @author James MacGlashan
  *
  */
-public class UCT extends MDPSolver implements Planner, QProvider {
+public class UCT extends MDPSolver implements AnytimePlanner, PlanningDeadline.DeadlinePlanner<GreedyQPolicy>, QProvider {
 
 	protected List<Map<HashableState, UCTStateNode>> 			stateDepthIndex;
 	protected Map <HashableState, List <UCTStateNode>>			statesToStateNodes;
@@ -55,7 +78,7 @@ public class UCT extends MDPSolver implements Planner, QProvider {
 	protected UCTActionConstructor								actionNodeConstructor;
 	
 	protected StateConditionTest								goalCondition;
-	protected boolean											foundGoal;
+	protected volatile boolean									foundGoal;
 	protected boolean											foundGoalOnRollout;
 	
 	protected Set<HashableState>								uniqueStatesInTree;
@@ -64,6 +87,59 @@ public class UCT extends MDPSolver implements Planner, QProvider {
 	protected int												numVisits;
 	
 	protected Random											rand;
+
+
+	/**
+	 * The number of threads on which rollouts are performed
+	 */
+	protected int												parallelism = 1;
+
+	/**
+	 * How rollouts are divided among threads when the parallelism is greater than 1
+	 */
+	protected ParallelMode										parallelMode = ParallelMode.TREE;
+
+	/**
+	 * The magnitude of the virtual loss of an action node taken by a rollout in progress in {@link ParallelMode#TREE}
+	 */
+	protected double											virtualLoss = 1.;
+
+	/**
+	 * The executor on which parallel rollouts run; if null, the {@link ParallelTasks#sharedExecutor()} is used.
+	 */
+	protected ExecutorService									executor;
+
+	/**
+	 * The deadline of the current budgeted planning call; null if planning is not budgeted.
+	 */
+	protected PlanningDeadline								planningDeadline = null;
+
+	/**
+	 * The statistics of the most recent planning call
+	 */
+	protected PlanningStatistics								lastPlanningStatistics;
+
+	/**
+	 * Whether the subtree of the current tree rooted at the new planning state is reused by subsequent planning
+	 */
+	protected boolean											reuseTree = false;
+
+
+	/**
+	 * The ways in which rollouts can be parallelized.
+	 */
+	public static enum ParallelMode{
+
+		/**
+		 * Each thread builds an independent tree and the root statistics of the trees are merged.
+		 */
+		ROOT,
+
+		/**
+		 * All threads perform rollouts in one shared tree with virtual loss.
+		 */
+		TREE
+	}
 	
 	
 	
@@ -110,6 +186,112 @@ public class UCT extends MDPSolver implements Planner, QProvider {
 	}
 	
 	
+	/**
+	 * Returns the number of state nodes visited by rollouts since planning was last started with {@link #planFromState(State)}.
+	 * @return the number of state nodes visited by rollouts
+	 */
+	public int getNumVisits(){
+		return numVisits;
+	}
+	
+	
+	/**
+	 * Returns the number of threads on which rollouts are performed.
+	 * @return the number of threads on which rollouts are performed
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+
+	/**
+	 * Sets the number of threads on which rollouts are performed. A value of 1 (the default) performs them on the calling thread.
+	 * @param parallelism the number of threads on which rollouts are performed
+	 */
+	public void setParallelism(int parallelism) {
+		if(parallelism < 1){
+			throw new RuntimeException("UCT parallelism must be at least 1; provided " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+
+	/**
+	 * Returns how rollouts are divided among threads when the parallelism is greater than 1.
+	 * @return the {@link ParallelMode}
+	 */
+	public ParallelMode getParallelMode() {
+		return parallelMode;
+	}
+
+
+	/**
+	 * Sets how rollouts are divided among threads when the parallelism is greater than 1. The default is {@link ParallelMode#TREE}.
+	 * @param parallelMode the {@link ParallelMode}
+	 */
+	public void setParallelMode(ParallelMode parallelMode) {
+		this.parallelMode = parallelMode;
+	}
+
+
+	/**
+	 * Returns the magnitude of the virtual loss used in {@link ParallelMode#TREE}.
+	 * @return the magnitude of the virtual loss
+	 */
+	public double getVirtualLoss() {
+		return virtualLoss;
+	}
+
+
+	/**
+	 * Sets the magnitude of the virtual loss used in {@link ParallelMode#TREE}. While a rollout is in progress, each
+	 * action node it has taken is counted as taken once more with a return of -virtualLoss. The default is 1.
+	 * @param virtualLoss the magnitude of the virtual loss
+	 */
+	public void setVirtualLoss(double virtualLoss) {
+		this.virtualLoss = virtualLoss;
+	}
+
+
+	/**
+	 * Returns the executor on which parallel rollouts run.
+	 * @return the executor on which parallel rollouts run
+	 */
+	public ExecutorService getExecutor() {
+		return executor != null ? executor : ParallelTasks.sharedExecutor();
+	}
+
+
+	/**
+	 * Sets the executor on which parallel rollouts run. By default, the {@link ParallelTasks#sharedExecutor()} is used.
+	 * @param executor the executor on which parallel rollouts run, or null to use the shared executor
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+	
+	
+	/**
+	 * Returns whether the tree is reused across planning calls.
+	 * @return true if the tree is reused across planning calls; false otherwise.
+	 */
+	public boolean isReuseTree() {
+		return reuseTree;
+	}
+
+
+	/**
+	 * Sets whether the tree is reused across planning calls. If true, then planning from the state of the root, or of a
+	 * successor node of the root, continues from that node with its statistics and those of its subtree, and the rest of the
+	 * tree is discarded; the rollouts of the new planning call are added to those already in the subtree. Otherwise, and
+	 * if no such node exists, planning starts from a new tree. The default is false.
+	 * @param reuseTree whether the tree is reused across planning calls
+	 */
+	public void setReuseTree(boolean reuseTree) {
+		this.reuseTree = reuseTree;
+	}
+	
+	
 	/**
 	 * Tells the valueFunction to stop planning if a goal state is ever found.
 	 * @param gc a {@link burlap.mdp.auxiliary.stateconditiontest.StateConditionTest} object used to specify goal states (whereever it evaluates as true).
@@ -128,26 +310,41 @@ public class UCT extends MDPSolver implements Planner, QProvider {
 	@Override
 	public GreedyQPolicy planFromState(State initialState) {
 		
+		long start = System.nanoTime();
 		foundGoal = false;
 		
-		treeSize = 1;
 		numVisits = 0;
+
+		if(this.parallelism > 1 && this.parallelMode == ParallelMode.ROOT){
+			treeSize = 1;
+			this.rootParallelPlan(initialState);
+			this.lastPlanningStatistics = new PlanningStatistics(numRollOutsFromRoot, numVisits, System.nanoTime() - start, !foundGoal && PlanningDeadline.passed(this.planningDeadline));
+			DPrint.cl(debugCode, "\nRollouts: " + numRollOutsFromRoot + "; Best Action Expected Return: " + this.bestReturnAction(root).averageReturn());
+			return new GreedyQPolicy(this);
+		}
 		
 		HashableState shi = this.stateHash(initialState);
-		root = stateNodeConstructor.generate(shi, 0, actionTypes, actionNodeConstructor);
-		
-		uniqueStatesInTree = new HashSet<HashableState>();
-		
-		stateDepthIndex = new ArrayList<Map<HashableState,UCTStateNode>>();
-		statesToStateNodes = new HashMap<HashableState, List<UCTStateNode>>();
-		Map <HashableState, UCTStateNode> depth0Map = new HashMap<HashableState, UCTStateNode>();
-		depth0Map.put(shi, root);
-		stateDepthIndex.add(depth0Map);
+		if(!this.reuseTree || !this.reuseSubtree(shi)){
+			
+			treeSize = 1;
+			root = stateNodeConstructor.generate(shi, 0, actionTypes, actionNodeConstructor);
+			
+			uniqueStatesInTree = new HashSet<HashableState>();
+			
+			stateDepthIndex = new ArrayList<Map<HashableState,UCTStateNode>>();
+			statesToStateNodes = new HashMap<HashableState, List<UCTStateNode>>();
+			Map <HashableState, UCTStateNode> depth0Map = new HashMap<HashableState, UCTStateNode>();
+			depth0Map.put(shi, root);
+			stateDepthIndex.add(depth0Map);
+		}
 		
 		
 		int lastNumUnique = 0;
 		
 		numRollOutsFromRoot = 0;
+		if(this.parallelism > 1){
+			this.treeParallelPlan();
+		}
 		while(!this.stopPlanning()){
 			
 			this.initializeRollOut();
@@ -163,12 +360,48 @@ public class UCT extends MDPSolver implements Planner, QProvider {
 			}
 
 		}
+		this.lastPlanningStatistics = new PlanningStatistics(numRollOutsFromRoot, numVisits, System.nanoTime() - start, !foundGoal && PlanningDeadline.passed(this.planningDeadline));
 		DPrint.cl(debugCode, "\nRollouts: " + numRollOutsFromRoot + "; Best Action Expected Return: " + this.bestReturnAction(root).averageReturn());
 
 		return new GreedyQPolicy(this);
 
 	}
 
+
+	/**
+	 * Performs rollouts from the input state until the budget expires, ignoring the maximum number of rollouts, and then
+	 * returns a {@link burlap.behavior.policy.GreedyQPolicy} that greedily selects the action with the highest Q-value and
+	 * breaks ties uniformly randomly. At least one rollout is performed, and planning still stops early if a goal condition
+	 * is set (see {@link #useGoalConditionStopCriteria(StateConditionTest)}) and a goal is found.
+	 * @param initialState the initial state of the planning problem
+	 * @param budget the amount of time planning may take
+	 * @param unit the unit of the budget
+	 * @return a {@link burlap.behavior.policy.GreedyQPolicy}.
+	 */
+	@Override
+	public GreedyQPolicy planFromState(State initialState, long budget, TimeUnit unit) {
+		return PlanningDeadline.planFromState(this, initialState, budget, unit);
+	}
+
+
+	@Override
+	public PlanningStatistics getLastPlanningStatistics() {
+		return lastPlanningStatistics;
+	}
+
+
+
+	@Override
+	public PlanningDeadline getPlanningDeadline() {
+		return planningDeadline;
+	}
+
+
+	@Override
+	public void setPlanningDeadline(PlanningDeadline planningDeadline) {
+		this.planningDeadline = planningDeadline;
+	}
+
 	@Override
 	public List<QValue> qValues(State s) {
 
@@ -180,7 +413,9 @@ public class UCT extends MDPSolver implements Planner, QProvider {
 		//if the root node isn't the query state, then replan
 		HashableState sh = this.hashingFactory.hashState(s);
 		if(!sh.equals(this.root.state)){
-			this.resetSolver();
+			if(!this.reuseTree){
+				this.resetSolver();
+			}
 			this.planFromState(s);
 		}
 
@@ -204,7 +439,9 @@ public class UCT extends MDPSolver implements Planner, QProvider {
 		//if the root node isn't the query state, then replan
 		HashableState sh = this.hashingFactory.hashState(s);
 		if(!sh.equals(this.root.state)){
-			this.resetSolver();
+			if(!this.reuseTree){
+				this.resetSolver();
+			}
 			this.planFromState(s);
 		}
 
@@ -336,16 +573,372 @@ public class UCT extends MDPSolver implements Planner, QProvider {
 	
 	
 	
+	/**
+	 * Makes the node for the given state the root of the tree if the state is that of the current root or of one of its successor
+	 * nodes, discarding every node that is not in its subtree.
+	 * @param sh the hashed state from which planning will begin
+	 * @return true if the tree was reused; false if there is no node for the state to reuse.
+	 */
+	protected boolean reuseSubtree(HashableState sh){
+
+		if(this.root == null){
+			return false;
+		}
+
+		UCTStateNode newRoot = null;
+		if(this.root.state.equals(sh)){
+			newRoot = this.root;
+		}
+		else{
+			for(UCTActionNode anode : this.root.actionNodes){
+				List<UCTStateNode> successors = anode.successorStates.get(sh);
+				if(successors != null){
+					for(UCTStateNode snode : successors){
+						if(newRoot == null || snode.depth < newRoot.depth){
+							newRoot = snode;
+						}
+					}
+				}
+			}
+		}
+
+		if(newRoot == null){
+			return false;
+		}
+
+		this.promoteToRoot(newRoot);
+		return true;
+
+	}
+
+
+	/**
+	 * Makes the given node the root of the tree: the depth of every node in its subtree is reduced by the depth of the node,
+	 * the tree index is rebuilt from the subtree, and all other nodes are discarded.
+	 * @param newRoot the node that becomes the root
+	 */
+	protected void promoteToRoot(UCTStateNode newRoot){
+
+		int shift = newRoot.depth;
+
+		this.stateDepthIndex = new ArrayList<Map<HashableState,UCTStateNode>>();
+		this.statesToStateNodes = new HashMap<HashableState, List<UCTStateNode>>();
+		this.uniqueStatesInTree = new HashSet<HashableState>();
+		this.treeSize = 0;
+
+		Set<UCTStateNode> visited = Collections.newSetFromMap(new IdentityHashMap<UCTStateNode, Boolean>());
+		LinkedList<UCTStateNode> openList = new LinkedList<UCTStateNode>();
+		visited.add(newRoot);
+		openList.add(newRoot);
+		while(!openList.isEmpty()){
+			UCTStateNode snode = openList.poll();
+			snode.depth -= shift;
+			this.addNodeToIndexTree(snode);
+			if(snode != newRoot){
+				this.uniqueStatesInTree.add(snode.state);
+			}
+			for(UCTActionNode anode : snode.actionNodes){
+				for(List<UCTStateNode> successors : anode.successorStates.values()){
+					for(UCTStateNode successor : successors){
+						if(visited.add(successor)){
+							openList.add(successor);
+						}
+					}
+				}
+			}
+		}
+
+		this.root = newRoot;
+
+	}
+
+
+	/**
+	 * Performs a rollout in the tree shared by the threads of {@link ParallelMode#TREE} planning. It is the same
+	 * as {@link #treeRollOut(UCTStateNode, int, int)}, except that visits are counted atomically when an action is selected,
+	 * a virtual loss is added to the selected action node until the rollout returns, the tree index and successor lists are
+	 * updated under locks, and the per-rollout bookkeeping is kept in the given {@link SharedRollOut}.
+	 * @param node the node from which to rollout
+	 * @param depth the depth of the node
+	 * @param childrenLeftToAdd the number of new subsequent nodes that can be connected to the tree
+	 * @param rollOut the bookkeeping of this rollout
+	 * @return the sample return from rolling out from this node
+	 */
+	protected double sharedTreeRollOut(UCTStateNode node, int depth, int childrenLeftToAdd, SharedRollOut rollOut){
+
+		rollOut.visits++;
+
+		if(depth == maxHorizon){
+			return 0.;
+		}
+
+		if(model.terminal(node.state.s())){
+			if(goalCondition != null && goalCondition.satisfies(node.state.s())){
+				foundGoal = true;
+				rollOut.foundGoal = true;
+			}
+			return 0.;
+		}
+
+		UCTActionNode anode = this.selectActionNode(node, rollOut.rand);
+
+		if(anode == null){
+			//no actions can be performed in this state
+			return 0.;
+		}
+
+		node.incrementVisits();
+		anode.addVirtualLoss(this.virtualLoss);
+
+		//sample the action
+		EnvironmentOutcome eo = model.sample(node.state.s(), anode.action);
+		HashableState shprime = this.stateHash(eo.op);
+		double r = eo.r;
+		int depthChange = 1;
+		if(anode.action instanceof Option){
+			depthChange = ((EnvironmentOptionOutcome)eo).numSteps();
+		}
+
+		UCTStateNode snprime;
+		synchronized(stateDepthIndex){
+			snprime = this.queryTreeIndex(shprime, depth+depthChange);
+		}
+
+		double sampledReturn;
+		boolean shouldConnectNode = false;
+		if(snprime != null){
+
+			//then this state already exists in the tree
+			synchronized(anode){
+				if(!anode.referencesSuccessor(snprime)){
+					anode.addSuccessor(snprime);
+				}
+			}
+
+			double futureReturn = this.sharedTreeRollOut(snprime, depth + depthChange, childrenLeftToAdd, rollOut);
+			sampledReturn = r + Math.pow(gamma, depthChange) * futureReturn;
+
+		}
+		else{
+
+			//this state is not in the tree at this depth so create it
+			snprime = stateNodeConstructor.generate(shprime, depth+1, actionTypes, actionNodeConstructor);
+			if(childrenLeftToAdd > 0){
+				shouldConnectNode = true;
+			}
+
+			double futureReturn = this.sharedTreeRollOut(snprime, depth + depthChange, childrenLeftToAdd-1, rollOut);
+			sampledReturn = r + gamma * futureReturn;
+
+		}
+
+		anode.replaceVirtualLoss(sampledReturn, this.virtualLoss);
+
+		if(shouldConnectNode || rollOut.foundGoal){
+			synchronized(stateDepthIndex){
+				//another thread may have connected a node for the same state and depth first
+				UCTStateNode existing = this.queryTreeIndex(snprime.state, snprime.depth);
+				if(existing == null){
+					this.addNodeToIndexTree(snprime);
+					uniqueStatesInTree.add(snprime.state);
+				}
+				else{
+					snprime = existing;
+				}
+			}
+			synchronized(anode){
+				if(!anode.referencesSuccessor(snprime)){
+					anode.addSuccessor(snprime);
+				}
+			}
+		}
+
+		return sampledReturn;
+	}
+
+
+	/**
+	 * Performs the rollouts of {@link ParallelMode#TREE} planning on the shared tree rooted at {@link #root}, blocking until they finish.
+	 */
+	protected void treeParallelPlan(){
+
+		final AtomicInteger claimed = new AtomicInteger();
+		final AtomicInteger completed = new AtomicInteger();
+		final AtomicInteger visits = new AtomicInteger();
+		final long seed = this.rand.nextLong();
+
+		List<Runnable> tasks = new ArrayList<Runnable>(this.parallelism);
+		for(int k = 0; k < this.parallelism; k++){
+			final int worker = k;
+			tasks.add(new Runnable() {
+				@Override
+				public void run() {
+					RandomFactory.setThreadFactory(new RandomFactory(RandomFactory.mixSeed(seed, worker)));
+					try {
+						Random threadRand = RandomFactory.getMapped(589449);
+						while(claimRollOut(claimed)){
+							SharedRollOut rollOut = new SharedRollOut(threadRand);
+							sharedTreeRollOut(root, 0, maxHorizon, rollOut);
+							visits.addAndGet(rollOut.visits);
+							completed.incrementAndGet();
+						}
+					} finally {
+						RandomFactory.setThreadFactory(null);
+					}
+				}
+			});
+		}
+
+		ParallelTasks.runAll(this.getExecutor(), tasks.size(), tasks);
+
+		this.numRollOutsFromRoot = completed.get();
+		this.numVisits = visits.get();
+
+	}
+
+
+	/**
+	 * Returns whether a thread of {@link ParallelMode#TREE} planning should perform another rollout, claiming one from the rollout
+	 * budget if planning is limited by the number of rollouts.
+	 * @param claimed the number of rollouts claimed so far by all threads
+	 * @return true if the thread should perform another rollout; false if planning should cease.
+	 */
+	protected boolean claimRollOut(AtomicInteger claimed){
+		if(foundGoal){
+			return false;
+		}
+		if(planningDeadline != null){
+			return planningDeadline.allowsMoreWork(claimed.getAndIncrement());
+		}
+		return maxRollOutsFromRoot == -1 || claimed.getAndIncrement() < maxRollOutsFromRoot;
+	}
+
+
+	/**
+	 * Performs {@link ParallelMode#ROOT} planning: each thread plans with its own {@link UCT} instance and its share of the
+	 * rollouts, and then the tree of the first instance, with the root action statistics of all instances summed into its root,
+	 * becomes the tree of this planner.
+	 * @param initialState the initial state of the planning problem
+	 */
+	protected void rootParallelPlan(final State initialState){
+
+		final int nWorkers = maxRollOutsFromRoot == -1 || planningDeadline != null ? this.parallelism : Math.max(1, Math.min(this.parallelism, maxRollOutsFromRoot));
+		final UCT [] workers = new UCT[nWorkers];
+		final long seed = this.rand.nextLong();
+
+		List<Runnable> tasks = new ArrayList<Runnable>(nWorkers);
+		for(int k = 0; k < nWorkers; k++){
+			final int worker = k;
+			final int rollOuts = maxRollOutsFromRoot == -1 ? -1 : (int)((long)maxRollOutsFromRoot * (k+1) / nWorkers) - (int)((long)maxRollOutsFromRoot * k / nWorkers);
+			tasks.add(new Runnable() {
+				@Override
+				public void run() {
+					RandomFactory.setThreadFactory(new RandomFactory(RandomFactory.mixSeed(seed, worker)));
+					try {
+						UCT planner = rootParallelWorker(rollOuts);
+						planner.planFromState(initialState);
+						workers[worker] = planner;
+					} finally {
+						RandomFactory.setThreadFactory(null);
+					}
+				}
+			});
+		}
+
+		ParallelTasks.runAll(this.getExecutor(), tasks.size(), tasks);
+
+		UCT first = workers[0];
+		this.root = first.root;
+		this.stateDepthIndex = first.stateDepthIndex;
+		this.statesToStateNodes = first.statesToStateNodes;
+		this.uniqueStatesInTree = first.uniqueStatesInTree;
+		this.treeSize = first.treeSize;
+		this.numRollOutsFromRoot = first.numRollOutsFromRoot;
+		this.numVisits = first.numVisits;
+		this.foundGoal = first.foundGoal;
+
+		for(int k = 1; k < workers.length; k++){
+			UCT w = workers[k];
+			this.numRollOutsFromRoot += w.numRollOutsFromRoot;
+			this.numVisits += w.numVisits;
+			this.foundGoal = this.foundGoal || w.foundGoal;
+			this.root.n += w.root.n;
+			for(UCTActionNode wa : w.root.actionNodes){
+				for(UCTActionNode a : this.root.actionNodes){
+					if(a.action.equals(wa.action)){
+						a.sumReturn += wa.sumReturn;
+						a.n += wa.n;
+						break;
+					}
+				}
+			}
+		}
+
+	}
+
+
+	/**
+	 * Creates the planner used by one thread of {@link ParallelMode#ROOT} planning. It is created on the thread that uses it
+	 * and copies the settings of this planner, including the deadline of budgeted planning, except that it is serial and performs
+	 * the given number of rollouts.
+	 * Subclasses that change how rollouts are performed should override this method to return an instance of the subclass.
+	 * @param nRollouts the number of rollouts the planner should perform
+	 * @return the {@link UCT} planner of the thread
+	 */
+	protected UCT rootParallelWorker(int nRollouts){
+		UCT planner = new UCT(this.domain, this.gamma, this.hashingFactory, this.maxHorizon, nRollouts, 0);
+		planner.explorationBias = this.explorationBias;
+		planner.stateNodeConstructor = this.stateNodeConstructor;
+		planner.actionNodeConstructor = this.actionNodeConstructor;
+		planner.goalCondition = this.goalCondition;
+		planner.actionTypes = this.actionTypes;
+		planner.model = this.model;
+		planner.debugCode = this.debugCode;
+		planner.planningDeadline = this.planningDeadline;
+		return planner;
+	}
+
+
+	/**
+	 * The bookkeeping of one rollout of {@link ParallelMode#TREE} planning, which the serial rollout keeps in data members.
+	 */
+	protected static class SharedRollOut{
+
+		/**
+		 * The random number generator of the thread performing the rollout
+		 */
+		protected Random rand;
+
+		/**
+		 * Whether the rollout has reached a goal state
+		 */
+		protected boolean foundGoal = false;
+
+		/**
+		 * The number of state nodes visited by the rollout
+		 */
+		protected int visits = 0;
+
+		public SharedRollOut(Random rand) {
+			this.rand = rand;
+		}
+	}
+	
+	
 	/**
 	 * Returns true if rollouts and planning should cease. Planning will stop
 	 * if the valueFunction is told to terminate upon finding a goal and one was found, or if
-	 * the maximum number of rollouts have already been performed.
+	 * the maximum number of rollouts have already been performed, or, when planning with a budget, if at least
+	 * one rollout has been performed and the budget has expired.
 	 * @return true if rollouts and planning should cease; false otherwise.
 	 */
 	public boolean stopPlanning(){
 		if(foundGoal){
 			return true;
 		}
+		if(planningDeadline != null){
+			return !planningDeadline.allowsMoreWork(numRollOutsFromRoot);
+		}
 		if(maxRollOutsFromRoot == -1){
 			return false;
 		}
@@ -360,6 +953,8 @@ public class UCT extends MDPSolver implements Planner, QProvider {
 	
 	
 	
+	
+	
 	/**
 	 * Selections which action to take. Unexplored actions from the node are selected first.
 	 * If all actions have been explored, then the action with the highest upper confidence Q-value
@@ -368,6 +963,19 @@ public class UCT extends MDPSolver implements Planner, QProvider {
 	 * @return the {@link UCTActionNode} to be taken.
 	 */
 	protected UCTActionNode selectActionNode(UCTStateNode snode){
+		return this.selectActionNode(snode, this.rand);
+	}
+	
+	
+	/**
+	 * Selections which action to take, breaking ties with the given random number generator. Unexplored actions from the node are selected first.
+	 * If all actions have been explored, then the action with the highest upper confidence Q-value
+	 * is selected, ties are broken randomly.
+	 * @param snode the UCT node from which to select an action.
+	 * @param rand the random number generator used to break ties
+	 * @return the {@link UCTActionNode} to be taken.
+	 */
+	protected UCTActionNode selectActionNode(UCTStateNode snode, Random rand){
 		
 		List <UCTActionNode> candidates = new ArrayList<UCTActionNode>();
 		
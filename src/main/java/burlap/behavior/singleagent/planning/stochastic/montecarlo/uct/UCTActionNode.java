@@ -23,12 +23,12 @@ public class UCTActionNode {
 	/**
 	 * The sum return observed for this action node
 	 */
-	public double										sumReturn;
+	public volatile double								sumReturn;
 	
 	/**
 	 * The number of of times this action node has been taken
 	 */
-	public int											n;
+	public volatile int									n;
 	
 	/**
 	 * The possible successor states. Stores a list of nodes for the same outcome state
@@ -69,6 +69,26 @@ public class UCTActionNode {
 		n++;
 	}
 	
+	/**
+	 * Adds a virtual loss for a rollout of a shared-tree parallel search that has taken this action but not yet
+	 * returned: the node is counted as taken once more with a return of -loss, which discourages other threads from
+	 * following the same path until {@link #replaceVirtualLoss(double, double)} is called.
+	 * @param loss the magnitude of the virtual loss
+	 */
+	public synchronized void addVirtualLoss(double loss){
+		sumReturn -= loss;
+		n++;
+	}
+	
+	/**
+	 * Replaces a virtual loss added with {@link #addVirtualLoss(double)} with the sample return of the rollout.
+	 * @param sampledReturn the sample return observed
+	 * @param loss the magnitude of the virtual loss that was added
+	 */
+	public synchronized void replaceVirtualLoss(double sampledReturn, double loss){
+		sumReturn += sampledReturn + loss;
+	}
+	
 	/**
 	 * Adds a successor node to the list of possible successors
 	 * @param node the uct successor node
@@ -0,0 +1,496 @@
+package burlap.behavior.singleagent.planning.stochastic.montecarlo.uct;
+
+import burlap.mdp.core.action.Action;
+import burlap.statehashing.HashableState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact storage for the nodes of a UCT search tree, used by {@link ArenaUCT}. Rather than one object per state node, action
+ * node, and successor list, the tree is stored in struct-of-arrays arenas of primitives indexed by int:
+ * <ul>
+ * <li>State nodes store an interned state id, a depth, a visit count, the offset and number of their action slots, and the
+ * rollout stamp of their most recent visit.</li>
+ * <li>Action slots store an interned action id, a visit count, a sum of returns, and the head of their successor list.</li>
+ * <li>Successor edges store a child state node and the next edge of the list.</li>
+ * </ul>
+ * The action slots of a state node are contiguous. States and actions are interned in their own tables, and state nodes
+ * are indexed by (state id, depth) in a primitive open addressing hash table, so the number of objects is proportional to
+ * the number of distinct states rather than the number of nodes. The arrays grow by doubling.
+ * <p>
+ * The number of state nodes can be bounded with {@link #prune(int, int)}, which discards the nodes whose most recent
+ * visit is oldest. Because every rollout starts at the root, a node is never visited more recently than the parent through
+ * which it was reached, so the retained nodes always form a connected tree containing the root.
+ */
+public class UCTNodeArena {
+
+	/**
+	 * The value of an empty slot of the tree index
+	 */
+	protected static final int EMPTY = -1;
+
+	protected int numNodes = 0;
+	protected int [] nodeState;
+	protected int [] nodeDepth;
+	protected int [] nodeVisits;
+	protected int [] nodeFirstSlot;
+	protected int [] nodeNumSlots;
+	protected long [] nodeStamp;
+
+	protected int numSlots = 0;
+	protected int [] slotAction;
+	protected int [] slotVisits;
+	protected double [] slotReturns;
+	protected int [] slotFirstEdge;
+
+	protected int numEdges = 0;
+	protected int [] edgeChild;
+	protected int [] edgeNext;
+
+	/**
+	 * The interned states, indexed by state id
+	 */
+	protected List<HashableState> states = new ArrayList<HashableState>();
+
+	/**
+	 * The id of each interned state
+	 */
+	protected Map<HashableState, Integer> stateIds = new HashMap<HashableState, Integer>();
+
+	/**
+	 * The interned actions, indexed by action id
+	 */
+	protected List<Action> actions = new ArrayList<Action>();
+
+	/**
+	 * The id of each interned action
+	 */
+	protected Map<Action, Integer> actionIds = new HashMap<Action, Integer>();
+
+	/**
+	 * The (state id, depth) keys of the tree index
+	 */
+	protected long [] indexKeys;
+
+	/**
+	 * The state node of each key of the tree index, or {@link #EMPTY}
+	 */
+	protected int [] indexNodes;
+
+
+	/**
+	 * Initializes with room for the given number of state nodes before the arrays grow.
+	 * @param initialCapacity the initial number of state nodes
+	 */
+	public UCTNodeArena(int initialCapacity) {
+		int n = Math.max(initialCapacity, 16);
+		this.nodeState = new int[n];
+		this.nodeDepth = new int[n];
+		this.nodeVisits = new int[n];
+		this.nodeFirstSlot = new int[n];
+		this.nodeNumSlots = new int[n];
+		this.nodeStamp = new long[n];
+		this.slotAction = new int[n*4];
+		this.slotVisits = new int[n*4];
+		this.slotReturns = new double[n*4];
+		this.slotFirstEdge = new int[n*4];
+		this.edgeChild = new int[n*4];
+		this.edgeNext = new int[n*4];
+		this.clearIndex(n*2);
+	}
+
+
+	/**
+	 * Removes all nodes, states, and actions.
+	 */
+	public void clear(){
+		this.numNodes = 0;
+		this.numSlots = 0;
+		this.numEdges = 0;
+		this.states.clear();
+		this.stateIds.clear();
+		this.actions.clear();
+		this.actionIds.clear();
+		this.clearIndex(this.indexKeys.length);
+	}
+
+
+	/**
+	 * Returns the number of state nodes.
+	 * @return the number of state nodes
+	 */
+	public int numNodes(){
+		return this.numNodes;
+	}
+
+
+	/**
+	 * Returns the number of action slots.
+	 * @return the number of action slots
+	 */
+	public int numSlots(){
+		return this.numSlots;
+	}
+
+
+	/**
+	 * Returns the number of successor edges.
+	 * @return the number of successor edges
+	 */
+	public int numEdges(){
+		return this.numEdges;
+	}
+
+
+	/**
+	 * Adds a state node and one action slot for each of the given actions.
+	 * @param sh the state of the node
+	 * @param depth the depth of the node
+	 * @param nodeActions the actions that can be taken in the state
+	 * @return the id of the new state node
+	 */
+	public int addNode(HashableState sh, int depth, List<Action> nodeActions){
+
+		if(this.numNodes == this.nodeState.length){
+			int n = this.numNodes * 2;
+			this.nodeState = Arrays.copyOf(this.nodeState, n);
+			this.nodeDepth = Arrays.copyOf(this.nodeDepth, n);
+			this.nodeVisits = Arrays.copyOf(this.nodeVisits, n);
+			this.nodeFirstSlot = Arrays.copyOf(this.nodeFirstSlot, n);
+			this.nodeNumSlots = Arrays.copyOf(this.nodeNumSlots, n);
+			this.nodeStamp = Arrays.copyOf(this.nodeStamp, n);
+		}
+		this.ensureSlotCapacity(this.numSlots + nodeActions.size());
+
+		int node = this.numNodes++;
+		int stateId = this.internState(sh);
+		this.nodeState[node] = stateId;
+		this.nodeDepth[node] = depth;
+		this.nodeVisits[node] = 0;
+		this.nodeFirstSlot[node] = this.numSlots;
+		this.nodeNumSlots[node] = nodeActions.size();
+		this.nodeStamp[node] = 0;
+
+		for(Action a : nodeActions){
+			int slot = this.numSlots++;
+			this.slotAction[slot] = this.internAction(a);
+			this.slotVisits[slot] = 0;
+			this.slotReturns[slot] = 0.;
+			this.slotFirstEdge[slot] = EMPTY;
+		}
+
+		this.indexPut(key(stateId, depth), node);
+
+		return node;
+	}
+
+
+	/**
+	 * Returns the state node for the given state at the given depth.
+	 * @param sh the state
+	 * @param depth the depth
+	 * @return the id of the state node, or -1 if there is none
+	 */
+	public int findNode(HashableState sh, int depth){
+		Integer stateId = this.stateIds.get(sh);
+		if(stateId == null){
+			return EMPTY;
+		}
+		return this.indexGet(key(stateId, depth));
+	}
+
+
+	/**
+	 * Adds a state node to the successors of an action slot if it is not already one of them.
+	 * @param slot the action slot
+	 * @param child the successor state node
+	 */
+	public void addSuccessor(int slot, int child){
+		for(int e = this.slotFirstEdge[slot]; e != EMPTY; e = this.edgeNext[e]){
+			if(this.edgeChild[e] == child){
+				return;
+			}
+		}
+		if(this.numEdges == this.edgeChild.length){
+			int n = this.numEdges * 2;
+			this.edgeChild = Arrays.copyOf(this.edgeChild, n);
+			this.edgeNext = Arrays.copyOf(this.edgeNext, n);
+		}
+		int e = this.numEdges++;
+		this.edgeChild[e] = child;
+		this.edgeNext[e] = this.slotFirstEdge[slot];
+		this.slotFirstEdge[slot] = e;
+	}
+
+
+	public HashableState state(int node){
+		return this.states.get(this.nodeState[node]);
+	}
+
+	public int depth(int node){
+		return this.nodeDepth[node];
+	}
+
+	public int visits(int node){
+		return this.nodeVisits[node];
+	}
+
+	public int firstSlot(int node){
+		return this.nodeFirstSlot[node];
+	}
+
+	public int numSlots(int node){
+		return this.nodeNumSlots[node];
+	}
+
+	public long stamp(int node){
+		return this.nodeStamp[node];
+	}
+
+	public Action action(int slot){
+		return this.actions.get(this.slotAction[slot]);
+	}
+
+	public int slotVisits(int slot){
+		return this.slotVisits[slot];
+	}
+
+	/**
+	 * Returns the average return of an action slot.
+	 * @param slot the action slot
+	 * @return the average return, or negative infinity if the action has not been taken
+	 */
+	public double averageReturn(int slot){
+		if(this.slotVisits[slot] == 0){
+			return Double.NEGATIVE_INFINITY;
+		}
+		return this.slotReturns[slot] / this.slotVisits[slot];
+	}
+
+
+	/**
+	 * Records a visit of a state node in the rollout with the given stamp.
+	 * @param node the state node
+	 * @param stamp the stamp of the rollout
+	 */
+	public void touch(int node, long stamp){
+		this.nodeStamp[node] = stamp;
+	}
+
+
+	/**
+	 * Updates the statistics of a state node and the action slot taken from it with a sample return.
+	 * @param node the state node
+	 * @param slot the action slot
+	 * @param sampledReturn the sample return observed
+	 */
+	public void update(int node, int slot, double sampledReturn){
+		this.nodeVisits[node]++;
+		this.slotVisits[slot]++;
+		this.slotReturns[slot] += sampledReturn;
+	}
+
+
+	/**
+	 * Discards the least recently visited state nodes so that at most maxNodes remain, and compacts the arenas. Nodes visited
+	 * in the same rollout are kept or discarded together, so fewer nodes than maxNodes may remain. States that are no
+	 * longer used by a node are removed from the state table.
+	 * @param maxNodes the maximum number of state nodes to keep
+	 * @param root the root state node, which must be among the most recently visited nodes
+	 * @return the new id of the root
+	 */
+	public int prune(int maxNodes, int root){
+
+		if(this.numNodes <= maxNodes){
+			return root;
+		}
+
+		//keep the nodes visited more recently than the stamp at which more than maxNodes would be kept
+		long [] stamps = Arrays.copyOf(this.nodeStamp, this.numNodes);
+		Arrays.sort(stamps);
+		long threshold = stamps[this.numNodes - maxNodes - 1];
+
+		int [] newIds = new int[this.numNodes];
+		int kept = 0;
+		for(int i = 0; i < this.numNodes; i++){
+			newIds[i] = this.nodeStamp[i] > threshold ? kept++ : EMPTY;
+		}
+		if(newIds[root] == EMPTY){
+			throw new RuntimeException("UCTNodeArena cannot prune a tree whose root is not among its most recently visited nodes.");
+		}
+
+		List<HashableState> oldStates = this.states;
+		this.states = new ArrayList<HashableState>(kept);
+		this.stateIds = new HashMap<HashableState, Integer>(kept*2);
+		int [] oldSlotFirstEdge = Arrays.copyOf(this.slotFirstEdge, this.numSlots);
+		int [] oldEdgeChild = Arrays.copyOf(this.edgeChild, this.numEdges);
+		int [] oldEdgeNext = Arrays.copyOf(this.edgeNext, this.numEdges);
+		this.clearIndex(this.indexKeys.length);
+
+		int slots = 0;
+		int edges = 0;
+		for(int i = 0; i < this.numNodes; i++){
+			int node = newIds[i];
+			if(node == EMPTY){
+				continue;
+			}
+
+			//nodes only move to lower ids, so moving them in increasing order never overwrites a node that has not moved
+			int stateId = this.internState(oldStates.get(this.nodeState[i]));
+			int first = this.nodeFirstSlot[i];
+			int n = this.nodeNumSlots[i];
+			this.nodeState[node] = stateId;
+			this.nodeDepth[node] = this.nodeDepth[i];
+			this.nodeVisits[node] = this.nodeVisits[i];
+			this.nodeFirstSlot[node] = slots;
+			this.nodeNumSlots[node] = n;
+			this.nodeStamp[node] = this.nodeStamp[i];
+			this.indexPut(key(stateId, this.nodeDepth[node]), node);
+
+			for(int j = 0; j < n; j++){
+				int oldSlot = first + j;
+				int slot = slots++;
+				this.slotAction[slot] = this.slotAction[oldSlot];
+				this.slotVisits[slot] = this.slotVisits[oldSlot];
+				this.slotReturns[slot] = this.slotReturns[oldSlot];
+				this.slotFirstEdge[slot] = EMPTY;
+				for(int e = oldSlotFirstEdge[oldSlot]; e != EMPTY; e = oldEdgeNext[e]){
+					int child = newIds[oldEdgeChild[e]];
+					if(child != EMPTY){
+						int ne = edges++;
+						this.edgeChild[ne] = child;
+						this.edgeNext[ne] = this.slotFirstEdge[slot];
+						this.slotFirstEdge[slot] = ne;
+					}
+				}
+			}
+		}
+
+		this.numNodes = kept;
+		this.numSlots = slots;
+		this.numEdges = edges;
+
+		return newIds[root];
+
+	}
+
+
+	/**
+	 * Returns the id of a state, interning it if it has not been interned.
+	 * @param sh the state
+	 * @return the id of the state
+	 */
+	protected int internState(HashableState sh){
+		Integer id = this.stateIds.get(sh);
+		if(id == null){
+			id = this.states.size();
+			this.states.add(sh);
+			this.stateIds.put(sh, id);
+		}
+		return id;
+	}
+
+
+	/**
+	 * Returns the id of an action, interning it if it has not been interned.
+	 * @param a the action
+	 * @return the id of the action
+	 */
+	protected int internAction(Action a){
+		Integer id = this.actionIds.get(a);
+		if(id == null){
+			id = this.actions.size();
+			this.actions.add(a);
+			this.actionIds.put(a, id);
+		}
+		return id;
+	}
+
+
+	protected void ensureSlotCapacity(int n){
+		if(n > this.slotAction.length){
+			int size = Math.max(n, this.slotAction.length * 2);
+			this.slotAction = Arrays.copyOf(this.slotAction, size);
+			this.slotVisits = Arrays.copyOf(this.slotVisits, size);
+			this.slotReturns = Arrays.copyOf(this.slotReturns, size);
+			this.slotFirstEdge = Arrays.copyOf(this.slotFirstEdge, size);
+		}
+	}
+
+
+	protected static long key(int stateId, int depth){
+		return ((long)stateId << 32) | (depth & 0xFFFFFFFFL);
+	}
+
+
+	/**
+	 * Returns the home position of a key in a tree index of the given capacity, which must be a power of two.
+	 * @param key the key
+	 * @param capacity the capacity of the tree index
+	 * @return the home position of the key
+	 */
+	protected static int indexPosition(long key, int capacity){
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h >>> 32) & (capacity - 1);
+	}
+
+
+	protected void clearIndex(int capacity){
+		int c = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+		if(this.indexKeys == null || this.indexKeys.length != c){
+			this.indexKeys = new long[c];
+			this.indexNodes = new int[c];
+		}
+		Arrays.fill(this.indexNodes, EMPTY);
+	}
+
+
+	protected int indexGet(long key){
+		int mask = this.indexKeys.length - 1;
+		for(int i = indexPosition(key, this.indexKeys.length); this.indexNodes[i] != EMPTY; i = (i+1) & mask){
+			if(this.indexKeys[i] == key){
+				return this.indexNodes[i];
+			}
+		}
+		return EMPTY;
+	}
+
+
+	/**
+	 * Adds a key to the tree index, doubling the index when it becomes half full. Nodes are never removed from the index
+	 * individually; {@link #prune(int, int)} rebuilds it.
+	 * @param key the key
+	 * @param node the state node of the key
+	 */
+	protected void indexPut(long key, int node){
+		if(2 * (this.numNodes + 1) > this.indexKeys.length){
+			long [] oldKeys = this.indexKeys;
+			int [] oldNodes = this.indexNodes;
+			this.indexKeys = new long[oldKeys.length * 2];
+			this.indexNodes = new int[oldKeys.length * 2];
+			Arrays.fill(this.indexNodes, EMPTY);
+			for(int i = 0; i < oldKeys.length; i++){
+				if(oldNodes[i] != EMPTY){
+					this.indexInsert(oldKeys[i], oldNodes[i]);
+				}
+			}
+		}
+		this.indexInsert(key, node);
+	}
+
+
+	protected void indexInsert(long key, int node){
+		int mask = this.indexKeys.length - 1;
+		int i = indexPosition(key, this.indexKeys.length);
+		while(this.indexNodes[i] != EMPTY && this.indexKeys[i] != key){
+			i = (i+1) & mask;
+		}
+		this.indexKeys[i] = key;
+		this.indexNodes[i] = node;
+	}
+
+}
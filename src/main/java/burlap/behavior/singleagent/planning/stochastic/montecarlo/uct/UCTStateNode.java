@@ -8,6 +8,7 @@ import burlap.statehashing.HashableState;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * UCT State Node that wraps a hashed state object and provided additional state statistics necessary for UCT.
@@ -31,7 +32,12 @@ public class UCTStateNode {
 	/**
 	 * The number of times this node has been visited
 	 */
-	public int						n;
+	public volatile int				n;
+
+	/**
+	 * Atomically updates {@link #n} for shared-tree parallel search
+	 */
+	protected static final AtomicIntegerFieldUpdater<UCTStateNode> visitUpdater = AtomicIntegerFieldUpdater.newUpdater(UCTStateNode.class, "n");
 	
 	/**
 	 * The possible actions (nodes) that can be performed from this state.
@@ -64,6 +70,15 @@ public class UCTStateNode {
 	}
 	
 	
+	/**
+	 * Atomically increments the number of times this node has been visited.
+	 * @return the number of visits after the increment
+	 */
+	public int incrementVisits(){
+		return visitUpdater.incrementAndGet(this);
+	}
+	
+	
 	@Override
     public int hashCode() {
         final int prime = 31;
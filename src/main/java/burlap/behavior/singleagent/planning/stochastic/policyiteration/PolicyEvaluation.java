@@ -85,19 +85,12 @@ public class PolicyEvaluation extends DynamicProgramming {
 
 		double maxChangeInPolicyEvaluation = Double.NEGATIVE_INFINITY;
 
-		Set <HashableState> states = valueFunction.keySet();
+		HashableState [] states = this.sweepStates();
 
 		int i;
 		for(i = 0; i < this.maxEvalIterations; i++){
 
-			double delta = 0.;
-			for(HashableState sh : states){
-
-				double v = this.value(sh);
-				double maxQ = this.performFixedPolicyBellmanUpdateOn(sh, policy);
-				delta = Math.max(Math.abs(maxQ - v), delta);
-
-			}
+			double delta = this.fixedPolicyBellmanSweep(states, policy);
 
 			maxChangeInPolicyEvaluation = Math.max(delta, maxChangeInPolicyEvaluation);
 
@@ -209,19 +209,12 @@ public class PolicyIteration extends DynamicProgramming implements Planner {
 		
 		double maxChangeInPolicyEvaluation = Double.NEGATIVE_INFINITY;
 		
-		Set <HashableState> states = valueFunction.keySet();
+		HashableState [] states = this.sweepStates();
 		
 		int i;
 		for(i = 0; i < this.maxIterations; i++){
 			
-			double delta = 0.;
-			for(HashableState sh : states){
-				
-				double v = this.value(sh);
-				double maxQ = this.performFixedPolicyBellmanUpdateOn(sh, this.evaluativePolicy);
-				delta = Math.max(Math.abs(maxQ - v), delta);
-				
-			}
+			double delta = this.fixedPolicyBellmanSweep(states, this.evaluativePolicy);
 			
 			maxChangeInPolicyEvaluation = Math.max(delta, maxChangeInPolicyEvaluation);
 			
@@ -1,7 +1,9 @@
 package burlap.behavior.singleagent.planning.stochastic.rtdp;
 
 import burlap.behavior.policy.GreedyQPolicy;
-import burlap.behavior.singleagent.planning.Planner;
+import burlap.behavior.singleagent.planning.AnytimePlanner;
+import burlap.behavior.singleagent.planning.PlanningDeadline;
+import burlap.behavior.singleagent.planning.PlanningStatistics;
 import burlap.behavior.singleagent.planning.stochastic.DynamicProgramming;
 import burlap.behavior.singleagent.planning.stochastic.dpoperator.DPOperator;
 import burlap.behavior.valuefunction.QValue;
@@ -17,6 +19,7 @@ import burlap.statehashing.HashableState;
 import burlap.statehashing.HashableStateFactory;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -37,6 +40,9 @@ import java.util.*;
  * the method {@link #setStateSelectionMode(StateSelectionMode)}. Another optional state selection mode is to always choose the next state
  * with the highest uncertainty, but this tends to be even slower due to being overly conservative so it is not reccommended in genral.
  * See the {@link StateSelectionMode} documentation for more information.
+ * <p>
+ * With {@link #planFromState(State, long, TimeUnit)}, rollouts are performed until a wall-clock budget expires (or the
+ * margin between the bounds of the initial state is small enough) rather than until the maximum number of rollouts is reached.
  * 
  * 
  * 
@@ -50,7 +56,7 @@ import java.util.*;
  * @author James MacGlashan
  *
  */
-public class BoundedRTDP extends DynamicProgramming implements Planner {
+public class BoundedRTDP extends DynamicProgramming implements AnytimePlanner, PlanningDeadline.DeadlinePlanner<GreedyQPolicy> {
 
 	
 	/**
@@ -147,6 +153,18 @@ public class BoundedRTDP extends DynamicProgramming implements Planner {
 	protected int								numSteps = 0;
 	
 	
+	/**
+	 * The deadline of the current budgeted planning call; null if planning is not budgeted.
+	 */
+	protected PlanningDeadline				planningDeadline = null;
+	
+	
+	/**
+	 * The statistics of the most recent planning call
+	 */
+	protected PlanningStatistics				lastPlanningStatistics;
+	
+	
 	/**
 	 * Whether each rollout should be run in reverse after completion. This is useful in goal-directed MDPs because it backups the goal reward to the initial state.
 	 * The default is true.
@@ -244,11 +262,14 @@ public class BoundedRTDP extends DynamicProgramming implements Planner {
 	public GreedyQPolicy planFromState(State initialState) {
 	
 		DPrint.cl(this.debugCode, "Beginning Planning.");
+		long start = System.nanoTime();
+		int oldUpdates = this.numBellmanUpdates;
 		int nr = 0;
-		while(this.runRollout(initialState) > this.maxDiff && (nr < this.maxRollouts || this.maxRollouts == -1)){
+		while(this.runRollout(initialState) > this.maxDiff && this.continuePlanning(nr)){
 			nr++;
 		}
 		
+		this.lastPlanningStatistics = new PlanningStatistics(nr+1, this.numBellmanUpdates - oldUpdates, System.nanoTime() - start, PlanningDeadline.passed(this.planningDeadline));
 		
 		DPrint.cl(this.debugCode, "Finished planning with a total of " + this.numBellmanUpdates + " backups.");
 
@@ -256,6 +277,56 @@ public class BoundedRTDP extends DynamicProgramming implements Planner {
 
 	}
 	
+	
+	/**
+	 * Performs rollouts from the input state until the budget expires or the margin between the bounds of the initial state is
+	 * small enough, ignoring the maximum number of rollouts, and then returns a {@link burlap.behavior.policy.GreedyQPolicy}
+	 * that greedily selects the action with the highest Q-value and breaks ties uniformly randomly. At least one rollout is performed.
+	 * @param initialState the initial state of the planning problem
+	 * @param budget the amount of time planning may take
+	 * @param unit the unit of the budget
+	 * @return a {@link burlap.behavior.policy.GreedyQPolicy}.
+	 */
+	@Override
+	public GreedyQPolicy planFromState(State initialState, long budget, TimeUnit unit) {
+		return PlanningDeadline.planFromState(this, initialState, budget, unit);
+	}
+
+
+	@Override
+	public PlanningStatistics getLastPlanningStatistics() {
+		return lastPlanningStatistics;
+	}
+
+
+
+	@Override
+	public PlanningDeadline getPlanningDeadline() {
+		return planningDeadline;
+	}
+
+
+	@Override
+	public void setPlanningDeadline(PlanningDeadline planningDeadline) {
+		this.planningDeadline = planningDeadline;
+	}
+	
+	
+	/**
+	 * Returns whether another rollout should be performed after the first rollout and the given number of additional rollouts
+	 * of this planning call, when the bounds of the initial state have not yet converged.
+	 * @param nr the number of rollouts after the first performed in this planning call
+	 * @return true if another rollout should be performed; false otherwise.
+	 */
+	protected boolean continuePlanning(int nr){
+		if(this.planningDeadline != null){
+			return this.planningDeadline.allowsMoreWork(nr + 1);
+		}
+		return nr < this.maxRollouts || this.maxRollouts == -1;
+	}
+	
+	
+	
 	/**
 	 * Sets the value function to use to be the upper bound.
 	 */
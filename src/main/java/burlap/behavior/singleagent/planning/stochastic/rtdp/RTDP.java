@@ -4,7 +4,9 @@ import burlap.behavior.policy.GreedyQPolicy;
 import burlap.behavior.policy.Policy;
 import burlap.behavior.policy.PolicyUtils;
 import burlap.behavior.singleagent.Episode;
-import burlap.behavior.singleagent.planning.Planner;
+import burlap.behavior.singleagent.planning.AnytimePlanner;
+import burlap.behavior.singleagent.planning.PlanningDeadline;
+import burlap.behavior.singleagent.planning.PlanningStatistics;
 import burlap.behavior.singleagent.planning.stochastic.DynamicProgramming;
 import burlap.behavior.valuefunction.ConstantValueFunction;
 import burlap.behavior.valuefunction.ValueFunction;
@@ -17,6 +19,7 @@ import burlap.statehashing.HashableStateFactory;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -29,6 +32,9 @@ import java.util.List;
  * <p>
  * To ensure optimality, an optimistic value function initialization should be used. However, RTDP excels when a good value function initialization
  * (e.g., an admissible heuristic) can be provided.
+ * <p>
+ * With {@link #planFromState(State, long, TimeUnit)}, rollouts are performed until a wall-clock budget expires (or the
+ * value function converges) rather than until the number of rollouts is reached.
  * 
  * 
  * 
@@ -38,7 +44,7 @@ import java.util.List;
  * @author James MacGlashan
  *
  */
-public class RTDP extends DynamicProgramming implements Planner{
+public class RTDP extends DynamicProgramming implements AnytimePlanner, PlanningDeadline.DeadlinePlanner<GreedyQPolicy>{
 
 	
 	/**
@@ -81,6 +87,24 @@ public class RTDP extends DynamicProgramming implements Planner{
 	protected int						numberOfBellmanUpdates = 0;
 	
 	
+	/**
+	 * Stores the number of rollouts performed across all planning.
+	 */
+	protected int						numberOfRollouts = 0;
+	
+	
+	/**
+	 * The deadline of the current budgeted planning call; null if planning is not budgeted.
+	 */
+	protected PlanningDeadline		planningDeadline = null;
+	
+	
+	/**
+	 * The statistics of the most recent planning call
+	 */
+	protected PlanningStatistics		lastPlanningStatistics;
+	
+	
 	
 	/**
 	 * Initializes. The value function will be initialized to vInit by default everywhere and will use a greedy policy with random tie breaks
@@ -197,6 +221,14 @@ public class RTDP extends DynamicProgramming implements Planner{
 	public int getNumberOfBellmanUpdates(){
 		return this.numberOfBellmanUpdates;
 	}
+	
+	/**
+	 * Returns the total number of rollouts across all planning
+	 * @return the total number of rollouts across all planning
+	 */
+	public int getNumberOfRollouts(){
+		return this.numberOfRollouts;
+	}
 
 	/**
 	 * Plans from the input state and then returns a {@link burlap.behavior.policy.GreedyQPolicy} that greedily
@@ -207,6 +239,10 @@ public class RTDP extends DynamicProgramming implements Planner{
 	@Override
 	public GreedyQPolicy planFromState(State initialState) {
 		
+		long start = System.nanoTime();
+		int oldRollouts = this.numberOfRollouts;
+		int oldUpdates = this.numberOfBellmanUpdates;
+		
 		if(!useBatch){
 			this.normalRTDP(initialState);
 		}
@@ -214,10 +250,62 @@ public class RTDP extends DynamicProgramming implements Planner{
 			this.batchRTDP(initialState);
 		}
 
+		this.lastPlanningStatistics = new PlanningStatistics(this.numberOfRollouts - oldRollouts, this.numberOfBellmanUpdates - oldUpdates,
+				System.nanoTime() - start, PlanningDeadline.passed(this.planningDeadline));
+
 		return new GreedyQPolicy(this);
 
 	}
 	
+	
+	/**
+	 * Performs rollouts from the input state until the budget expires or the value function converges, ignoring the number
+	 * of rollouts, and then returns a {@link burlap.behavior.policy.GreedyQPolicy} that greedily selects the action with
+	 * the highest Q-value and breaks ties uniformly randomly. At least one rollout is performed.
+	 * @param initialState the initial state of the planning problem
+	 * @param budget the amount of time planning may take
+	 * @param unit the unit of the budget
+	 * @return a {@link burlap.behavior.policy.GreedyQPolicy}.
+	 */
+	@Override
+	public GreedyQPolicy planFromState(State initialState, long budget, TimeUnit unit) {
+		return PlanningDeadline.planFromState(this, initialState, budget, unit);
+	}
+
+
+	@Override
+	public PlanningStatistics getLastPlanningStatistics() {
+		return lastPlanningStatistics;
+	}
+
+
+
+	@Override
+	public PlanningDeadline getPlanningDeadline() {
+		return planningDeadline;
+	}
+
+
+	@Override
+	public void setPlanningDeadline(PlanningDeadline planningDeadline) {
+		this.planningDeadline = planningDeadline;
+	}
+	
+	
+	/**
+	 * Returns whether another rollout should be performed given the number already performed in this planning call.
+	 * @param rollouts the number of rollouts performed in this planning call
+	 * @return true if another rollout should be performed; false otherwise.
+	 */
+	protected boolean continuePlanning(int rollouts){
+		if(this.planningDeadline != null){
+			return this.planningDeadline.allowsMoreWork(rollouts);
+		}
+		return rollouts < this.numRollouts;
+	}
+	
+	
+	
 
 
 	
@@ -229,7 +317,7 @@ public class RTDP extends DynamicProgramming implements Planner{
 		
 		int totalStates = 0;
 		int consecutiveSmallDeltas = 0;
-		for(int i = 0; i < numRollouts; i++){
+		for(int i = 0; this.continuePlanning(i); i++){
 			
 			State curState = initialState;
 			int nSteps = 0;
@@ -253,6 +341,7 @@ public class RTDP extends DynamicProgramming implements Planner{
 			}
 			
 			totalStates += nSteps;
+			this.numberOfRollouts++;
 			
 			DPrint.cl(debugCode, "Pass: " + i + "; Num states: " + nSteps + " (total: " + totalStates + ")");
 			
@@ -281,7 +370,7 @@ public class RTDP extends DynamicProgramming implements Planner{
 		int totalStates = 0;
 		
 		int consecutiveSmallDeltas = 0;
-		for(int i = 0; i < numRollouts; i++){
+		for(int i = 0; this.continuePlanning(i); i++){
 			
 			Episode ea = PolicyUtils.rollout(rollOutPolicy, initialState, model, maxDepth);
 			LinkedList <HashableState> orderedStates = new LinkedList<HashableState>();
@@ -291,6 +380,7 @@ public class RTDP extends DynamicProgramming implements Planner{
 			
 			double delta = this.performOrderedBellmanUpdates(orderedStates);
 			totalStates += orderedStates.size();
+			this.numberOfRollouts++;
 			DPrint.cl(debugCode, "Pass: " + i + "; Num states: " + orderedStates.size() + " (total: " + totalStates + ")");
 			
 			if(delta < this.maxDelta){
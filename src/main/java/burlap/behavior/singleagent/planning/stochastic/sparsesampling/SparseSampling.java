@@ -5,7 +5,9 @@ import burlap.behavior.policy.Policy;
 import burlap.behavior.singleagent.MDPSolver;
 import burlap.behavior.singleagent.options.EnvironmentOptionOutcome;
 import burlap.behavior.singleagent.options.Option;
-import burlap.behavior.singleagent.planning.Planner;
+import burlap.behavior.singleagent.planning.AnytimePlanner;
+import burlap.behavior.singleagent.planning.PlanningDeadline;
+import burlap.behavior.singleagent.planning.PlanningStatistics;
 import burlap.behavior.singleagent.planning.stochastic.dpoperator.BellmanOperator;
 import burlap.behavior.singleagent.planning.stochastic.dpoperator.DPOperator;
 import burlap.behavior.valuefunction.ConstantValueFunction;
@@ -13,6 +15,8 @@ import burlap.behavior.valuefunction.QProvider;
 import burlap.behavior.valuefunction.QValue;
 import burlap.behavior.valuefunction.ValueFunction;
 import burlap.debugtools.DPrint;
+import burlap.debugtools.ParallelTasks;
+import burlap.debugtools.RandomFactory;
 import burlap.mdp.core.action.Action;
 import burlap.mdp.core.state.State;
 import burlap.mdp.singleagent.SADomain;
@@ -24,8 +28,12 @@ import burlap.statehashing.HashableStateFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * An implementation of the Sparse Sampling (SS) [1] planning algorithm. SS's computational complexity is independent of the state space size, which makes it appealing
@@ -45,6 +53,10 @@ import java.util.Map;
  * by the Q-value query methods if it does not have the Q-value for it) and it will also remember the value of state tree nodes it computed so that they may be reused in
  * subsequent tree creations, thereby limiting the amount of additional computation required. However, if memory is scarce, the class can be told to forget all prior planning
  * results, except the Q-value estimate for the most recently planned for state, by using the {@link #forgetPreviousPlanResults} method.
+ * Alternatively, the number of remembered tree nodes can be bounded with {@link #setMaxStateNodes(int)}, in which case the nodes of
+ * the lowest heights, which are the cheapest to recompute, are evicted first (see {@link TranspositionTable}).
+ * Between these extremes, the class can be told to reuse only the subtree of the state reached after each decision with
+ * {@link #setReuseSubtree(boolean)}, which is suited to planning from each state of a trajectory in turn.
  * <p>
  * By default, the C parameter (number of state transition samples) is fixed for all nodes; however, it may also be set to use a variable C that reduces the number
  * of sampled states the further down in the tree it is according to C_i = C_0 * gamma^(2i), where i is the depth of the node from the root and gamma is the discount
@@ -62,6 +74,14 @@ import java.util.Map;
  * all the model implements {@link burlap.mdp.singleagent.model.FullModel}). To set this class to compute the exact finite horizon value function, use the
  * {@link #setComputeExactValueFunction(boolean)} method. Note that you cannot use {@link Option}s when using the full Bellman update.
  * <p>
+ * With {@link #planFromState(State, long, TimeUnit)}, planning is anytime: trees of height 1, 2, ..., H are planned in turn
+ * until the budget expires, and the Q-values of the tallest completed tree are used. The tree being planned when the budget
+ * expires is abandoned, but the nodes it completed are kept and reused unless previous planning results are forgotten.
+ * <p>
+ * The root of each tree can be expanded on multiple threads with {@link #setParallelism(int)}, in which case the subtree of every
+ * sampled successor of every root action is estimated as a separate task. Tasks share the tree nodes, so a node sampled by several tasks is estimated once.
+ * The model's sampling must then be thread safe; each task installs its own {@link RandomFactory} (see {@link RandomFactory#setThreadFactory(RandomFactory)}).
+ * <p>
  * 
  * 
  * 1. Kearns, Michael, Yishay Mansour, and Andrew Y. Ng. "A sparse sampling algorithm for near-optimal planning in large Markov decision processes." 
@@ -71,7 +91,7 @@ import java.util.Map;
  * @author James MacGlashan
  *
  */
-public class SparseSampling extends MDPSolver implements QProvider, Planner {
+public class SparseSampling extends MDPSolver implements QProvider, AnytimePlanner, PlanningDeadline.DeadlinePlanner<GreedyQPolicy> {
 
 	/**
 	 * The height of the tree
@@ -93,6 +113,16 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 	 */
 	protected boolean forgetPreviousPlanResults = false;
 	
+	/**
+	 * Whether only the subtree of a successor of the previous root is kept when planning from that successor; default is false.
+	 */
+	protected boolean reuseSubtree = false;
+	
+	/**
+	 * The root node of the most recent planning call, when subtrees are reused
+	 */
+	protected StateNode lastRoot;
+	
 	/**
 	 * The state value used for leaf nodes; default is zero.
 	 */
@@ -109,7 +139,7 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 	/**
 	 * The tree nodes indexed by state and height.
 	 */
-	protected Map<HashedHeightState, StateNode> nodesByHeight;
+	protected TranspositionTable<StateNode> nodesByHeight;
 	
 	/**
 	 * The root state node Q-values that have been estimated by previous planning calls.
@@ -120,13 +150,43 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 	/**
 	 * The total number of pseudo-Bellman updates
 	 */
-	protected int numUpdates = 0;
+	protected volatile int numUpdates = 0;
+
+	/**
+	 * Atomically increments {@link #numUpdates} when the tree is expanded on multiple threads
+	 */
+	protected static final AtomicIntegerFieldUpdater<SparseSampling> updatesUpdater = AtomicIntegerFieldUpdater.newUpdater(SparseSampling.class, "numUpdates");
 
 	/**
 	 * The operator used for back ups.
 	 */
 	protected DPOperator operator = new BellmanOperator();
 
+	/**
+	 * The number of threads on which the root of a tree is expanded
+	 */
+	protected int parallelism = 1;
+
+	/**
+	 * The executor on which parallel expansion runs; if null, the {@link ParallelTasks#sharedExecutor()} is used.
+	 */
+	protected ExecutorService executor;
+
+	/**
+	 * The deadline of the current budgeted planning call; null if planning is not budgeted.
+	 */
+	protected PlanningDeadline planningDeadline = null;
+
+	/**
+	 * Whether the tree currently being planned should be abandoned when the deadline passes
+	 */
+	protected boolean abandonAtDeadline = false;
+
+	/**
+	 * The statistics of the most recent planning call
+	 */
+	protected PlanningStatistics lastPlanningStatistics;
+
 	
 	
 	/**
@@ -143,7 +203,7 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 		this.solverInit(domain, gamma, hashingFactory);
 		this.h = h;
 		this.c = c;
-		this.nodesByHeight = new HashMap<SparseSampling.HashedHeightState, SparseSampling.StateNode>();
+		this.nodesByHeight = new TranspositionTable<StateNode>();
 		this.rootLevelQValues = new HashMap<HashableState, List<QValue>>();
 		if(this.c < 0){
 			this.computeExactValueFunction = true;
@@ -253,6 +313,89 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 		}
 	}
 	
+	/**
+	 * Returns whether only the subtree of a successor of the previous root is kept when planning from that successor.
+	 * @return true if subtrees are reused; false otherwise.
+	 */
+	public boolean isReuseSubtree(){
+		return this.reuseSubtree;
+	}
+	
+	/**
+	 * Sets whether only the subtree of a successor of the previous root is kept when planning from that successor. If true, each
+	 * node records the successor nodes sampled from it, and when planning from a state that was sampled as a successor of the
+	 * previous root, the nodes reachable from its node are kept and all other nodes and root Q-values are discarded. When planning
+	 * from any other state, all nodes are discarded. This bounds memory to the tree of the current decision while reusing the node
+	 * values of the previous tree that are still reachable. It has no effect if previous planning results are forgotten.
+	 * @param reuseSubtree if true, then only the subtree of the successor of the previous root will be reused.
+	 */
+	public void setReuseSubtree(boolean reuseSubtree){
+		this.reuseSubtree = reuseSubtree;
+		this.lastRoot = null;
+	}
+	
+	/**
+	 * Returns the maximum number of tree nodes that are remembered.
+	 * @return the maximum number of tree nodes that are remembered, or -1 if there is no maximum
+	 */
+	public int getMaxStateNodes(){
+		return this.nodesByHeight.getMaxSize();
+	}
+	
+	/**
+	 * Sets the maximum number of tree nodes that are remembered, within and between planning calls. When the maximum is exceeded,
+	 * the least recently used nodes of the lowest height are evicted and are estimated again if they are sampled again. The Q-values of
+	 * planned root states are not counted. Note that when subtrees are reused, nodes also hold their sampled successors,
+	 * so evicted nodes are only released once no remembered node sampled them.
+	 * @param maxStateNodes the maximum number of tree nodes, or -1 for no maximum (the default)
+	 */
+	public void setMaxStateNodes(int maxStateNodes){
+		this.nodesByHeight.setMaxSize(maxStateNodes);
+	}
+	
+	/**
+	 * Returns the {@link TranspositionTable} in which tree nodes are remembered.
+	 * @return the {@link TranspositionTable} in which tree nodes are remembered
+	 */
+	public TranspositionTable<StateNode> getTranspositionTable(){
+		return this.nodesByHeight;
+	}
+	
+	/**
+	 * Returns the number of threads on which the root of a tree is expanded.
+	 * @return the number of threads on which the root of a tree is expanded
+	 */
+	public int getParallelism(){
+		return this.parallelism;
+	}
+	
+	/**
+	 * Sets the number of threads on which the root of a tree is expanded. A value of 1 (the default) plans on the calling thread.
+	 * @param parallelism the number of threads on which the root of a tree is expanded
+	 */
+	public void setParallelism(int parallelism){
+		if(parallelism < 1){
+			throw new RuntimeException("SparseSampling parallelism must be at least 1; provided " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+	
+	/**
+	 * Returns the executor on which parallel expansion runs.
+	 * @return the executor on which parallel expansion runs
+	 */
+	public ExecutorService getExecutor(){
+		return this.executor != null ? this.executor : ParallelTasks.sharedExecutor();
+	}
+	
+	/**
+	 * Sets the executor on which parallel expansion runs. By default, the {@link ParallelTasks#sharedExecutor()} is used.
+	 * @param executor the executor on which parallel expansion runs, or null to use the shared executor
+	 */
+	public void setExecutor(ExecutorService executor){
+		this.executor = executor;
+	}
+	
 	/**
 	 * Sets the {@link ValueFunction} object to use for settting the value of leaf nodes.
 	 * @param vinit the {@link ValueFunction} object to use for settting the value of leaf nodes.
@@ -313,20 +456,36 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 	@Override
 	public GreedyQPolicy planFromState(State initialState) {
 		
+		long start = System.nanoTime();
 		if(this.forgetPreviousPlanResults){
 			this.rootLevelQValues.clear();
 		}
 		
 		HashableState sh = this.hashingFactory.hashState(initialState);
-		if(this.rootLevelQValues.containsKey(sh)){
+		if(this.planningDeadline == null && this.rootLevelQValues.containsKey(sh)){
+			this.lastPlanningStatistics = new PlanningStatistics(0, 0, System.nanoTime() - start, false);
 			return new GreedyQPolicy(this); //already planned for this state
 		}
 		
 		DPrint.cl(this.debugCode, "Beginning Planning.");
 		int oldUpdates = this.numUpdates;
 		
-		StateNode sn = this.getStateNode(initialState, this.h);
-		rootLevelQValues.put(sh, sn.estimateQs());
+		if(this.reuseSubtree && !this.forgetPreviousPlanResults){
+			this.retainSubtreeOf(sh);
+		}
+		
+		int height = this.h;
+		if(this.planningDeadline == null){
+			StateNode sn = this.getStateNode(initialState, this.h);
+			rootLevelQValues.put(sh, this.estimateRootQs(sn));
+		}
+		else{
+			height = this.deepenUntilDeadline(initialState, sh);
+		}
+		if(this.reuseSubtree){
+			this.lastRoot = this.nodesByHeight.get(new HashedHeightState(sh, height));
+		}
+		this.lastPlanningStatistics = new PlanningStatistics(height, this.numUpdates - oldUpdates, System.nanoTime() - start, PlanningDeadline.passed(this.planningDeadline));
 		
 		DPrint.cl(this.debugCode, "Finished Planning with " + (this.numUpdates - oldUpdates) + " value esitmates; for a cumulative total of: " + this.numUpdates);
 		
@@ -339,10 +498,179 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 
 	}
 
+	/**
+	 * Plans trees of height 1, 2, ..., H from the input state until the budget expires and then returns a {@link burlap.behavior.policy.GreedyQPolicy}
+	 * that greedily selects the action with the highest Q-value of the tallest completed tree and breaks ties uniformly randomly.
+	 * The tree of height 1 is always completed. Any previously planned Q-values for the state are replaced.
+	 * @param initialState the initial state of the planning problem
+	 * @param budget the amount of time planning may take
+	 * @param unit the unit of the budget
+	 * @return a {@link burlap.behavior.policy.GreedyQPolicy}.
+	 */
+	@Override
+	public GreedyQPolicy planFromState(State initialState, long budget, TimeUnit unit) {
+		return PlanningDeadline.planFromState(this, initialState, budget, unit);
+	}
+
+
+	@Override
+	public PlanningStatistics getLastPlanningStatistics() {
+		return lastPlanningStatistics;
+	}
+
+
+
+	@Override
+	public PlanningDeadline getPlanningDeadline() {
+		return planningDeadline;
+	}
+
+
+	@Override
+	public void setPlanningDeadline(PlanningDeadline planningDeadline) {
+		this.planningDeadline = planningDeadline;
+	}
+
+
+	/**
+	 * Plans trees of increasing height from the input state until the deadline passes or the tree of height H is completed,
+	 * storing the root Q-values of each completed tree.
+	 * @param initialState the initial state of the planning problem
+	 * @param sh the hashed initial state
+	 * @return the height of the tallest completed tree
+	 */
+	protected int deepenUntilDeadline(State initialState, HashableState sh){
+
+		int maxHeight = this.h;
+		int completed = 0;
+		try {
+			for(int height = Math.min(1, maxHeight); height <= maxHeight; height++){
+				StateNode sn = this.getStateNode(initialState, height);
+				rootLevelQValues.put(sh, this.estimateRootQs(sn));
+				completed = height;
+				if(!this.planningDeadline.allowsMoreWork(completed)){
+					break;
+				}
+				this.abandonAtDeadline = true;
+			}
+		} catch(DeadlinePassedException e){
+			//keep the Q-values of the tallest completed tree
+		} finally {
+			this.abandonAtDeadline = false;
+		}
+
+		return completed;
+
+	}
+
+
+	/**
+	 * Estimates the Q-values of the root node of a tree, on multiple threads if the parallelism is greater than 1. In parallel, each
+	 * sampled successor of each action (or, when the exact value function is computed, each action) is estimated as a separate task.
+	 * @param root the root node of the tree
+	 * @return a {@link List} of the estimated Q-values for each action.
+	 */
+	protected List<QValue> estimateRootQs(final StateNode root){
+
+		if(this.parallelism <= 1 || root.height <= 0){
+			return root.estimateQs();
+		}
+
+		final List<Action> gas = this.applicableActions(root.sh.s());
+		final int nSamples = this.computeExactValueFunction ? 1 : this.getCAtHeight(root.height);
+		final double [][] backups = new double[gas.size()][nSamples];
+		final long seed = RandomFactory.getMapped(0).nextLong();
+
+		List<Runnable> tasks = new ArrayList<Runnable>(gas.size() * nSamples);
+		for(int i = 0; i < gas.size(); i++){
+			final int actionIndex = i;
+			for(int j = 0; j < nSamples; j++){
+				final int sample = j;
+				tasks.add(new Runnable() {
+					@Override
+					public void run() {
+						RandomFactory.setThreadFactory(new RandomFactory(RandomFactory.mixSeed(seed, (long)actionIndex * nSamples + sample)));
+						try {
+							Action ga = gas.get(actionIndex);
+							backups[actionIndex][sample] = computeExactValueFunction ? root.exactQValue(ga) : root.sampledBackup(ga);
+						} finally {
+							RandomFactory.setThreadFactory(null);
+						}
+					}
+				});
+			}
+		}
+
+		//a DeadlinePassedException thrown by a task is rethrown as is, abandoning the tree
+		ParallelTasks.runAll(this.getExecutor(), this.parallelism, tasks);
+
+		List<QValue> qs = new ArrayList<QValue>(gas.size());
+		for(int i = 0; i < gas.size(); i++){
+			double sum = 0.;
+			for(int j = 0; j < nSamples; j++){
+				sum += backups[i][j];
+			}
+			qs.add(new QValue(root.sh.s(), gas.get(i), sum / (double)nSamples));
+		}
+
+		return qs;
+
+	}
+
+
+
+	/**
+	 * Keeps only the nodes reachable from the node of the given state among the successors of the previous root, and the
+	 * root Q-values of the state, discarding all other nodes and root Q-values. If the state was not sampled as a successor of
+	 * the previous root, all nodes and root Q-values are discarded.
+	 * @param sh the hashed state from which planning will begin
+	 */
+	protected void retainSubtreeOf(HashableState sh){
+
+		StateNode newRoot = null;
+		if(this.lastRoot != null && this.lastRoot.children != null){
+			for(StateNode child : this.lastRoot.children){
+				if(child.sh.equals(sh) && (newRoot == null || child.height > newRoot.height)){
+					newRoot = child;
+				}
+			}
+		}
+
+		List<QValue> rootQs = this.rootLevelQValues.get(sh);
+		this.rootLevelQValues.clear();
+		if(rootQs != null){
+			this.rootLevelQValues.put(sh, rootQs);
+		}
+
+		this.nodesByHeight.clear();
+		if(newRoot == null){
+			return;
+		}
+
+		LinkedList<StateNode> openList = new LinkedList<StateNode>();
+		this.nodesByHeight.put(new HashedHeightState(newRoot.sh, newRoot.height), newRoot);
+		openList.add(newRoot);
+		while(!openList.isEmpty()){
+			StateNode sn = openList.poll();
+			if(sn.children == null){
+				continue;
+			}
+			for(StateNode child : sn.children){
+				HashedHeightState hhs = new HashedHeightState(child.sh, child.height);
+				if(!this.nodesByHeight.containsKey(hhs)){
+					this.nodesByHeight.put(hhs, child);
+					openList.add(child);
+				}
+			}
+		}
+
+	}
+
 	@Override
 	public void resetSolver() {
 		this.nodesByHeight.clear();
 		this.rootLevelQValues.clear();
+		this.lastRoot = null;
 		this.numUpdates = 0;
 	}
 	
@@ -426,8 +754,11 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 		HashedHeightState hhs = new HashedHeightState(sh, height);
 		StateNode sn = this.nodesByHeight.get(hhs);
 		if(sn == null){
-			sn = new StateNode(sh, height);
-			this.nodesByHeight.put(hhs, sn);
+			StateNode created = new StateNode(sh, height);
+			sn = this.nodesByHeight.putIfAbsent(hhs, created);
+			if(sn == null){
+				sn = created;
+			}
 		}
 		
 		return sn;
@@ -436,6 +767,8 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 	
 	/**
 	 * A class for state nodes. Includes the state, a value estimate, whether the node has been closed and methods for estimating the Q and V values.
+	 * The value of a node is estimated while holding its lock, so that threads expanding a tree in parallel estimate it once; since successors
+	 * always have a lower height, locks are acquired in order of decreasing height and cannot deadlock.
 	 * @author James MacGlashan
 	 *
 	 */
@@ -461,6 +794,11 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 		 */
 		boolean closed = false;
 		
+		/**
+		 * The successor nodes sampled from this node; only recorded when subtrees are reused
+		 */
+		List<StateNode> children;
+		
 		
 		/**
 		 * Creates a node for the given hased state at the given height
@@ -512,23 +850,7 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 			//generate C samples
 			int c = SparseSampling.this.getCAtHeight(this.height);
 			for(int i = 0; i < c; i++){
-				
-				//execute
-				EnvironmentOutcome eo = model.sample(sh.s(), ga);
-				State ns = eo.op;
-				
-				//manage option stepsize modifications
-				int k = 1;
-				if(ga instanceof Option){
-					k = ((EnvironmentOptionOutcome)ga).numSteps();
-				}
-				
-				//get reward; our rf will automatically do cumumative discounted if it's an option
-				double r = eo.r;
-				
-				StateNode nsn = SparseSampling.this.getStateNode(ns, this.height-k);
-				
-				sum += r + Math.pow(SparseSampling.this.gamma, k)*nsn.estimateV();
+				sum += this.sampledBackup(ga);
 			}
 			sum /= (double)c;
 			
@@ -536,6 +858,33 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 		}
 		
 		
+		/**
+		 * Samples one outcome of the action and returns its reward plus the discounted value estimate of its successor node.
+		 * @param ga the action to sample
+		 * @return the sampled one step backup
+		 */
+		protected double sampledBackup(Action ga){
+			
+			//execute
+			EnvironmentOutcome eo = model.sample(sh.s(), ga);
+			State ns = eo.op;
+			
+			//manage option stepsize modifications
+			int k = 1;
+			if(ga instanceof Option){
+				k = ((EnvironmentOptionOutcome)ga).numSteps();
+			}
+			
+			//get reward; our rf will automatically do cumumative discounted if it's an option
+			double r = eo.r;
+			
+			StateNode nsn = SparseSampling.this.getStateNode(ns, this.height-k);
+			this.addChild(nsn);
+			
+			return r + Math.pow(SparseSampling.this.gamma, k)*nsn.estimateV();
+		}
+		
+		
 		/**
 		 * Computes the exact Q-value using full Bellman update with the actual transition dynamics. This procedure will cause Sparse Sampling
 		 * to compute the exact Q-values and optimal policy for a finite horizon problem. It is recommended when the number of transitions from
@@ -554,6 +903,7 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 					
 					double r = tp.eo.r;
 					StateNode nsn = SparseSampling.this.getStateNode(tp.eo.op, this.height-1);
+					this.addChild(nsn);
 					sum += tp.p * (r + SparseSampling.this.gamma * nsn.estimateV());
 					
 				}
@@ -570,11 +920,28 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 		
 		
 		
+		/**
+		 * Records a successor node sampled from this node if subtrees are reused.
+		 * @param child the successor node
+		 */
+		protected synchronized void addChild(StateNode child){
+			if(!SparseSampling.this.reuseSubtree){
+				return;
+			}
+			if(this.children == null){
+				this.children = new ArrayList<StateNode>();
+			}
+			if(!this.children.contains(child)){
+				this.children.add(child);
+			}
+		}
+		
+		
 		/**
 		 * Returns the estimated Q-value if this node is closed, or estimates it and closes it otherwise.
 		 * @return the estimated Q-value for this node.
 		 */
-		public double estimateV(){
+		public synchronized double estimateV(){
 			if(this.closed){
 				return this.v;
 			}
@@ -585,13 +952,17 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 				return this.v;
 			}
 			
+			if(SparseSampling.this.abandonAtDeadline && PlanningDeadline.passed(SparseSampling.this.planningDeadline)){
+				throw new DeadlinePassedException();
+			}
+			
 			
 			List<QValue> Qs = this.estimateQs();
 			double [] qs = new double[Qs.size()];
 			for(int i = 0; i < Qs.size(); i++){
 				qs[i] = Qs.get(i).q;
 			}
-			SparseSampling.this.numUpdates++;
+			updatesUpdater.incrementAndGet(SparseSampling.this);
 			this.v = operator.apply(qs);
 			this.closed = true;
 			return this.v;
@@ -600,6 +971,20 @@ public class SparseSampling extends MDPSolver implements QProvider, Planner {
 	}
 	
 	
+	/**
+	 * Thrown to abandon the tree being planned when the deadline of budgeted planning passes. It carries no stack trace.
+	 */
+	protected static class DeadlinePassedException extends RuntimeException{
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+	
+	
 	/**
 	 * Tuple for a state and its height in a tree that can be hashed for quick retrieval.
 	 * @author James MacGlashan
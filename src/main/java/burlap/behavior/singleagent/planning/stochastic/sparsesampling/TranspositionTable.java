@@ -0,0 +1,190 @@
+package burlap.behavior.singleagent.planning.stochastic.sparsesampling;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A table of sparse sampling tree nodes indexed by their state and height ({@link SparseSampling.HashedHeightState}), which may
+ * be bounded in size. When adding a node makes the table exceed its bound, nodes are evicted from the lowest height in the table first,
+ * because a node's subtree, and so the cost of recomputing it, shrinks exponentially with its height; among nodes of the same height,
+ * the least recently used node is evicted first. An evicted node is simply recomputed if it is needed again. By default the table is unbounded.
+ * <p>
+ * All methods are synchronized, so the table may be shared by threads that plan in parallel.
+ * @param <N> the type of the tree nodes
+ */
+public class TranspositionTable<N> {
+
+	/**
+	 * The maximum number of nodes; -1 for no maximum
+	 */
+	protected int maxSize = -1;
+
+	/**
+	 * The nodes of each height, in least recently used order
+	 */
+	protected TreeMap<Integer, LinkedHashMap<SparseSampling.HashedHeightState, N>> nodesByHeight = new TreeMap<Integer, LinkedHashMap<SparseSampling.HashedHeightState, N>>();
+
+	/**
+	 * The number of nodes in the table
+	 */
+	protected int size = 0;
+
+	/**
+	 * The number of nodes evicted since the table was created or cleared
+	 */
+	protected int numEvictions = 0;
+
+
+	/**
+	 * Initializes an unbounded table.
+	 */
+	public TranspositionTable() {
+	}
+
+
+	/**
+	 * Initializes a table bounded to the given number of nodes.
+	 * @param maxSize the maximum number of nodes, or -1 for no maximum
+	 */
+	public TranspositionTable(int maxSize) {
+		this.setMaxSize(maxSize);
+	}
+
+
+	/**
+	 * Returns the maximum number of nodes in the table.
+	 * @return the maximum number of nodes, or -1 if there is no maximum
+	 */
+	public synchronized int getMaxSize() {
+		return maxSize;
+	}
+
+
+	/**
+	 * Sets the maximum number of nodes in the table, evicting nodes if it currently holds more.
+	 * @param maxSize the maximum number of nodes, or -1 for no maximum
+	 */
+	public synchronized void setMaxSize(int maxSize) {
+		if(maxSize < 1 && maxSize != -1){
+			throw new RuntimeException("TranspositionTable maximum size must be at least 1, or -1 for no maximum; provided " + maxSize);
+		}
+		this.maxSize = maxSize;
+		this.evictToMaxSize();
+	}
+
+
+	/**
+	 * Returns the node of the given state and height, marking it as recently used.
+	 * @param key the state and height of the node
+	 * @return the node, or null if the table does not contain it
+	 */
+	public synchronized N get(SparseSampling.HashedHeightState key){
+		LinkedHashMap<SparseSampling.HashedHeightState, N> nodes = this.nodesByHeight.get(key.height);
+		if(nodes == null){
+			return null;
+		}
+		return nodes.get(key);
+	}
+
+
+	/**
+	 * Returns whether the table contains a node for the given state and height.
+	 * @param key the state and height of the node
+	 * @return true if the table contains the node; false otherwise
+	 */
+	public synchronized boolean containsKey(SparseSampling.HashedHeightState key){
+		LinkedHashMap<SparseSampling.HashedHeightState, N> nodes = this.nodesByHeight.get(key.height);
+		return nodes != null && nodes.containsKey(key);
+	}
+
+
+	/**
+	 * Stores the node of the given state and height, replacing any node already stored for it, and evicts nodes if
+	 * the table exceeds its maximum size.
+	 * @param key the state and height of the node
+	 * @param node the node
+	 * @return the node previously stored for the state and height, or null if there was none
+	 */
+	public synchronized N put(SparseSampling.HashedHeightState key, N node){
+		LinkedHashMap<SparseSampling.HashedHeightState, N> nodes = this.nodesByHeight.get(key.height);
+		if(nodes == null){
+			nodes = new LinkedHashMap<SparseSampling.HashedHeightState, N>(16, 0.75f, true);
+			this.nodesByHeight.put(key.height, nodes);
+		}
+		N old = nodes.put(key, node);
+		if(old == null){
+			this.size++;
+			this.evictToMaxSize();
+		}
+		return old;
+	}
+
+
+	/**
+	 * Stores the node of the given state and height if the table does not already contain one, evicting nodes if
+	 * the table exceeds its maximum size.
+	 * @param key the state and height of the node
+	 * @param node the node
+	 * @return the node already stored for the state and height, or null if there was none and the given node was stored
+	 */
+	public synchronized N putIfAbsent(SparseSampling.HashedHeightState key, N node){
+		N existing = this.get(key);
+		if(existing != null){
+			return existing;
+		}
+		this.put(key, node);
+		return null;
+	}
+
+
+	/**
+	 * Returns the number of nodes in the table.
+	 * @return the number of nodes in the table
+	 */
+	public synchronized int size(){
+		return this.size;
+	}
+
+
+	/**
+	 * Returns the number of nodes that have been evicted since the table was created or cleared.
+	 * @return the number of evicted nodes
+	 */
+	public synchronized int getNumEvictions(){
+		return this.numEvictions;
+	}
+
+
+	/**
+	 * Removes all nodes from the table.
+	 */
+	public synchronized void clear(){
+		this.nodesByHeight.clear();
+		this.size = 0;
+		this.numEvictions = 0;
+	}
+
+
+	/**
+	 * Evicts least recently used nodes of the lowest height until the table does not exceed its maximum size.
+	 */
+	protected void evictToMaxSize(){
+		if(this.maxSize == -1){
+			return;
+		}
+		while(this.size > this.maxSize){
+			Map.Entry<Integer, LinkedHashMap<SparseSampling.HashedHeightState, N>> lowest = this.nodesByHeight.firstEntry();
+			Iterator<N> it = lowest.getValue().values().iterator();
+			it.next();
+			it.remove();
+			this.size--;
+			this.numEvictions++;
+			if(lowest.getValue().isEmpty()){
+				this.nodesByHeight.remove(lowest.getKey());
+			}
+		}
+	}
+
+}
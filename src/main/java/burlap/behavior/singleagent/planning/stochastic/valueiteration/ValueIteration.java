@@ -2,7 +2,9 @@ package burlap.behavior.singleagent.planning.stochastic.valueiteration;
 
 import burlap.behavior.policy.GreedyQPolicy;
 import burlap.behavior.singleagent.planning.Planner;
+import burlap.behavior.singleagent.planning.stochastic.CompiledTransitionModel;
 import burlap.behavior.singleagent.planning.stochastic.DynamicProgramming;
+import burlap.behavior.singleagent.planning.stochastic.dpoperator.DPOperator;
 import burlap.debugtools.DPrint;
 import burlap.mdp.core.action.Action;
 import burlap.mdp.core.state.State;
@@ -27,6 +29,12 @@ import java.util.Set;
  * that VI does not pass over non-reachable states.
  * 
  * This implementation is compatible with options.
+ * <p>
+ * For large state spaces, VI can be set to use a compiled model with {@link #toggleCompiledModel(boolean)}. In compiled mode,
+ * the reachable states are frozen into a {@link CompiledTransitionModel} with int state ids and primitive transition
+ * arrays, and the sweeps are performed over a double array, which avoids state hashing and calls to the model on every
+ * backup. The resulting values are written back to the value function table so that the results are still available
+ * through the {@link burlap.behavior.valuefunction.ValueFunction} and {@link burlap.behavior.valuefunction.QProvider} methods.
  * 
  * 
  * @author James MacGlashan
@@ -61,6 +69,18 @@ public class ValueIteration extends DynamicProgramming implements Planner {
 	
 	
 	protected boolean												hasRunVI = false;
+
+
+	/**
+	 * Whether VI sweeps should be performed over a {@link CompiledTransitionModel} of the reachable states.
+	 */
+	protected boolean												useCompiledModel = false;
+
+
+	/**
+	 * The compiled model of the reachable states; null until compiled mode VI is run and reset whenever the reachable states change.
+	 */
+	protected CompiledTransitionModel								compiledModel;
 	
 	
 	/**
@@ -99,6 +119,28 @@ public class ValueIteration extends DynamicProgramming implements Planner {
 	}
 
 
+	/**
+	 * Sets whether VI should compile the reachable states into a {@link CompiledTransitionModel} and perform its sweeps
+	 * over primitive arrays. Compiling requires one additional pass over the transition dynamics of every reachable state
+	 * and memory for the transition dynamics, but each subsequent sweep does not need to hash states or query the model.
+	 * The default is false.
+	 * @param toggle true if VI should use a compiled model; false otherwise.
+	 */
+	public void toggleCompiledModel(boolean toggle){
+		this.useCompiledModel = toggle;
+	}
+
+
+	/**
+	 * Returns the compiled model of the reachable states used by the last compiled mode VI run, or null if it has not been compiled
+	 * or the reachable states have since changed.
+	 * @return the {@link CompiledTransitionModel} of the reachable states, or null if there is not one
+	 */
+	public CompiledTransitionModel getCompiledModel(){
+		return this.compiledModel;
+	}
+
+
 	/**
 	 * Plans from the input state and then returns a {@link burlap.behavior.policy.GreedyQPolicy} that greedily
 	 * selects the action with the highest Q-value and breaks ties uniformly randomly.
@@ -119,6 +161,7 @@ public class ValueIteration extends DynamicProgramming implements Planner {
 		super.resetSolver();
 		this.foundReachableStates = false;
 		this.hasRunVI = false;
+		this.compiledModel = null;
 	}
 	
 	/**
@@ -132,20 +175,18 @@ public class ValueIteration extends DynamicProgramming implements Planner {
 		if(!this.foundReachableStates){
 			throw new RuntimeException("Cannot run VI until the reachable states have been found. Use the planFromState or performReachabilityFrom method at least once before calling runVI.");
 		}
+
+		if(this.useCompiledModel){
+			this.runCompiledVI();
+			return;
+		}
 		
-		Set <HashableState> states = valueFunction.keySet();
+		HashableState [] states = this.sweepStates();
 		
 		int i;
 		for(i = 0; i < this.maxIterations; i++){
 			
-			double delta = 0.;
-			for(HashableState sh : states){
-				
-				double v = this.value(sh);
-				double maxQ = this.performBellmanUpdateOn(sh);
-				delta = Math.max(Math.abs(maxQ - v), delta);
-				
-			}
+			double delta = this.bellmanSweep(states);
 			
 			if(delta < this.maxDelta){
 				break; //approximated well enough; stop iterating
@@ -160,6 +201,73 @@ public class ValueIteration extends DynamicProgramming implements Planner {
 	}
 	
 	
+	/**
+	 * Runs VI over a {@link CompiledTransitionModel} of the reachable states, compiling it first if necessary. Sweeps
+	 * respect the sweep parallelism and {@link burlap.behavior.singleagent.planning.stochastic.DynamicProgramming.SweepMode}; in
+	 * {@link burlap.behavior.singleagent.planning.stochastic.DynamicProgramming.SweepMode#GAUSS_SEIDEL} mode states are updated in
+	 * place in the same order as {@link #runVI()}. The results are written back to the value function table.
+	 */
+	protected void runCompiledVI(){
+
+		if(this.compiledModel == null){
+			DPrint.cl(this.debugCode, "Compiling transition dynamics");
+			this.compiledModel = new CompiledTransitionModel(this.valueFunction.keySet(), (FullModel)this.model, this.actionTypes, this.hashingFactory);
+			DPrint.cl(this.debugCode, "Finished compiling; # state-actions: " + this.compiledModel.numStateActions() + "; # transitions: " + this.compiledModel.numTransitions());
+		}
+
+		final CompiledTransitionModel cm = this.compiledModel;
+		final double gamma = this.gamma;
+		final DPOperator operator = this.operator;
+		final boolean jacobi = this.sweepMode == SweepMode.JACOBI;
+
+		int n = cm.numStates();
+		double [] v = new double[n];
+		for(int j = 0; j < n; j++){
+			v[j] = cm.isTerminal(j) ? 0. : this.value(cm.state(j));
+		}
+		double [] nv = jacobi ? v.clone() : v;
+
+		int i;
+		for(i = 0; i < this.maxIterations; i++){
+
+			final double [] src = v;
+			final double [] dst = nv;
+			double delta = this.runPartitioned(n, new RangeTask() {
+				@Override
+				public double run(int start, int end) {
+					double [][] qBuffers = cm.newQBuffers();
+					double delta = 0.;
+					for(int j = start; j < end; j++){
+						double prev = src[j];
+						double nv = cm.bellmanUpdate(j, src, gamma, operator, qBuffers);
+						delta = Math.max(Math.abs(nv - prev), delta);
+						dst[j] = nv;
+					}
+					return delta;
+				}
+			});
+
+			//swap buffers; in Gauss-Seidel mode they are the same array
+			v = dst;
+			nv = src;
+
+			if(delta < this.maxDelta){
+				break; //approximated well enough; stop iterating
+			}
+
+		}
+
+		for(int j = 0; j < cm.numSourceStates(); j++){
+			this.valueFunction.put(cm.state(j), v[j]);
+		}
+
+		DPrint.cl(this.debugCode, "Passes: " + i);
+
+		this.hasRunVI = true;
+
+	}
+	
+	
 	/**
 	 * This method will find all reachable states that will be used by the {@link #runVI()} method and will cache all the transition dynamics.
 	 * This method will not do anything if all reachable states from the input state have been discovered from previous calls to this method.
@@ -220,6 +328,7 @@ public class ValueIteration extends DynamicProgramming implements Planner {
 		
 		this.foundReachableStates = true;
 		this.hasRunVI = false;
+		this.compiledModel = null;
 		
 		return true;
 		
@@ -7,6 +7,7 @@ import burlap.behavior.singleagent.planning.Planner;
 import burlap.behavior.singleagent.planning.stochastic.sparsesampling.SparseSampling;
 import burlap.behavior.valuefunction.*;
 import burlap.debugtools.DPrint;
+import burlap.debugtools.ParallelTasks;
 import burlap.mdp.core.action.Action;
 import burlap.mdp.core.state.State;
 import burlap.mdp.singleagent.SADomain;
@@ -14,6 +15,7 @@ import burlap.statehashing.simple.SimpleHashableStateFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  * A class for performing Fitted Value Iteration [1]. This is a variant of value iteration that takes a set of
@@ -39,6 +41,12 @@ import java.util.List;
  * the depth used to return the Q-values). See the {@link #setPlanningDepth(int)}, {@link #setControlDepth(int)}, and
  * {@link #setPlanningAndControlDepth(int)} methods for controlling the depth. By default, the depth will be 1.
  *
+ * <p>
+ * The Bellman targets of the state samples can be computed on multiple threads with {@link #setIterationParallelism(int)}.
+ * Each thread uses its own {@link burlap.behavior.singleagent.planning.stochastic.sparsesampling.SparseSampling} instance,
+ * and the targets are merged in sample order before the value function is trained, so the model and the current value
+ * function approximation must be safe to query from multiple threads.
+ *
  *
  *
  * <p>
@@ -108,6 +116,17 @@ public class FittedVI extends MDPSolver implements ValueFunction, QProvider, Pla
 	protected double maxDelta;
 
 
+	/**
+	 * The number of threads used to compute the Bellman targets of the state samples in each iteration.
+	 */
+	protected int iterationParallelism = 1;
+
+	/**
+	 * The executor on which Bellman targets are computed in parallel; if null, the {@link ParallelTasks#sharedExecutor()} is used.
+	 */
+	protected ExecutorService iterationExecutor;
+
+
 	/**
 	 * Initializes. Note that you will need to set the state samples to use for planning with the {@link #setSamples(java.util.List)} method before
 	 * calling {@link #planFromState(State)}, {@link #runIteration()}, or {@link #runVI()}, otherwise a runtime exception
@@ -238,6 +257,47 @@ public class FittedVI extends MDPSolver implements ValueFunction, QProvider, Pla
 	}
 
 
+	/**
+	 * Returns the number of threads used to compute the Bellman targets of the state samples in each iteration.
+	 * @return the number of threads used to compute the Bellman targets
+	 */
+	public int getIterationParallelism() {
+		return iterationParallelism;
+	}
+
+
+	/**
+	 * Sets the number of threads used to compute the Bellman targets of the state samples in each iteration. A value of 1
+	 * (the default) computes them on the calling thread. When greater than 1, the model and the value function approximation
+	 * produced by the {@link SupervisedVFA} must be safe to query from multiple threads.
+	 * @param iterationParallelism the number of threads used to compute the Bellman targets
+	 */
+	public void setIterationParallelism(int iterationParallelism) {
+		if(iterationParallelism < 1){
+			throw new RuntimeException("Iteration parallelism must be at least 1; provided " + iterationParallelism);
+		}
+		this.iterationParallelism = iterationParallelism;
+	}
+
+
+	/**
+	 * Returns the executor on which Bellman targets are computed in parallel.
+	 * @return the executor on which Bellman targets are computed in parallel
+	 */
+	public ExecutorService getIterationExecutor() {
+		return iterationExecutor != null ? iterationExecutor : ParallelTasks.sharedExecutor();
+	}
+
+
+	/**
+	 * Sets the executor on which Bellman targets are computed in parallel. By default, the {@link ParallelTasks#sharedExecutor()} is used.
+	 * @param iterationExecutor the executor on which Bellman targets are computed in parallel, or null to use the shared executor
+	 */
+	public void setIterationExecutor(ExecutorService iterationExecutor) {
+		this.iterationExecutor = iterationExecutor;
+	}
+
+
 	/**
 	 * Runs value iteration. Note that if the state samples have not been set, it will throw a runtime exception.
 	 */
@@ -262,24 +322,40 @@ public class FittedVI extends MDPSolver implements ValueFunction, QProvider, Pla
 			throw new RuntimeException("FittedVI cannot run value iteration because the state samples have not been set. Use the setSamples method or the constructor to set them.");
 		}
 
-		SparseSampling ss = new SparseSampling(this.domain, this.gamma, this.hashingFactory, this.planningDepth, this.transitionSamples);
-		ss.setModel(this.model);
-		ss.setValueForLeafNodes(this.leafNodeInit);
-		ss.toggleDebugPrinting(false);
+		int n = this.samples.size();
+		final SupervisedVFA.SupervisedVFAInstance [] targets = new SupervisedVFA.SupervisedVFAInstance[n];
+		final double [] oldVs = new double[n];
+		int nChunks = Math.min(n, this.iterationParallelism);
+		if(nChunks <= 1){
+			this.computeTargets(targets, oldVs, 0, n);
+		}
+		else{
+			List<Runnable> chunks = new ArrayList<Runnable>(nChunks);
+			for(int c = 0; c < nChunks; c++){
+				final int start = n * c / nChunks;
+				final int end = n * (c+1) / nChunks;
+				chunks.add(new Runnable() {
+					@Override
+					public void run() {
+						computeTargets(targets, oldVs, start, end);
+					}
+				});
+			}
 
-		List <SupervisedVFA.SupervisedVFAInstance> instances = new ArrayList<SupervisedVFA.SupervisedVFAInstance>(this.samples.size());
-		List <Double> oldVs = new ArrayList<Double>(this.samples.size());
-		for(State s : this.samples){
-			oldVs.add(this.valueFunction.value(s));
-			instances.add(new SupervisedVFA.SupervisedVFAInstance(s, Helper.maxQ(ss, s)));
+			ParallelTasks.runAll(this.getIterationExecutor(), this.iterationParallelism, chunks);
+		}
+
+		List <SupervisedVFA.SupervisedVFAInstance> instances = new ArrayList<SupervisedVFA.SupervisedVFAInstance>(n);
+		for(SupervisedVFA.SupervisedVFAInstance inst : targets){
+			instances.add(inst);
 		}
 
 		this.valueFunction = this.valueFunctionTrainer.train(instances);
 
 		double maxDiff = 0.;
-		for(int i = 0; i < this.samples.size(); i++){
+		for(int i = 0; i < n; i++){
 			double newV = this.valueFunction.value(this.samples.get(i));
-			double diff = Math.abs(newV - oldVs.get(i));
+			double diff = Math.abs(newV - oldVs[i]);
 			maxDiff = Math.max(maxDiff, diff);
 		}
 
@@ -288,6 +364,30 @@ public class FittedVI extends MDPSolver implements ValueFunction, QProvider, Pla
 	}
 
 
+	/**
+	 * Computes the Bellman target and current value of the state samples in the range [start, end) with a new
+	 * {@link SparseSampling} instance.
+	 * @param targets the array in which the supervised instance of each sample is stored
+	 * @param oldVs the array in which the current value of each sample is stored
+	 * @param start the first sample (inclusive)
+	 * @param end the last sample (exclusive)
+	 */
+	protected void computeTargets(SupervisedVFA.SupervisedVFAInstance [] targets, double [] oldVs, int start, int end){
+
+		SparseSampling ss = new SparseSampling(this.domain, this.gamma, this.hashingFactory, this.planningDepth, this.transitionSamples);
+		ss.setModel(this.model);
+		ss.setValueForLeafNodes(this.leafNodeInit);
+		ss.toggleDebugPrinting(false);
+
+		for(int i = start; i < end; i++){
+			State s = this.samples.get(i);
+			oldVs[i] = this.valueFunction.value(s);
+			targets[i] = new SupervisedVFA.SupervisedVFAInstance(s, Helper.maxQ(ss, s));
+		}
+
+	}
+
+
 	/**
 	 * Plans from the input state and then returns a {@link burlap.behavior.policy.GreedyQPolicy} that greedily
 	 * selects the action with the highest Q-value and breaks ties uniformly randomly.
@@ -27,6 +27,8 @@ import java.util.List;
 /**
  * A POMDP planning algorithm that converts a POMDP into a Belief MDP and then uses {@link burlap.behavior.singleagent.planning.stochastic.sparsesampling.SparseSampling}
  * to solve it. If the full transition dynamics are used (set c in the constructor to -1), then it provides and optimal finite horizon POMDP policy.
+ * The tree nodes of the belief MDP can be bounded with {@link #setMaxStateNodes(int)} and the root expanded on multiple threads with
+ * {@link #setParallelism(int)}, which configure the {@link burlap.behavior.singleagent.planning.stochastic.sparsesampling.SparseSampling} instance.
  */
 public class BeliefSparseSampling extends MDPSolver implements Planner, QProvider {
 
@@ -80,6 +82,22 @@ public class BeliefSparseSampling extends MDPSolver implements Planner, QProvide
 		return this.mdpPlanner;
 	}
 
+	/**
+	 * Sets the maximum number of belief MDP tree nodes that are remembered. See {@link SparseSampling#setMaxStateNodes(int)}.
+	 * @param maxStateNodes the maximum number of tree nodes, or -1 for no maximum (the default)
+	 */
+	public void setMaxStateNodes(int maxStateNodes){
+		this.mdpPlanner.setMaxStateNodes(maxStateNodes);
+	}
+
+	/**
+	 * Sets the number of threads on which the root of the belief MDP tree is expanded. See {@link SparseSampling#setParallelism(int)}.
+	 * @param parallelism the number of threads on which the root of the tree is expanded
+	 */
+	public void setParallelism(int parallelism){
+		this.mdpPlanner.setParallelism(parallelism);
+	}
+
 	@Override
 	public List<QValue> qValues(State s) {
 		return this.mdpPlanner.qValues(s);
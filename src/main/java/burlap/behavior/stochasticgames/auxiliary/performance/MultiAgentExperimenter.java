@@ -16,6 +16,9 @@ import burlap.mdp.stochasticgames.world.WorldObserver;
  * multiple trials is plotted using the {@link MultiAgentPerformancePlotter} {@link WorldObserver} object and the results can also be printed
  * out to CSV files using the {@link #writeEpisodeDataToCSV(String)}, {@link #writeStepDataToCSV(String)}, or {@link #writeStepAndEpisodeDataToCSV(String)}
  * methods. If only the CSV data is desired without plotting, the plotting may be disabled using the {@link #toggleVisualPlots(boolean)} method.
+ * For long experiments, a {@link StreamingCSVMultiAgentMetricsSink} can instead be set with
+ * {@link #setMetricsSink(StreamingCSVMultiAgentMetricsSink)} to stream the CSV data to disk as it is observed; if plots are
+ * also disabled, no plotter is created and the data is not held in memory.
  * <p>
  * To set up the metrics and plots that will be displayed, use the {@link #setUpPlottingConfiguration(int, int, int, int, TrialMode, PerformanceMetric...)}
  * method. If this method is not called, but plots are not disabled, then my default the cumulative reward will be displayed.
@@ -97,6 +100,12 @@ public class MultiAgentExperimenter {
 	protected boolean						completedExperiment = false;
 	
 	
+	/**
+	 * An optional sink that streams the performance data to disk
+	 */
+	protected StreamingCSVMultiAgentMetricsSink	metricsSink = null;
+	
+	
 	/**
 	 * The debug code used for debug printing. This experimenter will print with the debugger the number of trials completed for each agent.
 	 */
@@ -196,6 +205,18 @@ public class MultiAgentExperimenter {
 	
 	
 	
+	/**
+	 * Sets a {@link StreamingCSVMultiAgentMetricsSink} that streams the performance data of the experiment to disk as it is
+	 * observed. If plots are disabled with {@link #toggleVisualPlots(boolean)} and no plotting configuration has been set,
+	 * no {@link MultiAgentPerformancePlotter} is created, so the experiment does not hold its data in memory, and the
+	 * data can only be retrieved from the sink's files.
+	 * @param metricsSink the {@link StreamingCSVMultiAgentMetricsSink} to receive the performance data
+	 */
+	public void setMetricsSink(StreamingCSVMultiAgentMetricsSink metricsSink){
+		this.metricsSink = metricsSink;
+	}
+	
+	
 	/**
 	 * Starts the experiment and runs all trails for all agents.
 	 */
@@ -206,7 +227,7 @@ public class MultiAgentExperimenter {
 			return;
 		}
 		
-		if(this.plotter == null){
+		if(this.plotter == null && (this.displayPlots || this.metricsSink == null)){
 			
 			TrialMode trialMode = TrialMode.MOST_RECENT_AND_AVERAGE;
 			if(this.nTrials == 1){
@@ -217,7 +238,7 @@ public class MultiAgentExperimenter {
 				
 		}
 		
-		if(this.displayPlots){
+		if(this.displayPlots && this.plotter != null){
 			this.plotter.startGUI();
 		}
 		
@@ -226,12 +247,15 @@ public class MultiAgentExperimenter {
 			DPrint.cl(this.debugCode, "Beginning trial " + (i+1) + "/" + this.nTrials);
 			
 			World w = worldGenerator.generateWorld();
+			DPrint.toggleCode(w.getDebugId(), false);
 			if(this.plotter != null){
 				this.plotter.setWorld(w);
+				w.addWorldObserver(this.plotter);
+			}
+			if(this.metricsSink != null){
+				this.metricsSink.setWorld(w);
+				w.addWorldObserver(this.metricsSink);
 			}
-
-			DPrint.toggleCode(w.getDebugId(), false);
-			w.addWorldObserver(this.plotter);
 			int id = 0;
 			for(AgentFactoryAndType aft : this.agentFactoriesAndTypes){
 				//aft.agentFactory.generateAgent().joinWorld(w, aft.at);
@@ -239,7 +263,12 @@ public class MultiAgentExperimenter {
 				id++;
 			}
 			
-			this.plotter.startNewTrial();
+			if(this.plotter != null){
+				this.plotter.startNewTrial();
+			}
+			if(this.metricsSink != null){
+				this.metricsSink.startNewTrial();
+			}
 			if(this.trialLengthIsInEpisodes){
 				this.runEpisodewiseTrial(w);
 			}
@@ -249,7 +278,12 @@ public class MultiAgentExperimenter {
 			
 		}
 		
-		this.plotter.endAllTrials();
+		if(this.plotter != null){
+			this.plotter.endAllTrials();
+		}
+		if(this.metricsSink != null){
+			this.metricsSink.endAllTrials();
+		}
 		this.completedExperiment = true;
 		
 	}
@@ -269,6 +303,10 @@ public class MultiAgentExperimenter {
 			System.out.println("Cannot write data until the experiment has been started with the startExperiment() method.");
 			return;
 		}
+		if(this.plotter == null){
+			System.out.println("Cannot write data because no plotter was used; the data was only sent to the metrics sink.");
+			return;
+		}
 		this.plotter.writeStepAndEpisodeDataToCSV(pathAndBaseNameToUse);
 	}
 	
@@ -284,6 +322,10 @@ public class MultiAgentExperimenter {
 			System.out.println("Cannot write data until the experiment has been started with the startExperiment() method.");
 			return;
 		}
+		if(this.plotter == null){
+			System.out.println("Cannot write data because no plotter was used; the data was only sent to the metrics sink.");
+			return;
+		}
 		this.plotter.writeStepDataToCSV(filePath);
 	}
 	
@@ -299,6 +341,10 @@ public class MultiAgentExperimenter {
 			System.out.println("Cannot write data until the experiment has been started with the startExperiment() method.");
 			return;
 		}
+		if(this.plotter == null){
+			System.out.println("Cannot write data because no plotter was used; the data was only sent to the metrics sink.");
+			return;
+		}
 		this.plotter.writeEpisodeDataToCSV(filePath);
 	}
 	
@@ -0,0 +1,162 @@
+package burlap.behavior.stochasticgames.auxiliary.performance;
+
+import burlap.behavior.singleagent.auxiliary.performance.CSVMetricsWriter;
+import burlap.mdp.core.TerminalFunction;
+import burlap.mdp.core.state.State;
+import burlap.mdp.stochasticgames.JointAction;
+import burlap.mdp.stochasticgames.agent.SGAgent;
+import burlap.mdp.stochasticgames.world.World;
+import burlap.mdp.stochasticgames.world.WorldObserver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link WorldObserver} that streams the step-wise and episode-wise data of each agent in a world to CSV files as it
+ * is observed, using a {@link CSVMetricsWriter}, rather than holding the data in memory like {@link MultiAgentPerformancePlotter}.
+ * The files are written to &lt;pathAndBaseName&gt;Steps.csv and &lt;pathAndBaseName&gt;Episodes.csv in the same format
+ * as {@link MultiAgentPerformancePlotter#writeStepAndEpisodeDataToCSV(String)}, and episodes and trials are delimited
+ * in the same way: an episode ends when the {@link TerminalFunction} marks the next state as terminal, or when its trial ends.
+ * <p>
+ * As with {@link MultiAgentPerformancePlotter}, the world whose agents are recorded must be set with {@link #setWorld(World)},
+ * {@link #startNewTrial()} should be called before each trial, and {@link #endAllTrials()} must be called once all
+ * trials are complete, which closes the files.
+ */
+public class StreamingCSVMultiAgentMetricsSink implements WorldObserver {
+
+	/**
+	 * Terminal function for determining when episodes have ended.
+	 */
+	protected TerminalFunction tf;
+
+	/**
+	 * The writer to which data is streamed
+	 */
+	protected CSVMetricsWriter writer;
+
+	/**
+	 * The world whose agents are recorded
+	 */
+	protected World world;
+
+	/**
+	 * The names of the agents that have been observed in the current trial
+	 */
+	protected List<String> trialAgents = new ArrayList<String>();
+
+	/**
+	 * The index of the current trial
+	 */
+	protected int curTrial = 0;
+
+	/**
+	 * Whether observed interactions are currently recorded
+	 */
+	protected boolean collectData = true;
+
+
+	/**
+	 * Initializes and opens the step-wise and episode-wise csv files.
+	 * @param tf the terminal function that will be used for detecting the end of episodes
+	 * @param pathAndBaseName the base path and file name for the episode-wise and step-wise csv files.
+	 */
+	public StreamingCSVMultiAgentMetricsSink(TerminalFunction tf, String pathAndBaseName) {
+		this(tf, new CSVMetricsWriter(pathAndBaseName));
+	}
+
+	/**
+	 * Initializes with a writer.
+	 * @param tf the terminal function that will be used for detecting the end of episodes
+	 * @param writer the {@link CSVMetricsWriter} to which data is streamed
+	 */
+	public StreamingCSVMultiAgentMetricsSink(TerminalFunction tf, CSVMetricsWriter writer) {
+		this.tf = tf;
+		this.writer = writer;
+	}
+
+	public void setWorld(World world) {
+		this.world = world;
+	}
+
+	public CSVMetricsWriter getWriter() {
+		return writer;
+	}
+
+	/**
+	 * Toggle whether observed interactions are recorded or not
+	 * @param collectData true if observed interactions should be recorded; false if not.
+	 */
+	public void toggleDataCollection(boolean collectData){
+		this.collectData = collectData;
+	}
+
+	@Override
+	public void gameStarting(State s) {
+		//do nothing
+	}
+
+	@Override
+	synchronized public void observe(State s, JointAction ja, double[] reward, State sp) {
+
+		if(!this.collectData){
+			return;
+		}
+
+		List<SGAgent> agents = this.world.getRegisteredAgents();
+		boolean isTerminal = this.tf.isTerminal(sp);
+
+		for(int i = 0; i < reward.length; i++){
+			String agentName = agents.get(i).agentName();
+			if(!this.trialAgents.contains(agentName)){
+				this.trialAgents.add(agentName);
+				this.writer.startTrial(agentName, this.curTrial);
+			}
+			this.writer.step(agentName, reward[i]);
+			if(isTerminal){
+				this.writer.endEpisode(agentName);
+			}
+		}
+
+	}
+
+	@Override
+	public void gameEnding(State s) {
+		//do nothing
+	}
+
+	/**
+	 * Ends the current trial, if any data has been recorded for it, and begins a new one.
+	 */
+	synchronized public void startNewTrial(){
+
+		if(this.trialAgents.isEmpty()){
+			return;
+		}
+
+		this.endTrial();
+		this.trialAgents.clear();
+		this.curTrial++;
+
+	}
+
+	/**
+	 * Ends the current trial and closes the files.
+	 */
+	synchronized public void endAllTrials(){
+		this.endTrial();
+		this.writer.close();
+	}
+
+	/**
+	 * Completes any unfinished episodes of the current trial and flushes the files.
+	 */
+	protected void endTrial(){
+		for(String agentName : this.trialAgents){
+			if(this.writer.hasUnfinishedEpisode(agentName)){
+				this.writer.endEpisode(agentName);
+			}
+		}
+		this.writer.flush();
+	}
+
+}
@@ -0,0 +1,46 @@
+package burlap.behavior.valuefunction;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+
+/**
+ * A {@link QProvider} that can also expose its Q-values by int state and action indices, so that policies can select
+ * actions without creating a {@link QValue} object for each action. Action indices of a state run from 0 to
+ * {@link #numActions(int)}-1 in the same order as the Q-values returned by {@link #qValues(State)}.
+ * <p>
+ * Indexed access is optional at runtime: if {@link #stateIndex(State)} returns -1, callers should fall back to
+ * {@link #qValues(State)}.
+ */
+public interface IndexedQProvider extends QProvider {
+
+	/**
+	 * Returns the index of the input state, or -1 if indexed access is currently unavailable.
+	 * @param s the input state
+	 * @return the index of the state, or -1 if indexed access is unavailable
+	 */
+	int stateIndex(State s);
+
+	/**
+	 * Returns the number of actions of the state with the given index.
+	 * @param stateIndex the state index
+	 * @return the number of actions in the state
+	 */
+	int numActions(int stateIndex);
+
+	/**
+	 * Returns the action with the given index in the state with the given index.
+	 * @param stateIndex the state index
+	 * @param actionIndex the action index
+	 * @return the {@link Action}
+	 */
+	Action action(int stateIndex, int actionIndex);
+
+	/**
+	 * Returns the Q-value of the action with the given index in the state with the given index.
+	 * @param stateIndex the state index
+	 * @param actionIndex the action index
+	 * @return the Q-value
+	 */
+	double qValue(int stateIndex, int actionIndex);
+
+}
@@ -0,0 +1,151 @@
+package burlap.datastructures;
+
+import java.util.Arrays;
+
+
+/**
+ * A fixed-capacity binary tree over the non-negative priorities of a set of slots, stored in primitive arrays, that
+ * supports setting the priority of a slot and finding the slot at a point of the cumulative priority distribution in
+ * O(lg(n)) time, and querying the sum and minimum of all priorities in O(1) time. Slots are referenced by an index
+ * in [0, capacity) and all start with a priority of zero. Unlike {@link StochasticTree}, no objects are created per
+ * slot, so it is suitable for millions of slots, such as the experiences of a replay memory.
+ * <p>
+ * To sample a slot in proportion to its priority, draw a value u uniformly from [0, {@link #total()}) and call
+ * {@link #find(double)}.
+ */
+public class SumTree {
+
+	/**
+	 * The number of slots
+	 */
+	protected int capacity;
+
+	/**
+	 * The number of leaves, the smallest power of two at least as large as the capacity
+	 */
+	protected int numLeaves;
+
+	/**
+	 * The sum of the priorities beneath each node; the root is node 1, the children of node i are 2i and 2i+1, and
+	 * slot j is leaf numLeaves + j
+	 */
+	protected double [] sums;
+
+	/**
+	 * The minimum positive priority beneath each node, with the same layout as {@link #sums}; infinite if there is none
+	 */
+	protected double [] mins;
+
+
+	/**
+	 * Initializes with all slots having a priority of zero.
+	 * @param capacity the number of slots
+	 */
+	public SumTree(int capacity){
+		if(capacity < 1){
+			throw new RuntimeException("SumTree requires a capacity > 0; was requested capacity of " + capacity);
+		}
+		this.capacity = capacity;
+		this.numLeaves = Integer.highestOneBit(capacity);
+		if(this.numLeaves < capacity){
+			this.numLeaves <<= 1;
+		}
+		this.sums = new double[2 * this.numLeaves];
+		this.mins = new double[2 * this.numLeaves];
+		this.clear();
+	}
+
+
+	/**
+	 * Returns the number of slots.
+	 * @return the number of slots
+	 */
+	public int capacity(){
+		return this.capacity;
+	}
+
+
+	/**
+	 * Sets the priority of a slot.
+	 * @param index the slot index, in [0, capacity)
+	 * @param priority the non-negative priority
+	 */
+	public void set(int index, double priority){
+		if(index < 0 || index >= this.capacity){
+			throw new IndexOutOfBoundsException("SumTree slot " + index + " is outside of the capacity " + this.capacity);
+		}
+		if(!(priority >= 0.) || Double.isInfinite(priority)){
+			throw new RuntimeException("SumTree priorities must be finite and non-negative; provided " + priority);
+		}
+		int node = this.numLeaves + index;
+		this.sums[node] = priority;
+		this.mins[node] = priority > 0. ? priority : Double.POSITIVE_INFINITY;
+		for(node >>= 1; node > 0; node >>= 1){
+			int left = node << 1;
+			this.sums[node] = this.sums[left] + this.sums[left + 1];
+			this.mins[node] = Math.min(this.mins[left], this.mins[left + 1]);
+		}
+	}
+
+
+	/**
+	 * Returns the priority of a slot.
+	 * @param index the slot index, in [0, capacity)
+	 * @return the priority of the slot
+	 */
+	public double get(int index){
+		return this.sums[this.numLeaves + index];
+	}
+
+
+	/**
+	 * Returns the sum of the priorities of all slots.
+	 * @return the sum of the priorities of all slots
+	 */
+	public double total(){
+		return this.sums[1];
+	}
+
+
+	/**
+	 * Returns the minimum positive priority of any slot.
+	 * @return the minimum positive priority, or {@link Double#POSITIVE_INFINITY} if all priorities are zero
+	 */
+	public double minPositive(){
+		return this.mins[1];
+	}
+
+
+	/**
+	 * Returns the slot at the given point of the cumulative priority distribution; that is, the slot i for which the sum of
+	 * the priorities of slots 0 to i-1 is at most u and the sum of the priorities of slots 0 to i is greater than u. Values of
+	 * u outside of [0, {@link #total()}) return the first or last slot with a positive priority. The returned slot always
+	 * has a positive priority, unless all priorities are zero.
+	 * @param u the point in the cumulative priority distribution
+	 * @return the index of the slot
+	 */
+	public int find(double u){
+		int node = 1;
+		while(node < this.numLeaves){
+			int left = node << 1;
+			if((u < this.sums[left] && this.sums[left] > 0.) || this.sums[left + 1] <= 0.){
+				node = left;
+			}
+			else{
+				u -= this.sums[left];
+				node = left + 1;
+			}
+		}
+		return Math.min(node - this.numLeaves, this.capacity - 1);
+	}
+
+
+	/**
+	 * Sets the priority of all slots to zero.
+	 */
+	public void clear(){
+		Arrays.fill(this.sums, 0.);
+		Arrays.fill(this.mins, Double.POSITIVE_INFINITY);
+	}
+
+}
@@ -0,0 +1,196 @@
+package burlap.debugtools;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Static methods for running tasks on multiple threads, used by the algorithms that can be parallelized.
+ * <p>
+ * Unless an algorithm is given its own {@link ExecutorService}, its tasks run on the {@link #sharedExecutor()}, a single
+ * cached pool of daemon threads shared by all algorithms, whose idle threads are released after a minute. Therefore creating many
+ * parallel planners or learners does not leave thread pools behind, and no algorithm needs to be shut down.
+ * <p>
+ * The {@link #runAll(ExecutorService, int, List)} and {@link #invokeAll(ExecutorService, int, List)} methods run a list of tasks
+ * with at most a given number of them running at once, regardless of the size of the executor, and block until they are complete.
+ * If a task fails, the tasks that have not started are skipped, and the failure is rethrown on the calling thread: unchecked exceptions and errors are
+ * rethrown as is, and checked exceptions are wrapped in a {@link RuntimeException}.
+ */
+public class ParallelTasks {
+
+	/**
+	 * The executor shared by all algorithms that are not given their own; created lazily.
+	 */
+	private static ExecutorService sharedExecutor;
+
+
+	private ParallelTasks() {
+		//static methods only
+	}
+
+
+	/**
+	 * Returns the executor shared by all algorithms that are not given their own, creating it if it does not yet exist. It is a
+	 * cached pool of daemon threads, so it grows to the number of tasks running at once and its idle threads are released after a minute.
+	 * @return the shared {@link ExecutorService}
+	 */
+	public static synchronized ExecutorService sharedExecutor(){
+		if(sharedExecutor == null){
+			sharedExecutor = Executors.newCachedThreadPool(daemonThreadFactory("burlap-worker"));
+		}
+		return sharedExecutor;
+	}
+
+
+	/**
+	 * Creates a fixed size pool of daemon threads, for callers that want to give an algorithm its own executor. The caller is
+	 * responsible for shutting it down.
+	 * @param nThreads the number of threads in the pool
+	 * @param name the name of the pool's threads
+	 * @return the new {@link ExecutorService}
+	 */
+	public static ExecutorService newDaemonPool(int nThreads, String name){
+		return Executors.newFixedThreadPool(nThreads, daemonThreadFactory(name));
+	}
+
+
+	/**
+	 * Runs the tasks on the executor, with at most parallelism of them running at once, and blocks until they are all complete.
+	 * @param executor the executor on which the tasks run
+	 * @param parallelism the maximum number of tasks that run at once
+	 * @param tasks the tasks to run
+	 */
+	public static void runAll(ExecutorService executor, int parallelism, List<? extends Runnable> tasks){
+		List<Callable<Object>> callables = new ArrayList<Callable<Object>>(tasks.size());
+		for(Runnable task : tasks){
+			callables.add(Executors.callable(task));
+		}
+		invokeAll(executor, parallelism, callables);
+	}
+
+
+	/**
+	 * Runs the tasks on the executor, with at most parallelism of them running at once, blocks until they are all complete, and
+	 * returns their results.
+	 * @param executor the executor on which the tasks run
+	 * @param parallelism the maximum number of tasks that run at once
+	 * @param tasks the tasks to run
+	 * @param <T> the type of the task results
+	 * @return the result of each task, in the order of the tasks
+	 */
+	public static <T> List<T> invokeAll(ExecutorService executor, int parallelism, final List<? extends Callable<T>> tasks){
+
+		final int n = tasks.size();
+		final Object [] results = new Object[n];
+		final AtomicInteger next = new AtomicInteger();
+		final AtomicInteger failed = new AtomicInteger();
+
+		//each worker takes the next task that has not started, so that at most parallelism tasks run at once
+		int nWorkers = Math.max(1, Math.min(parallelism, n));
+		List<Future<?>> workers = new ArrayList<Future<?>>(nWorkers);
+		for(int k = 0; k < nWorkers; k++){
+			workers.add(executor.submit(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					int i;
+					while(failed.get() == 0 && (i = next.getAndIncrement()) < n){
+						try {
+							results[i] = tasks.get(i).call();
+						} catch(Exception e) {
+							failed.incrementAndGet();
+							throw e;
+						} catch(Error e) {
+							failed.incrementAndGet();
+							throw e;
+						}
+					}
+					return null;
+				}
+			}));
+		}
+
+		try {
+			for(Future<?> f : workers){
+				await(f);
+			}
+		} catch(RuntimeException e) {
+			cancelAll(workers);
+			throw e;
+		} catch(Error e) {
+			cancelAll(workers);
+			throw e;
+		}
+
+		List<T> list = new ArrayList<T>(n);
+		for(Object result : results){
+			@SuppressWarnings("unchecked")
+			T t = (T)result;
+			list.add(t);
+		}
+		return list;
+
+	}
+
+
+	/**
+	 * Waits for a task to complete and returns its result. If the task failed, an unchecked exception or error is rethrown as is,
+	 * and a checked exception is wrapped in a {@link RuntimeException}. If the calling thread is interrupted, its interrupt status
+	 * is restored and a {@link RuntimeException} is thrown.
+	 * @param future the {@link Future} of the task
+	 * @param <T> the type of the task result
+	 * @return the result of the task
+	 */
+	public static <T> T await(Future<T> future){
+		try {
+			return future.get();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for parallel tasks to complete.", e);
+		} catch(ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof RuntimeException){
+				throw (RuntimeException)cause;
+			}
+			if(cause instanceof Error){
+				throw (Error)cause;
+			}
+			throw new RuntimeException("Parallel task failed: " + cause.getMessage(), cause);
+		}
+	}
+
+
+	/**
+	 * Cancels the tasks, interrupting them if they are running.
+	 * @param futures the {@link Future}s of the tasks
+	 */
+	public static void cancelAll(Collection<? extends Future<?>> futures){
+		for(Future<?> f : futures){
+			f.cancel(true);
+		}
+	}
+
+
+	/**
+	 * Returns a {@link ThreadFactory} that creates daemon threads with the given name.
+	 * @param name the name of the threads
+	 * @return the {@link ThreadFactory}
+	 */
+	public static ThreadFactory daemonThreadFactory(final String name){
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, name);
+				t.setDaemon(true);
+				return t;
+			}
+		};
+	}
+
+}
@@ -22,6 +22,11 @@ import java.util.*;
 public class RandomFactory {
 
 	private static RandomFactory factory = new RandomFactory();
+
+	/**
+	 * The factory used by the static methods on threads that have installed their own factory with {@link #setThreadFactory(RandomFactory)}
+	 */
+	private static final ThreadLocal<RandomFactory> threadFactory = new ThreadLocal<RandomFactory>();
 	
 	/**
 	 * A default random number generator
@@ -37,6 +42,11 @@ public class RandomFactory {
 	 * The set of random number generators that have been constructed for different String codes
 	 */
 	Map <String, Random> stringMapped;
+
+	/**
+	 * If not null, the seed from which generators that are created without an explicit seed derive their seed
+	 */
+	Long baseSeed = null;
 	
 	
 	/**
@@ -67,7 +77,7 @@ public class RandomFactory {
 	 * @return the default random number generator.
 	 */
 	public static Random getDefault(){
-		return factory.ingetDefault();
+		return current().ingetDefault();
 	}
 	
 	/**
@@ -76,7 +86,7 @@ public class RandomFactory {
 	 * @return the default random number generator
 	 */
 	public static Random seedDefault(long seed){
-		return factory.inseedDefault(seed);
+		return current().inseedDefault(seed);
 	}
 	
 	
@@ -86,7 +96,7 @@ public class RandomFactory {
 	 * @return the default random generator
 	 */
 	public static Random getOrSeedDefault(long seed){
-		return factory.ingetOrSeedDefault(seed);
+		return current().ingetOrSeedDefault(seed);
 	}
 	
 	/**
@@ -95,7 +105,7 @@ public class RandomFactory {
 	 * @return the random generator
 	 */
 	public static Random getMapped(int id){
-		return factory.ingetMapped(id);
+		return current().ingetMapped(id);
 	}
 	
 	
@@ -106,7 +116,7 @@ public class RandomFactory {
 	 * @return the random generator
 	 */
 	public static Random seedMapped(int id, long seed){
-		return factory.inseedMapped(id, seed);
+		return current().inseedMapped(id, seed);
 	}
 	
 	
@@ -117,7 +127,7 @@ public class RandomFactory {
 	 * @return the random generator
 	 */
 	public static Random getOrSeedMapped(int id, long seed){
-		return factory.ingetOrSeedMapped(id, seed);
+		return current().ingetOrSeedMapped(id, seed);
 	}
 	
 	
@@ -128,7 +138,7 @@ public class RandomFactory {
 	 * @return the random generator
 	 */
 	public static Random getMapped(String id){
-		return factory.ingetMapped(id);
+		return current().ingetMapped(id);
 	}
 	
 	
@@ -139,7 +149,7 @@ public class RandomFactory {
 	 * @return the random generator
 	 */
 	public static Random seedMapped(String id, long seed){
-		return factory.inseedMapped(id, seed);
+		return current().inseedMapped(id, seed);
 	}
 	
 	
@@ -150,7 +160,7 @@ public class RandomFactory {
 	 * @return the random generator
 	 */
 	public static Random getOrSeedMapped(String id, long seed){
-		return factory.ingetOrSeedMapped(id, seed);
+		return current().ingetOrSeedMapped(id, seed);
 	}
 	
 	
@@ -163,6 +173,48 @@ public class RandomFactory {
 	
 	
 	
+	/**
+	 * Installs a {@link RandomFactory} that the static methods of this class will use on the calling thread
+	 * instead of the global factory. This allows independent computations, such as the trials of an experiment, to run
+	 * on different threads with their own reproducible random sequences. Pass null to return the thread to the global factory.
+	 * @param f the {@link RandomFactory} to use on the calling thread, or null to use the global factory
+	 */
+	public static void setThreadFactory(RandomFactory f){
+		if(f == null){
+			threadFactory.remove();
+		}
+		else{
+			threadFactory.set(f);
+		}
+	}
+
+
+	/**
+	 * Returns the {@link RandomFactory} installed on the calling thread with {@link #setThreadFactory(RandomFactory)},
+	 * or null if the thread uses the global factory.
+	 * @return the {@link RandomFactory} of the calling thread or null
+	 */
+	public static RandomFactory getThreadFactory(){
+		return threadFactory.get();
+	}
+
+
+	/**
+	 * Returns the factory used by the static methods on the calling thread.
+	 * @return the thread's {@link RandomFactory} if one is installed; the global factory otherwise.
+	 */
+	protected static RandomFactory current(){
+		RandomFactory f = threadFactory.get();
+		if(f != null){
+			return f;
+		}
+		return factory;
+	}
+	
+	
+	
+	
+	
 	/**
 	 * Initializes the map structures
 	 */
@@ -171,6 +223,45 @@ public class RandomFactory {
 		intMapped = new HashMap<Integer, Random>();
 		stringMapped = new HashMap<String, Random>();
 	}
+
+
+	/**
+	 * Initializes the map structures so that every generator that is created without an explicit seed has a seed derived from
+	 * the given base seed and its id. Two factories with the same base seed therefore produce the same random sequences.
+	 * @param baseSeed the base seed from which generator seeds are derived
+	 */
+	public RandomFactory(long baseSeed){
+		this();
+		this.baseSeed = baseSeed;
+	}
+
+
+	/**
+	 * Creates a new unseeded generator, or, if this factory has a base seed, a generator whose seed is derived from the
+	 * base seed and the given key.
+	 * @param key the key of the generator
+	 * @return a new random generator
+	 */
+	protected Random newRandom(long key){
+		if(this.baseSeed == null){
+			return new Random();
+		}
+		return new Random(mixSeed(this.baseSeed, key));
+	}
+
+
+	/**
+	 * Deterministically combines a seed with a key to produce a new, well distributed seed.
+	 * @param seed the seed
+	 * @param key the key
+	 * @return the combined seed
+	 */
+	public static long mixSeed(long seed, long key){
+		long z = seed + 0x9E3779B97F4A7C15L * (key + 1);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
 	
 	
 	/**
@@ -179,7 +270,7 @@ public class RandomFactory {
 	 */
 	public Random ingetDefault(){
 		if(defaultRandom_ == null){
-			defaultRandom_ = new Random();
+			defaultRandom_ = this.newRandom(Long.MIN_VALUE);
 		}
 		return defaultRandom_;
 	}
@@ -221,7 +312,7 @@ public class RandomFactory {
 			return r;
 		}
 		else{
-			r = new Random();
+			r = this.newRandom(id);
 			intMapped.put(id, r);
 		}
 		return r;
@@ -267,12 +358,12 @@ public class RandomFactory {
 	 * @return the random generator
 	 */
 	public Random ingetMapped(String id){
-		Random r = intMapped.get(id);
+		Random r = stringMapped.get(id);
 		if(r != null){
 			return r;
 		}
 		else{
-			r = new Random();
+			r = this.newRandom(((long)id.hashCode()) << 32);
 			stringMapped.put(id, r);
 		}
 		return r;
@@ -2,6 +2,8 @@ package burlap.domain.singleagent.blockdude.state;
 
 import burlap.mdp.core.oo.state.OOStateUtilities;
 import burlap.mdp.core.oo.state.ObjectInstance;
+import burlap.mdp.core.state.PrimitiveState;
+import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
 
 import java.util.Arrays;
@@ -13,7 +15,7 @@ import static burlap.domain.singleagent.blockdude.BlockDude.*;
  * @author James MacGlashan.
  */
 @DeepCopyState
-public class BlockDudeCell implements ObjectInstance {
+public class BlockDudeCell implements ObjectInstance, PrimitiveState {
 
 	public int x;
 	public int y;
@@ -83,6 +85,36 @@ public class BlockDudeCell implements ObjectInstance {
 		throw new RuntimeException("Unknown key " + variableKey);
 	}
 
+	@Override
+	public int numVariables() {
+		return 2;
+	}
+
+	@Override
+	public boolean isIntVariable(int i) {
+		return true;
+	}
+
+	@Override
+	public int getInt(int i) {
+		switch(i){
+			case 0: return x;
+			case 1: return y;
+		}
+		throw new UnknownKeyException(i);
+	}
+
+	@Override
+	public double getDouble(int i) {
+		return this.getInt(i);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		dest[offset] = x;
+		dest[offset+1] = y;
+	}
+
 	@Override
 	public BlockDudeCell copy() {
 		return new BlockDudeCell(x, y, className, name);
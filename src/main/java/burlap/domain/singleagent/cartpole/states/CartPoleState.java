@@ -3,6 +3,7 @@ package burlap.domain.singleagent.cartpole.states;
 import burlap.mdp.core.state.MutableState;
 import burlap.mdp.core.state.State;
 import burlap.mdp.core.state.StateUtilities;
+import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
 
 import java.util.Arrays;
@@ -60,6 +61,30 @@ public class CartPoleState extends InvertedPendulumState {
 		return super.get(variableKey);
 	}
 
+	@Override
+	public int numVariables() {
+		return 4;
+	}
+
+	@Override
+	public double getDouble(int i) {
+		switch(i){
+			case 0: return x;
+			case 1: return v;
+			case 2: return angle;
+			case 3: return angleV;
+		}
+		throw new UnknownKeyException(i);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		dest[offset] = x;
+		dest[offset+1] = v;
+		dest[offset+2] = angle;
+		dest[offset+3] = angleV;
+	}
+
 	@Override
 	public State copy() {
 		return new CartPoleState(x, v, angle, angleV);
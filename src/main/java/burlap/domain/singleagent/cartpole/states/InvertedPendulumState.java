@@ -1,8 +1,10 @@
 package burlap.domain.singleagent.cartpole.states;
 
 import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.PrimitiveState;
 import burlap.mdp.core.state.State;
 import burlap.mdp.core.state.StateUtilities;
+import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
 
 import java.util.Arrays;
@@ -14,7 +16,7 @@ import static burlap.domain.singleagent.cartpole.CartPoleDomain.*;
  * @author James MacGlashan.
  */
 @DeepCopyState
-public class InvertedPendulumState implements MutableState {
+public class InvertedPendulumState implements MutableState, PrimitiveState {
 
 	public double angle;
 	public double angleV;
@@ -69,6 +71,36 @@ public class InvertedPendulumState implements MutableState {
 		throw new RuntimeException("Unknown key " + variableKey);
 	}
 
+	@Override
+	public int numVariables() {
+		return 2;
+	}
+
+	@Override
+	public boolean isIntVariable(int i) {
+		return false;
+	}
+
+	@Override
+	public int getInt(int i) {
+		throw new RuntimeException("Variable " + i + " is not an int variable");
+	}
+
+	@Override
+	public double getDouble(int i) {
+		switch(i){
+			case 0: return angle;
+			case 1: return angleV;
+		}
+		throw new UnknownKeyException(i);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		dest[offset] = angle;
+		dest[offset+1] = angleV;
+	}
+
 	@Override
 	public State copy() {
 		return new InvertedPendulumState(angle, angleV);
@@ -2,6 +2,7 @@ package burlap.domain.singleagent.frostbite.state;
 
 import burlap.mdp.core.oo.state.OOStateUtilities;
 import burlap.mdp.core.oo.state.ObjectInstance;
+import burlap.mdp.core.state.PrimitiveState;
 import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
 
@@ -14,7 +15,7 @@ import static burlap.domain.singleagent.frostbite.FrostbiteDomain.*;
  * @author James MacGlashan.
  */
 @DeepCopyState
-public class FrostbiteAgent implements ObjectInstance {
+public class FrostbiteAgent implements ObjectInstance, PrimitiveState {
 
 	public int x;
 	public int y;
@@ -72,6 +73,38 @@ public class FrostbiteAgent implements ObjectInstance {
 		throw new UnknownKeyException(variableKey);
 	}
 
+	@Override
+	public int numVariables() {
+		return 3;
+	}
+
+	@Override
+	public boolean isIntVariable(int i) {
+		return true;
+	}
+
+	@Override
+	public int getInt(int i) {
+		switch(i){
+			case 0: return x;
+			case 1: return y;
+			case 2: return height;
+		}
+		throw new UnknownKeyException(i);
+	}
+
+	@Override
+	public double getDouble(int i) {
+		return this.getInt(i);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		dest[offset] = x;
+		dest[offset+1] = y;
+		dest[offset+2] = height;
+	}
+
 	@Override
 	public FrostbiteAgent copy() {
 		return new FrostbiteAgent(x, y, height);
@@ -2,6 +2,7 @@ package burlap.domain.singleagent.frostbite.state;
 
 import burlap.mdp.core.oo.state.OOStateUtilities;
 import burlap.mdp.core.oo.state.ObjectInstance;
+import burlap.mdp.core.state.PrimitiveState;
 import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
 
@@ -15,7 +16,7 @@ import static burlap.domain.singleagent.frostbite.FrostbiteDomain.VAR_BUILDING;
  * @author James MacGlashan.
  */
 @DeepCopyState
-public class FrostbiteIgloo implements ObjectInstance {
+public class FrostbiteIgloo implements ObjectInstance, PrimitiveState {
 
 	public int height;
 
@@ -59,6 +60,34 @@ public class FrostbiteIgloo implements ObjectInstance {
 		throw new UnknownKeyException(variableKey);
 	}
 
+	@Override
+	public int numVariables() {
+		return 1;
+	}
+
+	@Override
+	public boolean isIntVariable(int i) {
+		return true;
+	}
+
+	@Override
+	public int getInt(int i) {
+		switch(i){
+			case 0: return height;
+		}
+		throw new UnknownKeyException(i);
+	}
+
+	@Override
+	public double getDouble(int i) {
+		return this.getInt(i);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		dest[offset] = height;
+	}
+
 	@Override
 	public FrostbiteIgloo copy() {
 		return new FrostbiteIgloo(height);
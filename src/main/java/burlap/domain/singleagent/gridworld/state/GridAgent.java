@@ -3,6 +3,8 @@ package burlap.domain.singleagent.gridworld.state;
 import burlap.domain.singleagent.gridworld.GridWorldDomain;
 import burlap.mdp.core.oo.state.OOStateUtilities;
 import burlap.mdp.core.oo.state.ObjectInstance;
+import burlap.mdp.core.state.PrimitiveState;
+import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
 
 import java.util.Arrays;
@@ -16,7 +18,7 @@ import static burlap.domain.singleagent.gridworld.GridWorldDomain.VAR_Y;
  * @author James MacGlashan.
  */
 @DeepCopyState
-public class GridAgent implements ObjectInstance {
+public class GridAgent implements ObjectInstance, PrimitiveState {
 
 	public int x;
 	public int y;
@@ -81,6 +83,36 @@ public class GridAgent implements ObjectInstance {
 	}
 
 
+	@Override
+	public int numVariables() {
+		return 2;
+	}
+
+	@Override
+	public boolean isIntVariable(int i) {
+		return true;
+	}
+
+	@Override
+	public int getInt(int i) {
+		switch(i){
+			case 0: return x;
+			case 1: return y;
+		}
+		throw new UnknownKeyException(i);
+	}
+
+	@Override
+	public double getDouble(int i) {
+		return this.getInt(i);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		dest[offset] = x;
+		dest[offset+1] = y;
+	}
+
 	@Override
 	public GridAgent copy() {
 		return new GridAgent(x, y, name);
@@ -3,6 +3,8 @@ package burlap.domain.singleagent.gridworld.state;
 import burlap.domain.singleagent.gridworld.GridWorldDomain;
 import burlap.mdp.core.oo.state.OOStateUtilities;
 import burlap.mdp.core.oo.state.ObjectInstance;
+import burlap.mdp.core.state.PrimitiveState;
+import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
 
 import java.util.Arrays;
@@ -17,7 +19,7 @@ import static burlap.domain.singleagent.gridworld.GridWorldDomain.VAR_Y;
  * @author James MacGlashan.
  */
 @DeepCopyState
-public class GridLocation implements ObjectInstance {
+public class GridLocation implements ObjectInstance, PrimitiveState {
 
 	public int x;
 	public int y;
@@ -88,6 +90,38 @@ public class GridLocation implements ObjectInstance {
 	}
 
 
+	@Override
+	public int numVariables() {
+		return 3;
+	}
+
+	@Override
+	public boolean isIntVariable(int i) {
+		return true;
+	}
+
+	@Override
+	public int getInt(int i) {
+		switch(i){
+			case 0: return x;
+			case 1: return y;
+			case 2: return type;
+		}
+		throw new UnknownKeyException(i);
+	}
+
+	@Override
+	public double getDouble(int i) {
+		return this.getInt(i);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		dest[offset] = x;
+		dest[offset+1] = y;
+		dest[offset+2] = type;
+	}
+
 	@Override
 	public GridLocation copy() {
 		return new GridLocation(x, y, type, name);
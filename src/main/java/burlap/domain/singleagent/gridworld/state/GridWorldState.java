@@ -5,6 +5,7 @@ import burlap.mdp.core.oo.state.OOStateUtilities;
 import burlap.mdp.core.oo.state.OOVariableKey;
 import burlap.mdp.core.oo.state.ObjectInstance;
 import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.PrimitiveState;
 import burlap.mdp.core.state.State;
 import burlap.mdp.core.state.StateUtilities;
 import burlap.mdp.core.state.annotations.ShallowCopyState;
@@ -21,7 +22,7 @@ import static burlap.domain.singleagent.gridworld.GridWorldDomain.VAR_Y;
  * @author James MacGlashan.
  */
 @ShallowCopyState
-public class GridWorldState implements MutableOOState {
+public class GridWorldState implements MutableOOState, PrimitiveState {
 
 	public GridAgent agent;
 	public List<GridLocation> locations = new ArrayList<GridLocation>();
@@ -174,6 +175,37 @@ public class GridWorldState implements MutableOOState {
 		throw new RuntimeException("Unknown variable key " + variableKey);
 	}
 
+	@Override
+	public int numVariables() {
+		return 2 + 3*this.locations.size();
+	}
+
+	@Override
+	public boolean isIntVariable(int i) {
+		return true;
+	}
+
+	@Override
+	public int getInt(int i) {
+		if(i < 2){
+			return agent.getInt(i);
+		}
+		return locations.get((i-2) / 3).getInt((i-2) % 3);
+	}
+
+	@Override
+	public double getDouble(int i) {
+		return this.getInt(i);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		agent.copyInto(dest, offset);
+		for(int i = 0; i < locations.size(); i++){
+			locations.get(i).copyInto(dest, offset + 2 + 3*i);
+		}
+	}
+
 	@Override
 	public List<Object> variableKeys() {
 		return OOStateUtilities.flatStateKeys(this);
@@ -2,6 +2,7 @@ package burlap.domain.singleagent.lunarlander.state;
 
 import burlap.mdp.core.oo.state.OOStateUtilities;
 import burlap.mdp.core.oo.state.ObjectInstance;
+import burlap.mdp.core.state.PrimitiveState;
 import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
 
@@ -14,7 +15,7 @@ import static burlap.domain.singleagent.lunarlander.LunarLanderDomain.*;
  * @author James MacGlashan.
  */
 @DeepCopyState
-public class LLAgent implements ObjectInstance {
+public class LLAgent implements ObjectInstance, PrimitiveState {
 
 	public double x;
 	public double y;
@@ -85,6 +86,42 @@ public class LLAgent implements ObjectInstance {
 		throw new UnknownKeyException(variableKey);
 	}
 
+	@Override
+	public int numVariables() {
+		return 5;
+	}
+
+	@Override
+	public boolean isIntVariable(int i) {
+		return false;
+	}
+
+	@Override
+	public int getInt(int i) {
+		throw new RuntimeException("Variable " + i + " is not an int variable");
+	}
+
+	@Override
+	public double getDouble(int i) {
+		switch(i){
+			case 0: return x;
+			case 1: return y;
+			case 2: return vx;
+			case 3: return vy;
+			case 4: return angle;
+		}
+		throw new UnknownKeyException(i);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		dest[offset] = x;
+		dest[offset+1] = y;
+		dest[offset+2] = vx;
+		dest[offset+3] = vy;
+		dest[offset+4] = angle;
+	}
+
 	@Override
 	public LLAgent copy() {
 		return new LLAgent(x, y, vx, vy, angle);
@@ -2,6 +2,7 @@ package burlap.domain.singleagent.lunarlander.state;
 
 import burlap.mdp.core.oo.state.OOStateUtilities;
 import burlap.mdp.core.oo.state.ObjectInstance;
+import burlap.mdp.core.state.PrimitiveState;
 import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
 
@@ -13,7 +14,7 @@ import static burlap.domain.singleagent.lunarlander.LunarLanderDomain.*;
 /**
  * @author James MacGlashan.
  */
-public abstract class LLBlock implements ObjectInstance {
+public abstract class LLBlock implements ObjectInstance, PrimitiveState {
 
 	public double left;
 	public double right;
@@ -48,6 +49,40 @@ public abstract class LLBlock implements ObjectInstance {
 		return block;
 	}
 
+	@Override
+	public int numVariables() {
+		return 4;
+	}
+
+	@Override
+	public boolean isIntVariable(int i) {
+		return false;
+	}
+
+	@Override
+	public int getInt(int i) {
+		throw new RuntimeException("Variable " + i + " is not an int variable");
+	}
+
+	@Override
+	public double getDouble(int i) {
+		switch(i){
+			case 0: return left;
+			case 1: return right;
+			case 2: return bottom;
+			case 3: return top;
+		}
+		throw new UnknownKeyException(i);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		dest[offset] = left;
+		dest[offset+1] = right;
+		dest[offset+2] = bottom;
+		dest[offset+3] = top;
+	}
+
 	@Override
 	public List<Object> variableKeys() {
 		return keys;
@@ -7,6 +7,7 @@ import burlap.mdp.core.oo.state.ObjectInstance;
 import burlap.mdp.core.oo.state.exceptions.UnknownClassException;
 import burlap.mdp.core.oo.state.exceptions.UnknownObjectException;
 import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.PrimitiveState;
 import burlap.mdp.core.state.State;
 import burlap.mdp.core.state.StateUtilities;
 import burlap.mdp.core.state.UnknownKeyException;
@@ -22,7 +23,7 @@ import static burlap.domain.singleagent.lunarlander.LunarLanderDomain.*;
  * @author James MacGlashan.
  */
 @ShallowCopyState
-public class LLState implements MutableOOState{
+public class LLState implements MutableOOState, PrimitiveState {
 
 	public LLAgent agent;
 	public LLBlock.LLPad pad;
@@ -219,6 +220,49 @@ public class LLState implements MutableOOState{
 		return this;
 	}
 
+	@Override
+	public int numVariables() {
+		return (pad != null ? 9 : 5) + 4*obstacles.size();
+	}
+
+	@Override
+	public boolean isIntVariable(int i) {
+		return false;
+	}
+
+	@Override
+	public int getInt(int i) {
+		throw new RuntimeException("Variable " + i + " is not an int variable");
+	}
+
+	@Override
+	public double getDouble(int i) {
+		if(i < 5){
+			return agent.getDouble(i);
+		}
+		i -= 5;
+		if(pad != null){
+			if(i < 4){
+				return pad.getDouble(i);
+			}
+			i -= 4;
+		}
+		return obstacles.get(i / 4).getDouble(i % 4);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		agent.copyInto(dest, offset);
+		offset += 5;
+		if(pad != null){
+			pad.copyInto(dest, offset);
+			offset += 4;
+		}
+		for(int i = 0; i < obstacles.size(); i++){
+			obstacles.get(i).copyInto(dest, offset + 4*i);
+		}
+	}
+
 	@Override
 	public List<Object> variableKeys() {
 		return OOStateUtilities.flatStateKeys(this);
@@ -1,8 +1,10 @@
 package burlap.domain.singleagent.mountaincar;
 
 import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.PrimitiveState;
 import burlap.mdp.core.state.State;
 import burlap.mdp.core.state.StateUtilities;
+import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
 
 import java.util.Arrays;
@@ -15,7 +17,7 @@ import static burlap.domain.singleagent.mountaincar.MountainCar.ATT_X;
  * @author James MacGlashan.
  */
 @DeepCopyState
-public class MCState implements MutableState {
+public class MCState implements MutableState, PrimitiveState {
 
 	public double x;
 	public double v;
@@ -97,6 +99,36 @@ public class MCState implements MutableState {
 		throw new RuntimeException("Unknown key " + variableKey);
 	}
 
+	@Override
+	public int numVariables() {
+		return 2;
+	}
+
+	@Override
+	public boolean isIntVariable(int i) {
+		return false;
+	}
+
+	@Override
+	public int getInt(int i) {
+		throw new RuntimeException("Variable " + i + " is not an int variable");
+	}
+
+	@Override
+	public double getDouble(int i) {
+		switch(i){
+			case 0: return x;
+			case 1: return v;
+		}
+		throw new UnknownKeyException(i);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		dest[offset] = x;
+		dest[offset+1] = v;
+	}
+
 	@Override
 	public State copy() {
 		return new MCState(x, v);
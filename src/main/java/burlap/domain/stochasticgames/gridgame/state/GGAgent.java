@@ -3,6 +3,7 @@ package burlap.domain.stochasticgames.gridgame.state;
 import burlap.mdp.core.oo.state.OOStateUtilities;
 import burlap.mdp.core.oo.state.ObjectInstance;
 import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.PrimitiveState;
 import burlap.mdp.core.state.State;
 import burlap.mdp.core.state.StateUtilities;
 import burlap.mdp.core.state.UnknownKeyException;
@@ -17,7 +18,7 @@ import static burlap.domain.stochasticgames.gridgame.GridGame.*;
  * @author James MacGlashan.
  */
 @DeepCopyState
-public class GGAgent implements ObjectInstance, MutableState {
+public class GGAgent implements ObjectInstance, MutableState, PrimitiveState {
 
 	public int x;
 	public int y;
@@ -95,6 +96,38 @@ public class GGAgent implements ObjectInstance, MutableState {
 		}
 	}
 
+	@Override
+	public int numVariables() {
+		return 3;
+	}
+
+	@Override
+	public boolean isIntVariable(int i) {
+		return true;
+	}
+
+	@Override
+	public int getInt(int i) {
+		switch(i){
+			case 0: return x;
+			case 1: return y;
+			case 2: return player;
+		}
+		throw new UnknownKeyException(i);
+	}
+
+	@Override
+	public double getDouble(int i) {
+		return this.getInt(i);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		dest[offset] = x;
+		dest[offset+1] = y;
+		dest[offset+2] = player;
+	}
+
 	@Override
 	public State copy() {
 		return new GGAgent(x, y, player, name);
@@ -2,6 +2,7 @@ package burlap.domain.stochasticgames.gridgame.state;
 
 import burlap.mdp.core.oo.state.ObjectInstance;
 import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.PrimitiveState;
 import burlap.mdp.core.state.StateUtilities;
 import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
@@ -15,7 +16,7 @@ import static burlap.domain.stochasticgames.gridgame.GridGame.*;
  * @author James MacGlashan.
  */
 @DeepCopyState
-public abstract class GGWall implements ObjectInstance, MutableState {
+public abstract class GGWall implements ObjectInstance, MutableState, PrimitiveState {
 
 	public int e1;
 	public int e2;
@@ -67,6 +68,40 @@ public abstract class GGWall implements ObjectInstance, MutableState {
 		return this;
 	}
 
+	@Override
+	public int numVariables() {
+		return 4;
+	}
+
+	@Override
+	public boolean isIntVariable(int i) {
+		return true;
+	}
+
+	@Override
+	public int getInt(int i) {
+		switch(i){
+			case 0: return e1;
+			case 1: return e2;
+			case 2: return pos;
+			case 3: return type;
+		}
+		throw new UnknownKeyException(i);
+	}
+
+	@Override
+	public double getDouble(int i) {
+		return this.getInt(i);
+	}
+
+	@Override
+	public void copyInto(double[] dest, int offset) {
+		dest[offset] = e1;
+		dest[offset+1] = e2;
+		dest[offset+2] = pos;
+		dest[offset+3] = type;
+	}
+
 	@Override
 	public List<Object> variableKeys() {
 		return keys;
@@ -56,6 +56,13 @@ public class OOVariableKey {
 
 	@Override
 	public boolean equals(Object obj) {
-		return super.equals(obj);
+		if(this == obj){
+			return true;
+		}
+		if(!(obj instanceof OOVariableKey)){
+			return false;
+		}
+		OOVariableKey o = (OOVariableKey)obj;
+		return obName.equals(o.obName) && obVarKey.equals(o.obVarKey);
 	}
 }
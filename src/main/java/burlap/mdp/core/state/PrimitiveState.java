@@ -0,0 +1,49 @@
+package burlap.mdp.core.state;
+
+/**
+ * An optional capability for {@link State}s whose variables are all int or double values. It provides indexed access
+ * to the variables without boxing them, which allows hashing, equality and feature extraction code to avoid the
+ * object allocation of {@link State#get(Object)}.
+ * <p>
+ * Variable index i must refer to the same variable as the ith key returned by {@link State#variableKeys()}, and
+ * {@link #isIntVariable(int)} must match the type returned by {@link State#get(Object)}: true when the variable
+ * is returned as an {@link Integer} and false when it is returned as a {@link Double}. States of the same class are
+ * assumed to use the same variable layout whenever they have the same number of variables.
+ */
+public interface PrimitiveState extends State {
+
+	/**
+	 * Returns the number of state variables.
+	 * @return the number of state variables.
+	 */
+	int numVariables();
+
+	/**
+	 * Returns whether the ith variable is an int value (true) or a double value (false).
+	 * @param i the variable index
+	 * @return true if the variable is an int; false if it is a double
+	 */
+	boolean isIntVariable(int i);
+
+	/**
+	 * Returns the value of the ith variable, which must be an int variable.
+	 * @param i the variable index
+	 * @return the int value of the variable
+	 */
+	int getInt(int i);
+
+	/**
+	 * Returns the value of the ith variable as a double. Int variables are converted to doubles.
+	 * @param i the variable index
+	 * @return the value of the variable as a double
+	 */
+	double getDouble(int i);
+
+	/**
+	 * Copies all variable values, as doubles, into the given array starting at the given offset.
+	 * @param dest the array into which the values will be copied; must have at least offset + {@link #numVariables()} elements
+	 * @param offset the index of dest at which the first variable will be written
+	 */
+	void copyInto(double [] dest, int offset);
+
+}
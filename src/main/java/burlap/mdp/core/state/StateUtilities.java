@@ -1,6 +1,8 @@
 package burlap.mdp.core.state;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A class with static methods for common tasks with states.
@@ -8,6 +10,11 @@ import java.util.List;
  */
 public class StateUtilities {
 
+	/**
+	 * Whether each class for which {@link #overridesEquals(Class)} was called overrides {@link Object#equals(Object)}
+	 */
+	protected static final Map<Class<?>, Boolean> overridesEquals = new ConcurrentHashMap<Class<?>, Boolean>();
+
 	private StateUtilities(){
 
 	}
@@ -64,4 +71,141 @@ public class StateUtilities {
 		buf.append("}");
 		return buf.toString();
 	}
+
+
+	/**
+	 * Returns the hash code of the ith variable of a {@link PrimitiveState}. The result is identical to the hash code
+	 * of the boxed {@link Integer} or {@link Double} value returned by {@link State#get(Object)}.
+	 * @param s the {@link PrimitiveState}
+	 * @param i the variable index
+	 * @return the hash code of the variable value
+	 */
+	public static int primitiveValueHash(PrimitiveState s, int i){
+		if(s.isIntVariable(i)){
+			return s.getInt(i);
+		}
+		long bits = Double.doubleToLongBits(s.getDouble(i));
+		return (int)(bits ^ (bits >>> 32));
+	}
+
+	/**
+	 * Computes a hash code over all variables of a {@link PrimitiveState} without boxing them, by starting
+	 * at the given seed and repeatedly multiplying by 31 and adding each variable's {@link #primitiveValueHash(PrimitiveState, int)}.
+	 * With a seed of 17, the result is the same as appending each boxed value to a commons-lang HashCodeBuilder(17, 31).
+	 * @param s the {@link PrimitiveState}
+	 * @param seed the initial hash value
+	 * @return the hash code
+	 */
+	public static int primitiveHashCode(PrimitiveState s, int seed){
+		int hash = seed;
+		int n = s.numVariables();
+		for(int i = 0; i < n; i++){
+			hash = 31*hash + primitiveValueHash(s, i);
+		}
+		return hash;
+	}
+
+	/**
+	 * Returns whether two {@link PrimitiveState}s have the same variable values. Doubles are compared
+	 * by their bit patterns, matching {@link Double#equals(Object)}.
+	 * @param s1 the first {@link PrimitiveState}
+	 * @param s2 the second {@link PrimitiveState}
+	 * @return true if all variable values are equal; false otherwise
+	 */
+	public static boolean primitiveStatesEqual(PrimitiveState s1, PrimitiveState s2){
+		int n = s1.numVariables();
+		if(n != s2.numVariables()){
+			return false;
+		}
+		for(int i = 0; i < n; i++){
+			if(s1.isIntVariable(i)){
+				if(s1.getInt(i) != s2.getInt(i)){
+					return false;
+				}
+			}
+			else if(Double.doubleToLongBits(s1.getDouble(i)) != Double.doubleToLongBits(s2.getDouble(i))){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether a state is reproduced by copying a prototype and setting each of the prototype's variables with
+	 * {@link MutableState#set(Object, Object)} to the state's value, as an {@link Integer} or {@link Double}, which is how
+	 * states stored as their variable values alone are reconstructed. This requires the state to be of the prototype's class
+	 * and have the same variable keys, in the same order, and, since any content of the state that is not a variable is
+	 * taken from the prototype, the reconstructed state to be equal to the state. If the state's class does not override
+	 * {@link Object#equals(Object)}, the variable values of the reconstructed state are compared instead.
+	 * @param prototype the prototype that is copied
+	 * @param s the state
+	 * @return true if copying the prototype and setting its variables reproduces s; false otherwise, including if setting a variable fails
+	 */
+	public static boolean reconstructsFromPrototype(MutableState prototype, PrimitiveState s){
+
+		if(prototype.getClass() != s.getClass()){
+			return false;
+		}
+		List<Object> keys = prototype.variableKeys();
+		if(keys.size() != s.numVariables() || !keys.equals(s.variableKeys())){
+			return false;
+		}
+
+		MutableState reconstructed;
+		try {
+			reconstructed = (MutableState)prototype.copy();
+			for(int i = 0; i < keys.size(); i++){
+				if(s.isIntVariable(i)){
+					reconstructed.set(keys.get(i), s.getInt(i));
+				}
+				else{
+					reconstructed.set(keys.get(i), s.getDouble(i));
+				}
+			}
+		} catch(RuntimeException e) {
+			return false;
+		}
+
+		if(!keys.equals(reconstructed.variableKeys())){
+			return false;
+		}
+		if(overridesEquals(s.getClass())){
+			return reconstructed.equals(s);
+		}
+		return primitiveStatesEqual((PrimitiveState)reconstructed, s);
+	}
+
+
+	/**
+	 * Returns whether the result of {@link #reconstructsFromPrototype(MutableState, PrimitiveState)} for states of the given class
+	 * depends only on their variable keys, so that the result for one state can be reused for other states of the class with the same
+	 * variable keys. This is the case for classes that do not override {@link Object#equals(Object)}, whose reconstructions are
+	 * compared to the state by their variable values, as long as setting a variable stores the value it is given. For other
+	 * classes the result can depend on content of the state that is not a variable, so each state must be checked.
+	 * @param c the state class
+	 * @return true if the reconstruction check depends only on the class and variable keys of a state; false otherwise
+	 */
+	public static boolean reconstructionDependsOnlyOnKeys(Class<?> c){
+		return !overridesEquals(c);
+	}
+
+
+	/**
+	 * Returns whether a class overrides {@link Object#equals(Object)}. The result is cached per class.
+	 * @param c the class
+	 * @return true if the class or one of its superclasses other than {@link Object} defines equals; false otherwise
+	 */
+	protected static boolean overridesEquals(Class<?> c){
+		Boolean overrides = overridesEquals.get(c);
+		if(overrides == null){
+			try {
+				overrides = c.getMethod("equals", Object.class).getDeclaringClass() != Object.class;
+			} catch(NoSuchMethodException e) {
+				overrides = false;
+			}
+			overridesEquals.put(c, overrides);
+		}
+		return overrides;
+	}
+
 }
@@ -0,0 +1,15 @@
+package burlap.mdp.singleagent.environment;
+
+
+/**
+ * A factory interface for generating independent {@link Environment} instances, such as one environment per trial
+ * when trials of an experiment are run in parallel.
+ */
+public interface EnvironmentFactory {
+
+	/**
+	 * Generates a new {@link Environment} that does not share mutable state with previously generated environments.
+	 * @return a new {@link Environment}
+	 */
+	public Environment generateEnvironment();
+}
@@ -0,0 +1,291 @@
+package burlap.mdp.singleagent.environment;
+
+import burlap.debugtools.ParallelTasks;
+import burlap.debugtools.RandomFactory;
+import burlap.mdp.auxiliary.StateGenerator;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.model.SampleModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A fixed set of independent {@link Environment} instances, called slots, that are stepped together with one action per slot,
+ * so that learners can gather experience from many episodes at once. After each step, every slot that reached a terminal
+ * state, or that has taken the maximum number of steps of an episode (see {@link #setMaxEpisodeSteps(int)}), is
+ * reset with {@link Environment#resetEnvironment()}; for {@link SimulatedEnvironment} slots this draws a new initial
+ * state from their {@link StateGenerator}. The outcome returned for such a slot is the outcome of its last step
+ * before the reset, and {@link #wasReset(int)} reports that a new episode has started in it.
+ * <p>
+ * Slots can be stepped on multiple threads with {@link #setParallelism(int)}, in which case each slot must not share mutable
+ * state with the others. {@link SimulatedEnvironment} slots that share a {@link SampleModel} are safe to step in parallel if the model's
+ * sampling is thread safe, as it is for the models provided with BURLAP. When stepped in parallel, each slot is stepped with its own
+ * thread {@link RandomFactory}, seeded from the {@link RandomFactory#getMapped(int)} 0 generator of the calling thread and the slot index,
+ * so models that draw from {@link RandomFactory#getMapped(int)} while sampling produce the same outcomes for any parallelism; models
+ * that hold a random number generator of their own still share it across slots and will not produce reproducible outcomes.
+ */
+public class VectorEnvironment {
+
+	/**
+	 * The environment of each slot
+	 */
+	protected Environment [] envs;
+
+	/**
+	 * The number of steps taken in the current episode of each slot
+	 */
+	protected int [] episodeSteps;
+
+	/**
+	 * Whether each slot was reset after the most recent step
+	 */
+	protected boolean [] resets;
+
+	/**
+	 * The maximum number of steps of an episode before a slot is reset; -1 for no maximum
+	 */
+	protected int maxEpisodeSteps = -1;
+
+	/**
+	 * The number of threads used to step the slots
+	 */
+	protected int parallelism = 1;
+
+	/**
+	 * The executor on which parallel steps run; if null, the {@link ParallelTasks#sharedExecutor()} is used.
+	 */
+	protected ExecutorService executor;
+
+
+	/**
+	 * Initializes with the given environments as slots.
+	 * @param envs the environment of each slot
+	 */
+	public VectorEnvironment(List<? extends Environment> envs) {
+		if(envs.isEmpty()){
+			throw new RuntimeException("VectorEnvironment requires at least one environment.");
+		}
+		this.envs = envs.toArray(new Environment[envs.size()]);
+		this.episodeSteps = new int[this.envs.length];
+		this.resets = new boolean[this.envs.length];
+	}
+
+
+	/**
+	 * Initializes with n slots generated by an {@link EnvironmentFactory}.
+	 * @param factory the factory that generates the environment of each slot
+	 * @param n the number of slots
+	 */
+	public VectorEnvironment(EnvironmentFactory factory, int n) {
+		this(generate(factory, n));
+	}
+
+
+	/**
+	 * Initializes with n {@link SimulatedEnvironment} slots that share a {@link SampleModel} and {@link StateGenerator}.
+	 * @param model the model with which each slot is simulated
+	 * @param stateGenerator the generator of the initial state of each episode
+	 * @param n the number of slots
+	 */
+	public VectorEnvironment(SampleModel model, StateGenerator stateGenerator, int n) {
+		this(simulated(model, stateGenerator, n));
+	}
+
+
+	/**
+	 * Returns the number of slots.
+	 * @return the number of slots
+	 */
+	public int size(){
+		return this.envs.length;
+	}
+
+
+	/**
+	 * Returns the environment of a slot.
+	 * @param i the slot index
+	 * @return the {@link Environment} of the slot
+	 */
+	public Environment environment(int i){
+		return this.envs[i];
+	}
+
+
+	/**
+	 * Returns the maximum number of steps of an episode before a slot is reset.
+	 * @return the maximum number of steps of an episode, or -1 if there is no maximum
+	 */
+	public int getMaxEpisodeSteps() {
+		return maxEpisodeSteps;
+	}
+
+
+	/**
+	 * Sets the maximum number of steps of an episode, after which a slot is reset even if it has not reached a terminal state.
+	 * @param maxEpisodeSteps the maximum number of steps of an episode, or -1 for no maximum
+	 */
+	public void setMaxEpisodeSteps(int maxEpisodeSteps) {
+		this.maxEpisodeSteps = maxEpisodeSteps;
+	}
+
+
+	/**
+	 * Returns the number of threads used to step the slots.
+	 * @return the number of threads used to step the slots
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+
+	/**
+	 * Sets the number of threads used to step the slots. A value of 1 (the default) steps the slots on the calling thread.
+	 * @param parallelism the number of threads used to step the slots
+	 */
+	public void setParallelism(int parallelism) {
+		if(parallelism < 1){
+			throw new RuntimeException("VectorEnvironment parallelism must be at least 1; provided " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+
+	/**
+	 * Returns the executor on which parallel steps run.
+	 * @return the executor on which parallel steps run
+	 */
+	public ExecutorService getExecutor() {
+		return executor != null ? executor : ParallelTasks.sharedExecutor();
+	}
+
+
+	/**
+	 * Sets the executor on which parallel steps run. By default, the {@link ParallelTasks#sharedExecutor()} is used.
+	 * @param executor the executor on which parallel steps run, or null to use the shared executor
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Returns the current observation of each slot.
+	 * @return the current observation of each slot
+	 */
+	public State [] currentObservations(){
+		State [] obs = new State[this.envs.length];
+		for(int i = 0; i < obs.length; i++){
+			obs[i] = this.envs[i].currentObservation();
+		}
+		return obs;
+	}
+
+
+	/**
+	 * Executes one action in each slot and resets the slots whose episodes ended.
+	 * @param actions the action to execute in each slot
+	 * @return the outcome of the action in each slot
+	 */
+	public EnvironmentOutcome [] executeActions(final Action [] actions){
+
+		if(actions.length != this.envs.length){
+			throw new RuntimeException("VectorEnvironment requires one action per slot; received " + actions.length + " actions for " + this.envs.length + " slots.");
+		}
+
+		final EnvironmentOutcome [] outcomes = new EnvironmentOutcome[this.envs.length];
+		int nChunks = Math.min(this.envs.length, this.parallelism);
+		if(nChunks <= 1){
+			this.stepRange(actions, outcomes, 0, this.envs.length);
+			return outcomes;
+		}
+
+		final long seed = RandomFactory.getMapped(0).nextLong();
+		List<Runnable> chunks = new ArrayList<Runnable>(nChunks);
+		for(int c = 0; c < nChunks; c++){
+			final int start = this.envs.length * c / nChunks;
+			final int end = this.envs.length * (c+1) / nChunks;
+			chunks.add(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for(int i = start; i < end; i++){
+							RandomFactory.setThreadFactory(new RandomFactory(RandomFactory.mixSeed(seed, i)));
+							stepRange(actions, outcomes, i, i+1);
+						}
+					} finally {
+						RandomFactory.setThreadFactory(null);
+					}
+				}
+			});
+		}
+
+		ParallelTasks.runAll(this.getExecutor(), this.parallelism, chunks);
+
+		return outcomes;
+	}
+
+
+	/**
+	 * Returns whether a slot was reset after the most recent step, because its episode reached a terminal state or the
+	 * maximum number of steps.
+	 * @param i the slot index
+	 * @return true if the slot was reset after the most recent step; false otherwise
+	 */
+	public boolean wasReset(int i){
+		return this.resets[i];
+	}
+
+
+	/**
+	 * Resets every slot.
+	 */
+	public void resetEnvironments(){
+		for(int i = 0; i < this.envs.length; i++){
+			this.envs[i].resetEnvironment();
+			this.episodeSteps[i] = 0;
+			this.resets[i] = false;
+		}
+	}
+
+
+	/**
+	 * Executes the actions of the slots in the range [start, end).
+	 * @param actions the action to execute in each slot
+	 * @param outcomes the array in which the outcome of each slot is stored
+	 * @param start the first slot (inclusive)
+	 * @param end the last slot (exclusive)
+	 */
+	protected void stepRange(Action [] actions, EnvironmentOutcome [] outcomes, int start, int end){
+		for(int i = start; i < end; i++){
+			EnvironmentOutcome eo = this.envs[i].executeAction(actions[i]);
+			outcomes[i] = eo;
+			this.episodeSteps[i]++;
+			this.resets[i] = eo.terminated || this.envs[i].isInTerminalState() || (this.maxEpisodeSteps != -1 && this.episodeSteps[i] >= this.maxEpisodeSteps);
+			if(this.resets[i]){
+				this.envs[i].resetEnvironment();
+				this.episodeSteps[i] = 0;
+			}
+		}
+	}
+
+
+	protected static List<Environment> generate(EnvironmentFactory factory, int n){
+		List<Environment> envs = new ArrayList<Environment>(n);
+		for(int i = 0; i < n; i++){
+			envs.add(factory.generateEnvironment());
+		}
+		return envs;
+	}
+
+
+	protected static List<Environment> simulated(SampleModel model, StateGenerator stateGenerator, int n){
+		List<Environment> envs = new ArrayList<Environment>(n);
+		for(int i = 0; i < n; i++){
+			envs.add(new SimulatedEnvironment(model, stateGenerator));
+		}
+		return envs;
+	}
+
+}
@@ -0,0 +1,287 @@
+package burlap.statehashing;
+
+import burlap.mdp.core.state.State;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe, interning store that maps each distinct state, as defined by a source {@link HashableStateFactory},
+ * to a single canonical {@link RegisteredState} with a dense int id. Ids are assigned in registration order
+ * starting at 0, so they can be used to index arrays or primitive tables.
+ * <p>
+ * A {@link StateRegistry} is itself a {@link HashableStateFactory} whose {@link #hashState(State)} method returns the
+ * canonical {@link RegisteredState}. Passing the same registry as the hashing factory of several planners (for example,
+ * {@link burlap.behavior.singleagent.planning.stochastic.valueiteration.ValueIteration} and
+ * {@link burlap.behavior.singleagent.learning.tdmethods.QLearning}) makes their tables share one copy of each state
+ * and its hash code rather than each storing its own. Equality between two {@link RegisteredState}s of the same
+ * registry is an id comparison. The planners' own tables, such as the value function of
+ * {@link burlap.behavior.singleagent.planning.stochastic.DynamicProgramming}, remain maps keyed by {@link HashableState}, and the
+ * registry adds an entry of its own for each state, so sharing a registry saves memory only when the planners would otherwise
+ * hold many duplicate copies of each state; for two dynamic programming planners over the same state space it does not.
+ * The ids are meant for algorithms that index arrays or primitive tables by state directly.
+ * <p>
+ * Registered states are never removed, and every state passed to {@link #hashState(State)} is registered, so the registry
+ * grows with every distinct state that any algorithm using it as its hashing factory hashes, including states it only queries.
+ * Therefore a registry should not be used as the hashing factory of algorithms that visit an unbounded number of distinct
+ * states over their lifetime (such as sample-based planners in large or continuous domains) unless that memory growth is acceptable.
+ * To look up states without registering them, use {@link #lookup(State)} or {@link #idIfPresent(State)}.
+ */
+public class StateRegistry implements HashableStateFactory {
+
+	/**
+	 * The source hashing factory that defines state equality
+	 */
+	protected HashableStateFactory hashingFactory;
+
+	/**
+	 * The forward map from source hashed states to their canonical registered state
+	 */
+	protected ConcurrentHashMap<HashableState, RegisteredState> registered;
+
+	/**
+	 * The registered states indexed by id. Only the first {@link #size} elements are used.
+	 */
+	protected volatile RegisteredState [] states;
+
+	/**
+	 * The number of registered states
+	 */
+	protected volatile int size = 0;
+
+
+	/**
+	 * Initializes.
+	 * @param hashingFactory the source {@link HashableStateFactory} that defines state equality
+	 */
+	public StateRegistry(HashableStateFactory hashingFactory) {
+		this(hashingFactory, 16);
+	}
+
+	/**
+	 * Initializes.
+	 * @param hashingFactory the source {@link HashableStateFactory} that defines state equality
+	 * @param initialCapacity the number of states for which space is initially allocated
+	 */
+	public StateRegistry(HashableStateFactory hashingFactory, int initialCapacity) {
+		if(hashingFactory instanceof StateRegistry){
+			throw new RuntimeException("The source hashing factory of a StateRegistry cannot be another StateRegistry");
+		}
+		this.hashingFactory = hashingFactory;
+		this.registered = new ConcurrentHashMap<HashableState, RegisteredState>(Math.max(initialCapacity, 16));
+		this.states = new RegisteredState[Math.max(initialCapacity, 16)];
+	}
+
+
+	/**
+	 * Returns the canonical {@link RegisteredState} for the input state, permanently registering it if no equal state has been
+	 * registered. Equivalent to {@link #register(State)}.
+	 * @param s the input state
+	 * @return the canonical {@link RegisteredState} for s
+	 */
+	@Override
+	public HashableState hashState(State s) {
+		return this.register(s);
+	}
+
+
+	/**
+	 * Returns the canonical {@link RegisteredState} for the input state, registering it with a new id if no equal state has
+	 * been registered.
+	 * @param s the input state
+	 * @return the canonical {@link RegisteredState} for s
+	 */
+	public RegisteredState register(State s){
+		HashableState sh = this.hashingFactory.hashState(s);
+		RegisteredState stored = this.registered.get(sh);
+		if(stored != null){
+			return stored;
+		}
+		return this.registerNew(sh);
+	}
+
+
+	/**
+	 * Returns the canonical {@link RegisteredState} for the input hashed state, registering it with a new id if no equal state
+	 * has been registered. If the input is a {@link RegisteredState} of this registry, it is returned without any hashing.
+	 * @param sh the input hashed state
+	 * @return the canonical {@link RegisteredState} for sh
+	 */
+	public RegisteredState register(HashableState sh){
+		if(sh instanceof RegisteredState && ((RegisteredState)sh).registry == this){
+			return (RegisteredState)sh;
+		}
+		return this.register(sh.s());
+	}
+
+
+	/**
+	 * Returns the id of the input state, registering it if needed.
+	 * @param s the input state
+	 * @return the id of the state
+	 */
+	public int id(State s){
+		return this.register(s).id;
+	}
+
+
+	/**
+	 * Returns the id of the input hashed state, registering it if needed.
+	 * @param sh the input hashed state
+	 * @return the id of the state
+	 */
+	public int id(HashableState sh){
+		return this.register(sh).id;
+	}
+
+
+	/**
+	 * Returns the id of the input state, or -1 if it has not been registered. Unlike {@link #id(State)}, this method
+	 * never registers the state.
+	 * @param s the input state
+	 * @return the id of the state, or -1 if it has not been registered
+	 */
+	public int idIfPresent(State s){
+		RegisteredState stored = this.lookup(s);
+		if(stored == null){
+			return -1;
+		}
+		return stored.id;
+	}
+
+
+	/**
+	 * Returns the canonical {@link RegisteredState} for the input state, or null if no equal state has been registered.
+	 * Unlike {@link #register(State)} and {@link #hashState(State)}, this method never registers the state.
+	 * @param s the input state
+	 * @return the canonical {@link RegisteredState} for s, or null if it has not been registered
+	 */
+	public RegisteredState lookup(State s){
+		return this.registered.get(this.hashingFactory.hashState(s));
+	}
+
+
+	/**
+	 * Returns the {@link RegisteredState} with the given id. A runtime exception is thrown if no state has that id.
+	 * @param id the state id
+	 * @return the {@link RegisteredState} with the given id
+	 */
+	public RegisteredState state(int id){
+		if(id < 0 || id >= this.size){
+			throw new RuntimeException("There is no state registered with the id: " + id);
+		}
+		return this.states[id];
+	}
+
+
+	/**
+	 * Returns the number of registered states, which is also one more than the largest id.
+	 * @return the number of registered states
+	 */
+	public int size(){
+		return this.size;
+	}
+
+
+	/**
+	 * Returns the source {@link HashableStateFactory} that defines state equality
+	 * @return the source {@link HashableStateFactory}
+	 */
+	public HashableStateFactory getHashingFactory() {
+		return hashingFactory;
+	}
+
+
+	protected synchronized RegisteredState registerNew(HashableState sh){
+
+		//another thread may have registered the state after our unsynchronized check
+		RegisteredState stored = this.registered.get(sh);
+		if(stored != null){
+			return stored;
+		}
+
+		int id = this.size;
+		RegisteredState rs = new RegisteredState(this, sh, id);
+		RegisteredState [] cur = this.states;
+		if(id == cur.length){
+			RegisteredState [] grown = new RegisteredState[cur.length*2];
+			System.arraycopy(cur, 0, grown, 0, cur.length);
+			cur = grown;
+		}
+		cur[id] = rs;
+		this.states = cur;
+		this.size = id+1;
+		this.registered.put(sh, rs);
+
+		return rs;
+	}
+
+
+	/**
+	 * The canonical {@link HashableState} of a {@link StateRegistry}. It stores its registry id and the hash code of
+	 * the source hashed state so that neither needs to be recomputed.
+	 */
+	public static class RegisteredState implements HashableState {
+
+		protected final StateRegistry registry;
+		protected final HashableState src;
+		protected final int id;
+		protected final int hashCode;
+
+		protected RegisteredState(StateRegistry registry, HashableState src, int id) {
+			this.registry = registry;
+			this.src = src;
+			this.id = id;
+			this.hashCode = src.hashCode();
+		}
+
+		@Override
+		public State s() {
+			return src.s();
+		}
+
+		/**
+		 * Returns the id of this state in its registry
+		 * @return the id of this state
+		 */
+		public int id() {
+			return id;
+		}
+
+		/**
+		 * Returns the source hashed state produced by the registry's source {@link HashableStateFactory}
+		 * @return the source {@link HashableState}
+		 */
+		public HashableState src() {
+			return src;
+		}
+
+		/**
+		 * Returns the registry to which this state belongs
+		 * @return the {@link StateRegistry} of this state
+		 */
+		public StateRegistry registry() {
+			return registry;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj){
+				return true;
+			}
+			if(obj instanceof RegisteredState){
+				RegisteredState o = (RegisteredState)obj;
+				if(o.registry == this.registry){
+					return o.id == this.id;
+				}
+				return this.src.equals(o.src);
+			}
+			return this.src.equals(obj);
+		}
+	}
+
+}
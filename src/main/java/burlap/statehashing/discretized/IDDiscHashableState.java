@@ -23,6 +23,11 @@ public class IDDiscHashableState extends IDSimpleHashableState {
 		this.config = config;
 	}
 
+	@Override
+	protected boolean primitiveAccess() {
+		return false;
+	}
+
 	@Override
 	protected void appendHashCodeForValue(HashCodeBuilder hashCodeBuilder, Object key, Object value) {
 
@@ -23,6 +23,11 @@ public class IIDiscHashableState extends IISimpleHashableState {
 		this.config = config;
 	}
 
+	@Override
+	protected boolean primitiveAccess() {
+		return false;
+	}
+
 	@Override
 	protected void appendHashCodeForValue(HashCodeBuilder hashCodeBuilder, Object key, Object value) {
 
@@ -55,6 +55,11 @@ public class IIMaskedHashableState extends IISimpleHashableState {
 		return hashCodeBuilder.toHashCode();
 	}
 
+	@Override
+	protected boolean primitiveAccess() {
+		return false;
+	}
+
 	@Override
 	protected void appendHashCodeForValue(HashCodeBuilder hashCodeBuilder, Object key, Object value) {
 		if(!config.maskedVariables.contains(key)){ //only consider variables that have not been masked
@@ -90,6 +90,11 @@ public class IDDiscMaskedHashableState extends IDSimpleHashableState {
 	}
 
 
+	@Override
+	protected boolean primitiveAccess() {
+		return false;
+	}
+
 	@Override
 	protected void appendHashCodeForValue(HashCodeBuilder hashCodeBuilder, Object key, Object value) {
 
@@ -100,6 +100,11 @@ public class IIDiscMaskedHashableState extends IISimpleHashableState {
 	}
 
 
+	@Override
+	protected boolean primitiveAccess() {
+		return false;
+	}
+
 	@Override
 	protected void appendHashCodeForValue(HashCodeBuilder hashCodeBuilder, Object key, Object value) {
 
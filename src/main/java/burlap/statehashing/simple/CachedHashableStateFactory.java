@@ -0,0 +1,104 @@
+package burlap.statehashing.simple;
+
+import burlap.mdp.core.state.State;
+import burlap.statehashing.HashableState;
+
+import java.util.Arrays;
+
+/**
+ * A variant of {@link SimpleHashableStateFactory} that produces {@link IICachedHashableState} or
+ * {@link IDCachedHashableState} objects. These objects compute their hash code once when they are created and
+ * return the memoized value from {@link Object#hashCode()}, combine values with a fast integer mixing function rather than a
+ * {@link org.apache.commons.lang3.builder.HashCodeBuilder}, compute {@link burlap.mdp.core.oo.state.OOState} hash codes
+ * without allocating and sorting an array, and reject equality checks against other cached states immediately when
+ * their hash codes differ.
+ * <p>
+ * Because the hash code is memoized, the wrapped states must not be modified after they are hashed. BURLAP states are
+ * immutable by contract once they are returned from a model, so this is typically safe, but if you modify a state
+ * in place after hashing it, the {@link HashableState} will be inconsistent. Note also that the hash codes produced by
+ * this factory differ from those produced by {@link SimpleHashableStateFactory}, so the {@link HashableState}s of
+ * the two factories should not be mixed in the same collection.
+ */
+public class CachedHashableStateFactory extends SimpleHashableStateFactory {
+
+
+	/**
+	 * Default constructor: object identifier independent.
+	 */
+	public CachedHashableStateFactory() {
+	}
+
+	/**
+	 * Initializes.
+	 * @param identifierIndependent if true then state evaluations for {@link burlap.mdp.core.oo.state.OOState}s are object identifier independent; if false then dependent.
+	 */
+	public CachedHashableStateFactory(boolean identifierIndependent) {
+		super(identifierIndependent);
+	}
+
+	@Override
+	public HashableState hashState(State s) {
+		if(s instanceof IICachedHashableState || s instanceof IDCachedHashableState){
+			return (HashableState)s;
+		}
+
+		if(s instanceof HashableState){
+			s = ((HashableState)s).s();
+		}
+
+		if(identifierIndependent){
+			return new IICachedHashableState(s);
+		}
+		return new IDCachedHashableState(s);
+	}
+
+
+	/**
+	 * Final avalanche step of the 32-bit MurmurHash3 function, which spreads the bits of the input across the
+	 * whole hash code so that hash tables using the low bits get a good distribution.
+	 * @param h the hash code to mix
+	 * @return the mixed hash code
+	 */
+	public static int mix(int h){
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+
+	/**
+	 * Returns the hash code of a state variable value. Arrays are hashed by their contents and null values have a hash code of 0.
+	 * @param value the state variable value
+	 * @return the hash code of the value
+	 */
+	public static int valueHash(Object value){
+		if(value == null){
+			return 0;
+		}
+		if(value.getClass().isArray()){
+			if(value instanceof int[]){
+				return Arrays.hashCode((int[])value);
+			} else if(value instanceof double[]){
+				return Arrays.hashCode((double[])value);
+			} else if(value instanceof long[]){
+				return Arrays.hashCode((long[])value);
+			} else if(value instanceof short[]){
+				return Arrays.hashCode((short[])value);
+			} else if(value instanceof char[]){
+				return Arrays.hashCode((char[])value);
+			} else if(value instanceof byte[]){
+				return Arrays.hashCode((byte[])value);
+			} else if(value instanceof float[]){
+				return Arrays.hashCode((float[])value);
+			} else if(value instanceof boolean[]){
+				return Arrays.hashCode((boolean[])value);
+			}
+			return Arrays.deepHashCode((Object[])value);
+		}
+		return value.hashCode();
+	}
+
+}
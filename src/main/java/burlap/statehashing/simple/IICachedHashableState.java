@@ -0,0 +1,98 @@
+package burlap.statehashing.simple;
+
+import burlap.mdp.core.oo.state.OOState;
+import burlap.mdp.core.oo.state.ObjectInstance;
+import burlap.mdp.core.state.PrimitiveState;
+import burlap.mdp.core.state.State;
+import burlap.mdp.core.state.StateUtilities;
+import burlap.statehashing.HashableState;
+
+import java.util.List;
+
+/**
+ * An identifier independent {@link IISimpleHashableState} that computes its hash code once when the state is set and
+ * rejects equality with other {@link IICachedHashableState}s immediately if their hash codes differ.
+ * See {@link CachedHashableStateFactory} for more information.
+ */
+public class IICachedHashableState extends IISimpleHashableState {
+
+	/**
+	 * The memoized hash code
+	 */
+	protected int hashCode;
+
+	public IICachedHashableState() {
+	}
+
+	public IICachedHashableState(State s) {
+		super(s);
+		this.hashCode = computeHashCode(s);
+	}
+
+	@Override
+	public void setS(State s) {
+		super.setS(s);
+		this.hashCode = computeHashCode(s);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(obj == this){
+			return true;
+		}
+		if(obj instanceof IICachedHashableState && ((IICachedHashableState)obj).hashCode != this.hashCode){
+			return false;
+		}
+		if(!(obj instanceof HashableState)){
+			return false;
+		}
+		return statesEqual(this.s, ((HashableState)obj).s());
+	}
+
+	@Override
+	protected int computeOOHashCode(OOState s) {
+
+		//summing the mixed object hash codes is invariant to object order, so no sort is needed
+		int hash = 0;
+		List<ObjectInstance> objects = s.objects();
+		for(int i = 0; i < objects.size(); i++){
+			ObjectInstance o = objects.get(i);
+			int totalHash = this.computeFlatHashCode(o) + 31*o.className().hashCode();
+			hash += CachedHashableStateFactory.mix(totalHash);
+		}
+
+		return CachedHashableStateFactory.mix(hash);
+	}
+
+	@Override
+	protected int computeFlatHashCode(State s) {
+
+		if(s instanceof PrimitiveState && this.primitiveAccess()){
+			return CachedHashableStateFactory.mix(StateUtilities.primitiveHashCode((PrimitiveState)s, 1));
+		}
+
+		int hash = 1;
+		List<Object> keys = s.variableKeys();
+		for(int i = 0; i < keys.size(); i++){
+			Object key = keys.get(i);
+			hash = 31*hash + this.valueHash(key, s.get(key));
+		}
+
+		return CachedHashableStateFactory.mix(hash);
+	}
+
+	/**
+	 * Returns the hash code for the value of a state variable. Subclasses that change value equality should override this method.
+	 * @param key the state variable key
+	 * @param value the state variable value
+	 * @return the hash code of the value
+	 */
+	protected int valueHash(Object key, Object value){
+		return CachedHashableStateFactory.valueHash(value);
+	}
+}
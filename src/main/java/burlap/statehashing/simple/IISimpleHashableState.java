@@ -3,7 +3,9 @@ package burlap.statehashing.simple;
 import burlap.mdp.core.oo.state.OOState;
 import burlap.mdp.core.oo.state.OOStateUtilities;
 import burlap.mdp.core.oo.state.ObjectInstance;
+import burlap.mdp.core.state.PrimitiveState;
 import burlap.mdp.core.state.State;
+import burlap.mdp.core.state.StateUtilities;
 import burlap.statehashing.HashableState;
 import burlap.statehashing.WrappedHashableState;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -75,6 +77,10 @@ public class IISimpleHashableState extends WrappedHashableState {
 
 	protected int computeFlatHashCode(State s){
 
+		if(s instanceof PrimitiveState && this.primitiveAccess()){
+			return StateUtilities.primitiveHashCode((PrimitiveState)s, 17);
+		}
+
 		HashCodeBuilder hashCodeBuilder = new HashCodeBuilder(17, 31);
 
 		List<Object> keys = s.variableKeys();
@@ -86,6 +92,16 @@ public class IISimpleHashableState extends WrappedHashableState {
 		return hashCodeBuilder.toHashCode();
 	}
 
+	/**
+	 * Returns whether {@link PrimitiveState}s may be hashed and compared through their unboxed accessors rather than
+	 * through {@link #appendHashCodeForValue(HashCodeBuilder, Object, Object)} and {@link #valuesEqual(Object, Object, Object)}.
+	 * Subclasses that override how values are hashed or compared must return false.
+	 * @return true if primitive variable access may be used; false otherwise.
+	 */
+	protected boolean primitiveAccess(){
+		return true;
+	}
+
 	protected void appendHashCodeForValue(HashCodeBuilder hashCodeBuilder, Object key, Object value){
 		hashCodeBuilder.append(value);
 	}
@@ -156,6 +172,10 @@ public class IISimpleHashableState extends WrappedHashableState {
 			return true;
 		}
 
+		if(s1 instanceof PrimitiveState && s1.getClass() == s2.getClass() && this.primitiveAccess()){
+			return StateUtilities.primitiveStatesEqual((PrimitiveState)s1, (PrimitiveState)s2);
+		}
+
 		List<Object> keys1 = s1.variableKeys();
 		List<Object> keys2 = s2.variableKeys();
 
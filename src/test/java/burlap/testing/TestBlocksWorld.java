@@ -0,0 +1,48 @@
+package burlap.testing;
+
+import burlap.domain.singleagent.blocksworld.BlocksWorld;
+import burlap.domain.singleagent.blocksworld.BlocksWorldBlock;
+import burlap.domain.singleagent.blocksworld.BlocksWorldState;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.singleagent.oo.OOSADomain;
+import burlap.mdp.singleagent.oo.ObjectParameterizedActionType.SAObjectParameterizedAction;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestBlocksWorld {
+	OOSADomain domain;
+
+	@Before
+	public void setup() {
+		this.domain = new BlocksWorld().generateDomain();
+	}
+
+	@After
+	public void teardown() {
+		this.domain = null;
+	}
+
+	@Test
+	public void testStack() {
+		BlocksWorldState s = (BlocksWorldState)BlocksWorld.getNewState(3);
+		Action stack = new SAObjectParameterizedAction(BlocksWorld.ACTION_STACK, new String[]{"block0", "block1"});
+		BlocksWorldState ns = (BlocksWorldState)this.domain.getModel().sample(s, stack).op;
+
+		Assert.assertEquals("block1", ((BlocksWorldBlock)ns.object("block0")).on);
+		Assert.assertFalse(((BlocksWorldBlock)ns.object("block1")).clear);
+		Assert.assertTrue(((BlocksWorldBlock)ns.object("block0")).clear);
+
+		//the source state must not be changed by the transition
+		Assert.assertEquals(BlocksWorld.TABLE_VAL, ((BlocksWorldBlock)s.object("block0")).on);
+		Assert.assertTrue(((BlocksWorldBlock)s.object("block1")).clear);
+
+		Action unstack = new SAObjectParameterizedAction(BlocksWorld.ACTION_UNSTACK, new String[]{"block0"});
+		BlocksWorldState us = (BlocksWorldState)this.domain.getModel().sample(ns, unstack).op;
+		Assert.assertEquals(BlocksWorld.TABLE_VAL, ((BlocksWorldBlock)us.object("block0")).on);
+		Assert.assertTrue(((BlocksWorldBlock)us.object("block1")).clear);
+		Assert.assertFalse(((BlocksWorldBlock)ns.object("block1")).clear);
+	}
+
+}
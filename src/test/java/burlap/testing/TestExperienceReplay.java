@@ -0,0 +1,128 @@
+package burlap.testing;
+
+import burlap.behavior.functionapproximation.dense.DenseLinearVFA;
+import burlap.behavior.functionapproximation.dense.DenseStateFeatures;
+import burlap.behavior.singleagent.learning.experiencereplay.ColumnarExperienceMemory;
+import burlap.behavior.singleagent.learning.experiencereplay.FixedSizeMemory;
+import burlap.behavior.singleagent.learning.experiencereplay.PrimitiveStateCodec;
+import burlap.behavior.singleagent.learning.experiencereplay.PrioritizedReplayMemory;
+import burlap.behavior.singleagent.learning.tdmethods.vfa.GradientDescentQLearning;
+import burlap.datastructures.SumTree;
+import burlap.debugtools.RandomFactory;
+import burlap.domain.singleagent.gridworld.GridWorldDomain;
+import burlap.domain.singleagent.gridworld.state.GridAgent;
+import burlap.domain.singleagent.gridworld.state.GridLocation;
+import burlap.domain.singleagent.gridworld.state.GridWorldState;
+import burlap.mdp.core.action.SimpleAction;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.SimulatedEnvironment;
+import burlap.mdp.singleagent.oo.OOSADomain;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestExperienceReplay {
+	TestPlanning planningTest;
+	OOSADomain domain;
+	SimpleHashableStateFactory hashingFactory;
+
+	@Before
+	public void setup() {
+		this.planningTest = new TestPlanning();
+		this.planningTest.setup();
+		this.domain = this.planningTest.domain;
+		this.hashingFactory = this.planningTest.hashingFactory;
+	}
+
+	@Test
+	public void testPrioritizedReplay() {
+		SumTree tree = new SumTree(5);
+		double [] ps = new double[]{1., 0., 3., 2., 0.};
+		for(int i = 0; i < ps.length; i++){
+			tree.set(i, ps[i]);
+		}
+		Assert.assertEquals(6., tree.total(), TestPlanning.delta);
+		Assert.assertEquals(1., tree.minPositive(), TestPlanning.delta);
+		Assert.assertEquals(0, tree.find(0.5));
+		Assert.assertEquals(2, tree.find(1.));
+		Assert.assertEquals(2, tree.find(3.99));
+		Assert.assertEquals(3, tree.find(4.));
+		Assert.assertEquals(3, tree.find(7.));
+
+		//equal initial priorities stratify one sample to each experience, in order
+		PrioritizedReplayMemory memory = new PrioritizedReplayMemory(3, 1., 1.);
+		memory.setEpsilon(0.);
+		List<EnvironmentOutcome> outcomes = new ArrayList<EnvironmentOutcome>();
+		for(int i = 0; i < 3; i++){
+			outcomes.add(new EnvironmentOutcome(null, null, null, i, false));
+			memory.addExperience(outcomes.get(i));
+		}
+		RandomFactory.seedMapped(0, 42);
+		Assert.assertEquals(outcomes, memory.sampleExperiences(3));
+		memory.updateLastSamplePriorities(new double[]{-4., 2., 1.});
+
+		int n = 7000;
+		List<EnvironmentOutcome> samples = memory.sampleExperiences(n);
+		int [] counts = new int[3];
+		for(int i = 0; i < n; i++){
+			int ind = (int)samples.get(i).r;
+			counts[ind]++;
+			Assert.assertEquals(1. / (1 << (2 - ind)), memory.lastSampleWeights()[i], TestPlanning.delta);
+		}
+		Assert.assertEquals(4000, counts[0], 1);
+		Assert.assertEquals(2000, counts[1], 1);
+		Assert.assertEquals(1000, counts[2], 1);
+
+		//prioritized updates in the learner
+		GridWorldState initialState = this.planningTest.gridState(0, 0);
+		DenseLinearVFA vfa = new DenseLinearVFA(this.planningTest.gridFeatures(), 0.);
+		RandomFactory.seedMapped(0, 42);
+		GradientDescentQLearning agent = new GradientDescentQLearning(domain, 0.99, vfa, 0.1);
+		PrioritizedReplayMemory agentMemory = new PrioritizedReplayMemory(1000);
+		agent.setExperienceReplay(agentMemory, 16);
+		SimulatedEnvironment env = new SimulatedEnvironment(domain, initialState);
+		agent.runLearningEpisode(env, 200);
+		Assert.assertEquals(16, agentMemory.lastSampleWeights().length);
+		Assert.assertTrue(agentMemory.getMaxPriority() > 1.);
+	}
+
+	@Test
+	public void testColumnarExperienceMemory() {
+		GridWorldState initialState = this.planningTest.gridState(0, 0);
+		DenseStateFeatures features = this.planningTest.gridFeatures();
+
+		DenseLinearVFA [] vfas = new DenseLinearVFA[2];
+		for(int i = 0; i < 2; i++){
+			vfas[i] = new DenseLinearVFA(features, 0.);
+			RandomFactory.seedMapped(0, 42);
+			GradientDescentQLearning agent = new GradientDescentQLearning(domain, 0.99, vfas[i], 0.01);
+			agent.setExperienceReplay(i == 0 ? new FixedSizeMemory(300, true) : new ColumnarExperienceMemory(300, new PrimitiveStateCodec(initialState), true), 16);
+			SimulatedEnvironment env = new SimulatedEnvironment(domain, initialState);
+			for(int e = 0; e < 3; e++){
+				agent.runLearningEpisode(env, 200);
+				env.resetEnvironment();
+			}
+		}
+		for(int i = 0; i < vfas[0].numParameters(); i++){
+			Assert.assertEquals(vfas[0].getParameter(i), vfas[1].getParameter(i), 0.);
+		}
+
+		//a state whose object names differ from the codec prototype is stored as an object
+		GridWorldState renamed = new GridWorldState(new GridAgent(1, 0), new GridLocation(10, 10, 0, "goal"));
+		PrimitiveStateCodec codec = new PrimitiveStateCodec(initialState);
+		Assert.assertTrue(codec.encodes(this.planningTest.gridState(1, 0)));
+		Assert.assertFalse(codec.encodes(renamed));
+		Assert.assertTrue(codec.encodes(this.planningTest.gridState(3, 4)));
+		ColumnarExperienceMemory memory = new ColumnarExperienceMemory(2, codec);
+		memory.addExperience(new EnvironmentOutcome(initialState, new SimpleAction(GridWorldDomain.ACTION_EAST), renamed, -1., false));
+		EnvironmentOutcome eo = memory.sampleExperiences(2).get(0);
+		Assert.assertNotSame(initialState, eo.o);
+		Assert.assertEquals("loc0", ((GridWorldState)eo.o).locations.get(0).name());
+		Assert.assertSame(renamed, eo.op);
+	}
+
+}
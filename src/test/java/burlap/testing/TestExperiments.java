@@ -0,0 +1,244 @@
+package burlap.testing;
+
+import burlap.behavior.singleagent.auxiliary.performance.ExperimentMetricsSink;
+import burlap.behavior.singleagent.auxiliary.performance.LearningAlgorithmExperimenter;
+import burlap.behavior.singleagent.auxiliary.performance.PerformanceMetric;
+import burlap.behavior.singleagent.auxiliary.performance.StreamingCSVMetricsSink;
+import burlap.behavior.singleagent.auxiliary.performance.TrialMode;
+import burlap.behavior.singleagent.learning.LearningAgent;
+import burlap.behavior.singleagent.learning.LearningAgentFactory;
+import burlap.behavior.singleagent.learning.tdmethods.QLearning;
+import burlap.debugtools.RandomFactory;
+import burlap.domain.singleagent.gridworld.state.GridWorldState;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentFactory;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.SimulatedEnvironment;
+import burlap.mdp.singleagent.oo.OOSADomain;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestExperiments {
+	TestPlanning planningTest;
+	OOSADomain domain;
+	SimpleHashableStateFactory hashingFactory;
+
+	@Before
+	public void setup() {
+		this.planningTest = new TestPlanning();
+		this.planningTest.setup();
+		this.domain = this.planningTest.domain;
+		this.hashingFactory = this.planningTest.hashingFactory;
+	}
+
+	@Test
+	public void testSeededTrials() {
+		List<List<Double>> serial = this.runSeededExperiment(7, 1);
+		Assert.assertEquals(3, serial.size());
+		Assert.assertEquals(serial, this.runSeededExperiment(7, 1));
+		Assert.assertEquals(serial, this.runSeededExperiment(7, 3));
+
+		//each trial has its own seed, so the exploration of the trials differs
+		Assert.assertFalse(serial.get(0).equals(serial.get(1)));
+	}
+
+	@Test
+	public void testThreadRandomFactory() throws InterruptedException {
+		RandomFactory f = new RandomFactory(5);
+		RandomFactory.setThreadFactory(f);
+		final Random threadRandom = RandomFactory.getMapped(0);
+		final Random [] otherRandom = new Random[1];
+		try {
+			Assert.assertSame(f, RandomFactory.getThreadFactory());
+			Assert.assertSame(f.ingetMapped(0), threadRandom);
+			Thread other = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					otherRandom[0] = RandomFactory.getMapped(0);
+				}
+			});
+			other.start();
+			other.join();
+		} finally {
+			RandomFactory.setThreadFactory(null);
+		}
+
+		//other threads, and this thread once its factory is removed, use the global factory
+		Assert.assertNull(RandomFactory.getThreadFactory());
+		Assert.assertNotSame(threadRandom, otherRandom[0]);
+		Assert.assertSame(otherRandom[0], RandomFactory.getMapped(0));
+
+		//factories with the same base seed produce the same sequences
+		Assert.assertEquals(new RandomFactory(5).ingetMapped(3).nextLong(), new RandomFactory(5).ingetMapped(3).nextLong());
+		Assert.assertEquals(new RandomFactory(5).ingetMapped("test").nextLong(), new RandomFactory(5).ingetMapped("test").nextLong());
+	}
+
+	@Test
+	public void testStringMappedRandom() {
+		Random r = RandomFactory.getMapped("testStringMappedRandom");
+		Assert.assertSame(r, RandomFactory.getMapped("testStringMappedRandom"));
+		Random seeded = RandomFactory.seedMapped("testStringMappedRandom", 3);
+		Assert.assertSame(seeded, RandomFactory.getMapped("testStringMappedRandom"));
+		Assert.assertEquals(new Random(3).nextLong(), RandomFactory.getMapped("testStringMappedRandom").nextLong());
+	}
+
+	@Test
+	public void testStreamingCSVMatchesPlotter() throws IOException {
+		for(int parallelism : new int[]{1, 3}){
+			File plotterBase = File.createTempFile("plotter", "");
+			File streamedBase = File.createTempFile("streamed", "");
+			plotterBase.deleteOnExit();
+			streamedBase.deleteOnExit();
+
+			LearningAlgorithmExperimenter exp = this.seededExperiment(7, parallelism);
+			exp.setUpPlottingConfiguration(500, 250, 2, 500, TrialMode.MOST_RECENT_AND_AVERAGE, PerformanceMetric.CUMULATIVE_REWARD_PER_STEP);
+			exp.toggleVisualPlots(false);
+			exp.setMetricsSink(new StreamingCSVMetricsSink(streamedBase.getPath()));
+			exp.startExperiment();
+			exp.writeStepAndEpisodeDataToCSV(plotterBase.getPath());
+
+			for(String suffix : new String[]{"Steps.csv", "Episodes.csv"}){
+				String plotted = readFile(plotterBase.getPath() + suffix);
+				Assert.assertTrue(plotted.split("\n").length > 1);
+				Assert.assertEquals(plotted, readFile(streamedBase.getPath() + suffix));
+			}
+		}
+	}
+
+	/**
+	 * Runs three seeded episode-bound Q-learning trials and returns the return of each episode of each trial.
+	 * @param seed the experiment seed
+	 * @param parallelism the number of trials run in parallel
+	 * @return the episode returns of each trial
+	 */
+	public List<List<Double>> runSeededExperiment(long seed, int parallelism) {
+		LearningAlgorithmExperimenter exp = this.seededExperiment(seed, parallelism);
+		exp.toggleVisualPlots(false);
+		ReturnRecorder recorder = new ReturnRecorder();
+		exp.setMetricsSink(recorder);
+		exp.startExperiment();
+		return recorder.trials;
+	}
+
+	/**
+	 * Creates an experiment of three seeded trials of five Q-learning episodes, each in its own environment.
+	 * @param seed the experiment seed
+	 * @param parallelism the number of trials run in parallel
+	 * @return the experimenter
+	 */
+	public LearningAlgorithmExperimenter seededExperiment(long seed, int parallelism) {
+		final GridWorldState initialState = this.planningTest.gridState(0, 0);
+		LearningAgentFactory factory = new LearningAgentFactory() {
+			@Override
+			public String getAgentName() {
+				return "Q-learning";
+			}
+
+			@Override
+			public LearningAgent generateAgent() {
+				return new QLearning(domain, 0.99, hashingFactory, 0., 0.5);
+			}
+		};
+
+		LearningAlgorithmExperimenter exp = new LearningAlgorithmExperimenter(new SimulatedEnvironment(domain, initialState), 3, 5, factory);
+		exp.setTrialSeed(seed);
+		exp.setParallelTrials(parallelism, new EnvironmentFactory() {
+			@Override
+			public Environment generateEnvironment() {
+				return new SimulatedEnvironment(domain, initialState);
+			}
+		});
+		return exp;
+	}
+
+	/**
+	 * Returns the contents of a file.
+	 * @param path the path of the file
+	 * @return the contents of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	public static String readFile(String path) throws IOException {
+		File f = new File(path);
+		f.deleteOnExit();
+		BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(f), "UTF-8"));
+		try {
+			StringBuilder contents = new StringBuilder();
+			char [] buffer = new char[4096];
+			int n;
+			while((n = in.read(buffer)) != -1){
+				contents.append(buffer, 0, n);
+			}
+			return contents.toString();
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * An {@link ExperimentMetricsSink} that records the return of each episode of each trial.
+	 */
+	public static class ReturnRecorder implements ExperimentMetricsSink {
+
+		List<List<Double>> trials = new ArrayList<List<Double>>();
+		boolean collectData = false;
+		double episodeReturn = 0.;
+
+		@Override
+		public void toggleDataCollection(boolean collectData) {
+			this.collectData = collectData;
+		}
+
+		@Override
+		public void startNewAgent(String agentName) {
+		}
+
+		@Override
+		public void startNewTrial() {
+			this.trials.add(new ArrayList<Double>());
+			this.episodeReturn = 0.;
+		}
+
+		@Override
+		public void endEpisode() {
+			this.trials.get(this.trials.size() - 1).add(this.episodeReturn);
+			this.episodeReturn = 0.;
+		}
+
+		@Override
+		public void endTrial() {
+		}
+
+		@Override
+		public void endAllAgents() {
+		}
+
+		@Override
+		public void observeEnvironmentActionInitiation(State o, Action action) {
+		}
+
+		@Override
+		public void observeEnvironmentInteraction(EnvironmentOutcome eo) {
+			if(this.collectData) {
+				this.episodeReturn += eo.r;
+			}
+		}
+
+		@Override
+		public void observeEnvironmentReset(Environment resetEnvironment) {
+		}
+	}
+
+}
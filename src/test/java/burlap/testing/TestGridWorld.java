@@ -1,5 +1,10 @@
 package burlap.testing;
 
+import burlap.behavior.policy.PolicyUtils;
+import burlap.behavior.policy.RandomPolicy;
+import burlap.behavior.singleagent.BinaryEpisodeReader;
+import burlap.behavior.singleagent.BinaryEpisodeWriter;
+import burlap.behavior.singleagent.Episode;
 import burlap.domain.singleagent.gridworld.GridWorldDomain;
 import burlap.domain.singleagent.gridworld.state.GridAgent;
 import burlap.domain.singleagent.gridworld.state.GridLocation;
@@ -11,12 +16,19 @@ import burlap.mdp.core.oo.propositional.PropositionalFunction;
 import burlap.mdp.core.oo.state.OOState;
 import burlap.mdp.core.state.State;
 import burlap.mdp.core.action.ActionType;
+import burlap.mdp.core.action.SimpleAction;
 import burlap.mdp.singleagent.oo.OOSADomain;
+import burlap.statehashing.HashableStateFactory;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 public class TestGridWorld {
@@ -105,6 +117,66 @@ public class TestGridWorld {
 		this.assertPFs(s, new boolean[] {true, true, false, true, false});
 	}
 	
+	@Test
+	public void testBinaryEpisodes() throws IOException {
+		List<Episode> episodes = new ArrayList<Episode>();
+		RandomPolicy p = new RandomPolicy(domain);
+		for(int i = 0; i < 5; i++){
+			episodes.add(PolicyUtils.rollout(p, this.generateState(), domain.getModel(), 20));
+		}
+
+		File f = File.createTempFile("episodes", ".bin");
+		f.deleteOnExit();
+		BinaryEpisodeWriter writer = new BinaryEpisodeWriter(f.getPath());
+		for(int i = 0; i < episodes.size(); i++){
+			writer.toggleColumnarStates(i != 2);
+			writer.write(episodes.get(i));
+		}
+		writer.close();
+
+		HashableStateFactory hf = new SimpleHashableStateFactory();
+		Iterator<Episode> it = new BinaryEpisodeReader(f.getPath()).iterator();
+		for(Episode expected : episodes){
+			Assert.assertTrue(it.hasNext());
+			Episode e = it.next();
+			Assert.assertEquals(expected.numTimeSteps(), e.numTimeSteps());
+			Assert.assertEquals(expected.actionString(), e.actionString());
+			Assert.assertEquals(expected.rewardSequence, e.rewardSequence);
+			for(int t = 0; t < expected.numTimeSteps(); t++){
+				Assert.assertEquals(hf.hashState(expected.state(t)), hf.hashState(e.state(t)));
+			}
+		}
+		Assert.assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testBinaryEpisodeObjectNames() throws IOException {
+		//states that differ only in their object names cannot be reconstructed from each other's prototype
+		GridWorldState s0 = new GridWorldState(new GridAgent(1, 2), new GridLocation(3, 4, 0, "loc0"));
+		GridWorldState s1 = new GridWorldState(new GridAgent(1, 2), new GridLocation(3, 4, 0, "goal"));
+		GridWorldState s2 = new GridWorldState(new GridAgent(2, 2), new GridLocation(3, 4, 0, "goal"));
+		Episode episode = new Episode(s0);
+		episode.transition(new SimpleAction(GridWorldDomain.ACTION_EAST), s1, -1.);
+		episode.transition(new SimpleAction(GridWorldDomain.ACTION_EAST), s2, -1.);
+
+		File f = File.createTempFile("episodes", ".bin");
+		f.deleteOnExit();
+		BinaryEpisodeWriter writer = new BinaryEpisodeWriter(f.getPath());
+		writer.write(episode);
+		writer.close();
+
+		Episode e = new BinaryEpisodeReader(f.getPath()).readAll().get(0);
+		Assert.assertEquals(episode.numTimeSteps(), e.numTimeSteps());
+		for(int t = 0; t < episode.numTimeSteps(); t++){
+			GridWorldState expected = (GridWorldState)episode.state(t);
+			GridWorldState s = (GridWorldState)e.state(t);
+			Assert.assertEquals(expected.variableKeys(), s.variableKeys());
+			Assert.assertEquals(expected.locations.get(0).name(), s.locations.get(0).name());
+			Assert.assertEquals(expected.agent.x, s.agent.x);
+			Assert.assertEquals(expected.agent.y, s.agent.y);
+		}
+	}
+
 	@After
 	public void teardown() {
 		this.domain = null;
@@ -4,7 +4,9 @@ import burlap.domain.singleagent.gridworld.GridWorldDomain;
 import burlap.domain.singleagent.gridworld.state.GridAgent;
 import burlap.domain.singleagent.gridworld.state.GridLocation;
 import burlap.domain.singleagent.gridworld.state.GridWorldState;
+import burlap.domain.singleagent.lunarlander.state.LLAgent;
 import burlap.mdp.core.action.Action;
+import burlap.mdp.core.oo.state.OOVariableKey;
 import burlap.mdp.core.state.State;
 import burlap.mdp.core.action.ActionType;
 import burlap.mdp.core.action.ActionUtils;
@@ -13,8 +15,10 @@ import burlap.mdp.singleagent.model.FullModel;
 import burlap.mdp.singleagent.model.TransitionProb;
 import burlap.statehashing.HashableState;
 import burlap.statehashing.HashableStateFactory;
+import burlap.statehashing.simple.CachedHashableStateFactory;
 import burlap.statehashing.simple.SimpleHashableStateFactory;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -78,8 +82,63 @@ public class TestHashing {
 		assert(hashedStates.size() == 208);
 	}
 
+	@Test
+	public void testCachedHashFactory() {
+		SADomain domain = (SADomain)this.gridWorldTest.getDomain();
+		State startState = this.gridWorldTest.generateState();
+
+		for(boolean identifierIndependent : new boolean[]{true, false}){
+			HashableStateFactory factory = new CachedHashableStateFactory(identifierIndependent);
+			Set<HashableState> hashedStates = this.getReachableHashedStates(startState, domain, factory);
+			Assert.assertEquals(104, hashedStates.size());
+
+			Set<HashableState> renamedStates = new HashSet<HashableState>();
+			for (HashableState state : hashedStates) {
+				HashableState copyHashed = factory.hashState(state.s().copy());
+				Assert.assertEquals(state.hashCode(), copyHashed.hashCode());
+				Assert.assertEquals(state, copyHashed);
+
+				State renamed = this.renameObjects((GridWorldState)state.s().copy());
+				renamedStates.add(factory.hashState(renamed));
+			}
+			hashedStates.addAll(renamedStates);
+			Assert.assertEquals(identifierIndependent ? 104 : 208, hashedStates.size());
+		}
+	}
+
+	@Test
+	public void testPrimitiveStateHashing() {
+		List<State> states = Arrays.<State>asList(new GridAgent(3, 7), new GridLocation(2, 5, 1, "loc0"), new LLAgent(1.5, -2.25, 0.1, 3.0, -0.7));
+		HashableStateFactory factory = new SimpleHashableStateFactory();
+		for(State s : states){
+			HashCodeBuilder builder = new HashCodeBuilder(17, 31);
+			for(Object key : s.variableKeys()){
+				builder.append(s.get(key));
+			}
+			HashableState sh = factory.hashState(s);
+			Assert.assertEquals(builder.toHashCode(), sh.hashCode());
+			Assert.assertEquals(sh, factory.hashState(s.copy()));
+		}
+		Assert.assertNotEquals(factory.hashState(new LLAgent(1.5, -2.25, 0.1, 3.0, -0.7)), factory.hashState(new LLAgent(1.5, -2.25, 0.1, 3.0, 0.7)));
+	}
+
+	@Test
+	public void testOOVariableKeyEquality() {
+		//keys are equal when they name the same variable of the same object, as their hash codes assume
+		OOVariableKey key = new OOVariableKey("agent", "x");
+		Assert.assertEquals(key, new OOVariableKey("agent:x"));
+		Assert.assertEquals(key.hashCode(), new OOVariableKey("agent:x").hashCode());
+		Assert.assertNotEquals(key, new OOVariableKey("agent", "y"));
+		Assert.assertNotEquals(key, new OOVariableKey("loc0", "x"));
+
+		//so the keys of separately created states with the same objects are equal
+		GridWorldState s0 = new GridWorldState(new GridAgent(1, 2), new GridLocation(3, 4, 0, "loc0"));
+		GridWorldState s1 = new GridWorldState(new GridAgent(5, 6), new GridLocation(7, 8, 1, "loc0"));
+		Assert.assertEquals(s0.variableKeys(), s1.variableKeys());
+		Assert.assertTrue(new HashSet<Object>(s0.variableKeys()).contains(key));
+		Assert.assertNotEquals(s0.variableKeys(), new GridWorldState(new GridAgent(1, 2), new GridLocation(3, 4, 0, "goal")).variableKeys());
+	}
 
-	
 	@Test
 	public void testSimpleHashFactoryLargeState() {
 		HashableStateFactory factory = new SimpleHashableStateFactory();
@@ -0,0 +1,278 @@
+package burlap.testing;
+
+import burlap.behavior.functionapproximation.dense.DenseCrossProductFeatures;
+import burlap.behavior.functionapproximation.dense.DenseLinearVFA;
+import burlap.behavior.functionapproximation.dense.DenseStateActionLinearVFA;
+import burlap.behavior.functionapproximation.dense.DenseStateFeatures;
+import burlap.behavior.functionapproximation.dense.NormalizedVariableFeatures;
+import burlap.behavior.functionapproximation.dense.fourier.FourierBasis;
+import burlap.behavior.functionapproximation.supervised.SupervisedVFA;
+import burlap.behavior.policy.Policy;
+import burlap.behavior.policy.GreedyQPolicy;
+import burlap.behavior.policy.PolicyUtils;
+import burlap.behavior.singleagent.Episode;
+import burlap.behavior.singleagent.learning.lspi.LSPI;
+import burlap.behavior.singleagent.learning.lspi.SARSCollector;
+import burlap.behavior.singleagent.learning.lspi.SARSData;
+import burlap.behavior.singleagent.learning.tdmethods.QLearning;
+import burlap.behavior.singleagent.learning.tdmethods.SarsaLam;
+import burlap.behavior.singleagent.learning.tdmethods.vfa.AsyncGradientDescentQLearning;
+import burlap.behavior.singleagent.learning.experiencereplay.FixedSizeMemory;
+import burlap.behavior.singleagent.learning.tdmethods.vfa.GradientDescentQLearning;
+import burlap.behavior.singleagent.planning.stochastic.valueiteration.ValueIteration;
+import burlap.behavior.singleagent.planning.vfa.fittedvi.FittedVI;
+import burlap.behavior.valuefunction.QValue;
+import burlap.behavior.valuefunction.ValueFunction;
+import burlap.debugtools.RandomFactory;
+import burlap.domain.singleagent.gridworld.state.GridAgent;
+import burlap.domain.singleagent.gridworld.state.GridLocation;
+import burlap.domain.singleagent.gridworld.state.GridWorldState;
+import burlap.domain.singleagent.mountaincar.MCRandomStateGenerator;
+import burlap.domain.singleagent.mountaincar.MountainCar;
+import burlap.mdp.auxiliary.common.ConstantStateGenerator;
+import burlap.mdp.core.state.State;
+import burlap.mdp.core.state.vardomain.VariableDomain;
+import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentFactory;
+import burlap.mdp.singleagent.environment.SimulatedEnvironment;
+import burlap.mdp.singleagent.environment.VectorEnvironment;
+import burlap.mdp.singleagent.model.SampleModel;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.oo.OOSADomain;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import org.ejml.simple.SimpleMatrix;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static burlap.behavior.policy.PolicyUtils.rollout;
+
+public class TestLearning {
+	TestPlanning planningTest;
+	OOSADomain domain;
+	SimpleHashableStateFactory hashingFactory;
+
+	@Before
+	public void setup() {
+		this.planningTest = new TestPlanning();
+		this.planningTest.setup();
+		this.domain = this.planningTest.domain;
+		this.hashingFactory = this.planningTest.hashingFactory;
+	}
+
+	@Test
+	public void testFlatQTable() {
+		GridWorldState initialState = new GridWorldState(new GridAgent(0, 0), new GridLocation(10, 10, 0, "loc0"));
+
+		ValueIteration vi = new ValueIteration(domain, 0.99, hashingFactory, 0.0001, 200);
+		vi.planFromState(initialState);
+		List<State> states = vi.getAllStates();
+
+		for(boolean sarsa : new boolean[]{false, true}){
+			QLearning [] learners = new QLearning[2];
+			for(int i = 0; i < 2; i++){
+				RandomFactory.seedMapped(0, 42);
+				learners[i] = sarsa ? new SarsaLam(domain, 0.99, hashingFactory, 0., 0.5, 0.8) : new QLearning(domain, 0.99, hashingFactory, 0., 0.5);
+				learners[i].toggleFlatQTable(i == 1);
+				SimulatedEnvironment env = new SimulatedEnvironment(domain, initialState);
+				for(int e = 0; e < 20; e++){
+					learners[i].runLearningEpisode(env, 1000);
+					env.resetEnvironment();
+				}
+			}
+
+			Assert.assertNotNull(learners[1].getFlatQTable());
+			for(State s : states){
+				if(domain.getModel().terminal(s)){
+					continue;
+				}
+				List<QValue> qs = learners[0].qValues(s);
+				List<QValue> fqs = learners[1].qValues(s);
+				Assert.assertEquals(qs.size(), fqs.size());
+				for(int j = 0; j < qs.size(); j++){
+					Assert.assertEquals(qs.get(j).a, fqs.get(j).a);
+					Assert.assertEquals(qs.get(j).q, fqs.get(j).q, 1e-9);
+				}
+			}
+		}
+	}
+	
+
+	@Test
+	public void testParallelLSTDQ() {
+		MountainCar mcGen = new MountainCar();
+		SADomain mcDomain = mcGen.generateDomain();
+		NormalizedVariableFeatures inputFeatures = new NormalizedVariableFeatures()
+				.variableDomain("x", new VariableDomain(mcGen.physParams.xmin, mcGen.physParams.xmax))
+				.variableDomain("v", new VariableDomain(mcGen.physParams.vmin, mcGen.physParams.vmax));
+		RandomFactory.seedMapped(0, 42);
+		SARSData dataset = new SARSCollector.UniformRandomSARSCollector(mcDomain)
+				.collectNInstances(new MCRandomStateGenerator(mcGen.physParams), mcDomain.getModel(), 1000, 20, null);
+
+		SimpleMatrix [] weights = new SimpleMatrix[2];
+		for(int i = 0; i < 2; i++){
+			LSPI lspi = new LSPI(mcDomain, 0.99, new DenseCrossProductFeatures(new FourierBasis(inputFeatures, 3), 3), dataset);
+			lspi.setAccumulationParallelism(i == 0 ? 1 : 3);
+			RandomFactory.seedMapped(0, 42);
+			weights[i] = lspi.LSTDQ();
+		}
+		Assert.assertTrue(weights[0].normF() > 0.);
+		Assert.assertEquals(0., weights[0].minus(weights[1]).normF(), 1e-6);
+
+		//the solved weights match per-sample Sherman-Morrison updates of the inverse from identityScalar * I
+		LSPI reference = new LSPI(mcDomain, 0.99, new DenseCrossProductFeatures(new FourierBasis(inputFeatures, 3), 3), dataset);
+		RandomFactory.seedMapped(0, 42);
+		SimpleMatrix expected = shermanMorrisonLSTDQ(reference, dataset, 0.99);
+		Assert.assertEquals(0., expected.minus(weights[0]).normF() / expected.normF(), 1e-6);
+	}
+
+	/**
+	 * Computes the LSTDQ weights of the initial greedy policy of an {@link LSPI} instance by applying a Sherman-Morrison update
+	 * to the inverse of the LSTDQ matrix for each sample, starting from identityScalar * I.
+	 * @param lspi the {@link LSPI} instance whose features, identity scalar, and greedy policy are used
+	 * @param dataset the samples
+	 * @param gamma the discount factor
+	 * @return the weights
+	 */
+	protected static SimpleMatrix shermanMorrisonLSTDQ(LSPI lspi, SARSData dataset, double gamma) {
+		Policy p = new GreedyQPolicy(lspi);
+		int nf = lspi.getSaFeatures().features(dataset.get(0).s, dataset.get(0).a).length;
+		SimpleMatrix B = SimpleMatrix.identity(nf).scale(lspi.getIdentityScalar());
+		SimpleMatrix b = new SimpleMatrix(nf, 1);
+		for(SARSData.SARS sars : dataset.dataset){
+			SimpleMatrix phi = new SimpleMatrix(nf, 1, true, lspi.getSaFeatures().features(sars.s, sars.a));
+			SimpleMatrix phiPrime = new SimpleMatrix(nf, 1, true, lspi.getSaFeatures().features(sars.sp, p.action(sars.sp)));
+			SimpleMatrix diff = phi.minus(phiPrime.scale(gamma));
+			SimpleMatrix numerator = B.mult(phi).mult(diff.transpose()).mult(B);
+			double denominator = diff.transpose().mult(B).mult(phi).get(0) + 1;
+			B = B.minus(numerator.scale(1. / denominator));
+			b = b.plus(phi.scale(sars.r));
+		}
+		return B.mult(b);
+	}
+
+	@Test
+	public void testVectorEnvironment() {
+		GridWorldState initialState = this.planningTest.gridState(0, 0);
+		VectorEnvironment env = new VectorEnvironment(domain.getModel(), new ConstantStateGenerator(initialState), 4);
+		env.setMaxEpisodeSteps(10);
+		env.setParallelism(2);
+
+		RandomFactory.seedMapped(0, 42);
+		SARSData dataset = new SARSCollector.UniformRandomSARSCollector(domain).collectNInstances(env, 118, null);
+		Assert.assertEquals(118, dataset.size());
+		Assert.assertEquals(0, ((GridWorldState)env.currentObservations()[0]).agent.x);
+		Assert.assertEquals(0, ((GridWorldState)env.currentObservations()[0]).agent.y);
+
+		//collectors that do not define their own action selection collect uniformly at random
+		SARSCollector collector = new SARSCollector(domain) {
+			@Override
+			public SARSData collectDataFrom(State s, SampleModel model, int maxSteps, SARSData intoDataset) {
+				return intoDataset;
+			}
+
+			@Override
+			public SARSData collectDataFrom(Environment env, int maxSteps, SARSData intoDataset) {
+				return intoDataset;
+			}
+		};
+		Assert.assertEquals(12, collector.collectNInstances(env, 12, null).size());
+
+		env.resetEnvironments();
+		DenseLinearVFA vfa = new DenseLinearVFA(this.planningTest.gridFeatures(), 0.);
+		GradientDescentQLearning agent = new GradientDescentQLearning(domain, 0.99, vfa, 0.01);
+		agent.setExperienceReplay(new FixedSizeMemory(100), 8);
+		List<Episode> episodes = agent.runLearningSteps(env, 25);
+		Assert.assertEquals(8, episodes.size());
+		for(Episode e : episodes){
+			Assert.assertEquals(10, e.maxTimeStep());
+		}
+		Assert.assertEquals(4, agent.runLearningSteps(env, 5).size());
+	}
+
+	@Test
+	public void testParallelSampleCollection() {
+		final GridWorldState initialState = new GridWorldState(new GridAgent(0, 0), new GridLocation(10, 10, 0, "loc0"));
+		SARSData dataset = new SARSCollector.UniformRandomSARSCollector(domain).collectNInstances(new EnvironmentFactory() {
+			@Override
+			public Environment generateEnvironment() {
+				return new SimulatedEnvironment(domain, initialState);
+			}
+		}, 100, 10, 3, null);
+		Assert.assertEquals(100, dataset.size());
+
+		//a tabular trainer with full transition dynamics makes fitted VI exact value iteration on the sampled cells
+		SupervisedVFA tabular = new SupervisedVFA() {
+			@Override
+			public ValueFunction train(List<SupervisedVFAInstance> trainingData) {
+				final double [][] values = new double[11][11];
+				for(SupervisedVFAInstance inst : trainingData){
+					GridAgent agent = ((GridWorldState)inst.s).agent;
+					values[agent.x][agent.y] = inst.v;
+				}
+				return new ValueFunction() {
+					@Override
+					public double value(State s) {
+						GridAgent agent = ((GridWorldState)s).agent;
+						return values[agent.x][agent.y];
+					}
+				};
+			}
+		};
+		List<State> samples = new ArrayList<State>();
+		int [][] map = this.planningTest.gw.getMap();
+		for(int x = 0; x < 11; x++){
+			for(int y = 0; y < 11; y++){
+				if(map[x][y] == 0){
+					samples.add(new GridWorldState(new GridAgent(x, y), new GridLocation(10, 10, 0, "loc0")));
+				}
+			}
+		}
+
+		FittedVI serial = new FittedVI(domain, 0.99, tabular, samples, -1, 0.001, 100);
+		FittedVI parallel = new FittedVI(domain, 0.99, tabular, samples, -1, 0.001, 100);
+		parallel.setIterationParallelism(4);
+		serial.runVI();
+		Policy p = parallel.planFromState(initialState);
+		for(State s : samples){
+			Assert.assertEquals(serial.value(s), parallel.value(s), 0.);
+		}
+		Episode e = PolicyUtils.rollout(p, initialState, domain.getModel());
+		this.planningTest.evaluateEpisode(e, true);
+	}
+
+	@Test
+	public void testAsyncQLearning() {
+		GridWorldState initialState = new GridWorldState(new GridAgent(0, 0), new GridLocation(10, 10, 0, "loc0"));
+
+		//one-hot cell features, so that the linear function is a Q-table
+		DenseStateFeatures features = new DenseStateFeatures() {
+			@Override
+			public double[] features(State s) {
+				GridAgent agent = ((GridWorldState)s).agent;
+				double [] f = new double[121];
+				f[agent.x * 11 + agent.y] = 1.;
+				return f;
+			}
+
+			@Override
+			public DenseStateFeatures copy() {
+				return this;
+			}
+		};
+		DenseStateActionLinearVFA vfa = new DenseStateActionLinearVFA(new DenseCrossProductFeatures(features, 4), 0.);
+
+		AsyncGradientDescentQLearning agent = new AsyncGradientDescentQLearning(domain, 0.99, vfa, 0.5, new ConstantStateGenerator(initialState), 4);
+		agent.setMaxEpisodeSteps(500);
+		agent.runLearningSteps(100000);
+		Assert.assertEquals(100000, agent.getTotalSteps());
+		Assert.assertTrue(agent.getTotalEpisodes() > 0);
+
+		Episode e = PolicyUtils.rollout(new GreedyQPolicy(agent), initialState, domain.getModel(), 100);
+		this.planningTest.evaluateEpisode(e, true);
+	}
+
+}
@@ -1,14 +1,27 @@
 package burlap.testing;
 
+import burlap.behavior.functionapproximation.dense.DenseStateFeatures;
 import burlap.behavior.policy.Policy;
 import burlap.behavior.policy.PolicyUtils;
 import burlap.behavior.singleagent.Episode;
+import burlap.behavior.singleagent.auxiliary.StateEnumerator;
+import burlap.behavior.singleagent.planning.PlanningStatistics;
 import burlap.behavior.singleagent.planning.deterministic.DeterministicPlanner;
 import burlap.behavior.singleagent.planning.deterministic.SDPlannerPolicy;
 import burlap.behavior.singleagent.planning.deterministic.informed.Heuristic;
 import burlap.behavior.singleagent.planning.deterministic.informed.astar.AStar;
 import burlap.behavior.singleagent.planning.deterministic.uninformed.bfs.BFS;
 import burlap.behavior.singleagent.planning.deterministic.uninformed.dfs.DFS;
+import burlap.behavior.singleagent.planning.stochastic.DynamicProgramming;
+import burlap.behavior.singleagent.planning.stochastic.montecarlo.uct.ArenaUCT;
+import burlap.behavior.singleagent.planning.stochastic.montecarlo.uct.UCT;
+import burlap.behavior.singleagent.planning.stochastic.montecarlo.uct.UCTActionNode;
+import burlap.behavior.singleagent.planning.stochastic.montecarlo.uct.UCTNodeArena;
+import burlap.behavior.singleagent.planning.stochastic.montecarlo.uct.UCTStateNode;
+import burlap.behavior.singleagent.planning.stochastic.rtdp.RTDP;
+import burlap.behavior.singleagent.planning.stochastic.sparsesampling.SparseSampling;
+import burlap.behavior.singleagent.planning.stochastic.valueiteration.ValueIteration;
+import burlap.behavior.valuefunction.QValue;
 import burlap.domain.singleagent.gridworld.GridWorldDomain;
 import burlap.domain.singleagent.gridworld.state.GridAgent;
 import burlap.domain.singleagent.gridworld.state.GridLocation;
@@ -17,16 +30,21 @@ import burlap.mdp.auxiliary.common.SinglePFTF;
 import burlap.mdp.auxiliary.stateconditiontest.StateConditionTest;
 import burlap.mdp.auxiliary.stateconditiontest.TFGoalCondition;
 import burlap.mdp.core.TerminalFunction;
+import burlap.mdp.core.action.Action;
 import burlap.mdp.core.oo.propositional.PropositionalFunction;
 import burlap.mdp.core.state.State;
 import burlap.mdp.singleagent.common.UniformCostRF;
 import burlap.mdp.singleagent.oo.OOSADomain;
+import burlap.statehashing.StateRegistry;
 import burlap.statehashing.simple.SimpleHashableStateFactory;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import static burlap.behavior.policy.PolicyUtils.rollout;
 import static burlap.domain.singleagent.gridworld.GridWorldDomain.PF_AT_LOCATION;
 
@@ -108,6 +126,292 @@ public class TestPlanning {
 		this.evaluateEpisode(analysis, true);
 	}
 	
+	@Test
+	public void testCompiledValueIteration() {
+		GridWorldState initialState = new GridWorldState(new GridAgent(0, 0), new GridLocation(10, 10, 0, "loc0"));
+
+		ValueIteration vi = new ValueIteration(domain, 0.99, hashingFactory, 0.0001, 200);
+		vi.planFromState(initialState);
+
+		ValueIteration cvi = new ValueIteration(domain, 0.99, hashingFactory, 0.0001, 200);
+		cvi.toggleCompiledModel(true);
+		Policy p = cvi.planFromState(initialState);
+		Assert.assertNotNull(cvi.getCompiledModel());
+
+		List<State> states = vi.getAllStates();
+		Assert.assertEquals(states.size(), cvi.getAllStates().size());
+		for(State s : states){
+			Assert.assertEquals(vi.value(s), cvi.value(s), 0.001);
+		}
+
+		Episode analysis = PolicyUtils.rollout(p, initialState, domain.getModel());
+		this.evaluateEpisode(analysis, true);
+	}
+	
+	@Test
+	public void testParallelValueIteration() {
+		GridWorldState initialState = new GridWorldState(new GridAgent(0, 0), new GridLocation(10, 10, 0, "loc0"));
+
+		ValueIteration vi = new ValueIteration(domain, 0.99, hashingFactory, 0.0001, 200);
+		vi.planFromState(initialState);
+		List<State> states = vi.getAllStates();
+
+		for(DynamicProgramming.SweepMode mode : DynamicProgramming.SweepMode.values()){
+			for(boolean compiled : new boolean[]{false, true}){
+				ValueIteration pvi = new ValueIteration(domain, 0.99, hashingFactory, 0.0001, 200);
+				pvi.setSweepParallelism(4);
+				pvi.setSweepMode(mode);
+				pvi.toggleCompiledModel(compiled);
+				Policy p = pvi.planFromState(initialState);
+
+				for(State s : states){
+					Assert.assertEquals(vi.value(s), pvi.value(s), 0.01);
+				}
+
+				Episode analysis = PolicyUtils.rollout(p, initialState, domain.getModel());
+				this.evaluateEpisode(analysis, true);
+			}
+		}
+	}
+	
+	@Test
+	public void testStateRegistry() {
+		GridWorldState initialState = new GridWorldState(new GridAgent(0, 0), new GridLocation(10, 10, 0, "loc0"));
+
+		ValueIteration vi = new ValueIteration(domain, 0.99, hashingFactory, 0.0001, 200);
+		vi.planFromState(initialState);
+		List<State> states = vi.getAllStates();
+
+		StateRegistry registry = new StateRegistry(hashingFactory);
+		ValueIteration rvi = new ValueIteration(domain, 0.99, registry, 0.0001, 200);
+		rvi.planFromState(initialState);
+		ValueIteration cvi = new ValueIteration(domain, 0.99, registry, 0.0001, 200);
+		cvi.toggleCompiledModel(true);
+		cvi.planFromState(initialState);
+
+		Assert.assertEquals(states.size(), registry.size());
+		for(State s : states){
+			Assert.assertEquals(vi.value(s), rvi.value(s), 0.001);
+			Assert.assertEquals(vi.value(s), cvi.value(s), 0.001);
+			int id = registry.idIfPresent(s);
+			Assert.assertTrue(id >= 0 && id < registry.size());
+			Assert.assertSame(registry.state(id), registry.hashState(s.copy()));
+		}
+
+		//looking up an unseen state does not register it
+		GridWorldState unseen = new GridWorldState(new GridAgent(0, 0), new GridLocation(3, 3, 0, "loc0"));
+		Assert.assertNull(registry.lookup(unseen));
+		Assert.assertEquals(states.size(), registry.size());
+
+		StateEnumerator enumerator = new StateEnumerator(domain, registry);
+		enumerator.findReachableStatesAndEnumerate(initialState);
+		Assert.assertEquals(states.size(), enumerator.numStatesEnumerated());
+		for(State s : states){
+			Assert.assertSame(registry.state(registry.id(s)).s(), enumerator.getStateForEnumerationId(enumerator.getEnumeratedID(s)));
+		}
+
+		StateEnumerator plain = new StateEnumerator(domain, hashingFactory);
+		plain.findReachableStatesAndEnumerate(initialState);
+		Assert.assertNull(plain.getRegistry());
+		Assert.assertEquals(states.size(), plain.numStatesEnumerated());
+	}
+	
+	@Test
+	public void testParallelUCT() {
+		GridWorldState initialState = this.gridState(7, 7);
+		for(UCT.ParallelMode mode : UCT.ParallelMode.values()){
+			UCT uct = new UCT(domain, 0.99, hashingFactory, 10, 2000, 2);
+			uct.setDebugCode(8841);
+			uct.toggleDebugPrinting(false);
+			uct.setParallelism(4);
+			uct.setParallelMode(mode);
+			uct.planFromState(initialState);
+
+			int rootVisits = 0;
+			UCTActionNode bestNode = null;
+			for(UCTActionNode anode : uct.getRoot().actionNodes){
+				rootVisits += anode.n;
+				if(bestNode == null || anode.averageReturn() > bestNode.averageReturn()){
+					bestNode = anode;
+				}
+			}
+			Assert.assertEquals(2000, rootVisits);
+
+			this.assertOptimalFromSevenSeven(bestNode.action);
+		}
+	}
+
+	@Test
+	public void testAnytimePlanning() {
+		GridWorldState initialState = new GridWorldState(new GridAgent(0, 0), new GridLocation(10, 10, 0, "loc0"));
+
+		UCT uct = new UCT(domain, 0.99, hashingFactory, 30, 1, 2);
+		uct.setDebugCode(8842);
+		uct.toggleDebugPrinting(false);
+		uct.planFromState(initialState, 50, TimeUnit.MILLISECONDS);
+		PlanningStatistics stats = uct.getLastPlanningStatistics();
+		Assert.assertTrue(stats.budgetExpired());
+		Assert.assertTrue(stats.getIterations() > 1);
+		Assert.assertTrue(stats.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+
+		//a shallow tree is completed before the budget expires
+		SparseSampling ss = new SparseSampling(domain, 0.99, hashingFactory, 2, -1);
+		ss.setComputeExactValueFunction(true);
+		ss.toggleDebugPrinting(false);
+		ss.planFromState(initialState, 10, TimeUnit.SECONDS);
+		Assert.assertFalse(ss.getLastPlanningStatistics().budgetExpired());
+		Assert.assertEquals(2, ss.getLastPlanningStatistics().getIterations());
+
+		RTDP rtdp = new RTDP(domain, 0.99, hashingFactory, 0., 1, 0.001, 100);
+		rtdp.toggleDebugPrinting(false);
+		Policy p = rtdp.planFromState(initialState, 10, TimeUnit.SECONDS);
+		Assert.assertFalse(rtdp.getLastPlanningStatistics().budgetExpired());
+		Assert.assertTrue(rtdp.getLastPlanningStatistics().getIterations() > 1);
+		Assert.assertEquals(rtdp.getNumberOfBellmanUpdates(), rtdp.getLastPlanningStatistics().getBackups());
+		Episode e = PolicyUtils.rollout(p, initialState, domain.getModel());
+		this.evaluateEpisode(e, true);
+	}
+
+	@Test
+	public void testTreeReuse() {
+		GridWorldState initialState = new GridWorldState(new GridAgent(7, 7), new GridLocation(10, 10, 0, "loc0"));
+		GridWorldState nextState = new GridWorldState(new GridAgent(8, 7), new GridLocation(10, 10, 0, "loc0"));
+
+		UCT uct = new UCT(domain, 0.99, hashingFactory, 10, 500, 2);
+		uct.setDebugCode(8843);
+		uct.toggleDebugPrinting(false);
+		uct.setReuseTree(true);
+		uct.planFromState(initialState);
+		UCTStateNode child = null;
+		for(UCTActionNode anode : uct.getRoot().actionNodes){
+			if(anode.action.actionName().equals(GridWorldDomain.ACTION_EAST)){
+				child = anode.getAllSuccessors().get(0);
+			}
+		}
+		int childVisits = 0;
+		for(UCTActionNode anode : child.actionNodes){
+			childVisits += anode.n;
+		}
+
+		uct.planFromState(nextState);
+		Assert.assertSame(child, uct.getRoot());
+		Assert.assertEquals(0, child.depth);
+		int rootVisits = 0;
+		for(UCTActionNode anode : uct.getRoot().actionNodes){
+			rootVisits += anode.n;
+		}
+		Assert.assertEquals(childVisits + 500, rootVisits);
+
+		SparseSampling reused = new SparseSampling(domain, 0.99, hashingFactory, 3, -1);
+		reused.setComputeExactValueFunction(true);
+		reused.setReuseSubtree(true);
+		reused.toggleDebugPrinting(false);
+		SparseSampling kept = new SparseSampling(domain, 0.99, hashingFactory, 3, -1);
+		kept.setComputeExactValueFunction(true);
+		kept.toggleDebugPrinting(false);
+		reused.planFromState(initialState);
+		kept.planFromState(initialState);
+		reused.planFromState(nextState);
+		kept.planFromState(nextState);
+		Assert.assertTrue(reused.getNumberOfStateNodesCreated() < kept.getNumberOfStateNodesCreated());
+		for(QValue q : kept.qValues(nextState)){
+			Assert.assertEquals(q.q, reused.qValue(nextState, q.a), delta);
+		}
+	}
+
+	@Test
+	public void testParallelBoundedSparseSampling() {
+		GridWorldState initialState = new GridWorldState(new GridAgent(7, 7), new GridLocation(10, 10, 0, "loc0"));
+
+		SparseSampling exact = new SparseSampling(domain, 0.99, hashingFactory, 6, -1);
+		exact.toggleDebugPrinting(false);
+		List<QValue> exactQs = exact.qValues(initialState);
+
+		//the grid world is deterministic, so sampled, parallel and bounded trees all compute the exact values
+		SparseSampling parallel = new SparseSampling(domain, 0.99, hashingFactory, 6, 2);
+		parallel.toggleDebugPrinting(false);
+		parallel.setParallelism(4);
+		SparseSampling bounded = new SparseSampling(domain, 0.99, hashingFactory, 6, -1);
+		bounded.toggleDebugPrinting(false);
+		bounded.setMaxStateNodes(20);
+		for(QValue q : exactQs){
+			Assert.assertEquals(q.q, parallel.qValue(initialState, q.a), delta);
+			Assert.assertEquals(q.q, bounded.qValue(initialState, q.a), delta);
+		}
+
+		Assert.assertTrue(bounded.getTranspositionTable().size() <= 20);
+		Assert.assertTrue(bounded.getTranspositionTable().getNumEvictions() > 0);
+		Assert.assertTrue(bounded.getNumberOfValueEsitmates() > exact.getNumberOfValueEsitmates());
+	}
+
+	@Test
+	public void testArenaUCT() {
+		GridWorldState initialState = this.gridState(7, 7);
+		for(int maxNodes : new int[]{-1, 100}){
+			ArenaUCT uct = new ArenaUCT(domain, 0.99, hashingFactory, 10, 2000, 2);
+			uct.setDebugCode(8844);
+			uct.toggleDebugPrinting(false);
+			uct.setMaxNodes(maxNodes);
+			uct.planFromState(initialState);
+
+			UCTNodeArena arena = uct.getArena();
+			if(maxNodes != -1){
+				Assert.assertTrue(arena.numNodes() <= maxNodes);
+			}
+			int rootVisits = 0;
+			int bestSlot = -1;
+			for(int slot = arena.firstSlot(uct.getRoot()); slot < arena.firstSlot(uct.getRoot()) + arena.numSlots(uct.getRoot()); slot++){
+				rootVisits += arena.slotVisits(slot);
+				if(bestSlot == -1 || arena.averageReturn(slot) > arena.averageReturn(bestSlot)){
+					bestSlot = slot;
+				}
+			}
+			Assert.assertEquals(2000, rootVisits);
+			Assert.assertEquals(2000, arena.visits(uct.getRoot()));
+
+			this.assertOptimalFromSevenSeven(arena.action(bestSlot));
+		}
+	}
+
+	/**
+	 * Returns a state of the test grid world with the agent at the given position and the goal location in the top right corner.
+	 * @param x the x position of the agent
+	 * @param y the y position of the agent
+	 * @return the state
+	 */
+	public GridWorldState gridState(int x, int y) {
+		return new GridWorldState(new GridAgent(x, y), new GridLocation(10, 10, 0, "loc0"));
+	}
+
+	/**
+	 * Returns dense linear features of the test grid world: a bias term and the x and y position of the agent scaled by a tenth.
+	 * @return the features
+	 */
+	public DenseStateFeatures gridFeatures() {
+		return new DenseStateFeatures() {
+			@Override
+			public double[] features(State s) {
+				GridAgent agent = ((GridWorldState)s).agent;
+				return new double[]{1., agent.x / 10., agent.y / 10.};
+			}
+
+			@Override
+			public DenseStateFeatures copy() {
+				return this;
+			}
+		};
+	}
+
+	/**
+	 * Asserts that the action is optimal in the state returned by gridState(7, 7): the agent is three steps south and west of the goal,
+	 * so only north and east are optimal.
+	 * @param action the action
+	 */
+	public void assertOptimalFromSevenSeven(Action action) {
+		String name = action.actionName();
+		Assert.assertTrue(name.equals(GridWorldDomain.ACTION_NORTH) || name.equals(GridWorldDomain.ACTION_EAST));
+	}
+
 	public void evaluateEpisode(Episode analysis) {
 		this.evaluateEpisode(analysis, false);
 	}
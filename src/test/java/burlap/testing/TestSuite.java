@@ -8,7 +8,12 @@ import org.junit.runners.Suite;
 	TestGridWorld.class,
 	TestPlanning.class,
 	TestBlockDude.class,
-	TestHashing.class
+	TestHashing.class,
+	TestBlocksWorld.class,
+	TestLearning.class,
+	TestVFA.class,
+	TestExperienceReplay.class,
+	TestExperiments.class
 })
 public class TestSuite {
 
@@ -0,0 +1,376 @@
+package burlap.testing;
+
+import burlap.behavior.functionapproximation.DifferentiableStateActionValue;
+import burlap.behavior.functionapproximation.FunctionGradient;
+import burlap.behavior.functionapproximation.ParametricFunction;
+import burlap.behavior.functionapproximation.PrimitiveSparseGradient;
+import burlap.behavior.functionapproximation.dense.DenseLinearVFA;
+import burlap.behavior.functionapproximation.dense.DenseStateFeatures;
+import burlap.behavior.functionapproximation.dense.FrozenDenseLinearVFA;
+import burlap.behavior.functionapproximation.dense.NumericVariableFeatures;
+import burlap.behavior.functionapproximation.sparse.FrozenLinearVFA;
+import burlap.behavior.functionapproximation.sparse.LinearVFA;
+import burlap.behavior.functionapproximation.sparse.tilecoding.HashedLinearVFA;
+import burlap.behavior.functionapproximation.sparse.tilecoding.HashedTileCodingFeatures;
+import burlap.behavior.functionapproximation.sparse.tilecoding.TileCodingFeatures;
+import burlap.behavior.functionapproximation.sparse.tilecoding.TilingArrangement;
+import burlap.behavior.policy.RandomPolicy;
+import burlap.behavior.singleagent.Episode;
+import burlap.behavior.singleagent.learning.experiencereplay.FixedSizeMemory;
+import burlap.behavior.singleagent.learning.experiencereplay.PrioritizedReplayMemory;
+import burlap.behavior.singleagent.learning.tdmethods.vfa.GradientDescentQLearning;
+import burlap.behavior.singleagent.learning.tdmethods.vfa.GradientDescentSarsaLam;
+import burlap.behavior.singleagent.planning.stochastic.valueiteration.ValueIteration;
+import burlap.debugtools.RandomFactory;
+import burlap.domain.singleagent.gridworld.state.GridWorldState;
+import burlap.domain.singleagent.mountaincar.MountainCar;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.ActionUtils;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.SimulatedEnvironment;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.oo.OOSADomain;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class TestVFA {
+	TestPlanning planningTest;
+	OOSADomain domain;
+	SimpleHashableStateFactory hashingFactory;
+
+	@Before
+	public void setup() {
+		this.planningTest = new TestPlanning();
+		this.planningTest.setup();
+		this.domain = this.planningTest.domain;
+		this.hashingFactory = this.planningTest.hashingFactory;
+	}
+
+	@Test
+	public void testBatchLinearVFA() {
+		GridWorldState initialState = this.planningTest.gridState(0, 0);
+		DenseStateFeatures features = this.planningTest.gridFeatures();
+		DenseLinearVFA vfa = new DenseLinearVFA(features, 0.);
+
+		RandomFactory.seedMapped(0, 42);
+		GradientDescentQLearning agent = new GradientDescentQLearning(domain, 0.99, vfa, 0.01);
+		agent.setExperienceReplay(new FixedSizeMemory(1000), 32);
+		agent.useStaleTarget(50);
+		SimulatedEnvironment env = new SimulatedEnvironment(domain, initialState);
+		for(int e = 0; e < 5; e++){
+			agent.runLearningEpisode(env, 500);
+			env.resetEnvironment();
+		}
+
+		ValueIteration vi = new ValueIteration(domain, 0.99, hashingFactory, 0.0001, 1);
+		vi.planFromState(initialState);
+		List<State> states = vi.getAllStates();
+		List<Action> actions = ActionUtils.allApplicableActionsForTypes(domain.getActionTypes(), initialState);
+
+		double [][] qs = vfa.evaluate(states, actions);
+		List<Action> pairedActions = new ArrayList<Action>();
+		for(int i = 0; i < states.size(); i++){
+			for(int j = 0; j < actions.size(); j++){
+				Assert.assertEquals(vfa.evaluate(states.get(i), actions.get(j)), qs[i][j], TestPlanning.delta);
+			}
+			pairedActions.add(actions.get(i % actions.size()));
+		}
+
+		FunctionGradient [] gradients = vfa.gradient(states, pairedActions);
+		double [] staleValues = agent.staleValues(states);
+		for(int i = 0; i < states.size(); i++){
+			FunctionGradient g = vfa.gradient(states.get(i), pairedActions.get(i));
+			Assert.assertEquals(g.getNonZeroPartialDerivatives(), gradients[i].getNonZeroPartialDerivatives());
+			Assert.assertEquals(agent.staleValue(states.get(i)), staleValues[i], TestPlanning.delta);
+		}
+
+		//the variables of primitive states are copied into a reused buffer; they match the boxed variable values
+		DenseLinearVFA variableVfa = new DenseLinearVFA(new NumericVariableFeatures(), 0.5);
+		double [][] variableQs = variableVfa.evaluate(states, actions);
+		for(int i = 0; i < states.size(); i++){
+			State s = states.get(i);
+			double sum = 0.;
+			for(Object key : s.variableKeys()){
+				sum += ((Number)s.get(key)).doubleValue();
+			}
+			for(int j = 0; j < actions.size(); j++){
+				Assert.assertEquals(0.5 * sum, variableQs[i][j], TestPlanning.delta);
+				Assert.assertEquals(0.5 * sum, variableVfa.evaluate(s, actions.get(j)), TestPlanning.delta);
+				double gradientSum = 0.;
+				for(FunctionGradient.PartialDerivative pd : variableVfa.gradient(s, actions.get(j)).getNonZeroPartialDerivatives()){
+					gradientSum += pd.value;
+				}
+				Assert.assertEquals(sum, gradientSum, TestPlanning.delta);
+			}
+		}
+	}
+
+	@Test
+	public void testBatchUpdate() {
+		GridWorldState initialState = this.planningTest.gridState(0, 0);
+		DenseStateFeatures features = this.planningTest.gridFeatures();
+
+		//a view of a linear VFA that does not support batches, so that its samples are updated one at a time
+		final DenseLinearVFA serialVfa = new DenseLinearVFA(features, 0.1);
+		DifferentiableStateActionValue serialView = new DifferentiableStateActionValue() {
+			@Override
+			public FunctionGradient gradient(State s, Action a) {
+				return serialVfa.gradient(s, a);
+			}
+
+			@Override
+			public double evaluate(State s, Action a) {
+				return serialVfa.evaluate(s, a);
+			}
+
+			@Override
+			public int numParameters() {
+				return serialVfa.numParameters();
+			}
+
+			@Override
+			public double getParameter(int i) {
+				return serialVfa.getParameter(i);
+			}
+
+			@Override
+			public void setParameter(int i, double p) {
+				serialVfa.setParameter(i, p);
+			}
+
+			@Override
+			public void resetParameters() {
+				serialVfa.resetParameters();
+			}
+
+			@Override
+			public ParametricFunction copy() {
+				return this;
+			}
+		};
+		DenseLinearVFA batchVfa = new DenseLinearVFA(features, 0.1);
+
+		//parameters are assigned to actions in the order the actions are first evaluated
+		for(Action a : ActionUtils.allApplicableActionsForTypes(domain.getActionTypes(), initialState)){
+			serialVfa.evaluate(initialState, a);
+			batchVfa.evaluate(initialState, a);
+		}
+
+		RandomFactory.seedMapped(0, 42);
+		List<EnvironmentOutcome> outcomes = new ArrayList<EnvironmentOutcome>();
+		SimulatedEnvironment env = new SimulatedEnvironment(domain, initialState);
+		RandomPolicy policy = new RandomPolicy(domain);
+		for(int t = 0; t < 100; t++){
+			outcomes.add(env.executeAction(policy.action(env.currentObservation())));
+		}
+
+		GradientDescentQLearning [] agents = new GradientDescentQLearning[]{
+				new GradientDescentQLearning(domain, 0.99, serialView, 0.1), new GradientDescentQLearning(domain, 0.99, batchVfa, 0.1)};
+		PrioritizedReplayMemory [] memories = new PrioritizedReplayMemory[2];
+		for(int i = 0; i < 2; i++){
+			memories[i] = new PrioritizedReplayMemory(100);
+			agents[i].setExperienceReplay(memories[i], 16);
+			for(EnvironmentOutcome eo : outcomes){
+				memories[i].addExperience(eo);
+			}
+		}
+
+		//after the first update, the samples have different priorities and importance sampling weights
+		for(int u = 0; u < 3; u++){
+			for(int i = 0; i < 2; i++){
+				RandomFactory.seedMapped(0, u);
+				agents[i].updateQFunction(memories[i].sampleExperiences(16));
+			}
+			Assert.assertArrayEquals(memories[0].lastSampleWeights(), memories[1].lastSampleWeights(), 0.);
+		}
+
+		Assert.assertEquals(serialVfa.numParameters(), batchVfa.numParameters());
+		for(int i = 0; i < batchVfa.numParameters(); i++){
+			Assert.assertEquals(serialVfa.getParameter(i), batchVfa.getParameter(i), 0.);
+		}
+		Assert.assertNotEquals(0.1, batchVfa.getParameter(0), TestPlanning.delta);
+	}
+
+	@Test
+	public void testFrozenVFA() throws InterruptedException {
+		GridWorldState initialState = this.planningTest.gridState(0, 0);
+		final ValueIteration vi = new ValueIteration(domain, 0.99, hashingFactory, 0.0001, 1);
+		vi.planFromState(initialState);
+		final List<State> states = vi.getAllStates();
+		final List<Action> actions = ActionUtils.allApplicableActionsForTypes(domain.getActionTypes(), initialState);
+
+		DenseStateFeatures features = this.planningTest.gridFeatures();
+
+		//set weights from the optimal values, leaving the last action unseen
+		DenseLinearVFA dvfa = new DenseLinearVFA(features, 0.5);
+		TileCodingFeatures tiles = new TileCodingFeatures(features);
+		tiles.addTilingsForAllDimensionsWithWidths(new double[]{1., 0.3, 0.3}, 3, TilingArrangement.UNIFORM);
+		LinearVFA lvfa = tiles.generateVFA(0.5);
+		for(State s : states.subList(0, states.size() / 2)){
+			for(Action a : actions.subList(0, actions.size() - 1)){
+				dvfa.evaluate(s, a);
+				lvfa.evaluate(s, a);
+				for(FunctionGradient.PartialDerivative pd : dvfa.gradient(s, a).getNonZeroPartialDerivatives()){
+					dvfa.setParameter(pd.parameterId, dvfa.getParameter(pd.parameterId) + 0.01 * vi.value(s));
+				}
+				for(FunctionGradient.PartialDerivative pd : lvfa.gradient(s, a).getNonZeroPartialDerivatives()){
+					lvfa.setParameter(pd.parameterId, vi.value(s));
+				}
+			}
+		}
+
+		final FrozenDenseLinearVFA fdvfa = dvfa.freeze();
+		final FrozenLinearVFA flvfa = lvfa.freeze();
+		int numWeights = lvfa.numParameters();
+		final double [][] expected = new double[states.size()][actions.size() * 2];
+		for(int i = 0; i < states.size(); i++){
+			for(int j = 0; j < actions.size(); j++){
+				expected[i][j] = fdvfa.evaluate(states.get(i), actions.get(j));
+				expected[i][actions.size() + j] = flvfa.evaluate(states.get(i), actions.get(j));
+			}
+		}
+
+		//snapshots agree with the source functions and are not changed by their later updates
+		for(int i = 0; i < states.size(); i++){
+			for(int j = 0; j < actions.size(); j++){
+				Assert.assertEquals(dvfa.evaluate(states.get(i), actions.get(j)), expected[i][j], TestPlanning.delta);
+				Assert.assertEquals(lvfa.evaluate(states.get(i), actions.get(j)), expected[i][actions.size() + j], TestPlanning.delta);
+			}
+		}
+		Assert.assertEquals(numWeights, flvfa.numParameters());
+		dvfa.resetParameters();
+		lvfa.resetParameters();
+
+		//concurrent evaluation
+		final boolean [] correct = new boolean[]{true};
+		Thread [] threads = new Thread[4];
+		for(int t = 0; t < threads.length; t++){
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for(int k = 0; k < 20; k++){
+						for(int i = 0; i < states.size(); i++){
+							for(int j = 0; j < actions.size(); j++){
+								if(Math.abs(fdvfa.evaluate(states.get(i), actions.get(j)) - expected[i][j]) > TestPlanning.delta
+										|| Math.abs(flvfa.evaluate(states.get(i), actions.get(j)) - expected[i][actions.size() + j]) > TestPlanning.delta){
+									correct[0] = false;
+								}
+							}
+						}
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread thread : threads){
+			thread.join();
+		}
+		Assert.assertTrue(correct[0]);
+	}
+
+	@Test
+	public void testHashedTileCoding() {
+		MountainCar mcGen = new MountainCar();
+		SADomain mcDomain = mcGen.generateDomain();
+		State mcInitial = mcGen.physParams.valleyState();
+		double [] widths = new double[]{(mcGen.physParams.xmax - mcGen.physParams.xmin) / 10., (mcGen.physParams.vmax - mcGen.physParams.vmin) / 10.};
+
+		//with a large table, hashed tiles should not collide, so learning should match identifier-assigned tiles
+		TileCodingFeatures tiles = new TileCodingFeatures(new NumericVariableFeatures());
+		tiles.addTilingsForAllDimensionsWithWidths(widths, 5, TilingArrangement.UNIFORM);
+		HashedTileCodingFeatures hashedTiles = new HashedTileCodingFeatures(new NumericVariableFeatures(), 1 << 20);
+		hashedTiles.addTilingsForAllDimensionsWithWidths(widths, 5, TilingArrangement.UNIFORM);
+
+		LinearVFA vfa = tiles.generateVFA(0.);
+		HashedLinearVFA hashedVfa = hashedTiles.generateHashedVFA(0.);
+		GradientDescentSarsaLam [] learners = new GradientDescentSarsaLam[2];
+		List<List<Episode>> episodes = new ArrayList<List<Episode>>();
+		for(int i = 0; i < 2; i++){
+			RandomFactory.seedMapped(0, 42);
+			learners[i] = new GradientDescentSarsaLam(mcDomain, 0.99, i == 0 ? vfa : hashedVfa, 0.02, 0.5);
+			SimulatedEnvironment env = new SimulatedEnvironment(mcDomain, mcInitial);
+			episodes.add(new ArrayList<Episode>());
+			for(int e = 0; e < 5; e++){
+				episodes.get(i).add(learners[i].runLearningEpisode(env, 2000));
+				env.resetEnvironment();
+			}
+		}
+
+		for(int e = 0; e < 5; e++){
+			Assert.assertEquals(episodes.get(0).get(e).numTimeSteps(), episodes.get(1).get(e).numTimeSteps());
+		}
+		List<Action> actions = ActionUtils.allApplicableActionsForTypes(mcDomain.getActionTypes(), mcInitial);
+		for(State s : episodes.get(0).get(4).stateSequence){
+			for(Action a : actions){
+				Assert.assertEquals(vfa.evaluate(s, a), hashedVfa.evaluate(s, a), TestPlanning.delta);
+			}
+		}
+		Assert.assertEquals(1 << 20, hashedVfa.numParameters());
+
+		//neighboring tiles hash to ids with about as few collisions as uniformly random ids (about 48 for 10000 tiles)
+		HashedTileCodingFeatures grid = new HashedTileCodingFeatures(new NumericVariableFeatures(), 1 << 20);
+		grid.addTilingsForAllDimensionsWithWidths(new double[]{1., 1.}, 1, TilingArrangement.UNIFORM);
+		Set<Integer> ids = new HashSet<Integer>();
+		int [] index = new int[1];
+		for(int x = 0; x < 100; x++){
+			for(int y = 0; y < 100; y++){
+				grid.tileIndices(new double[]{x + 0.5, y + 0.5}, 0, index);
+				ids.add(index[0]);
+			}
+		}
+		Assert.assertTrue(ids.size() > 9850);
+	}
+
+	@Test
+	public void testPrimitiveSparseGradient() {
+		Random rand = new Random(7);
+		PrimitiveSparseGradient g = new PrimitiveSparseGradient();
+		Map<Integer, Double> reference = new HashMap<Integer, Double>();
+		for(int k = 0; k < 5000; k++){
+			int id = rand.nextInt(200);
+			int op = rand.nextInt(3);
+			if(op == 0){
+				double v = rand.nextInt(4) == 0 ? 0. : rand.nextDouble();
+				g.put(id, v);
+				if(v == 0.){
+					reference.remove(id);
+				}
+				else{
+					reference.put(id, v);
+				}
+			}
+			else if(op == 1){
+				double v = rand.nextDouble();
+				g.add(id, v);
+				Double cur = reference.get(id);
+				reference.put(id, cur == null ? v : cur + v);
+			}
+			else if(g.size() > 0){
+				int i = rand.nextInt(g.size());
+				reference.remove(g.id(i));
+				g.remove(i);
+			}
+		}
+		Assert.assertEquals(reference.size(), g.size());
+		for(int id = 0; id < 200; id++){
+			Double v = reference.get(id);
+			Assert.assertEquals(v == null ? 0. : v, g.getPartialDerivative(id), TestPlanning.delta);
+		}
+
+		PrimitiveSparseGradient sum = new PrimitiveSparseGradient(g);
+		sum.addScaled(g, 2.);
+		Assert.assertEquals(3. * g.dot(g), sum.dot(g), TestPlanning.delta);
+	}
+
+}